@@ -308,17 +308,10 @@ public class BackupManager {
      * y no aparecer en el backup.
      */
     private void ejecutarCheckpointWAL() {
-        try (Connection conn = DatabaseManager.getConnection();
-             Statement stmt = conn.createStatement()) {
-            
-            logger.info("🔄 Ejecutando CHECKPOINT de WAL...");
-            stmt.execute("PRAGMA wal_checkpoint(TRUNCATE)");
-            logger.info("✅ CHECKPOINT completado - todos los cambios escritos al archivo principal");
-            
-        } catch (Exception e) {
-            logger.error("⚠️ Error ejecutando checkpoint WAL", e);
-            // Continuar de todas formas - el backup puede ser parcial pero es mejor que nada
-        }
+        logger.info("🔄 Ejecutando CHECKPOINT de WAL...");
+        // Queda registrado en las métricas del PlanificadorCheckpoint; si falla se
+        // continúa de todas formas - el backup puede ser parcial pero es mejor que nada
+        DatabaseManager.ejecutarCheckpointWAL();
     }
     
     /**
@@ -60,6 +60,13 @@ public class ConfigManager {
         props.setProperty("backup.keepLast", "7");
         props.setProperty("db.path", PortablePaths.getDatabaseFile().toString());
         props.setProperty("db.enabled", "true");
+        props.setProperty("db.verificacion.inicio", "diferida"); // "completa" = copia y verificación antes de abrir
+        props.setProperty("db.durabilidad", "paranoid"); // "balanced" | "throughput" (ver PerfilDurabilidad)
+        props.setProperty("db.checkpoint.intervaloMs", "1000");
+        props.setProperty("db.checkpoint.inactividadMs", "2000"); // PASSIVE tras este tiempo sin escrituras
+        props.setProperty("db.checkpoint.restartMB", "16");
+        props.setProperty("db.checkpoint.truncateMB", "64");
+        props.setProperty("db.metricas", "true"); // Tiempos por sentencia (ver MetricasBD)
         props.setProperty("workspace.projects", PortablePaths.getProyectosDir().toString());
         props.setProperty("app.theme", "light");
         props.setProperty("app.language", "es");
@@ -164,6 +164,10 @@ public final class PortablePaths {
     // ── Logs ──
     public static Path getLogsDir() { return DATA_ROOT.resolve("logs"); }
 
+    // ── Caché de escaneo ──
+    public static Path getCacheDir() { return DATA_ROOT.resolve("cache"); }
+    public static Path getIndicePortablesFile() { return getCacheDir().resolve("indice_portables.json"); }
+
     // ── Proyectos / Excel ──
     /** Carpeta donde se almacenan los archivos Excel de los proyectos (OCULTA dentro de .datos) */
     public static Path getProyectosDir() { return DATA_ROOT.resolve("proyectos"); }
@@ -0,0 +1,354 @@
+package inventario.fx.core;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import inventario.fx.config.PortablePaths;
+import inventario.fx.database.BancoDurabilidad;
+import inventario.fx.database.DatabaseManager;
+import inventario.fx.model.AdminManager;
+import inventario.fx.database.repository.InventarioRepository;
+import inventario.fx.model.InventarioFXBase;
+import inventario.fx.service.IngestaMasiva;
+
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Escaneo sin interfaz gráfica, para scripts de inicio de sesión y despliegues masivos.
+ *
+ * <pre>
+ *   java -jar inventario.jar --scan --project "Mesa de servicios" [--out json] [--no-export] [--simular=ID_PERFIL]
+ *   java -jar inventario.jar --ingest &lt;directorio&gt; --project "Mesa de servicios" [--out json]
+ *   java -jar inventario.jar --fleet 10000 [--seed 42] [--to json|sqlite|workbook] [--file flota.json] [--project N]
+ *   java -jar inventario.jar --durability-bench [transacciones]
+ * </pre>
+ *
+ * <p>{@code --scan} vuelca el escaneo al Excel del proyecto antes de terminar; con
+ * {@code --no-export} solo lo guarda en SQLite (más rápido en scripts de inicio de sesión) y
+ * el Excel se actualiza en la siguiente exportación (al abrir la aplicación o el proyecto).
+ *
+ * <p>{@code --ingest} carga por lotes los escaneos JSON recogidos en otros equipos
+ * ({@link IngestaMasiva}) y exporta el Excel del proyecto una sola vez al terminar.
+ * {@code --fleet} genera una flota sintética reproducible ({@link SimuladorEntorno#generarFlota})
+ * y la escribe en un JSON, en SQLite o en el Excel del proyecto, para pruebas de carga.
+ * {@code --durability-bench} mide commits/s y latencia p99 de cada perfil de durabilidad en el
+ * disco de la base de datos ({@link BancoDurabilidad}); no necesita proyecto.
+ *
+ * <p>Solo inicializa {@link PortablePaths}, {@link DatabaseManager} y el escaneo: no se
+ * carga JavaFX, ni la pantalla de bienvenida, ni los temas. El proyecto se indica por
+ * nombre (sin distinguir mayúsculas) o por su número en la lista de proyectos activos.
+ *
+ * <p>Durante toda la ejecución {@code System.out} apunta a stderr: los logs y los mensajes
+ * de inicialización de otras clases no se mezclan con el resultado, que es lo único que se
+ * escribe en la salida estándar (con {@code --out json}, un documento JSON válido).
+ *
+ * <p>Códigos de salida: 0 guardado, 1 error al guardar, 2 argumentos inválidos.
+ *
+ * @author SELCOMP
+ * @version 1.0
+ * @since 2026-01-14
+ */
+public final class EscaneoCli extends InventarioFXBase {
+
+    public static final String ARG_ESCANEO = "--scan";
+    public static final String ARG_INGESTA = "--ingest";
+    public static final String ARG_FLOTA = "--fleet";
+    public static final String ARG_BANCO_DURABILIDAD = "--durability-bench";
+    public static final String ARG_SIN_EXPORTAR = "--no-export";
+
+    /** Equipos por transacción al volcar una flota sintética en SQLite */
+    private static final int LOTE_FLOTA = 1000;
+
+    /** Salida estándar original, reservada para el resultado */
+    private static PrintStream salida = System.out;
+
+    private EscaneoCli() {} // Utility class
+
+    /** Indica si los argumentos piden el modo sin interfaz. */
+    public static boolean solicitado(String[] args) {
+        for (String arg : args) {
+            if (ARG_ESCANEO.equals(arg) || ARG_INGESTA.equals(arg) || ARG_FLOTA.equals(arg)
+                    || ARG_BANCO_DURABILIDAD.equals(arg)) return true;
+        }
+        return false;
+    }
+
+    /**
+     * Ejecuta el escaneo (o la ingesta, o la generación de flota) y devuelve el código de salida del proceso.
+     */
+    public static int ejecutar(String[] args) {
+        salida = System.out;
+        System.setOut(System.err);
+        try {
+            return ejecutarConSalidaReservada(args);
+        } finally {
+            salida.flush();
+            System.setOut(salida);
+        }
+    }
+
+    private static int ejecutarConSalidaReservada(String[] args) {
+        long inicio = System.nanoTime();
+        String proyecto = null;
+        Path ingesta = null;
+        boolean json = false;
+        boolean exportar = true;
+        int flota = 0;
+        long semilla = 42;
+        String destinoFlota = "json";
+        Path archivoFlota = null;
+        int banco = 0;
+        try {
+            for (int i = 0; i < args.length; i++) {
+                String arg = args[i];
+                if (ARG_INGESTA.equals(arg) && i + 1 < args.length) {
+                    ingesta = Paths.get(args[++i]);
+                } else if (ARG_FLOTA.equals(arg) && i + 1 < args.length) {
+                    flota = Integer.parseInt(args[++i].replace("_", ""));
+                } else if (ARG_BANCO_DURABILIDAD.equals(arg)) {
+                    banco = i + 1 < args.length && !args[i + 1].startsWith("--")
+                        ? Integer.parseInt(args[++i].replace("_", "")) : BancoDurabilidad.TRANSACCIONES_DEFECTO;
+                } else if ("--seed".equals(arg) && i + 1 < args.length) {
+                    semilla = Long.parseLong(args[++i]);
+                } else if ("--to".equals(arg) && i + 1 < args.length) {
+                    destinoFlota = args[++i].toLowerCase(Locale.ROOT);
+                } else if ("--file".equals(arg) && i + 1 < args.length) {
+                    archivoFlota = Paths.get(args[++i]);
+                } else if ("--project".equals(arg) && i + 1 < args.length) {
+                    proyecto = args[++i];
+                } else if ("--out".equals(arg) && i + 1 < args.length) {
+                    json = "json".equalsIgnoreCase(args[++i]);
+                } else if (ARG_SIN_EXPORTAR.equals(arg)) {
+                    exportar = false;
+                } else if (arg.startsWith("--simular=")) {
+                    SimuladorEntorno.activar(arg.substring("--simular=".length()));
+                }
+            }
+        } catch (NumberFormatException e) {
+            System.err.println("⚠️ Número inválido: " + e.getMessage());
+            return 2;
+        }
+        if (banco > 0) {
+            return medirDurabilidad(banco);
+        }
+        if (flota > 0 && "json".equals(destinoFlota)) {
+            // A JSON no hace falta base de datos ni proyecto
+            return generarFlotaJson(flota, semilla,
+                archivoFlota != null ? archivoFlota : Paths.get("flota_" + flota + "_" + semilla + ".json"));
+        }
+        if (proyecto == null || proyecto.isBlank()) {
+            System.err.println("Uso: --scan --project <nombre|número> [--out json] [--no-export]");
+            System.err.println("     --ingest <directorio> --project <nombre|número> [--out json]");
+            System.err.println("     --fleet <n> [--seed s] [--to json|sqlite|workbook] [--file ruta] [--project <nombre|número>]");
+            System.err.println("     --durability-bench [transacciones]");
+            return 2;
+        }
+        if (ingesta != null && !Files.isDirectory(ingesta)) {
+            System.err.println("⚠️ No es un directorio: " + ingesta);
+            return 2;
+        }
+
+        try {
+            PortablePaths.inicializar();
+        } catch (Exception e) {
+            System.err.println("❌ Error inicializando rutas portables: " + e.getMessage());
+        }
+        DatabaseManager.initialize();
+
+        String seleccionado = seleccionarProyecto(proyecto);
+        if (seleccionado == null) {
+            System.err.println("⚠️ Proyecto no encontrado: " + proyecto);
+            System.err.println("Proyectos activos: " + String.join(", ", AdminManager.getNombresProyectos()));
+            return 2;
+        }
+        CURRENT_PROJECT = seleccionado;
+
+        if (flota > 0) {
+            if (!"sqlite".equals(destinoFlota) && !"workbook".equals(destinoFlota)) {
+                System.err.println("⚠️ Destino no soportado: " + destinoFlota);
+                return 2;
+            }
+            int codigo = generarFlotaProyecto(flota, semilla, seleccionado, "workbook".equals(destinoFlota));
+            DatabaseManager.shutdown();
+            return codigo;
+        }
+
+        if (ingesta != null) {
+            int codigo = ingerir(ingesta, seleccionado, json);
+            DatabaseManager.shutdown();
+            return codigo;
+        }
+
+        InfoPC info = recopilarInfoConProgreso(msg -> logger.debug("[CLI] " + msg));
+        boolean guardado = guardarInventarioProyecto(info);
+        if (guardado && exportar) {
+            exportarEscaneo(obtenerRutaExcel(seleccionado));
+        }
+        long ms = (System.nanoTime() - inicio) / 1_000_000;
+
+        if (json) {
+            imprimirJson(seleccionado, info, guardado, ms);
+        } else {
+            salida.println((guardado ? "✅ " : "❌ ") + info.hostname + " → " + seleccionado
+                + " (" + ms + " ms)");
+        }
+        DatabaseManager.shutdown();
+        return guardado ? 0 : 1;
+    }
+
+    /**
+     * Vuelca al Excel el escaneo recién guardado, como haría el compactador de la interfaz.
+     * Si falla, el escaneo sigue en SQLite y se exporta la próxima vez.
+     */
+    private static void exportarEscaneo(Path rutaExcel) {
+        try {
+            if (tieneEscaneosPendientes(rutaExcel) && !exportarPendientesExcel(rutaExcel)) {
+                System.err.println("⚠️ Escaneo guardado, pero no se pudo actualizar el Excel: " + rutaExcel.getFileName());
+            }
+        } catch (Exception e) {
+            System.err.println("⚠️ Escaneo guardado, pero no se pudo actualizar el Excel: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Carga un directorio de escaneos JSON en el proyecto actual y vuelca el Excel una vez.
+     */
+    private static int ingerir(Path directorio, String proyecto, boolean json) {
+        Path rutaExcel = obtenerRutaExcel(proyecto);
+        AdminManager.Proyecto p = AdminManager.getProyectoPorIndice(Integer.parseInt(proyecto.split("\\.")[0].trim()) - 1);
+        try {
+            IngestaMasiva.Resumen resumen = new IngestaMasiva().ingerir(directorio, p.getId(), claveRuta(rutaExcel),
+                msg -> { if (!json) System.err.println("… " + msg); });
+            boolean exportado = exportarPendientesExcel(rutaExcel);
+            if (json) {
+                Map<String, Object> documento = new LinkedHashMap<>();
+                documento.put("proyecto", proyecto);
+                documento.put("exportado", exportado);
+                documento.put("resumen", resumen);
+                documento.put("registrosPorSegundo", Math.round(resumen.registrosPorSegundo()));
+                salida.println(new ObjectMapper().writeValueAsString(documento));
+            } else {
+                salida.println((exportado ? "✅ " : "⚠️ ") + resumen);
+            }
+            return exportado ? 0 : 1;
+        } catch (Exception e) {
+            System.err.println("❌ Error en la ingesta: " + e.getMessage());
+            return 1;
+        }
+    }
+
+    private static int generarFlotaJson(int cantidad, long semilla, Path destino) {
+        long inicio = System.nanoTime();
+        try {
+            int escritos = SimuladorEntorno.escribirFlotaJson(SimuladorEntorno.generarFlota(cantidad, semilla), destino);
+            imprimirRitmo(escritos, inicio, destino.toAbsolutePath().toString());
+            return 0;
+        } catch (Exception e) {
+            System.err.println("❌ Error generando la flota: " + e.getMessage());
+            return 1;
+        }
+    }
+
+    /**
+     * Guarda una flota sintética en SQLite en lotes de {@link #LOTE_FLOTA} y, si se pide,
+     * la exporta al Excel del proyecto en una sola pasada.
+     */
+    private static int generarFlotaProyecto(int cantidad, long semilla, String proyecto, boolean excel) {
+        long inicio = System.nanoTime();
+        Path rutaExcel = obtenerRutaExcel(proyecto);
+        AdminManager.Proyecto p = AdminManager.getProyectoPorIndice(Integer.parseInt(proyecto.split("\\.")[0].trim()) - 1);
+        InventarioRepository repositorio = new InventarioRepository();
+        List<InfoPC> lote = new ArrayList<>(LOTE_FLOTA);
+        int guardados = 0;
+        try {
+            Iterator<InfoPC> it = SimuladorEntorno.generarFlota(cantidad, semilla).iterator();
+            while (it.hasNext()) {
+                lote.add(it.next());
+                if (lote.size() == LOTE_FLOTA || !it.hasNext()) {
+                    repositorio.registrarEscaneos(p.getId(), claveRuta(rutaExcel), lote);
+                    guardados += lote.size();
+                    lote.clear();
+                    System.err.println("… " + guardados + " / " + cantidad);
+                }
+            }
+            imprimirRitmo(guardados, inicio, "SQLite (" + proyecto + ")");
+            if (excel) {
+                long inicioExcel = System.nanoTime();
+                boolean exportado = exportarPendientesExcel(rutaExcel);
+                imprimirRitmo(guardados, inicioExcel, rutaExcel.getFileName().toString());
+                return exportado ? 0 : 1;
+            }
+            return 0;
+        } catch (Exception e) {
+            System.err.println("❌ Error guardando la flota: " + e.getMessage());
+            return 1;
+        }
+    }
+
+    /**
+     * Mide los perfiles de durabilidad en bases temporales; la base real no se abre.
+     */
+    private static int medirDurabilidad(int transacciones) {
+        try {
+            PortablePaths.inicializar();
+        } catch (Exception e) {
+            System.err.println("❌ Error inicializando rutas portables: " + e.getMessage());
+        }
+        try {
+            System.err.println("… " + transacciones + " transacciones por perfil");
+            salida.println(BancoDurabilidad.informe(BancoDurabilidad.medir(transacciones)));
+            return 0;
+        } catch (Exception e) {
+            System.err.println("❌ Error midiendo la durabilidad: " + e.getMessage());
+            return 1;
+        }
+    }
+
+    private static void imprimirRitmo(int registros, long inicioNanos, String destino) {
+        long ms = Math.max(1, (System.nanoTime() - inicioNanos) / 1_000_000);
+        salida.println(String.format(Locale.ROOT, "✅ %d equipos → %s en %d ms (%.0f reg/s)",
+            registros, destino, ms, registros * 1000.0 / ms));
+    }
+
+    /**
+     * Busca el proyecto activo por número o por nombre.
+     *
+     * @return Nombre formateado ("N. Nombre") tal como lo usa CURRENT_PROJECT, o null
+     */
+    private static String seleccionarProyecto(String buscado) {
+        List<AdminManager.Proyecto> activos = AdminManager.getProyectosActivos();
+        String texto = buscado.trim();
+        for (int i = 0; i < activos.size(); i++) {
+            String nombre = activos.get(i).getNombre();
+            String formateado = (i + 1) + ". " + nombre;
+            if (texto.equals(String.valueOf(i + 1)) || texto.equalsIgnoreCase(nombre)
+                    || texto.equalsIgnoreCase(formateado)) {
+                return formateado;
+            }
+        }
+        return null;
+    }
+
+    private static void imprimirJson(String proyecto, InfoPC info, boolean guardado, long ms) {
+        Map<String, Object> documento = new LinkedHashMap<>();
+        documento.put("proyecto", proyecto);
+        documento.put("guardado", guardado);
+        documento.put("duracionMs", ms);
+        documento.put("equipo", info);
+        try {
+            salida.println(new ObjectMapper()
+                .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+                .writeValueAsString(documento));
+        } catch (Exception e) {
+            System.err.println("❌ No se pudo generar el JSON: " + e.getMessage());
+        }
+    }
+}
@@ -411,6 +411,13 @@ public class InventarioFX extends InventarioFXBase {
         stage.centerOnScreen();
         stage.show();
 
+        // Verificación completa de la BD y copia pre-inicio en segundo plano, con la ventana ya visible
+        inventario.fx.database.DatabaseManager.iniciarVerificacionDiferida(problema ->
+            Platform.runLater(() -> mostrarRecuperacionBaseDatos(stage, problema)));
+
+        // Escaneos que una sesión anterior dejó sin volcar al Excel, y volcado al cerrar
+        InventarioFXBase.iniciarExportacionPendientes();
+
         // Animación de entrada premium: sidebar slide + contenido fade/slide
         BorderPane bp = (BorderPane) rootStack.getChildren().get(0);
         javafx.scene.Node sidebarNode = bp.getLeft();
@@ -451,6 +458,33 @@ public class InventarioFX extends InventarioFXBase {
         }
     }
 
+    /**
+     * Avisa de un problema encontrado por la verificación diferida de la base de datos y
+     * ofrece restaurar la copia pre-inicio de la última sesión sana.
+     */
+    private static void mostrarRecuperacionBaseDatos(Stage owner, String problema) {
+        if (!inventario.fx.database.DatabaseManager.hayCopiaPreInicio()) {
+            DialogosFX.mostrarAlerta(owner, "Problema en la base de datos",
+                problema + "\n\nNo hay copia pre-inicio disponible. Restaure un backup desde " +
+                "Administración → Mantenimiento.", Alert.AlertType.ERROR);
+            return;
+        }
+        boolean restaurar = DialogosFX.confirmarAccion(owner, "Problema en la base de datos",
+            problema + "\n\n¿Restaurar la copia tomada al inicio de la última sesión sin errores?\n" +
+            "Los cambios posteriores a esa copia se perderán; la base actual se conserva como .corrupted.");
+        if (!restaurar) return;
+
+        new Thread(() -> {
+            boolean ok = inventario.fx.database.DatabaseManager.recuperarDesdeCopiaPreInicio();
+            if (ok) AdminManager.recargarProyectos();
+            Platform.runLater(() -> DialogosFX.mostrarAlerta(owner,
+                ok ? "Base de datos restaurada" : "Error en la recuperación",
+                ok ? "Se restauró la copia pre-inicio. Se recomienda reiniciar la aplicación."
+                   : "No se pudo restaurar la copia pre-inicio. Revise los logs.",
+                ok ? Alert.AlertType.INFORMATION : Alert.AlertType.ERROR));
+        }, "DB-Recuperacion").start();
+    }
+
     // ════════════════════════════════════════════════════════════════════════════
     // SIDEBAR DEL MENÚ
     // ════════════════════════════════════════════════════════════════════════════
@@ -1430,6 +1464,7 @@ public class InventarioFX extends InventarioFXBase {
             VBox projectItem = crearItemProyectoAdmin(proyecto, i);
             projectItem.setOnMouseClicked(e -> {
                 CURRENT_PROJECT = nombreFormateado;
+                InventarioFXBase.exportarPendientesProyecto(nombreFormateado);
                 // Obtener datos actualizados del proyecto específico sin recargar toda la lista
                 // Esto preserva el orden de los proyectos
                 AdminManager.Proyecto proyectoActualizado = AdminManager.getProyectoPorId(proyectoId);
@@ -3868,7 +3903,7 @@ public class InventarioFX extends InventarioFXBase {
                     updateMessage("Escribiendo datos en Excel...");
                     updateProgress(11, TOTAL_PASOS);
                     
-                    boolean resultado = guardarEnExcelCifradoProyecto(infoHolder[0]);
+                    boolean resultado = guardarInventarioProyecto(infoHolder[0]);
                     
                     updateMessage("Cifrando y guardando archivo...");
                     updateProgress(12, TOTAL_PASOS);
@@ -4632,18 +4667,10 @@ public class InventarioFX extends InventarioFXBase {
             // Copiar datos de equipos Y guardar en SQLite
             System.out.println("[Importar] Guardando equipos en SQLite...");
             
-            // IMPORTANTE: Usar una sola conexión para todos los inserts (más eficiente)
-            java.sql.Connection conn = null;
-            java.sql.PreparedStatement stmt = null;
+            // Las filas se reúnen aquí y se insertan todas en una transacción del escritor
+            List<String[]> filasSql = new ArrayList<>();
             
             try {
-                conn = inventario.fx.database.DatabaseManager.getConnection();
-                stmt = conn.prepareStatement(
-                    "INSERT INTO inventarios (id, proyecto_id, fecha, usuario, hostname, sistema, " +
-                    "fabricante, modelo, serie, placa, procesador, tarjeta_grafica, memoria_ram, " +
-                    "disco_duro, num_discos, ip, fecha_escaneo) " +
-                    "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)");
-                
                 for (int i = filaInicioDatos; i <= hojaOrigenSys.getLastRowNum(); i++) {
                     Row filaOrigen = hojaOrigenSys.getRow(i);
                     if (filaOrigen == null) continue;
@@ -4697,26 +4724,26 @@ public class InventarioFX extends InventarioFXBase {
                     // Preparar INSERT para este equipo
                     try {
                         String equipoId = java.util.UUID.randomUUID().toString().substring(0, 8);
-                        stmt.setString(1, equipoId);
-                        stmt.setString(2, proyectoId);
-                        stmt.setString(3, fecha != null ? fecha : "");
-                        stmt.setString(4, usuario != null ? usuario : "");
-                        stmt.setString(5, hostname != null ? hostname : "");
-                        stmt.setString(6, tipo != null ? tipo : "");
-                        stmt.setString(7, marca != null ? marca : "");
-                        stmt.setString(8, modelo != null ? modelo : "");
-                        stmt.setString(9, serie != null ? serie : "");
-                        stmt.setString(10, placa != null ? placa : "");
-                        stmt.setString(11, cpu != null ? cpu : "");
-                        stmt.setString(12, gpu != null ? gpu : "");
-                        stmt.setString(13, ram != null ? ram : "");
-                        stmt.setString(14, discos != null ? discos : "");
-                        stmt.setString(15, numDiscos != null ? numDiscos : "");
-                        stmt.setString(16, ip != null ? ip : "");
-                        stmt.setString(17, fecha != null && !fecha.isEmpty() ? fecha : 
-                            java.time.LocalDateTime.now().format(java.time.format.DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss")));
-                        
-                        stmt.addBatch(); // Agregar a batch para ejecutar todos juntos
+                        filasSql.add(new String[] {
+                            equipoId,
+                            proyectoId,
+                            fecha != null ? fecha : "",
+                            usuario != null ? usuario : "",
+                            hostname != null ? hostname : "",
+                            tipo != null ? tipo : "",
+                            marca != null ? marca : "",
+                            modelo != null ? modelo : "",
+                            serie != null ? serie : "",
+                            placa != null ? placa : "",
+                            cpu != null ? cpu : "",
+                            gpu != null ? gpu : "",
+                            ram != null ? ram : "",
+                            discos != null ? discos : "",
+                            numDiscos != null ? numDiscos : "",
+                            ip != null ? ip : "",
+                            fecha != null && !fecha.isEmpty() ? fecha :
+                                java.time.LocalDateTime.now().format(java.time.format.DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss"))
+                        });
                         
                         if (filasCopiadas == 0) {
                             System.out.println("[Importar] ✓ Primer equipo preparado para inserción");
@@ -4737,24 +4764,32 @@ public class InventarioFX extends InventarioFXBase {
                 }
                 
                 // Ejecutar TODOS los inserts de una vez (batch)
-                if (filasCopiadas > 0) {
-                    System.out.println("[Importar] Ejecutando batch insert de " + filasCopiadas + " equipos...");
+                if (!filasSql.isEmpty()) {
+                    System.out.println("[Importar] Ejecutando batch insert de " + filasSql.size() + " equipos...");
                     System.out.flush();
-                    int[] results = stmt.executeBatch();
-                    int exitosos = 0;
-                    for (int r : results) {
-                        if (r > 0) exitosos++;
-                    }
+                    int exitosos = inventario.fx.database.DatabaseManager.executeWithRetry(conn -> {
+                        try (java.sql.PreparedStatement stmt = conn.prepareStatement(
+                                "INSERT INTO inventarios (id, proyecto_id, fecha, usuario, hostname, sistema, " +
+                                "fabricante, modelo, serie, placa, procesador, tarjeta_grafica, memoria_ram, " +
+                                "disco_duro, num_discos, ip, fecha_escaneo) " +
+                                "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)")) {
+                            for (String[] fila : filasSql) {
+                                for (int c = 0; c < fila.length; c++) stmt.setString(c + 1, fila[c]);
+                                stmt.addBatch();
+                            }
+                            int insertados = 0;
+                            for (int r : stmt.executeBatch()) {
+                                if (r > 0) insertados++;
+                            }
+                            return insertados;
+                        }
+                    });
                     System.out.println("[Importar] ✓ " + exitosos + " de " + filasCopiadas + " equipos guardados exitosamente en SQLite");
                     System.out.flush();
                 }
                 
             } catch (Exception e) {
                 AppLogger.getLogger(InventarioFX.class).error("[Importar] ✗ ERROR en batch insert: " + e.getMessage(), e);
-            } finally {
-                // Cerrar recursos
-                if (stmt != null) try { stmt.close(); } catch (Exception e) {}
-                if (conn != null) try { conn.close(); } catch (Exception e) {}
             }
             
             // Ajustar hoja SystemInfo
@@ -18,6 +18,9 @@ import java.util.zip.ZipInputStream;
  * extrae automáticamente el JRE portátil empotrado ({@code jre.zip}) y lo oculta.
  * En ejecuciones posteriores, Launch4j encuentra {@code ./jre} y lo usa directo.
  * </p>
+ * <p>
+ * Con {@code --scan} ejecuta un escaneo sin interfaz ({@link EscaneoCli}) y termina.
+ * </p>
  */
 public class Launcher {
 
@@ -26,6 +29,10 @@ public class Launcher {
 
     public static void main(String[] args) {
         extractJreIfNeeded();
+        // Modo sin interfaz: no se carga ninguna clase de JavaFX
+        if (EscaneoCli.solicitado(args)) {
+            System.exit(EscaneoCli.ejecutar(args));
+        }
         MainApp.main(args);
     }
 
@@ -60,6 +60,11 @@ public class MainApp extends Application {
     public static void main(String[] args) {
         // Desactivar logs de debug de JNA
         System.setProperty("jna.debug_load", "false");
+
+        // Escaneo sin interfaz (--scan): no se inicia el toolkit de JavaFX
+        if (EscaneoCli.solicitado(args)) {
+            System.exit(EscaneoCli.ejecutar(args));
+        }
         
         // ═══════════════════════════════════════════════════════════════════
         // INICIALIZACIÓN PORTABLE: Crear estructura de carpetas junto al EXE
@@ -3,9 +3,20 @@ import inventario.fx.model.InventarioFXBase;
 
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SequenceWriter;
 
+import java.io.IOException;
 import java.io.InputStream;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
 import java.util.*;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
 
 /**
  * Simulador de entorno para pruebas de la aplicación de inventario.
@@ -21,6 +32,13 @@ import java.util.*;
  * <p>Los perfiles de simulación se cargan desde archivos JSON en
  * {@code /simulacion/} dentro de los recursos de la aplicación.
  *
+ * <p>Además genera flotas sintéticas reproducibles ({@link #generarFlota(int, long)}) para
+ * medir el dashboard, las estadísticas y las exportaciones con miles de equipos:
+ * <pre>
+ *   java -jar inventario.jar --fleet 10000 --seed 42 --to json --file flota.json
+ *   java -jar inventario.jar --fleet 100000 --seed 42 --to sqlite --project 1
+ * </pre>
+ *
  * @author SELCOMP
  * @version 1.0
  * @since 2026-01-14
@@ -261,4 +279,209 @@ public class SimuladorEntorno {
         perfiles.values().forEach(p -> nombres.add(p.id + " → " + p.nombre));
         return nombres;
     }
+
+    // ════════════════════════════════════════════════════════════════════════════
+    // FLOTA SINTÉTICA
+    // ════════════════════════════════════════════════════════════════════════════
+
+    /** Fecha de referencia de la flota: fija para que la misma semilla dé los mismos datos */
+    private static final LocalDate FECHA_BASE_FLOTA = LocalDate.of(2026, 1, 1);
+    private static final DateTimeFormatter FORMATO_INSTALACION = DateTimeFormatter.ofPattern("yyyyMMdd");
+
+    /** {fabricante, modelo, tipo de dispositivo} */
+    private static final String[][] EQUIPOS = {
+        {"Dell Inc.", "OptiPlex 7010", "Desktop"}, {"Dell Inc.", "Latitude 5440", "Laptop"},
+        {"Dell Inc.", "PowerEdge R750", "Server"}, {"HP", "EliteDesk 800 G9", "Desktop"},
+        {"HP", "ProBook 450 G10", "Laptop"}, {"HP", "ProLiant DL380 Gen11", "Server"},
+        {"LENOVO", "ThinkCentre M70q", "Desktop"}, {"LENOVO", "ThinkPad T14 Gen 4", "Laptop"},
+        {"ASUS", "ExpertCenter D7", "Desktop"}, {"Acer", "TravelMate P2", "Laptop"},
+        {"Apple Inc.", "MacBookPro18,3", "Laptop"}, {"Apple Inc.", "Mac14,3", "Desktop"}
+    };
+
+    private static final String[] SISTEMAS_WINDOWS = {
+        "Microsoft Windows 10 Pro 22H2", "Microsoft Windows 11 Pro 22H2", "Microsoft Windows 11 Pro 23H2",
+        "Microsoft Windows 11 Enterprise 23H2", "Microsoft Windows 10 Enterprise LTSC 2021"
+    };
+    private static final String[] SISTEMAS_SERVIDOR = {
+        "Windows Server 2019 Standard", "Windows Server 2022 Standard", "Windows Server 2022 Datacenter"
+    };
+    private static final String[] SISTEMAS_MAC = {"macOS Ventura 13.6", "macOS Sonoma 14.2.1", "macOS Sonoma 14.4"};
+
+    private static final String[] CPUS = {
+        "Intel(R) Core(TM) i5-10500 CPU @ 3.10GHz", "Intel(R) Core(TM) i5-12500", "Intel(R) Core(TM) i7-1265U",
+        "Intel(R) Core(TM) i7-13700", "AMD Ryzen 5 PRO 5650G", "AMD Ryzen 7 PRO 7840U"
+    };
+    private static final String[] CPUS_SERVIDOR = {
+        "Intel Xeon Gold 6348 28-Core 2.60 GHz", "Intel Xeon Silver 4314 16-Core 2.40 GHz", "AMD EPYC 7313 16-Core"
+    };
+    private static final String[] GPUS = {
+        "Intel(R) UHD Graphics 770", "Intel(R) Iris(R) Xe Graphics", "AMD Radeon Graphics",
+        "NVIDIA GeForce GTX 1650", "NVIDIA T400 4GB"
+    };
+    private static final int[] RAM_GB = {8, 8, 16, 16, 16, 32, 64};
+    private static final String[] NOMBRES = {"ana", "carlos", "diana", "jorge", "laura", "luis", "maria", "pedro", "sofia", "andres"};
+    private static final String[] APELLIDOS = {"gomez", "rodriguez", "martinez", "lopez", "garcia", "perez", "sanchez", "ramirez", "torres", "diaz"};
+
+    /** {nombre, versión, fabricante} */
+    private static final String[][] APPS_WINDOWS = {
+        {"Google Chrome", "120.0.6099", "Google LLC"}, {"Mozilla Firefox", "121.0", "Mozilla"},
+        {"Microsoft Edge", "120.0.2210", "Microsoft Corporation"}, {"Microsoft 365 Apps for enterprise", "16.0.17126", "Microsoft Corporation"},
+        {"Microsoft Teams", "1.6.00", "Microsoft Corporation"}, {"Adobe Acrobat Reader DC", "23.008.20421", "Adobe"},
+        {"7-Zip 23.01 (x64)", "23.01", "Igor Pavlov"}, {"VLC media player", "3.0.20", "VideoLAN"},
+        {"Zoom", "5.17.1", "Zoom Video Communications, Inc."}, {"AnyDesk", "8.0.6", "AnyDesk Software GmbH"},
+        {"Java 8 Update 391", "8.0.3910", "Oracle Corporation"}, {"Notepad++ (64-bit x64)", "8.6", "Notepad++ Team"},
+        {"Microsoft Visual C++ 2015-2022 Redistributable (x64)", "14.38.33130", "Microsoft Corporation"},
+        {"Microsoft .NET Runtime - 6.0.25 (x64)", "6.0.25", "Microsoft Corporation"},
+        {"ESET Endpoint Security", "10.1.2046", "ESET, spol. s r.o."}, {"FortiClient VPN", "7.2.3", "Fortinet"},
+        {"Git", "2.43.0", "The Git Development Community"}, {"Python 3.12.1 (64-bit)", "3.12.1", "Python Software Foundation"},
+        {"Microsoft Visual Studio Code", "1.85.1", "Microsoft Corporation"}, {"WinRAR 6.24 (64-bit)", "6.24", "win.rar GmbH"},
+        {"TeamViewer", "15.49.2", "TeamViewer"}, {"PDF24 Creator", "11.15.1", "geek software GmbH"},
+        {"Intel(R) Management Engine Components", "2241.4.44", "Intel Corporation"}, {"Realtek Audio Driver", "6.0.9549", "Realtek Semiconductor Corp."}
+    };
+    private static final String[][] APPS_SERVIDOR = {
+        {"Microsoft SQL Server 2022 (64-bit)", "16.0.1000", "Microsoft Corporation"}, {"IIS URL Rewrite Module 2", "7.2.1993", "Microsoft Corporation"},
+        {"Microsoft .NET Runtime - 8.0.0 (x64)", "8.0.0", "Microsoft Corporation"}, {"PowerShell 7-x64", "7.4.0", "Microsoft Corporation"},
+        {"Veeam Agent for Microsoft Windows", "6.0.2", "Veeam Software Group GmbH"}, {"Zabbix Agent 2 (64-bit)", "6.4.10", "Zabbix SIA"},
+        {"Dell OpenManage Server Administrator", "11.0.0", "Dell Inc."}, {"7-Zip 23.01 (x64)", "23.01", "Igor Pavlov"}
+    };
+    private static final String[][] APPS_MAC = {
+        {"Safari", "17.2", "Apple Inc."}, {"Google Chrome", "120.0.6099", "Google LLC"}, {"Microsoft Word", "16.80", "Microsoft Corporation"},
+        {"Microsoft Excel", "16.80", "Microsoft Corporation"}, {"Slack", "4.36.140", "Slack Technologies"},
+        {"Zoom", "5.17.1", "Zoom Video Communications, Inc."}, {"Xcode", "15.1", "Apple Inc."}, {"Docker Desktop", "4.26.1", "Docker Inc."}
+    };
+    private static final String[][] APPS_LINUX = {
+        {"firefox", "121.0", "Ubuntu Mozilla Team"}, {"libreoffice-core", "7.6.4", "Debian LibreOffice Maintainers"},
+        {"code", "1.85.1", "Microsoft Corporation"}, {"gimp", "2.10.36", "Debian GIMP Team"},
+        {"openjdk-17-jre", "17.0.9", "OpenJDK Team"}, {"docker-ce", "24.0.7", "Docker"}, {"git", "2.43.0", "Ubuntu Developers"}
+    };
+
+    /**
+     * Genera una flota sintética reproducible: la misma semilla y cantidad producen siempre
+     * los mismos equipos. Cada equipo se genera de forma independiente a partir de su índice,
+     * así que el stream no retiene nada en memoria (apto para 100k equipos).
+     *
+     * <p>Mezcla fabricantes, modelos, versiones de sistema operativo y listas de aplicaciones
+     * (incluidas las de los perfiles de simulación) con hostnames únicos.
+     *
+     * @param cantidad Número de equipos (p. ej. 1_000, 10_000, 100_000)
+     * @param semilla  Semilla del generador
+     * @return Stream ordenado de equipos
+     */
+    public static Stream<InventarioFXBase.InfoPC> generarFlota(int cantidad, long semilla) {
+        List<PerfilSimulacion> base = new ArrayList<>(perfiles.values());
+        base.sort(Comparator.comparing(p -> p.id));
+        return IntStream.range(0, cantidad).mapToObj(i -> generarEquipo(i, semilla, base));
+    }
+
+    private static InventarioFXBase.InfoPC generarEquipo(int indice, long semilla, List<PerfilSimulacion> base) {
+        // Una secuencia por equipo: el equipo i no depende de los anteriores
+        SplittableRandom r = new SplittableRandom(semilla * 0x9E3779B97F4A7C15L + indice);
+        String[] equipo = EQUIPOS[r.nextInt(EQUIPOS.length)];
+        String tipo = equipo[2];
+        boolean mac = equipo[0].startsWith("Apple");
+        boolean servidor = tipo.equals("Server");
+        boolean linux = !mac && !servidor && r.nextInt(10) == 0;
+
+        InventarioFXBase.InfoPC info = new InventarioFXBase.InfoPC();
+        info.fecha = Date.from(FECHA_BASE_FLOTA.minusDays(r.nextInt(365))
+            .atStartOfDay(ZoneOffset.UTC).toInstant().plusSeconds(r.nextInt(86_400)));
+        info.userName = servidor ? "Administrador"
+            : NOMBRES[r.nextInt(NOMBRES.length)].charAt(0) + APELLIDOS[r.nextInt(APELLIDOS.length)];
+        String prefijo = servidor ? "SRV" : mac ? "MAC" : tipo.equals("Laptop") ? "LT" : "PC";
+        info.hostname = String.format("%s-%06d", prefijo, indice);
+        info.manufacturer = equipo[0];
+        info.modeloEquipo = equipo[1];
+        info.deviceType = tipo;
+
+        if (mac) {
+            info.sistema = elegir(r, SISTEMAS_MAC);
+            info.cpu = "Apple M" + (1 + r.nextInt(3)) + (r.nextBoolean() ? " Pro" : "");
+            info.gpu = info.cpu + " GPU";
+            info.bios = "Apple EFI";
+        } else {
+            info.sistema = servidor ? elegir(r, SISTEMAS_SERVIDOR)
+                : linux ? "Ubuntu 22.04." + (1 + r.nextInt(4)) + " LTS" : elegir(r, SISTEMAS_WINDOWS);
+            info.cpu = elegir(r, servidor ? CPUS_SERVIDOR : CPUS);
+            info.gpu = servidor ? "Matrox G200eR2 (Integrada)" : elegir(r, GPUS);
+            info.bios = equipo[0] + " | Versión: " + (1 + r.nextInt(3)) + "." + r.nextInt(30) + "." + r.nextInt(10);
+        }
+
+        int ramGb = servidor ? 64 << r.nextInt(3) : RAM_GB[r.nextInt(RAM_GB.length)];
+        info.memoriaInstalada = ramGb + " GB";
+        info.ram = String.format(Locale.ROOT, "%.1f GB / %d GB", ramGb * (0.3 + r.nextDouble() * 0.6), ramGb);
+        info.numeroDiscos = servidor ? 2 + r.nextInt(5) : 1 + (r.nextInt(5) == 0 ? 1 : 0);
+        StringBuilder discos = new StringBuilder();
+        for (int d = 0; d < info.numeroDiscos; d++) {
+            if (d > 0) discos.append(" | ");
+            discos.append(r.nextBoolean() ? (256 << r.nextInt(3)) + " GB SSD" : (1 << r.nextInt(3)) + " TB HDD");
+        }
+        info.discos = discos.toString();
+        info.ip = "10." + ((indice >> 16) & 0xFF) + "." + ((indice >> 8) & 0xFF) + "." + (indice & 0xFF);
+        info.tarjetaRed = r.nextBoolean() ? "Intel(R) Ethernet Connection I219-LM" : "Realtek PCIe GbE Family Controller";
+
+        String[][] catalogo = mac ? APPS_MAC : servidor ? APPS_SERVIDOR : linux ? APPS_LINUX : APPS_WINDOWS;
+        StringBuilder csv = new StringBuilder("\"DisplayName\",\"DisplayVersion\",\"Publisher\",\"InstallDate\"\n");
+        for (String[] app : catalogo) {
+            if (r.nextInt(4) == 0) continue; // ~75% de las aplicaciones del catálogo
+            agregarApp(csv, app[0], variarVersion(r, app[1]), app[2], r);
+        }
+        if (!base.isEmpty()) {
+            // Aplicaciones de un perfil de simulación ("Nombre Versión|Nombre Versión")
+            PerfilSimulacion perfil = base.get(r.nextInt(base.size()));
+            if (perfil.installedApps != null) {
+                for (String app : perfil.installedApps.split("\\|")) {
+                    int espacio = app.lastIndexOf(' ');
+                    if (espacio > 0) agregarApp(csv, app.substring(0, espacio), app.substring(espacio + 1), perfil.manufacturer, r);
+                }
+            }
+        }
+        info.installedApps = csv.toString();
+        info.idGrupo = "SIM-" + Long.toHexString(semilla).toUpperCase() + "-" + indice;
+        return info;
+    }
+
+    private static String elegir(SplittableRandom r, String[] opciones) {
+        return opciones[r.nextInt(opciones.length)];
+    }
+
+    /** Cambia el último componente de la versión en ~30% de los equipos. */
+    private static String variarVersion(SplittableRandom r, String version) {
+        if (r.nextInt(10) >= 3) return version;
+        int punto = version.lastIndexOf('.');
+        if (punto < 0) return version;
+        try {
+            int ultimo = Integer.parseInt(version.substring(punto + 1));
+            return version.substring(0, punto + 1) + Math.max(0, ultimo - 1 - r.nextInt(3));
+        } catch (NumberFormatException e) {
+            return version;
+        }
+    }
+
+    private static void agregarApp(StringBuilder csv, String nombre, String version, String fabricante, SplittableRandom r) {
+        String fecha = FECHA_BASE_FLOTA.minusDays(r.nextInt(1500)).format(FORMATO_INSTALACION);
+        csv.append('"').append(nombre.replace("\"", "\"\"")).append("\",\"")
+           .append(version).append("\",\"")
+           .append(fabricante == null ? "" : fabricante.replace("\"", "\"\"")).append("\",\"")
+           .append(fecha).append("\"\n");
+    }
+
+    /**
+     * Escribe una flota como JSON, un equipo por línea (formato que acepta la ingesta
+     * por lotes), sin acumularla en memoria.
+     *
+     * @return Número de equipos escritos
+     */
+    public static int escribirFlotaJson(Stream<InventarioFXBase.InfoPC> flota, Path destino) throws IOException {
+        int escritos = 0;
+        ObjectMapper mapper = new ObjectMapper();
+        try (Writer w = Files.newBufferedWriter(destino, StandardCharsets.UTF_8);
+             SequenceWriter sw = mapper.writer().withRootValueSeparator("\n").writeValues(w)) {
+            Iterator<InventarioFXBase.InfoPC> it = flota.iterator();
+            while (it.hasNext()) {
+                sw.write(it.next());
+                escritos++;
+            }
+        }
+        return escritos;
+    }
 }
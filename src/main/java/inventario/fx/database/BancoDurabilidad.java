@@ -0,0 +1,154 @@
+package inventario.fx.database;
+
+import inventario.fx.config.PortablePaths;
+
+import javax.sql.DataSource;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Medición de los {@link PerfilDurabilidad} en el disco donde vive la base de datos.
+ *
+ * <p>Para cada perfil se crea una base temporal junto a {@code inventario.db} (mismo disco,
+ * mismo sistema de archivos), con los mismos PRAGMAs que usaría la aplicación, y se ejecutan
+ * transacciones pequeñas como las del escritor: insertar una fila de 512 bytes, borrar una
+ * antigua y confirmar. Se mide cada transacción completa, COMMIT incluido. La base real no
+ * se toca y los archivos temporales se borran al terminar.
+ *
+ * <pre>
+ *   java -jar inventario.jar --durability-bench [transacciones]
+ * </pre>
+ *
+ * @author SELCOMP
+ * @version 1.0
+ * @since 2026-01-14
+ */
+public final class BancoDurabilidad {
+
+    /** Transacciones medidas por perfil si no se indica otra cantidad */
+    public static final int TRANSACCIONES_DEFECTO = 500;
+    /** Transacciones previas sin medir (crear páginas, llenar caché) */
+    private static final int CALENTAMIENTO = 50;
+    /** Filas que se conservan en la tabla de prueba (se cargan antes de medir) */
+    private static final int FILAS_VIVAS = 1000;
+
+    private BancoDurabilidad() {} // Utility class
+
+    /**
+     * Resultado de un perfil.
+     *
+     * @param perfil       Perfil medido
+     * @param transacciones Transacciones confirmadas
+     * @param totalMs      Tiempo total de las transacciones medidas
+     * @param p50Ms        Latencia mediana por transacción
+     * @param p99Ms        Latencia del percentil 99
+     * @param maxMs        Latencia máxima
+     */
+    public record Resultado(PerfilDurabilidad perfil, int transacciones, double totalMs,
+                            double p50Ms, double p99Ms, double maxMs) {
+
+        public double commitsPorSegundo() {
+            return totalMs > 0 ? transacciones * 1000.0 / totalMs : 0;
+        }
+    }
+
+    /**
+     * Mide todos los perfiles.
+     *
+     * @param transacciones Transacciones medidas por perfil
+     */
+    public static List<Resultado> medir(int transacciones) throws SQLException, IOException {
+        List<Resultado> resultados = new ArrayList<>();
+        for (PerfilDurabilidad perfil : PerfilDurabilidad.values()) {
+            resultados.add(medir(perfil, transacciones));
+        }
+        return resultados;
+    }
+
+    /**
+     * Mide un perfil en una base temporal del directorio de la base de datos.
+     */
+    public static Resultado medir(PerfilDurabilidad perfil, int transacciones) throws SQLException, IOException {
+        Path dir = PortablePaths.getDatabaseDir();
+        Files.createDirectories(dir);
+        Path archivo = dir.resolve("banco-" + perfil.clave() + "-" + System.nanoTime() + ".db");
+        DataSource fuente = DatabaseManager.fuenteConPragmas("jdbc:sqlite:" + archivo,
+            DatabaseManager.PRAGMAS_BASE + "; " + perfil.pragmas());
+        try (Connection conn = fuente.getConnection()) {
+            try (Statement st = conn.createStatement()) {
+                st.execute("CREATE TABLE banco (id INTEGER PRIMARY KEY, datos BLOB NOT NULL)");
+            }
+            conn.setAutoCommit(false);
+            try (PreparedStatement insertar = conn.prepareStatement("INSERT INTO banco (id, datos) VALUES (?, randomblob(512))");
+                 PreparedStatement borrar = conn.prepareStatement("DELETE FROM banco WHERE id = ?")) {
+                // Tabla ya llena en una sola transacción: así cada transacción medida inserta y
+                // borra, como en uso real, y no solo crece
+                for (int id = 0; id < FILAS_VIVAS; id++) {
+                    insertar.setLong(1, id);
+                    insertar.executeUpdate();
+                }
+                conn.commit();
+
+                long[] nanos = new long[transacciones];
+                int total = CALENTAMIENTO + transacciones;
+                for (int i = 0; i < total; i++) {
+                    long inicio = System.nanoTime();
+                    insertar.setLong(1, FILAS_VIVAS + i);
+                    insertar.executeUpdate();
+                    borrar.setLong(1, i);
+                    borrar.executeUpdate();
+                    conn.commit();
+                    if (i >= CALENTAMIENTO) nanos[i - CALENTAMIENTO] = System.nanoTime() - inicio;
+                }
+                return resumir(perfil, nanos);
+            }
+        } finally {
+            for (String sufijo : new String[] {"", "-wal", "-shm"}) {
+                Files.deleteIfExists(Path.of(archivo + sufijo));
+            }
+        }
+    }
+
+    /**
+     * Tabla de resultados para consola o para el registro.
+     */
+    public static String informe(List<Resultado> resultados) {
+        StringBuilder sb = new StringBuilder();
+        sb.append("Disco: ").append(PortablePaths.getDatabaseDir()).append("\n");
+        sb.append(String.format(Locale.ROOT, "%-11s %12s %10s %10s %10s%n",
+            "Perfil", "commits/s", "p50 ms", "p99 ms", "máx ms"));
+        for (Resultado r : resultados) {
+            sb.append(String.format(Locale.ROOT, "%-11s %12.0f %10.3f %10.3f %10.3f%n",
+                r.perfil().clave(), r.commitsPorSegundo(), r.p50Ms(), r.p99Ms(), r.maxMs()));
+        }
+        sb.append("Perfil activo: ").append(PerfilDurabilidad.configurado().clave())
+          .append(" (").append(PerfilDurabilidad.CFG_PERFIL).append(")");
+        return sb.toString();
+    }
+
+    private static Resultado resumir(PerfilDurabilidad perfil, long[] nanos) {
+        long total = 0;
+        for (long n : nanos) total += n;
+        long[] ordenados = nanos.clone();
+        Arrays.sort(ordenados);
+        return new Resultado(perfil, nanos.length, total / 1e6,
+            percentil(ordenados, 0.50), percentil(ordenados, 0.99),
+            ordenados.length > 0 ? ordenados[ordenados.length - 1] / 1e6 : 0);
+    }
+
+    private static double percentil(long[] ordenados, double p) {
+        if (ordenados.length == 0) return 0;
+        int i = (int) Math.ceil(p * ordenados.length) - 1;
+        return ordenados[Math.max(0, Math.min(i, ordenados.length - 1))] / 1e6;
+    }
+}
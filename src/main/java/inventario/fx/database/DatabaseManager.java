@@ -4,6 +4,10 @@ import com.zaxxer.hikari.HikariConfig;
 import com.zaxxer.hikari.HikariDataSource;
 import inventario.fx.security.DatabaseEncryption;
 import inventario.fx.util.AppLogger;
+import org.sqlite.SQLiteConnection;
+import org.sqlite.SQLiteDataSource;
+
+import javax.sql.DataSource;
 
 import java.nio.file.Files;
 import java.nio.file.Path;
@@ -15,6 +19,9 @@ import java.sql.SQLException;
 import java.sql.Statement;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.regex.Pattern;
 
 /**
  * Gestor de conexiones a la base de datos SQLite con encriptación AES-256.
@@ -25,21 +32,30 @@ import java.time.format.DateTimeFormatter;
  * 
  * <p><b>Características de durabilidad:</b>
  * <ul>
- *   <li>Pool de conexiones automático (HikariCP)</li>
- *   <li>WAL mode con synchronous=FULL para máxima protección contra pérdida de datos</li>
+ *   <li>Un único escritor ({@link #executeInTransaction}): las escrituras se encolan y se
+ *       confirman agrupadas en una conexión dedicada, sin SQLITE_BUSY entre escrituras</li>
+ *   <li>Pool de solo lectura para consultas ({@link #getReadConnection()}), que nunca
+ *       espera al escritor gracias a WAL</li>
+ *   <li>Pool general (HikariCP) para mantenimiento y escrituras heredadas</li>
+ *   <li>WAL mode; synchronous según el {@link PerfilDurabilidad} (FULL por defecto)</li>
  *   <li>busy_timeout para manejar acceso concurrente sin errores</li>
  *   <li>PRAGMAs aplicados por conexión para consistencia</li>
- *   <li>Checkpoint WAL automático al cerrar</li>
- *   <li>Verificación de integridad al iniciar</li>
+ *   <li>Checkpoints WAL en segundo plano ({@link PlanificadorCheckpoint}) y al cerrar</li>
+ *   <li>Verificación al iniciar: cabecera y quick_check; integrity_check completo y copia
+ *       pre-inicio en segundo plano ({@link #iniciarVerificacionDiferida}), salvo con
+ *       {@code db.verificacion.inicio=completa}</li>
  *   <li>Auto-recuperación desde backup si se detecta corrupción</li>
  *   <li>Encriptación AES-256 de datos sensibles</li>
  * </ul>
  * 
  * <p><b>Uso:</b>
  * <pre>{@code
- * try (Connection conn = DatabaseManager.getConnection()) {
- *     // Usar conexión (transparentemente encriptada)
+ * try (Connection conn = DatabaseManager.getReadConnection()) {
+ *     // Consultas
  * }
+ * DatabaseManager.executeInTransaction(conn -> {
+ *     // Escrituras (en el hilo escritor)
+ * });
  * }</pre>
  * 
  * @author SELCOMP
@@ -53,14 +69,47 @@ public class DatabaseManager {
     private static final String DB_FILE = "inventario.db";
     private static final String DB_URL = inventario.fx.config.PortablePaths.getDatabaseUrl();
     
-    /** Número máximo de reintentos para operaciones con SQLITE_BUSY */
-    private static final int MAX_RETRIES = 3;
-    /** Tiempo de espera entre reintentos (ms) */
-    private static final long RETRY_DELAY_MS = 200;
+    /**
+     * PRAGMAs comunes de cada conexión de escritura (pool general y escritor). synchronous y
+     * secure_delete los pone el {@link PerfilDurabilidad} configurado.
+     */
+    static final String PRAGMAS_BASE =
+        "PRAGMA journal_mode = WAL; " +
+        "PRAGMA busy_timeout = 5000; " +
+        "PRAGMA foreign_keys = ON; " +
+        "PRAGMA cache_size = 10000; " +
+        "PRAGMA trusted_schema = OFF; " +
+        "PRAGMA cell_size_check = ON";
+    
+    /** Perfil de durabilidad con el que se abrieron las conexiones */
+    private static volatile PerfilDurabilidad perfilDurabilidad = PerfilDurabilidad.PARANOID;
     
+    /** Sentencias que acepta {@link #ejecutarMantenimiento(String)} */
+    private static final Pattern SENTENCIA_MANTENIMIENTO = Pattern.compile(
+        "\\s*(VACUUM|ANALYZE|REINDEX|PRAGMA)\\b.*", Pattern.CASE_INSENSITIVE | Pattern.DOTALL);
+
     private static HikariDataSource dataSource;
+    /** Pool de consultas: conexiones con query_only, que no pueden escribir */
+    private static HikariDataSource poolLectura;
+    /** Conexión dedicada por la que pasan las escrituras de los repositorios */
+    private static EscritorSerializado escritor;
+    /** Vistas de dataSource y poolLectura que anotan tiempos en MetricasBD (o los pools tal cual) */
+    private static DataSource fuenteMantenimiento;
+    private static DataSource fuenteLectura;
+    /** Checkpoints del WAL en segundo plano */
+    private static PlanificadorCheckpoint planificadorCheckpoint;
     private static DatabaseEncryption encryption;
     private static boolean initialized = false;
+    /** Vaciados que deben ejecutarse antes de cerrar el escritor (p. ej. logs en cola) */
+    private static final List<Runnable> tareasAlCerrar = new CopyOnWriteArrayList<>();
+    
+    /** Clave de ConfigManager con el modo de verificación al iniciar */
+    public static final String CFG_MODO_VERIFICACION = "db.verificacion.inicio";
+    public static final String MODO_VERIFICACION_COMPLETA = "completa";
+    /** Cabecera de todo archivo SQLite 3 */
+    private static final byte[] CABECERA_SQLITE = "SQLite format 3\0".getBytes(java.nio.charset.StandardCharsets.US_ASCII);
+    /** La verificación completa y la copia pre-inicio quedan para después de mostrar la UI */
+    private static boolean verificacionPendiente = false;
     
     /**
      * Inicializa el pool de conexiones y crea el esquema si no existe.
@@ -72,12 +121,19 @@ public class DatabaseManager {
         }
         
         try {
+            // "completa": copia y verificación de encriptación antes de abrir (bloquea el arranque).
+            // "diferida": solo cabecera y quick_check; lo demás en iniciarVerificacionDiferida()
+            boolean completa = MODO_VERIFICACION_COMPLETA.equalsIgnoreCase(
+                inventario.fx.config.ConfigManager.getInstance().getString(CFG_MODO_VERIFICACION, "diferida"));
+            
             // Inicializar sistema de encriptación
             encryption = new DatabaseEncryption();
-            if (!encryption.verificarEncriptacion()) {
-                throw new RuntimeException("Sistema de encriptación no funcional");
+            if (completa) {
+                if (!encryption.verificarEncriptacion()) {
+                    throw new RuntimeException("Sistema de encriptación no funcional");
+                }
+                logger.info("🔐 Sistema de encriptación verificado");
             }
-            logger.info("🔐 Sistema de encriptación verificado");
             
             // Crear directorio si no existe
             Path dbPath = Paths.get(DB_DIR);
@@ -86,14 +142,31 @@ public class DatabaseManager {
                 logger.info("📁 Directorio de base de datos creado: " + DB_DIR);
             }
             
-            // Crear copia de seguridad pre-inicio (protección contra corrupción durante inicio)
-            crearCopiaPreInicio();
+            if (completa) {
+                // Crear copia de seguridad pre-inicio (protección contra corrupción durante inicio)
+                crearCopiaPreInicio();
+            }
+            
+            // Un archivo que no es SQLite no llega a abrirse en el pool
+            if (!verificarCabecera()) {
+                logger.error("⚠️ Cabecera de la base de datos inválida, intentando recuperar...");
+                if (!intentarRecuperacion()) {
+                    logger.error("❌ No se pudo recuperar la base de datos automáticamente");
+                }
+            }
             
-            // Configurar HikariCP con durabilidad máxima
+            // Configurar HikariCP con el perfil de durabilidad elegido (por defecto el máximo)
+            perfilDurabilidad = PerfilDurabilidad.configurado();
+            String pragmasEscritura = PRAGMAS_BASE + "; " + perfilDurabilidad.pragmas();
+            logger.info("💾 Perfil de durabilidad: " + perfilDurabilidad.clave());
             HikariConfig config = new HikariConfig();
-            config.setJdbcUrl(DB_URL);
-            config.setMaximumPoolSize(10);
-            config.setMinimumIdle(2);
+            // Los PRAGMAs se aplican uno a uno en cada conexión nueva (ver fuenteConPragmas):
+            // connectionInitSql con varias sentencias solo ejecutaba la primera
+            config.setDataSource(fuenteConPragmas(pragmasEscritura));
+            // Pool de mantenimiento: esquema, checkpoints, VACUUM/ANALYZE y copias en caliente.
+            // Las consultas usan poolLectura y las escrituras el escritor serializado
+            config.setMaximumPoolSize(2);
+            config.setMinimumIdle(1);
             config.setConnectionTimeout(30000);
             config.setIdleTimeout(600000);
             config.setMaxLifetime(1800000);
@@ -101,28 +174,10 @@ public class DatabaseManager {
             // Validar conexiones antes de usarlas
             config.setConnectionTestQuery("SELECT 1");
             
-            // Configuraciones de durabilidad SQLite - aplicadas por conexión
-            // journal_mode y synchronous via DataSource properties para la primera configuración
-            config.addDataSourceProperty("journal_mode", "WAL");
-            config.addDataSourceProperty("synchronous", "FULL");   // FULL en vez de NORMAL: cada escritura se sincroniza a disco
-            config.addDataSourceProperty("cache_size", "10000");
-            
             // NOTA: SQLite estándar no soporta encriptación nativa
             // Para encriptación completa, se requiere SQLCipher (licencia comercial)
             // Aquí usamos encriptación a nivel de aplicación para datos sensibles
             
-            // Configurar connection init SQL para que CADA conexión tenga los PRAGMAs correctos
-            config.setConnectionInitSql(
-                "PRAGMA journal_mode = WAL; " +
-                "PRAGMA synchronous = FULL; " +
-                "PRAGMA busy_timeout = 5000; " +
-                "PRAGMA foreign_keys = ON; " +
-                "PRAGMA cache_size = 10000; " +
-                "PRAGMA trusted_schema = OFF; " +
-                "PRAGMA cell_size_check = ON; " +
-                "PRAGMA secure_delete = ON"
-            );
-            
             dataSource = new HikariDataSource(config);
             
             // Verificar integridad de la base de datos al iniciar
@@ -140,12 +195,25 @@ public class DatabaseManager {
             
             // Crear esquema
             createSchema();
+
+            // db.metricas=false deja las conexiones sin instrumentar
+            boolean metricas = inventario.fx.config.ConfigManager.getInstance().getBoolean("db.metricas");
+            DataSource fuenteEscritor = fuenteConPragmas(pragmasEscritura);
+            escritor = new EscritorSerializado(metricas ? FuenteInstrumentada.envolver(fuenteEscritor, "escritor") : fuenteEscritor);
+            poolLectura = crearPoolLectura();
+            fuenteMantenimiento = metricas ? FuenteInstrumentada.envolver(dataSource, "mantenimiento") : dataSource;
+            fuenteLectura = metricas ? FuenteInstrumentada.envolver(poolLectura, "lectura") : poolLectura;
+            EscritorSerializado escritorActual = escritor;
+            planificadorCheckpoint = new PlanificadorCheckpoint(dataSource,
+                Paths.get(DB_DIR, DB_FILE), escritorActual::getUltimaConfirmacion, escritorActual::getPendientes);
+            planificadorCheckpoint.iniciar();
             
             // Registrar hook de cierre para checkpoint automático
             Runtime.getRuntime().addShutdownHook(new Thread(() -> {
                 shutdownSafe();
             }, "DB-Shutdown-Hook"));
             
+            verificacionPendiente = !completa;
             initialized = true;
             logger.info("✅ Base de datos inicializada con durabilidad máxima: " + DB_URL);
             
@@ -181,6 +249,111 @@ public class DatabaseManager {
         }
     }
     
+    /**
+     * Copia consistente de la base abierta ({@code VACUUM INTO}), sin detener las escrituras.
+     * Reemplaza la copia pre-inicio solo cuando termina bien.
+     */
+    private static void crearCopiaPreInicioEnCaliente() {
+        Path copia = Paths.get(DB_DIR, DB_FILE + ".pre-start");
+        Path temporal = Paths.get(DB_DIR, DB_FILE + ".pre-start.tmp");
+        long inicio = System.nanoTime();
+        try {
+            Files.deleteIfExists(temporal);
+            try (Connection conn = fuenteMantenimiento.getConnection();
+                 Statement stmt = conn.createStatement()) {
+                stmt.execute("VACUUM INTO '" + temporal.toString().replace("'", "''") + "'");
+            }
+            Files.move(temporal, copia, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            // La copia es autónoma: el WAL de una copia anterior ya no aplica
+            Files.deleteIfExists(Paths.get(DB_DIR, DB_FILE + "-wal.pre-start"));
+            logger.info("💾 Copia pre-inicio creada en " + (System.nanoTime() - inicio) / 1_000_000 + " ms");
+        } catch (Exception e) {
+            logger.warn("No se pudo crear copia pre-inicio: " + e.getMessage());
+        }
+    }
+    
+    /**
+     * Comprueba los 16 bytes de cabecera del archivo. Un archivo vacío o inexistente es
+     * válido (base nueva).
+     */
+    private static boolean verificarCabecera() {
+        Path dbFile = Paths.get(DB_DIR, DB_FILE);
+        try {
+            if (!Files.exists(dbFile) || Files.size(dbFile) == 0) return true;
+            byte[] cabecera = new byte[CABECERA_SQLITE.length];
+            try (java.io.InputStream in = Files.newInputStream(dbFile)) {
+                return in.readNBytes(cabecera, 0, cabecera.length) == cabecera.length
+                    && java.util.Arrays.equals(cabecera, CABECERA_SQLITE);
+            }
+        } catch (Exception e) {
+            logger.error("❌ No se pudo leer la cabecera de la BD: " + e.getMessage());
+            return false;
+        }
+    }
+    
+    /**
+     * Ejecuta en un hilo de baja prioridad lo que el arranque diferido dejó pendiente:
+     * verificación de la encriptación, {@code PRAGMA integrity_check} completo y, si todo
+     * está bien, la copia pre-inicio. Debe llamarse una vez mostrada la ventana principal;
+     * las llamadas siguientes no hacen nada.
+     *
+     * @param alDetectarProblema Recibe la descripción del problema (desde el hilo de fondo)
+     */
+    public static void iniciarVerificacionDiferida(java.util.function.Consumer<String> alDetectarProblema) {
+        synchronized (DatabaseManager.class) {
+            if (!initialized || !verificacionPendiente) return;
+            verificacionPendiente = false;
+        }
+        Thread hilo = new Thread(() -> {
+            long inicio = System.nanoTime();
+            StringBuilder problemas = new StringBuilder();
+            if (!encryption.verificarEncriptacion()) {
+                problemas.append("El sistema de encriptación no funciona correctamente.\n");
+            } else {
+                logger.info("🔐 Sistema de encriptación verificado");
+            }
+            String integridad = ejecutarIntegrityCheck();
+            if ("ok".equals(integridad)) {
+                // Solo una base íntegra reemplaza a la copia anterior
+                crearCopiaPreInicioEnCaliente();
+            } else {
+                problemas.append("Verificación de integridad: ").append(integridad).append('\n');
+            }
+            logger.info("🔎 Verificación diferida terminada en " + (System.nanoTime() - inicio) / 1_000_000 + " ms");
+            if (problemas.length() > 0 && alDetectarProblema != null) {
+                alDetectarProblema.accept(problemas.toString().trim());
+            }
+        }, "DB-Verificacion");
+        hilo.setDaemon(true);
+        hilo.setPriority(Thread.MIN_PRIORITY);
+        hilo.start();
+    }
+    
+    /**
+     * Indica si existe una copia pre-inicio desde la que recuperar.
+     */
+    public static boolean hayCopiaPreInicio() {
+        try {
+            Path copia = Paths.get(DB_DIR, DB_FILE + ".pre-start");
+            return Files.exists(copia) && Files.size(copia) > 0;
+        } catch (Exception e) {
+            return false;
+        }
+    }
+    
+    /**
+     * Cierra la base, la sustituye por la copia pre-inicio (la actual se conserva como
+     * {@code .corrupted.<fecha>}) y vuelve a abrirla. Los datos posteriores a la copia se pierden.
+     *
+     * @return true si se restauró la copia
+     */
+    public static synchronized boolean recuperarDesdeCopiaPreInicio() {
+        shutdownSafe();
+        boolean recuperada = intentarRecuperacion();
+        initialize();
+        return recuperada;
+    }
+    
     /**
      * Verifica la integridad de la base de datos SQLite.
      * Ejecuta PRAGMA integrity_check y quick_check.
@@ -251,187 +424,123 @@ public class DatabaseManager {
     }
     
     /**
-     * Obtiene una conexión del pool.
+     * Obtiene una conexión de consulta; equivale a {@link #getReadConnection()}.
+     * Las conexiones tienen {@code PRAGMA query_only}: las escrituras van por
+     * {@link #executeInTransaction}, los checkpoints por {@link #ejecutarCheckpointWAL()} y
+     * VACUUM/ANALYZE/REINDEX por {@link #ejecutarMantenimiento(String)}.
      * IMPORTANTE: Debe cerrarse usando try-with-resources.
      * 
      * @return Conexión a la base de datos
      * @throws SQLException Si hay error obteniendo la conexión
      */
     public static Connection getConnection() throws SQLException {
+        return getReadConnection();
+    }
+
+    /**
+     * Ejecuta una sentencia de mantenimiento (VACUUM, ANALYZE, REINDEX o PRAGMA) fuera de
+     * transacción, en el pool de mantenimiento. Para checkpoints usar
+     * {@link #ejecutarCheckpointWAL()}, que lleva las métricas del planificador.
+     *
+     * @param sentencia Sentencia a ejecutar
+     * @throws IllegalArgumentException Si no es una sentencia de mantenimiento
+     * @throws SQLException Si SQLite la rechaza (p. ej. BD ocupada más allá del busy_timeout)
+     */
+    public static void ejecutarMantenimiento(String sentencia) throws SQLException {
+        if (!SENTENCIA_MANTENIMIENTO.matcher(sentencia).matches()) {
+            throw new IllegalArgumentException("No es una sentencia de mantenimiento: " + sentencia);
+        }
         if (!initialized) {
             initialize();
         }
-        return dataSource.getConnection();
+        try (Connection conn = fuenteMantenimiento.getConnection();
+             Statement stmt = conn.createStatement()) {
+            stmt.execute(sentencia);
+        }
+    }
+
+    /**
+     * Obtiene una conexión de solo lectura ({@code PRAGMA query_only}).
+     * En modo WAL las lecturas no esperan al escritor ni lo bloquean.
+     * IMPORTANTE: Debe cerrarse usando try-with-resources.
+     *
+     * @return Conexión de consulta
+     * @throws SQLException Si hay error obteniendo la conexión
+     */
+    public static Connection getReadConnection() throws SQLException {
+        if (!initialized) {
+            initialize();
+        }
+        return fuenteLectura.getConnection();
+    }
+
+    private static HikariDataSource crearPoolLectura() {
+        HikariConfig config = new HikariConfig();
+        config.setPoolName("SQLite-Lectura");
+        config.setDataSource(fuenteConPragmas(
+            "PRAGMA busy_timeout = 5000; " +
+            "PRAGMA foreign_keys = ON; " +
+            "PRAGMA cache_size = 10000; " +
+            "PRAGMA trusted_schema = OFF; " +
+            "PRAGMA query_only = ON"
+        ));
+        config.setMaximumPoolSize(8);
+        config.setMinimumIdle(1);
+        config.setConnectionTimeout(30000);
+        config.setIdleTimeout(600000);
+        config.setMaxLifetime(1800000);
+        config.setConnectionTestQuery("SELECT 1");
+        return new HikariDataSource(config);
     }
     
     /**
-     * Crea el esquema de la base de datos.
+     * DataSource que abre conexiones a {@link #DB_URL} y ejecuta cada PRAGMA por separado.
      */
-    private static void createSchema() throws SQLException {
-        try (Connection conn = dataSource.getConnection();
-             Statement stmt = conn.createStatement()) {
-            
-            // Tabla de proyectos
-            stmt.executeUpdate(
-                "CREATE TABLE IF NOT EXISTS proyectos (" +
-                "    id TEXT PRIMARY KEY," +
-                "    nombre TEXT NOT NULL," +
-                "    descripcion TEXT," +
-                "    color TEXT NOT NULL," +
-                "    fecha_creacion TEXT NOT NULL," +
-                "    activo INTEGER DEFAULT 1," +
-                "    eliminado INTEGER DEFAULT 0," +
-                "    imagen_path TEXT," +
-                "    created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP," +
-                "    updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP" +
-                ")"
-            );
-            
-            // Agregar columna imagen_path si no existe (migración para bases existentes)
-            try {
-                stmt.executeUpdate("ALTER TABLE proyectos ADD COLUMN imagen_path TEXT");
-                logger.info("✅ Columna imagen_path agregada a tabla proyectos");
-            } catch (SQLException e) {
-                // La columna ya existe, ignorar
-                if (!e.getMessage().contains("duplicate column")) {
-                    throw e;
-                }
-            }
-            
-            // Tabla de reportes
-            stmt.executeUpdate(
-                "CREATE TABLE IF NOT EXISTS reportes (" +
-                "    id TEXT PRIMARY KEY," +
-                "    proyecto_id TEXT," +
-                "    ticket TEXT," +
-                "    tipo_solicitud TEXT," +
-                "    nombre_cliente TEXT," +
-                "    correo_cliente TEXT," +
-                "    tecnico TEXT," +
-                "    fecha_reporte TEXT NOT NULL," +
-                "    hora_reporte TEXT NOT NULL," +
-                "    datos_json TEXT NOT NULL," +
-                "    created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP," +
-                "    updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP," +
-                "    FOREIGN KEY (proyecto_id) REFERENCES proyectos(id)" +
-                ")" 
-            );
-            
-            // Tabla de inventarios - SIN JSON, solo columnas SQLite
-            stmt.executeUpdate(
-                "CREATE TABLE IF NOT EXISTS inventarios (" +
-                "    id TEXT PRIMARY KEY," +
-                "    proyecto_id TEXT NOT NULL," +
-                "    fecha TEXT," +
-                "    usuario TEXT," +
-                "    hostname TEXT," +
-                "    sistema TEXT," +
-                "    fabricante TEXT," +
-                "    modelo TEXT," +
-                "    serie TEXT," +
-                "    placa TEXT," +
-                "    procesador TEXT," +
-                "    tarjeta_grafica TEXT," +
-                "    memoria_ram TEXT," +
-                "    disco_duro TEXT," +
-                "    num_discos TEXT," +
-                "    ip TEXT," +
-                "    fecha_escaneo TEXT NOT NULL," +
-                "    created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP," +
-                "    FOREIGN KEY (proyecto_id) REFERENCES proyectos(id)" +
-                ")" 
-            );
-            
-            // MIGRACIÓN: Agregar nuevas columnas si la tabla ya existía con estructura antigua
-            String[] nuevasColumnas = {
-                "fecha", "usuario", "hostname", "serie", "placa", "num_discos", "ip"
-            };
-            
-            for (String columna : nuevasColumnas) {
-                try {
-                    stmt.executeUpdate("ALTER TABLE inventarios ADD COLUMN " + columna + " TEXT");
-                    logger.info("✅ Columna '" + columna + "' agregada a tabla inventarios");
-                } catch (SQLException e) {
-                    // La columna ya existe, ignorar
-                    if (!e.getMessage().contains("duplicate column")) {
-                        logger.warn("Error agregando columna " + columna + ": " + e.getMessage());
+    static DataSource fuenteConPragmas(String pragmas) {
+        return fuenteConPragmas(DB_URL, pragmas);
+    }
+    
+    /**
+     * DataSource que abre conexiones a {@code url} y ejecuta cada PRAGMA por separado.
+     * El driver de SQLite solo ejecuta la primera sentencia de un bloque separado por ';'.
+     */
+    static DataSource fuenteConPragmas(String url, String pragmas) {
+        SQLiteDataSource fuente = new SQLiteDataSource() {
+            @Override
+            public SQLiteConnection getConnection(String usuario, String clave) throws SQLException {
+                SQLiteConnection conn = super.getConnection(usuario, clave);
+                try (Statement st = conn.createStatement()) {
+                    for (String pragma : pragmas.split(";")) {
+                        if (!pragma.isBlank()) st.execute(pragma.trim());
                     }
+                } catch (SQLException e) {
+                    conn.close();
+                    throw e;
                 }
+                return conn;
             }
-            
-            // MIGRACIÓN: Eliminar columna datos_completos_json si existe (SQLite no soporta DROP COLUMN antes de 3.35)
-            // La dejamos por compatibilidad pero ya no se usa
-            
-            // Tabla de logs de auditoría
-            stmt.executeUpdate(
-                "CREATE TABLE IF NOT EXISTS logs_auditoria (" +
-                "    id INTEGER PRIMARY KEY AUTOINCREMENT," +
-                "    fecha TEXT NOT NULL," +
-                "    usuario TEXT," +
-                "    accion TEXT NOT NULL," +
-                "    detalle TEXT," +
-                "    ip TEXT," +
-                "    created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP" +
-                ")" 
-            );
-            
-            // Tabla de configuración (reemplaza config_admin.json)
-            stmt.executeUpdate(
-                "CREATE TABLE IF NOT EXISTS configuracion (" +
-                "    clave TEXT PRIMARY KEY," +
-                "    valor TEXT NOT NULL," +
-                "    categoria TEXT," +
-                "    descripcion TEXT," +
-                "    encriptado INTEGER DEFAULT 0," + // Indica si el valor está encriptado
-                "    updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP" +
-                ")" 
-            );
-            
-            // Tabla de logs de acceso (reemplaza logs_acceso.json y access_log.json)
-            stmt.executeUpdate(
-                "CREATE TABLE IF NOT EXISTS logs_acceso (" +
-                "    id INTEGER PRIMARY KEY AUTOINCREMENT," +
-                "    fecha TEXT NOT NULL," +
-                "    hora TEXT NOT NULL," +
-                "    usuario TEXT," +
-                "    accion TEXT NOT NULL," +
-                "    detalle TEXT," +
-                "    ip TEXT," +
-                "    exito INTEGER DEFAULT 1," +
-                "    created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP" +
-                ")" 
-            );
-            
-            // Tabla de configuración de empresa (reemplaza config_empresa.json)
-            stmt.executeUpdate(
-                "CREATE TABLE IF NOT EXISTS empresa (" +
-                "    id INTEGER PRIMARY KEY DEFAULT 1," +
-                "    nombre TEXT NOT NULL," +
-                "    ruc TEXT," +
-                "    direccion TEXT," +
-                "    telefono TEXT," +
-                "    email TEXT," +
-                "    logo_base64 TEXT," +
-                "    configuracion_json TEXT," + // Para datos adicionales
-                "    updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP," +
-                "    CHECK (id = 1)" + // Solo una fila de configuración de empresa
-                ")" 
-            );
-            
-            // Índices para optimizar búsquedas
-            stmt.executeUpdate("CREATE INDEX IF NOT EXISTS idx_proyectos_activo ON proyectos(activo)");
-            stmt.executeUpdate("CREATE INDEX IF NOT EXISTS idx_reportes_proyecto ON reportes(proyecto_id)");
-            stmt.executeUpdate("CREATE INDEX IF NOT EXISTS idx_reportes_fecha ON reportes(fecha_reporte)");
-            stmt.executeUpdate("CREATE INDEX IF NOT EXISTS idx_inventarios_proyecto ON inventarios(proyecto_id)");
-            stmt.executeUpdate("CREATE INDEX IF NOT EXISTS idx_logs_fecha ON logs_auditoria(fecha)");
-            stmt.executeUpdate("CREATE INDEX IF NOT EXISTS idx_logs_acceso_fecha ON logs_acceso(fecha, hora)");
-            stmt.executeUpdate("CREATE INDEX IF NOT EXISTS idx_logs_acceso_usuario ON logs_acceso(usuario)");
-            stmt.executeUpdate("CREATE INDEX IF NOT EXISTS idx_configuracion_categoria ON configuracion(categoria)");
-            
-            logger.info("📊 Esquema de base de datos creado/verificado");
+        };
+        fuente.setUrl(url);
+        return fuente;
+    }
+
+    /**
+     * Crea o actualiza el esquema de la base de datos ({@link MigracionesEsquema}).
+     */
+    private static void createSchema() throws SQLException {
+        try (Connection conn = dataSource.getConnection()) {
+            MigracionesEsquema.aplicar(conn);
         }
     }
     
+    /**
+     * Perfil de durabilidad activo. Un cambio en {@code db.durabilidad} se aplica al
+     * reiniciar la aplicación.
+     */
+    public static PerfilDurabilidad getPerfilDurabilidad() {
+        return perfilDurabilidad;
+    }
+    
     /**
      * Obtiene el gestor de encriptación de la base de datos.
      * Permite encriptar/desencriptar datos sensibles.
@@ -457,6 +566,26 @@ public class DatabaseManager {
      * Llamado tanto por shutdown() como por el ShutdownHook.
      */
     private static synchronized void shutdownSafe() {
+        if (initialized) {
+            for (Runnable tarea : tareasAlCerrar) {
+                try {
+                    tarea.run();
+                } catch (Exception e) {
+                    logger.error("Error en tarea de cierre de BD", e);
+                }
+            }
+        }
+        if (planificadorCheckpoint != null) {
+            planificadorCheckpoint.detener();
+        }
+        if (escritor != null) {
+            // Confirmar las escrituras encoladas antes del checkpoint
+            escritor.cerrar();
+            escritor = null;
+        }
+        if (poolLectura != null && !poolLectura.isClosed()) {
+            poolLectura.close();
+        }
         if (dataSource != null && !dataSource.isClosed()) {
             try {
                 // CRÍTICO: Checkpoint WAL antes de cerrar
@@ -482,21 +611,30 @@ public class DatabaseManager {
     /**
      * Ejecuta CHECKPOINT de WAL para forzar escritura de todos los cambios al archivo principal.
      * FUNDAMENTAL para evitar pérdida de datos que estén solo en el archivo -wal.
+     *
+     * @return true si el WAL quedó volcado entero y truncado
      */
-    public static void ejecutarCheckpointWAL() {
-        if (dataSource == null || dataSource.isClosed()) return;
+    public static boolean ejecutarCheckpointWAL() {
+        if (dataSource == null || dataSource.isClosed()) return false;
         
-        try (Connection conn = dataSource.getConnection();
-             Statement stmt = conn.createStatement()) {
-            
-            // TRUNCATE: Escribe todos los frames del WAL al DB y trunca el WAL a 0 bytes
-            // Es el modo más seguro para asegurar que todo quede en el archivo principal
-            stmt.execute("PRAGMA wal_checkpoint(TRUNCATE)");
+        // TRUNCATE: Escribe todos los frames del WAL al DB y trunca el WAL a 0 bytes
+        // Es el modo más seguro para asegurar que todo quede en el archivo principal
+        PlanificadorCheckpoint.Checkpoint c = planificadorCheckpoint != null
+            ? planificadorCheckpoint.ejecutar(PlanificadorCheckpoint.Modo.TRUNCATE, "manual")
+            : null;
+        if (c != null && !c.bloqueado()) {
             logger.info("✅ WAL checkpoint completado - todos los cambios escritos a disco");
-            
-        } catch (SQLException e) {
-            logger.error("⚠️ Error ejecutando WAL checkpoint", e);
+            return true;
         }
+        logger.error("⚠️ WAL checkpoint incompleto: " + (c != null ? c : "error ejecutando el checkpoint"));
+        return false;
+    }
+    
+    /**
+     * Planificador de checkpoints con sus métricas, o null si la base de datos no se ha abierto.
+     */
+    public static PlanificadorCheckpoint getPlanificadorCheckpoint() {
+        return planificadorCheckpoint;
     }
     
     /**
@@ -514,101 +652,59 @@ public class DatabaseManager {
     }
     
     /**
-     * Ejecuta una operación en una transacción con reintentos automáticos.
-     * Si la operación falla por SQLITE_BUSY, reintenta hasta MAX_RETRIES veces.
-     * Si la operación falla por otro motivo, se hace rollback automático.
+     * Ejecuta una operación de escritura en una transacción del escritor único.
+     * La llamada espera a que la transacción se confirme; las operaciones que llegan a la
+     * vez se confirman juntas (un solo COMMIT). Si la operación falla solo se deshacen sus
+     * cambios. Llamadas anidadas desde una operación se ejecutan en la misma transacción.
      * 
-     * @param operation La operación a ejecutar
-     * @throws SQLException Si hay error en la transacción después de todos los reintentos
+     * @param operation La operación a ejecutar (solo debe usar la conexión recibida)
+     * @throws SQLException Si la operación o la confirmación fallan
      */
     public static void executeInTransaction(TransactionOperation operation) throws SQLException {
-        SQLException lastException = null;
-        
-        for (int intento = 1; intento <= MAX_RETRIES; intento++) {
-            Connection conn = null;
-            try {
-                conn = getConnection();
-                conn.setAutoCommit(false);
-                
-                operation.execute(conn);
-                
-                conn.commit();
-                return; // Éxito
-                
-            } catch (SQLException e) {
-                lastException = e;
-                if (conn != null) {
-                    try {
-                        conn.rollback();
-                        logger.warn("⚠️ Transacción revertida (intento " + intento + "/" + MAX_RETRIES + ")");
-                    } catch (SQLException ex) {
-                        logger.error("❌ Error haciendo rollback", ex);
-                    }
-                }
-                
-                // Si es SQLITE_BUSY (código 5), reintentar con delay
-                if (e.getErrorCode() == 5 && intento < MAX_RETRIES) {
-                    logger.warn("🔄 BD ocupada, reintentando en " + (RETRY_DELAY_MS * intento) + "ms...");
-                    try {
-                        Thread.sleep(RETRY_DELAY_MS * intento); // Backoff exponencial
-                    } catch (InterruptedException ie) {
-                        Thread.currentThread().interrupt();
-                        throw e;
-                    }
-                } else {
-                    throw e; // Error no recuperable o últimos intentos agotados
-                }
-                
-            } finally {
-                if (conn != null) {
-                    try {
-                        conn.setAutoCommit(true);
-                        conn.close();
-                    } catch (SQLException e) {
-                        logger.error("Error cerrando conexión", e);
-                    }
-                }
-            }
-        }
-        
-        // Si llegamos aquí, todos los reintentos fallaron
-        throw lastException;
+        getEscritor().ejecutar(conn -> {
+            operation.execute(conn);
+            return null;
+        });
     }
     
     /**
-     * Ejecuta una consulta con reintentos automáticos para SQLITE_BUSY.
-     * Útil para operaciones individuales que no necesitan transacción explícita.
+     * Ejecuta una escritura individual con resultado en el escritor único.
+     * Se conserva el nombre por compatibilidad: con un solo escritor ya no hay SQLITE_BUSY
+     * entre escrituras y no hace falta reintentar.
      * 
-     * @param operation La operación a ejecutar
+     * @param operation La operación a ejecutar (solo debe usar la conexión recibida)
      * @param <T> Tipo del resultado
      * @return Resultado de la operación
-     * @throws SQLException Si hay error después de todos los reintentos
+     * @throws SQLException Si la operación o la confirmación fallan
      */
     public static <T> T executeWithRetry(RetryableOperation<T> operation) throws SQLException {
-        SQLException lastException = null;
-        
-        for (int intento = 1; intento <= MAX_RETRIES; intento++) {
-            try (Connection conn = getConnection()) {
-                return operation.execute(conn);
-                
-            } catch (SQLException e) {
-                lastException = e;
-                
-                if (e.getErrorCode() == 5 && intento < MAX_RETRIES) {
-                    logger.warn("🔄 BD ocupada en consulta, reintentando (" + intento + "/" + MAX_RETRIES + ")...");
-                    try {
-                        Thread.sleep(RETRY_DELAY_MS * intento);
-                    } catch (InterruptedException ie) {
-                        Thread.currentThread().interrupt();
-                        throw e;
-                    }
-                } else {
-                    throw e;
-                }
-            }
+        return getEscritor().ejecutar(operation);
+    }
+
+    /**
+     * Registra una tarea que se ejecuta al cerrar la base de datos (shutdown o
+     * DB-Shutdown-Hook), antes de confirmar la cola del escritor. Sirve para vaciar
+     * escrituras acumuladas en memoria.
+     */
+    public static void alCerrar(Runnable tarea) {
+        tareasAlCerrar.add(tarea);
+    }
+
+    /**
+     * Escrituras en espera en la cola del escritor.
+     */
+    public static int getEscriturasPendientes() {
+        EscritorSerializado e = escritor;
+        return e != null ? e.getPendientes() : 0;
+    }
+
+    private static EscritorSerializado getEscritor() {
+        EscritorSerializado e = escritor;
+        if (e == null) {
+            initialize();
+            e = escritor;
         }
-        
-        throw lastException;
+        return e;
     }
     
     /**
@@ -669,10 +765,16 @@ public class DatabaseManager {
                         case 3 -> "EXTRA";
                         default -> "DESCONOCIDO(" + sync + ")";
                     };
-                    info.append("Synchronous: ").append(syncName).append("\n");
+                    info.append("Synchronous: ").append(syncName)
+                        .append(" (perfil ").append(perfilDurabilidad.clave()).append(")\n");
                 }
             }
             
+            PlanificadorCheckpoint planificador = planificadorCheckpoint;
+            if (planificador != null) {
+                info.append("Checkpoints: ").append(planificador.resumen()).append("\n");
+            }
+            
             // Verificar foreign_keys
             try (ResultSet rs = stmt.executeQuery("PRAGMA foreign_keys")) {
                 if (rs.next()) info.append("Foreign Keys: ").append(rs.getInt(1) == 1 ? "ON" : "OFF").append("\n");
@@ -0,0 +1,238 @@
+package inventario.fx.database;
+
+import inventario.fx.util.AppLogger;
+
+import javax.sql.DataSource;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Savepoint;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Único escritor de la base de datos: una conexión dedicada y un hilo que ejecuta las
+ * escrituras en orden de llegada.
+ *
+ * <p>SQLite admite un solo escritor a la vez; con varias conexiones escribiendo, las
+ * transacciones compiten por el bloqueo y aparecen los SQLITE_BUSY. Aquí las escrituras
+ * se encolan y el hilo escritor agrupa las que estén esperando (hasta {@link #MAX_GRUPO})
+ * en una sola transacción: cada operación corre dentro de su propio savepoint, de modo que
+ * si una falla solo se deshace la suya, y un único COMMIT (un único fsync) confirma el grupo.
+ *
+ * <p>Las operaciones no deben abrir otras conexiones para escribir: el escritor tiene el
+ * bloqueo y esa escritura esperaría hasta agotar el busy_timeout.
+ *
+ * @author SELCOMP
+ * @version 1.0
+ * @since 2026-01-14
+ */
+final class EscritorSerializado {
+
+    private static final AppLogger logger = AppLogger.getLogger(EscritorSerializado.class);
+
+    /** Máximo de operaciones confirmadas en una misma transacción */
+    static final int MAX_GRUPO = 64;
+
+    /** Abre la conexión del escritor con los PRAGMAs ya aplicados */
+    private final DataSource fuente;
+    private final BlockingQueue<Tarea<?>> cola = new LinkedBlockingQueue<>();
+    private final Thread hilo;
+    private volatile boolean activo = true;
+    private Connection conexion;
+    /** Falló deshacer un savepoint: la transacción del grupo ya no es fiable */
+    private boolean savepointPerdido;
+
+    private final AtomicLong transacciones = new AtomicLong();
+    private final AtomicLong operaciones = new AtomicLong();
+    /** nanoTime de la última confirmación, para detectar inactividad */
+    private volatile long ultimaConfirmacion = System.nanoTime();
+
+    /** Operación encolada con su resultado pendiente. */
+    private static final class Tarea<T> {
+        final DatabaseManager.RetryableOperation<T> operacion;
+        final CompletableFuture<T> resultado = new CompletableFuture<>();
+
+        Tarea(DatabaseManager.RetryableOperation<T> operacion) {
+            this.operacion = operacion;
+        }
+    }
+
+    /** Marca de fin de cola para el cierre */
+    private static final Tarea<Void> FIN = new Tarea<>(conn -> null);
+
+    EscritorSerializado(DataSource fuente) {
+        this.fuente = fuente;
+        this.hilo = new Thread(this::bucle, "DB-Escritor");
+        this.hilo.setDaemon(true);
+        this.hilo.start();
+    }
+
+    /**
+     * Ejecuta una operación de escritura y espera a que su transacción se confirme.
+     * Si se llama desde el propio escritor (operación anidada) se ejecuta en el acto dentro
+     * de la transacción en curso.
+     */
+    <T> T ejecutar(DatabaseManager.RetryableOperation<T> operacion) throws SQLException {
+        if (Thread.currentThread() == hilo) {
+            return ejecutarConSavepoint(operacion);
+        }
+        if (!activo) throw new SQLException("El escritor de la base de datos está cerrado");
+
+        Tarea<T> tarea = new Tarea<>(operacion);
+        cola.add(tarea);
+        try {
+            return tarea.resultado.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrumpido esperando la escritura", e);
+        } catch (ExecutionException e) {
+            Throwable causa = e.getCause();
+            if (causa instanceof SQLException) throw (SQLException) causa;
+            if (causa instanceof RuntimeException) throw (RuntimeException) causa;
+            throw new SQLException(causa);
+        }
+    }
+
+    /** Operaciones en espera */
+    int getPendientes() {
+        return cola.size();
+    }
+
+    long getTransacciones() {
+        return transacciones.get();
+    }
+
+    long getOperaciones() {
+        return operaciones.get();
+    }
+
+    long getUltimaConfirmacion() {
+        return ultimaConfirmacion;
+    }
+
+    /**
+     * Termina las escrituras encoladas y cierra la conexión.
+     */
+    void cerrar() {
+        if (!activo) return;
+        activo = false;
+        cola.add(FIN);
+        try {
+            hilo.join(TimeUnit.SECONDS.toMillis(10));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void bucle() {
+        List<Tarea<?>> grupo = new ArrayList<>(MAX_GRUPO);
+        boolean fin = false;
+        while (!fin) {
+            try {
+                grupo.add(cola.take());
+                cola.drainTo(grupo, MAX_GRUPO - 1);
+            } catch (InterruptedException e) {
+                break;
+            }
+            fin = grupo.remove(FIN);
+            if (!grupo.isEmpty()) confirmarGrupo(grupo);
+            grupo.clear();
+        }
+        // Lo que quedara en cola tras el cierre se ejecuta antes de soltar la conexión
+        cola.drainTo(grupo);
+        grupo.remove(FIN);
+        if (!grupo.isEmpty()) confirmarGrupo(grupo);
+        cerrarConexion();
+    }
+
+    private void confirmarGrupo(List<Tarea<?>> grupo) {
+        List<Tarea<?>> completadas = new ArrayList<>(grupo.size());
+        List<Object> resultados = new ArrayList<>(grupo.size());
+        try {
+            Connection conn = getConexion();
+            for (Tarea<?> tarea : grupo) {
+                try {
+                    Object resultado = ejecutarConSavepoint(tarea.operacion);
+                    // Una operación anidada pudo capturar el fallo de su savepoint
+                    if (savepointPerdido) throw new SQLException("No se pudo deshacer un savepoint anidado");
+                    resultados.add(resultado);
+                    completadas.add(tarea);
+                } catch (Throwable t) {
+                    tarea.resultado.completeExceptionally(t);
+                    if (savepointPerdido) throw t;
+                }
+            }
+            conn.commit();
+            ultimaConfirmacion = System.nanoTime();
+            transacciones.incrementAndGet();
+            operaciones.addAndGet(completadas.size());
+        } catch (Throwable t) {
+            savepointPerdido = false;
+            logger.error("❌ Error confirmando grupo de escrituras: " + t.getMessage(), t);
+            try {
+                if (conexion != null) conexion.rollback();
+            } catch (SQLException ignored) {
+                // La conexión se descarta abajo
+            }
+            cerrarConexion();
+            // Las que ya fallaron conservan su error; el resto (incluidas las no ejecutadas) recibe este
+            for (Tarea<?> tarea : grupo) tarea.resultado.completeExceptionally(t);
+            return;
+        }
+        for (int i = 0; i < completadas.size(); i++) {
+            completar(completadas.get(i), resultados.get(i));
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> void completar(Tarea<T> tarea, Object resultado) {
+        tarea.resultado.complete((T) resultado);
+    }
+
+    private <T> T ejecutarConSavepoint(DatabaseManager.RetryableOperation<T> operacion) throws SQLException {
+        Connection conn = getConexion();
+        Savepoint sp = conn.setSavepoint();
+        try {
+            T resultado = operacion.execute(conn);
+            conn.releaseSavepoint(sp);
+            return resultado;
+        } catch (Throwable e) {
+            // También errores (StackOverflowError, OutOfMemoryError...): lo escrito por la
+            // operación no debe confirmarse con el resto del grupo
+            try {
+                conn.rollback(sp);
+                conn.releaseSavepoint(sp);
+            } catch (SQLException deshacer) {
+                // Sin savepoint no se puede aislar la operación: se descarta el grupo entero
+                savepointPerdido = true;
+                e.addSuppressed(deshacer);
+            }
+            throw e;
+        }
+    }
+
+    private Connection getConexion() throws SQLException {
+        if (conexion == null || conexion.isClosed()) {
+            conexion = fuente.getConnection();
+            conexion.setAutoCommit(false);
+        }
+        return conexion;
+    }
+
+    private void cerrarConexion() {
+        if (conexion == null) return;
+        try {
+            conexion.close();
+        } catch (SQLException e) {
+            logger.warn("Error cerrando la conexión del escritor: " + e.getMessage());
+        }
+        conexion = null;
+    }
+}
@@ -0,0 +1,218 @@
+package inventario.fx.database;
+
+import javax.sql.DataSource;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * Envoltorio de un DataSource que mide cada operación y la anota en {@link MetricasBD}:
+ * la espera para obtener conexión, y por cada sentencia la latencia (ejecución más recorrido
+ * del ResultSet), las filas devueltas o modificadas y los errores SQLITE_BUSY/SQLITE_LOCKED.
+ *
+ * <p>Las conexiones, sentencias y ResultSet devueltos son proxies dinámicos de las
+ * interfaces JDBC que delegan todo en el objeto real; {@code unwrap} sigue llegando a la
+ * conexión de SQLite.
+ *
+ * @author SELCOMP
+ * @version 1.0
+ * @since 2026-01-14
+ */
+final class FuenteInstrumentada {
+
+    /** Códigos primarios de SQLite para "base de datos ocupada" */
+    private static final int SQLITE_BUSY = 5;
+    private static final int SQLITE_LOCKED = 6;
+
+    private FuenteInstrumentada() {} // Utility class
+
+    /**
+     * Envuelve un DataSource.
+     *
+     * @param fuente DataSource real
+     * @param pool   Nombre con el que se anotan las esperas de conexión
+     */
+    static DataSource envolver(DataSource fuente, String pool) {
+        return (DataSource) Proxy.newProxyInstance(FuenteInstrumentada.class.getClassLoader(),
+            new Class<?>[] {DataSource.class}, (proxy, metodo, args) -> {
+                if (!"getConnection".equals(metodo.getName())) return invocar(fuente, metodo, args);
+                long inicio = System.nanoTime();
+                try {
+                    Connection conn = (Connection) invocar(fuente, metodo, args);
+                    MetricasBD.espera(pool, System.nanoTime() - inicio);
+                    return conexion(conn);
+                } catch (SQLException e) {
+                    MetricasBD.errorEspera(pool, esBdOcupada(e));
+                    throw e;
+                }
+            });
+    }
+
+    private static Connection conexion(Connection real) {
+        return (Connection) Proxy.newProxyInstance(FuenteInstrumentada.class.getClassLoader(),
+            new Class<?>[] {Connection.class}, (proxy, metodo, args) -> {
+                Object resultado = invocar(real, metodo, args);
+                return switch (metodo.getName()) {
+                    case "createStatement" -> sentencia((Statement) resultado, metodo.getReturnType(), null);
+                    case "prepareStatement", "prepareCall" ->
+                        sentencia((Statement) resultado, metodo.getReturnType(), (String) args[0]);
+                    default -> resultado;
+                };
+            });
+    }
+
+    private static Statement sentencia(Statement real, Class<?> tipo, String sqlPreparado) {
+        return (Statement) Proxy.newProxyInstance(FuenteInstrumentada.class.getClassLoader(),
+            new Class<?>[] {tipo}, new Sentencia(real, sqlPreparado));
+    }
+
+    /**
+     * Una ejecución en curso; se anota una sola vez, al agotar o cerrar su ResultSet.
+     */
+    private static final class Registro {
+        final String sql;
+        long nanos;
+        long filas;
+        boolean anotado;
+
+        Registro(String sql, long nanos) {
+            this.sql = sql;
+            this.nanos = nanos;
+        }
+
+        void anotar() {
+            if (anotado) return;
+            anotado = true;
+            MetricasBD.sentencia(sql, nanos, filas);
+        }
+    }
+
+    private static final class Sentencia implements InvocationHandler {
+        private final Statement real;
+        private final String sqlPreparado;
+        /** Consulta cuyo ResultSet sigue abierto */
+        private Registro abierto;
+
+        Sentencia(Statement real, String sqlPreparado) {
+            this.real = real;
+            this.sqlPreparado = sqlPreparado;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method metodo, Object[] args) throws Throwable {
+            String nombre = metodo.getName();
+            switch (nombre) {
+                case "executeQuery", "execute", "executeUpdate", "executeLargeUpdate",
+                     "executeBatch", "executeLargeBatch" -> {
+                    return ejecutar(metodo, args, nombre);
+                }
+                case "getResultSet" -> {
+                    ResultSet rs = (ResultSet) invocar(real, metodo, args);
+                    return rs != null && abierto != null && !abierto.anotado ? resultados(rs, abierto) : rs;
+                }
+                case "close" -> {
+                    cerrarAbierto();
+                    return invocar(real, metodo, args);
+                }
+                default -> {
+                    return invocar(real, metodo, args);
+                }
+            }
+        }
+
+        private Object ejecutar(Method metodo, Object[] args, String nombre) throws Throwable {
+            // Ejecutar de nuevo cierra el ResultSet anterior
+            cerrarAbierto();
+            String sql = args != null && args.length > 0 && args[0] instanceof String s ? s
+                : sqlPreparado != null ? sqlPreparado
+                : "(lote de sentencias)";
+            long inicio = System.nanoTime();
+            Object resultado;
+            try {
+                resultado = invocar(real, metodo, args);
+            } catch (SQLException e) {
+                MetricasBD.errorSentencia(sql, esBdOcupada(e));
+                throw e;
+            }
+            long nanos = System.nanoTime() - inicio;
+            switch (nombre) {
+                case "executeQuery" -> {
+                    abierto = new Registro(sql, nanos);
+                    return resultados((ResultSet) resultado, abierto);
+                }
+                case "execute" -> {
+                    if ((Boolean) resultado) {
+                        abierto = new Registro(sql, nanos);
+                    } else {
+                        MetricasBD.sentencia(sql, nanos, Math.max(0, real.getUpdateCount()));
+                    }
+                }
+                case "executeBatch" -> MetricasBD.sentencia(sql, nanos, suma((int[]) resultado));
+                case "executeLargeBatch" -> {
+                    long filas = 0;
+                    for (long n : (long[]) resultado) if (n > 0) filas += n;
+                    MetricasBD.sentencia(sql, nanos, filas);
+                }
+                default -> MetricasBD.sentencia(sql, nanos, ((Number) resultado).longValue());
+            }
+            return resultado;
+        }
+
+        private void cerrarAbierto() {
+            if (abierto != null) {
+                abierto.anotar();
+                abierto = null;
+            }
+        }
+
+        private static long suma(int[] cuentas) {
+            long filas = 0;
+            for (int n : cuentas) if (n > 0) filas += n;
+            return filas;
+        }
+    }
+
+    private static ResultSet resultados(ResultSet real, Registro registro) {
+        return (ResultSet) Proxy.newProxyInstance(FuenteInstrumentada.class.getClassLoader(),
+            new Class<?>[] {ResultSet.class}, (proxy, metodo, args) -> {
+                switch (metodo.getName()) {
+                    case "next" -> {
+                        long inicio = System.nanoTime();
+                        boolean hay = (Boolean) invocar(real, metodo, args);
+                        registro.nanos += System.nanoTime() - inicio;
+                        if (hay) registro.filas++;
+                        else registro.anotar();
+                        return hay;
+                    }
+                    case "close" -> {
+                        registro.anotar();
+                        return invocar(real, metodo, args);
+                    }
+                    default -> {
+                        return invocar(real, metodo, args);
+                    }
+                }
+            });
+    }
+
+    private static Object invocar(Object destino, Method metodo, Object[] args) throws Throwable {
+        try {
+            return metodo.invoke(destino, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+
+    private static boolean esBdOcupada(SQLException e) {
+        int codigo = e.getErrorCode() & 0xFF;
+        String mensaje = e.getMessage();
+        return codigo == SQLITE_BUSY || codigo == SQLITE_LOCKED
+            || (mensaje != null && (mensaje.contains("SQLITE_BUSY") || mensaje.contains("SQLITE_LOCKED")));
+    }
+}
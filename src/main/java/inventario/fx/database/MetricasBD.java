@@ -0,0 +1,274 @@
+package inventario.fx.database;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.regex.Pattern;
+
+/**
+ * Métricas de uso de la base de datos, recogidas por {@link FuenteInstrumentada}.
+ *
+ * <p>Por cada sentencia (SQL normalizado: literales y números sustituidos por {@code ?} y
+ * espacios colapsados) se guarda un histograma de latencias, las filas devueltas, los
+ * errores y los SQLITE_BUSY/SQLITE_LOCKED. Por cada pool, el tiempo de espera para obtener
+ * conexión. La latencia de una consulta incluye el recorrido del ResultSet, que es donde
+ * SQLite hace el trabajo.
+ *
+ * <p>Se ve en el panel de mantenimiento ({@link #informe(int)}) y se exporta con
+ * {@link #exportarJson(Path)}. Se desactiva con {@code db.metricas=false}.
+ *
+ * @author SELCOMP
+ * @version 1.0
+ * @since 2026-01-14
+ */
+public final class MetricasBD {
+
+    /** Límites superiores (ms) de los cubos del histograma; el último cubo es "más de 1000" */
+    static final double[] LIMITES_MS = {0.1, 0.5, 1, 5, 10, 50, 100, 500, 1000};
+    /** Sentencias distintas como máximo; las que sobren se agrupan en {@link #OTRAS} */
+    private static final int MAX_SENTENCIAS = 500;
+    private static final String OTRAS = "(otras sentencias)";
+
+    private static final Pattern LITERAL = Pattern.compile("'(?:[^']|'')*'");
+    private static final Pattern NUMERO = Pattern.compile("\\b\\d+(?:\\.\\d+)?\\b");
+    private static final Pattern LISTA = Pattern.compile("\\(\\s*\\?(?:\\s*,\\s*\\?)+\\s*\\)");
+    private static final Pattern ESPACIOS = Pattern.compile("\\s+");
+
+    /** SQL original → normalizado; las sentencias preparadas se repiten y no pagan las regex */
+    private static final Map<String, String> normalizadas = new ConcurrentHashMap<>();
+    private static final int MAX_NORMALIZADAS = 2000;
+
+    private static final Map<String, Histograma> sentencias = new ConcurrentHashMap<>();
+    private static final Map<String, Histograma> esperas = new ConcurrentHashMap<>();
+    private static volatile LocalDateTime desde = LocalDateTime.now();
+
+    private MetricasBD() {} // Utility class
+
+    /**
+     * Latencias y contadores de una sentencia o de un pool.
+     */
+    public static final class Histograma {
+        private final AtomicLongArray cubos = new AtomicLongArray(LIMITES_MS.length + 1);
+        private final AtomicLong total = new AtomicLong();
+        private final AtomicLong nanos = new AtomicLong();
+        private final AtomicLong maxNanos = new AtomicLong();
+        private final AtomicLong filas = new AtomicLong();
+        private final AtomicLong errores = new AtomicLong();
+        private final AtomicLong ocupada = new AtomicLong();
+
+        void registrar(long duracionNanos, long filasDevueltas) {
+            double ms = duracionNanos / 1e6;
+            int i = 0;
+            while (i < LIMITES_MS.length && ms > LIMITES_MS[i]) i++;
+            cubos.incrementAndGet(i);
+            total.incrementAndGet();
+            nanos.addAndGet(duracionNanos);
+            maxNanos.accumulateAndGet(duracionNanos, Math::max);
+            if (filasDevueltas > 0) filas.addAndGet(filasDevueltas);
+        }
+
+        void error(boolean bdOcupada) {
+            errores.incrementAndGet();
+            if (bdOcupada) ocupada.incrementAndGet();
+        }
+
+        public long getTotal() { return total.get(); }
+        public double getTotalMs() { return nanos.get() / 1e6; }
+        public double getMediaMs() { long n = total.get(); return n > 0 ? nanos.get() / 1e6 / n : 0; }
+        public double getMaxMs() { return maxNanos.get() / 1e6; }
+        public long getFilas() { return filas.get(); }
+        public long getErrores() { return errores.get(); }
+        /** Errores SQLITE_BUSY o SQLITE_LOCKED (agotado el busy_timeout) */
+        public long getOcupada() { return ocupada.get(); }
+
+        /** Percentil aproximado: límite superior del cubo donde cae */
+        public double percentilMs(double p) {
+            long n = total.get();
+            if (n == 0) return 0;
+            long objetivo = (long) Math.ceil(p * n);
+            long acumulado = 0;
+            for (int i = 0; i < LIMITES_MS.length; i++) {
+                acumulado += cubos.get(i);
+                if (acumulado >= objetivo) return Math.min(LIMITES_MS[i], getMaxMs());
+            }
+            return getMaxMs();
+        }
+
+        /** Conteo por cubo, con la etiqueta de su límite ("&lt;=1ms", "&gt;1000ms") */
+        public Map<String, Long> getCubos() {
+            Map<String, Long> mapa = new LinkedHashMap<>();
+            for (int i = 0; i < LIMITES_MS.length; i++) {
+                mapa.put("<=" + formatear(LIMITES_MS[i]) + "ms", cubos.get(i));
+            }
+            mapa.put(">" + formatear(LIMITES_MS[LIMITES_MS.length - 1]) + "ms", cubos.get(LIMITES_MS.length));
+            return mapa;
+        }
+
+        private static String formatear(double ms) {
+            return ms == Math.rint(ms) ? String.valueOf((long) ms) : String.valueOf(ms);
+        }
+    }
+
+    /** Registra la ejecución de una sentencia */
+    static void sentencia(String sql, long duracionNanos, long filas) {
+        histograma(sql).registrar(duracionNanos, filas);
+    }
+
+    /** Registra un error de una sentencia */
+    static void errorSentencia(String sql, boolean bdOcupada) {
+        histograma(sql).error(bdOcupada);
+    }
+
+    /** Registra la espera para obtener una conexión del pool */
+    static void espera(String pool, long duracionNanos) {
+        esperas.computeIfAbsent(pool, k -> new Histograma()).registrar(duracionNanos, 0);
+    }
+
+    /** Registra un fallo al obtener conexión */
+    static void errorEspera(String pool, boolean bdOcupada) {
+        esperas.computeIfAbsent(pool, k -> new Histograma()).error(bdOcupada);
+    }
+
+    /**
+     * SQL sin valores concretos, para agrupar las ejecuciones de una misma sentencia.
+     */
+    static String normalizar(String sql) {
+        if (sql == null) return "(null)";
+        String s = LITERAL.matcher(sql).replaceAll("?");
+        s = NUMERO.matcher(s).replaceAll("?");
+        s = ESPACIOS.matcher(s).replaceAll(" ").trim();
+        s = LISTA.matcher(s).replaceAll("(?...)");
+        return s.length() > 300 ? s.substring(0, 300) + "…" : s;
+    }
+
+    private static Histograma histograma(String sql) {
+        String clave = sql != null ? normalizadas.get(sql) : null;
+        if (clave == null) {
+            clave = normalizar(sql);
+            if (sql != null) {
+                if (normalizadas.size() >= MAX_NORMALIZADAS) normalizadas.clear();
+                normalizadas.put(sql, clave);
+            }
+        }
+        Histograma h = sentencias.get(clave);
+        if (h != null) return h;
+        if (sentencias.size() >= MAX_SENTENCIAS) clave = OTRAS;
+        return sentencias.computeIfAbsent(clave, k -> new Histograma());
+    }
+
+    /** Métricas por sentencia normalizada */
+    public static Map<String, Histograma> getSentencias() {
+        return Map.copyOf(sentencias);
+    }
+
+    /** Esperas de conexión por pool */
+    public static Map<String, Histograma> getEsperas() {
+        return Map.copyOf(esperas);
+    }
+
+    /** Total de errores SQLITE_BUSY/SQLITE_LOCKED en sentencias y conexiones */
+    public static long getOcupada() {
+        long n = 0;
+        for (Histograma h : sentencias.values()) n += h.getOcupada();
+        for (Histograma h : esperas.values()) n += h.getOcupada();
+        return n;
+    }
+
+    /** Borra todas las métricas */
+    public static void reiniciar() {
+        sentencias.clear();
+        esperas.clear();
+        desde = LocalDateTime.now();
+    }
+
+    /**
+     * Resumen en texto: esperas por pool y las sentencias con más tiempo acumulado.
+     *
+     * @param maxSentencias Sentencias a mostrar
+     */
+    public static String informe(int maxSentencias) {
+        StringBuilder sb = new StringBuilder();
+        for (Map.Entry<String, Histograma> e : new java.util.TreeMap<>(esperas).entrySet()) {
+            Histograma h = e.getValue();
+            sb.append(String.format(Locale.ROOT, "Conexión %s: %d · media %.2f ms · p99 ≤%s ms · máx %.1f ms%n",
+                e.getKey(), h.getTotal(), h.getMediaMs(), Histograma.formatear(h.percentilMs(0.99)), h.getMaxMs()));
+        }
+        sb.append("BD ocupada (BUSY/LOCKED): ").append(getOcupada()).append("\n");
+        for (Map.Entry<String, Histograma> e : masCostosas(maxSentencias)) {
+            Histograma h = e.getValue();
+            sb.append(String.format(Locale.ROOT, "%.0f ms · %d× · media %.2f · p99 ≤%s · %d filas%s  %s%n",
+                h.getTotalMs(), h.getTotal(), h.getMediaMs(), Histograma.formatear(h.percentilMs(0.99)),
+                h.getFilas(), h.getErrores() > 0 ? " · " + h.getErrores() + " errores" : "", e.getKey()));
+        }
+        return sb.toString().trim();
+    }
+
+    /**
+     * Exporta todas las métricas a un archivo JSON.
+     */
+    public static void exportarJson(Path destino) throws IOException {
+        Map<String, Object> raiz = new LinkedHashMap<>();
+        raiz.put("desde", desde.toString());
+        raiz.put("hasta", LocalDateTime.now().toString());
+        raiz.put("perfilDurabilidad", DatabaseManager.getPerfilDurabilidad().clave());
+        raiz.put("bdOcupada", getOcupada());
+        Map<String, Object> pools = new LinkedHashMap<>();
+        for (Map.Entry<String, Histograma> e : new java.util.TreeMap<>(esperas).entrySet()) {
+            pools.put(e.getKey(), aMapa(e.getValue()));
+        }
+        raiz.put("esperaConexion", pools);
+        List<Map<String, Object>> lista = new ArrayList<>();
+        for (Map.Entry<String, Histograma> e : masCostosas(Integer.MAX_VALUE)) {
+            Map<String, Object> m = new LinkedHashMap<>();
+            m.put("sql", e.getKey());
+            m.putAll(aMapa(e.getValue()));
+            lista.add(m);
+        }
+        raiz.put("sentencias", lista);
+        PlanificadorCheckpoint planificador = DatabaseManager.getPlanificadorCheckpoint();
+        if (planificador != null) raiz.put("checkpoints", planificador.resumen());
+
+        Path padre = destino.toAbsolutePath().getParent();
+        if (padre != null) Files.createDirectories(padre);
+        new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT).writeValue(destino.toFile(), raiz);
+    }
+
+    private static List<Map.Entry<String, Histograma>> masCostosas(int limite) {
+        return sentencias.entrySet().stream()
+            .sorted(Comparator.comparingDouble((Map.Entry<String, Histograma> e) -> e.getValue().getTotalMs()).reversed())
+            .limit(limite)
+            .toList();
+    }
+
+    private static Map<String, Object> aMapa(Histograma h) {
+        Map<String, Object> m = new LinkedHashMap<>();
+        m.put("ejecuciones", h.getTotal());
+        m.put("totalMs", redondear(h.getTotalMs()));
+        m.put("mediaMs", redondear(h.getMediaMs()));
+        m.put("p50Ms", h.percentilMs(0.50));
+        m.put("p99Ms", h.percentilMs(0.99));
+        m.put("maxMs", redondear(h.getMaxMs()));
+        m.put("filas", h.getFilas());
+        m.put("errores", h.getErrores());
+        m.put("bdOcupada", h.getOcupada());
+        m.put("histograma", h.getCubos());
+        return m;
+    }
+
+    private static double redondear(double v) {
+        return Math.round(v * 1000) / 1000.0;
+    }
+}
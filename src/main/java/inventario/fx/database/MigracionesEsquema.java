@@ -0,0 +1,332 @@
+package inventario.fx.database;
+
+import inventario.fx.util.AppLogger;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+
+/**
+ * Migraciones del esquema, numeradas y aplicadas en orden.
+ *
+ * <p>La versión aplicada se guarda en {@code PRAGMA user_version}: con la base de datos al
+ * día el arranque solo lee ese PRAGMA. Si hay migraciones pendientes se ejecutan todas en
+ * una única transacción (si una falla no queda ninguna a medias) y se registra cuánto tardó
+ * cada una.
+ *
+ * <p>Las bases anteriores a este registro tienen {@code user_version = 0}; la migración 1
+ * es idempotente para que sirva tanto en una base vacía como en una que ya tenga tablas:
+ * usa {@code IF NOT EXISTS} y solo añade las columnas que falten.
+ *
+ * <p>Para cambiar el esquema se añade una migración al final de {@link #MIGRACIONES}; nunca
+ * se modifica una ya publicada.
+ *
+ * @author SELCOMP
+ * @version 1.0
+ * @since 2026-01-14
+ */
+final class MigracionesEsquema {
+
+    private static final AppLogger logger = AppLogger.getLogger(MigracionesEsquema.class);
+
+    @FunctionalInterface
+    private interface Paso {
+        void aplicar(Connection conn) throws SQLException;
+    }
+
+    private record Migracion(int version, String descripcion, Paso paso) {}
+
+    private static final List<Migracion> MIGRACIONES = List.of(
+        new Migracion(1, "Esquema base", MigracionesEsquema::esquemaBase),
+        new Migracion(2, "Reportes por nombre de proyecto", MigracionesEsquema::reportesPorNombre)
+    );
+
+    private MigracionesEsquema() {} // Utility class
+
+    /** Versión que deja {@link #aplicar} */
+    static int versionActual() {
+        return MIGRACIONES.get(MIGRACIONES.size() - 1).version();
+    }
+
+    /**
+     * Lleva el esquema a la última versión.
+     *
+     * @param conn Conexión (en autocommit) de la que se toma la transacción
+     * @throws SQLException Si falla una migración; en ese caso no se aplica ninguna
+     */
+    static void aplicar(Connection conn) throws SQLException {
+        int version = leerVersion(conn);
+        if (version >= versionActual()) {
+            logger.debug("📊 Esquema al día (versión " + version + ")");
+            return;
+        }
+
+        long inicio = System.nanoTime();
+        conn.setAutoCommit(false);
+        try {
+            for (Migracion m : MIGRACIONES) {
+                if (m.version() <= version) continue;
+                long t = System.nanoTime();
+                m.paso().aplicar(conn);
+                try (Statement stmt = conn.createStatement()) {
+                    stmt.execute("PRAGMA user_version = " + m.version());
+                }
+                logger.info("📊 Migración " + m.version() + " (" + m.descripcion() + ") en "
+                    + (System.nanoTime() - t) / 1_000_000 + " ms");
+            }
+            conn.commit();
+        } catch (SQLException | RuntimeException e) {
+            conn.rollback();
+            logger.error("❌ Migración del esquema revertida: " + e.getMessage(), e);
+            throw e;
+        } finally {
+            conn.setAutoCommit(true);
+        }
+        logger.info("📊 Esquema actualizado de la versión " + version + " a la " + versionActual() + " en "
+            + (System.nanoTime() - inicio) / 1_000_000 + " ms");
+    }
+
+    private static int leerVersion(Connection conn) throws SQLException {
+        try (Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery("PRAGMA user_version")) {
+            return rs.next() ? rs.getInt(1) : 0;
+        }
+    }
+
+    /**
+     * Añade una columna si la tabla no la tiene (bases creadas antes de que existiera).
+     */
+    private static void agregarColumna(Connection conn, String tabla, String columna, String tipo) throws SQLException {
+        try (Statement stmt = conn.createStatement()) {
+            try (ResultSet rs = stmt.executeQuery("PRAGMA table_info(" + tabla + ")")) {
+                while (rs.next()) {
+                    if (columna.equalsIgnoreCase(rs.getString("name"))) return;
+                }
+            }
+            stmt.executeUpdate("ALTER TABLE " + tabla + " ADD COLUMN " + columna + " " + tipo);
+            logger.info("✅ Columna '" + columna + "' agregada a tabla " + tabla);
+        }
+    }
+
+    // ════════════════════════════════════════════════════════════════════════════
+    // MIGRACIONES
+    // ════════════════════════════════════════════════════════════════════════════
+
+    /** 1: tablas, columnas añadidas con el tiempo e índices */
+    private static void esquemaBase(Connection conn) throws SQLException {
+        try (Statement stmt = conn.createStatement()) {
+            // Tabla de proyectos
+            stmt.executeUpdate(
+                "CREATE TABLE IF NOT EXISTS proyectos (" +
+                "    id TEXT PRIMARY KEY," +
+                "    nombre TEXT NOT NULL," +
+                "    descripcion TEXT," +
+                "    color TEXT NOT NULL," +
+                "    fecha_creacion TEXT NOT NULL," +
+                "    activo INTEGER DEFAULT 1," +
+                "    eliminado INTEGER DEFAULT 0," +
+                "    imagen_path TEXT," +
+                "    created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP," +
+                "    updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP" +
+                ")"
+            );
+            
+            // Tabla de reportes
+            stmt.executeUpdate(
+                "CREATE TABLE IF NOT EXISTS reportes (" +
+                "    id TEXT PRIMARY KEY," +
+                "    proyecto_id TEXT," +
+                "    ticket TEXT," +
+                "    tipo_solicitud TEXT," +
+                "    nombre_cliente TEXT," +
+                "    correo_cliente TEXT," +
+                "    tecnico TEXT," +
+                "    fecha_reporte TEXT NOT NULL," +
+                "    hora_reporte TEXT NOT NULL," +
+                "    datos_json TEXT NOT NULL," +
+                "    created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP," +
+                "    updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP," +
+                "    FOREIGN KEY (proyecto_id) REFERENCES proyectos(id)" +
+                ")" 
+            );
+            
+            // Tabla de inventarios - SIN JSON, solo columnas SQLite
+            stmt.executeUpdate(
+                "CREATE TABLE IF NOT EXISTS inventarios (" +
+                "    id TEXT PRIMARY KEY," +
+                "    proyecto_id TEXT NOT NULL," +
+                "    fecha TEXT," +
+                "    usuario TEXT," +
+                "    hostname TEXT," +
+                "    sistema TEXT," +
+                "    fabricante TEXT," +
+                "    modelo TEXT," +
+                "    serie TEXT," +
+                "    placa TEXT," +
+                "    procesador TEXT," +
+                "    tarjeta_grafica TEXT," +
+                "    memoria_ram TEXT," +
+                "    disco_duro TEXT," +
+                "    num_discos TEXT," +
+                "    ip TEXT," +
+                "    fecha_escaneo TEXT NOT NULL," +
+                "    lote_exportacion TEXT," + // Lote con el que se volcó al Excel (exportación interrumpida)
+                "    evento_id INTEGER," + // Evento CAMBIO del que esta fila guarda solo las diferencias
+                "    created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP," +
+                "    FOREIGN KEY (proyecto_id) REFERENCES proyectos(id)" +
+                ")" 
+            );
+            
+            // Tabla de aplicaciones por escaneo (una fila por aplicación, sin CSV ni JSON)
+            stmt.executeUpdate(
+                "CREATE TABLE IF NOT EXISTS inventario_apps (" +
+                "    id INTEGER PRIMARY KEY AUTOINCREMENT," +
+                "    inventario_id TEXT NOT NULL," +
+                "    nombre TEXT NOT NULL," +
+                "    version TEXT," +
+                "    fabricante TEXT," +
+                "    fecha_instalacion TEXT," +
+                "    cambio TEXT," + // En un CAMBIO: AGREGADA o ELIMINADA
+                "    FOREIGN KEY (inventario_id) REFERENCES inventarios(id) ON DELETE CASCADE" +
+                ")"
+            );
+
+            // Último estado conocido de cada equipo del proyecto (huella + datos estables);
+            // los escaneos sin cambios solo actualizan la última visita. El hostname se guarda en
+            // minúsculas y sin espacios (InventarioRepository.normalizarHostname)
+            stmt.executeUpdate(
+                "CREATE TABLE IF NOT EXISTS estado_equipos (" +
+                "    proyecto_id TEXT NOT NULL," +
+                "    hostname TEXT NOT NULL CHECK (hostname = lower(trim(hostname)))," +
+                "    huella TEXT NOT NULL," +
+                "    campos_json TEXT NOT NULL," +
+                "    apps_json TEXT NOT NULL," +
+                "    ultimo_visto TEXT NOT NULL," +
+                "    ultimo_usuario TEXT," + // Usuario de la última visita (no forma parte de la huella)
+                "    vistos INTEGER NOT NULL DEFAULT 0," +
+                "    PRIMARY KEY (proyecto_id, hostname)" +
+                ")"
+            );
+
+            // Historial de escaneos por equipo: ALTA o CAMBIO (solo el delta)
+            stmt.executeUpdate(
+                "CREATE TABLE IF NOT EXISTS eventos_equipos (" +
+                "    id INTEGER PRIMARY KEY AUTOINCREMENT," +
+                "    proyecto_id TEXT NOT NULL," +
+                "    hostname TEXT NOT NULL CHECK (hostname = lower(trim(hostname)))," +
+                "    fecha TEXT NOT NULL," +
+                "    tipo TEXT NOT NULL," +
+                "    huella TEXT NOT NULL," +
+                "    cambios_json TEXT," +
+                "    apps_agregadas_json TEXT," +
+                "    apps_eliminadas_json TEXT" +
+                ")"
+            );
+
+            // Tabla de logs de auditoría
+            stmt.executeUpdate(
+                "CREATE TABLE IF NOT EXISTS logs_auditoria (" +
+                "    id INTEGER PRIMARY KEY AUTOINCREMENT," +
+                "    fecha TEXT NOT NULL," +
+                "    usuario TEXT," +
+                "    accion TEXT NOT NULL," +
+                "    detalle TEXT," +
+                "    ip TEXT," +
+                "    created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP" +
+                ")" 
+            );
+            
+            // Tabla de configuración (reemplaza config_admin.json)
+            stmt.executeUpdate(
+                "CREATE TABLE IF NOT EXISTS configuracion (" +
+                "    clave TEXT PRIMARY KEY," +
+                "    valor TEXT NOT NULL," +
+                "    categoria TEXT," +
+                "    descripcion TEXT," +
+                "    encriptado INTEGER DEFAULT 0," + // Indica si el valor está encriptado
+                "    updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP" +
+                ")" 
+            );
+            
+            // Tabla de logs de acceso (reemplaza logs_acceso.json y access_log.json)
+            stmt.executeUpdate(
+                "CREATE TABLE IF NOT EXISTS logs_acceso (" +
+                "    id INTEGER PRIMARY KEY AUTOINCREMENT," +
+                "    fecha TEXT NOT NULL," +
+                "    hora TEXT NOT NULL," +
+                "    usuario TEXT," +
+                "    accion TEXT NOT NULL," +
+                "    detalle TEXT," +
+                "    ip TEXT," +
+                "    exito INTEGER DEFAULT 1," +
+                "    created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP" +
+                ")" 
+            );
+            
+            // Tabla de configuración de empresa (reemplaza config_empresa.json)
+            stmt.executeUpdate(
+                "CREATE TABLE IF NOT EXISTS empresa (" +
+                "    id INTEGER PRIMARY KEY DEFAULT 1," +
+                "    nombre TEXT NOT NULL," +
+                "    ruc TEXT," +
+                "    direccion TEXT," +
+                "    telefono TEXT," +
+                "    email TEXT," +
+                "    logo_base64 TEXT," +
+                "    configuracion_json TEXT," + // Para datos adicionales
+                "    updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP," +
+                "    CHECK (id = 1)" + // Solo una fila de configuración de empresa
+                ")" 
+            );
+        }
+
+        // Columnas que bases anteriores pueden no tener
+        agregarColumna(conn, "proyectos", "imagen_path", "TEXT");
+        for (String columna : new String[] {"fecha", "usuario", "hostname", "serie", "placa", "num_discos", "ip"}) {
+            agregarColumna(conn, "inventarios", columna, "TEXT");
+        }
+        // Columnas del escaneo completo (los escaneos se guardan aquí primero
+        // y el Excel cifrado del proyecto se genera después como exportación)
+        String[][] columnasEscaneo = {
+            {"bios", "TEXT"},
+            {"memoria_instalada", "TEXT"},
+            {"tarjeta_red", "TEXT"},
+            {"tipo_dispositivo", "TEXT"},
+            {"id_grupo", "TEXT"},
+            {"ruta_excel", "TEXT"},
+            {"exportado", "INTEGER DEFAULT 1"},
+            {"lote_exportacion", "TEXT"},
+            {"evento_id", "INTEGER"}
+        };
+        for (String[] columna : columnasEscaneo) {
+            agregarColumna(conn, "inventarios", columna[0], columna[1]);
+        }
+        agregarColumna(conn, "logs_acceso", "hora", "TEXT DEFAULT ''");
+
+        try (Statement stmt = conn.createStatement()) {
+            // Índices para optimizar búsquedas
+            stmt.executeUpdate("CREATE INDEX IF NOT EXISTS idx_proyectos_activo ON proyectos(activo)");
+            stmt.executeUpdate("CREATE INDEX IF NOT EXISTS idx_reportes_proyecto ON reportes(proyecto_id)");
+            stmt.executeUpdate("CREATE INDEX IF NOT EXISTS idx_reportes_fecha ON reportes(fecha_reporte)");
+            stmt.executeUpdate("CREATE INDEX IF NOT EXISTS idx_inventarios_proyecto ON inventarios(proyecto_id)");
+            stmt.executeUpdate("CREATE INDEX IF NOT EXISTS idx_inventarios_pendientes ON inventarios(ruta_excel, exportado)");
+            stmt.executeUpdate("CREATE INDEX IF NOT EXISTS idx_inventarios_evento ON inventarios(evento_id)");
+            stmt.executeUpdate("CREATE INDEX IF NOT EXISTS idx_inventario_apps_inventario ON inventario_apps(inventario_id)");
+            stmt.executeUpdate("CREATE INDEX IF NOT EXISTS idx_eventos_equipos_host ON eventos_equipos(proyecto_id, hostname, fecha)");
+            stmt.executeUpdate("CREATE INDEX IF NOT EXISTS idx_logs_fecha ON logs_auditoria(fecha)");
+            stmt.executeUpdate("CREATE INDEX IF NOT EXISTS idx_logs_acceso_fecha ON logs_acceso(fecha, hora)");
+            stmt.executeUpdate("CREATE INDEX IF NOT EXISTS idx_logs_acceso_usuario ON logs_acceso(usuario)");
+            stmt.executeUpdate("CREATE INDEX IF NOT EXISTS idx_configuracion_categoria ON configuracion(categoria)");
+        }
+    }
+
+    /** 2: nombre del proyecto tal como lo muestra el panel de reportes ("N. Nombre") */
+    private static void reportesPorNombre(Connection conn) throws SQLException {
+        agregarColumna(conn, "reportes", "proyecto_nombre", "TEXT");
+        try (Statement stmt = conn.createStatement()) {
+            stmt.executeUpdate("CREATE INDEX IF NOT EXISTS idx_reportes_proyecto_nombre ON reportes(proyecto_nombre)");
+        }
+    }
+}
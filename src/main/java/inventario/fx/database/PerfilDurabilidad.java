@@ -0,0 +1,72 @@
+package inventario.fx.database;
+
+import java.util.Locale;
+
+/**
+ * Perfiles de durabilidad de SQLite, elegidos con {@code db.durabilidad} en
+ * {@link inventario.fx.config.ConfigManager}.
+ *
+ * <p>Todos usan WAL. Lo que cambia es cuándo se sincroniza a disco y si las páginas
+ * liberadas se sobrescriben con ceros:
+ * <ul>
+ *   <li>{@link #PARANOID}: {@code synchronous=FULL} (fsync del WAL en cada COMMIT) y
+ *       {@code secure_delete=ON}. No se pierde ninguna transacción confirmada aunque se
+ *       corte la luz. Es el comportamiento de siempre y el perfil por defecto.</li>
+ *   <li>{@link #BALANCED}: {@code synchronous=NORMAL} y {@code secure_delete=FAST}. El fsync
+ *       se hace en los checkpoints; un corte de luz puede perder las últimas transacciones,
+ *       pero la base nunca queda corrupta. Un cierre inesperado de la aplicación no pierde nada.</li>
+ *   <li>{@link #THROUGHPUT}: {@code synchronous=OFF} y {@code secure_delete=OFF}. Sin fsync:
+ *       solo para cargas masivas o discos muy lentos, asumiendo que un corte de luz puede
+ *       dañar la base (hay copia pre-inicio y backups).</li>
+ * </ul>
+ *
+ * <p>{@link BancoDurabilidad} mide commits/s y latencia p99 de cada perfil en el disco actual.
+ *
+ * @author SELCOMP
+ * @version 1.0
+ * @since 2026-01-14
+ */
+public enum PerfilDurabilidad {
+
+    PARANOID("FULL", "ON"),
+    BALANCED("NORMAL", "FAST"),
+    THROUGHPUT("OFF", "OFF");
+
+    /** Clave de ConfigManager con el perfil activo */
+    public static final String CFG_PERFIL = "db.durabilidad";
+
+    private final String synchronous;
+    private final String secureDelete;
+
+    PerfilDurabilidad(String synchronous, String secureDelete) {
+        this.synchronous = synchronous;
+        this.secureDelete = secureDelete;
+    }
+
+    /** PRAGMAs propios del perfil, separados por ';' */
+    public String pragmas() {
+        return "PRAGMA synchronous = " + synchronous + "; PRAGMA secure_delete = " + secureDelete;
+    }
+
+    /** Nombre usado en la configuración */
+    public String clave() {
+        return name().toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Perfil por nombre (sin distinguir mayúsculas); {@link #PARANOID} si no se reconoce.
+     */
+    public static PerfilDurabilidad desde(String nombre) {
+        if (nombre != null) {
+            for (PerfilDurabilidad p : values()) {
+                if (p.clave().equalsIgnoreCase(nombre.trim())) return p;
+            }
+        }
+        return PARANOID;
+    }
+
+    /** Perfil configurado en ConfigManager */
+    public static PerfilDurabilidad configurado() {
+        return desde(inventario.fx.config.ConfigManager.getInstance().getString(CFG_PERFIL, PARANOID.clave()));
+    }
+}
@@ -0,0 +1,332 @@
+package inventario.fx.database;
+
+import inventario.fx.config.ConfigManager;
+import inventario.fx.util.AppLogger;
+
+import javax.sql.DataSource;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDateTime;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * Checkpoints del WAL en segundo plano, según el tamaño del archivo {@code -wal} y la
+ * inactividad del escritor.
+ *
+ * <p>SQLite solo hace checkpoints PASSIVE automáticos al confirmar, y estos no pueden
+ * reiniciar el WAL mientras haya lectores abiertos: en una sesión larga el archivo crece
+ * sin límite y cada lectura recorre un índice WAL más grande. El hilo "DB-Checkpoint" mira
+ * el archivo cada {@code db.checkpoint.intervaloMs} y:
+ * <ul>
+ *   <li>si hubo escrituras y el escritor lleva {@code db.checkpoint.inactividadMs} sin
+ *       confirmar, lanza un PASSIVE (no espera a nadie ni bloquea a nadie);</li>
+ *   <li>si el WAL supera {@code db.checkpoint.restartMB} y sigue creciendo, lanza un RESTART,
+ *       que espera a los lectores para que el siguiente escritor vuelva al inicio del archivo;</li>
+ *   <li>si supera {@code db.checkpoint.truncateMB}, lanza un TRUNCATE, que además deja el
+ *       archivo en 0 bytes.</li>
+ * </ul>
+ *
+ * <p>Si un RESTART o TRUNCATE queda bloqueado por lectores, no se repite en cada revisión
+ * (cada intento detiene al escritor hasta el busy_timeout): durante una espera que se duplica
+ * con cada bloqueo seguido, hasta 64 revisiones, solo se lanzan PASSIVE.
+ * La espera termina antes si un PASSIVE consigue copiar todo el WAL (los lectores se fueron)
+ * o si el WAL crece otros {@code db.checkpoint.restartMB} desde el intento bloqueado.
+ *
+ * <p>Cada checkpoint (incluidos los manuales y el del cierre) queda registrado con los
+ * frames del WAL, los frames copiados y la duración; ver {@link #getHistorial()}.
+ *
+ * @author SELCOMP
+ * @version 1.0
+ * @since 2026-01-14
+ */
+public final class PlanificadorCheckpoint {
+
+    private static final AppLogger logger = AppLogger.getLogger(PlanificadorCheckpoint.class);
+
+    /** Checkpoints que se conservan en el historial */
+    private static final int HISTORIAL = 50;
+    private static final long MB = 1024L * 1024L;
+    /** Revisiones máximas sin RESTART/TRUNCATE tras uno bloqueado */
+    private static final int ESPERA_MAXIMA = 64;
+
+    /** Modos de {@code PRAGMA wal_checkpoint}, de menos a más intrusivo. */
+    public enum Modo { PASSIVE, RESTART, TRUNCATE }
+
+    /**
+     * Un checkpoint ejecutado.
+     *
+     * @param modo         Modo usado
+     * @param motivo       Quién lo pidió ("inactividad", "tamaño", "manual", ...)
+     * @param bloqueado    true si no pudo completarse por lectores o escritores activos
+     * @param framesWal    Frames en el WAL al terminar
+     * @param framesCopiados Frames copiados a la base de datos
+     * @param duracionMs   Duración
+     * @param bytesAntes   Tamaño del archivo -wal antes
+     * @param bytesDespues Tamaño del archivo -wal después
+     * @param instante     Momento en que terminó
+     */
+    public record Checkpoint(Modo modo, String motivo, boolean bloqueado, int framesWal, int framesCopiados,
+                             double duracionMs, long bytesAntes, long bytesDespues, LocalDateTime instante) {
+
+        @Override
+        public String toString() {
+            return String.format(Locale.ROOT, "%s (%s): %d/%d frames en %.1f ms, WAL %d KB → %d KB%s",
+                modo, motivo, framesCopiados, framesWal, duracionMs, bytesAntes / 1024, bytesDespues / 1024,
+                bloqueado ? " [bloqueado]" : "");
+        }
+    }
+
+    private final DataSource fuente;
+    private final Path archivoWal;
+    /** Instante (nanoTime) de la última confirmación del escritor */
+    private final LongSupplier ultimaEscritura;
+    /** Escrituras en cola del escritor */
+    private final LongSupplier pendientes;
+
+    private final long intervaloMs;
+    private final long inactividadNanos;
+    private final long umbralRestart;
+    private final long umbralTruncate;
+
+    private final Deque<Checkpoint> historial = new ArrayDeque<>();
+    private final Map<Modo, AtomicLong> porModo = new EnumMap<>(Modo.class);
+    private final AtomicLong framesTotales = new AtomicLong();
+    private final AtomicLong bloqueados = new AtomicLong();
+
+    private volatile boolean activo = true;
+    private Thread hilo;
+    /** Tamaño del WAL tras el último checkpoint, para saber si sigue creciendo */
+    private long tamanoTrasCheckpoint = -1;
+    /** Fecha de modificación del WAL tras el último checkpoint: si no cambia, no hubo escrituras */
+    private long modificadoTrasCheckpoint = -1;
+    /** Revisiones que quedan antes de volver a intentar RESTART/TRUNCATE tras uno bloqueado */
+    private int revisionesEnEspera;
+    /** Espera impuesta por el último bloqueo; se duplica con cada bloqueo seguido */
+    private int esperaActual;
+    /** Tamaño del WAL en el último RESTART/TRUNCATE bloqueado */
+    private long tamanoBloqueado;
+
+    PlanificadorCheckpoint(DataSource fuente, Path archivoDb, LongSupplier ultimaEscritura, LongSupplier pendientes) {
+        this.fuente = fuente;
+        this.archivoWal = Path.of(archivoDb + "-wal");
+        this.ultimaEscritura = ultimaEscritura;
+        this.pendientes = pendientes;
+        ConfigManager config = ConfigManager.getInstance();
+        this.intervaloMs = Math.max(100, config.getInt("db.checkpoint.intervaloMs", 1000));
+        this.inactividadNanos = Math.max(0, config.getInt("db.checkpoint.inactividadMs", 2000)) * 1_000_000L;
+        this.umbralRestart = Math.max(1, config.getInt("db.checkpoint.restartMB", 16)) * MB;
+        this.umbralTruncate = Math.max(1, config.getInt("db.checkpoint.truncateMB", 64)) * MB;
+        for (Modo m : Modo.values()) porModo.put(m, new AtomicLong());
+    }
+
+    /** Arranca el hilo en segundo plano. */
+    void iniciar() {
+        hilo = new Thread(this::bucle, "DB-Checkpoint");
+        hilo.setDaemon(true);
+        hilo.setPriority(Thread.MIN_PRIORITY);
+        hilo.start();
+    }
+
+    /** Detiene el hilo; un checkpoint en curso termina antes. */
+    void detener() {
+        activo = false;
+        Thread h = hilo;
+        if (h == null) return;
+        h.interrupt();
+        try {
+            h.join(10_000);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Ejecuta un checkpoint y lo registra. RESTART y TRUNCATE van precedidos de un PASSIVE:
+     * copia lo que pueda sin esperar y da el número de frames, que un TRUNCATE correcto
+     * devuelve a 0. Mientras esperan a los lectores (hasta el busy_timeout) bloquean al escritor.
+     *
+     * @return El checkpoint, o null si falló
+     */
+    synchronized Checkpoint ejecutar(Modo modo, String motivo) {
+        long antes = tamanoWal();
+        long inicio = System.nanoTime();
+        try (Connection conn = fuente.getConnection();
+             Statement stmt = conn.createStatement()) {
+            int[] r = checkpoint(stmt, Modo.PASSIVE);
+            boolean bloqueado = r[0] != 0;
+            int frames = r[1];
+            int copiados = r[2];
+            if (modo != Modo.PASSIVE) {
+                r = checkpoint(stmt, modo);
+                bloqueado = r[0] != 0;
+                copiados = Math.max(copiados, bloqueado ? r[2] : frames);
+                frames = Math.max(frames, r[1]);
+            }
+            long despues = tamanoWal();
+            Checkpoint c = new Checkpoint(modo, motivo, bloqueado, frames, copiados,
+                (System.nanoTime() - inicio) / 1e6, antes, despues, LocalDateTime.now());
+            registrar(c);
+            tamanoTrasCheckpoint = despues;
+            modificadoTrasCheckpoint = modificacionWal();
+            return c;
+        } catch (SQLException e) {
+            logger.warn("⚠️ Checkpoint " + modo + " fallido: " + e.getMessage());
+            return null;
+        }
+    }
+
+    /** Columnas de wal_checkpoint: busy, frames en el WAL, frames copiados (-1 si no hay WAL) */
+    private static int[] checkpoint(Statement stmt, Modo modo) throws SQLException {
+        try (ResultSet rs = stmt.executeQuery("PRAGMA wal_checkpoint(" + modo + ")")) {
+            return rs.next() ? new int[] {rs.getInt(1), rs.getInt(2), rs.getInt(3)} : new int[] {0, -1, -1};
+        }
+    }
+
+    /** Tamaño actual del archivo -wal (0 si no existe) */
+    public long tamanoWal() {
+        try {
+            return Files.exists(archivoWal) ? Files.size(archivoWal) : 0;
+        } catch (IOException e) {
+            return 0;
+        }
+    }
+
+    private long modificacionWal() {
+        try {
+            return Files.exists(archivoWal) ? Files.getLastModifiedTime(archivoWal).toMillis() : 0;
+        } catch (IOException e) {
+            return 0;
+        }
+    }
+
+    /** Últimos checkpoints, del más reciente al más antiguo */
+    public synchronized List<Checkpoint> getHistorial() {
+        return new ArrayList<>(historial);
+    }
+
+    /** Último checkpoint, o null si aún no hubo ninguno */
+    public synchronized Checkpoint getUltimo() {
+        return historial.peekFirst();
+    }
+
+    /** Checkpoints ejecutados en ese modo */
+    public long getCheckpoints(Modo modo) {
+        return porModo.get(modo).get();
+    }
+
+    /** Frames copiados a la base de datos por todos los checkpoints */
+    public long getFramesCopiados() {
+        return framesTotales.get();
+    }
+
+    /** Checkpoints que no pudieron completarse por lectores o escritores activos */
+    public long getBloqueados() {
+        return bloqueados.get();
+    }
+
+    /** Resumen de una línea para diagnóstico */
+    public String resumen() {
+        Checkpoint ultimo = getUltimo();
+        return String.format(Locale.ROOT, "WAL %d KB | PASSIVE %d, RESTART %d, TRUNCATE %d | %d frames | %d bloqueados%s",
+            tamanoWal() / 1024, getCheckpoints(Modo.PASSIVE), getCheckpoints(Modo.RESTART),
+            getCheckpoints(Modo.TRUNCATE), getFramesCopiados(), getBloqueados(),
+            ultimo != null ? " | último: " + ultimo : "");
+    }
+
+    private synchronized void registrar(Checkpoint c) {
+        historial.addFirst(c);
+        if (historial.size() > HISTORIAL) historial.removeLast();
+        porModo.get(c.modo()).incrementAndGet();
+        if (c.framesCopiados() > 0) framesTotales.addAndGet(c.framesCopiados());
+        if (c.bloqueado()) bloqueados.incrementAndGet();
+        if (c.modo() == Modo.PASSIVE) {
+            logger.debug("[Checkpoint] " + c);
+        } else {
+            logger.info("🔄 Checkpoint " + c);
+        }
+    }
+
+    private void bucle() {
+        while (activo) {
+            try {
+                Thread.sleep(intervaloMs);
+            } catch (InterruptedException e) {
+                return;
+            }
+            try {
+                revisar();
+            } catch (RuntimeException e) {
+                logger.warn("⚠️ Error en el planificador de checkpoints: " + e.getMessage());
+            }
+        }
+    }
+
+    private void revisar() {
+        long tamano = tamanoWal();
+        if (tamano == 0) return;
+        Modo modo = null;
+        if (tamano >= umbralTruncate) {
+            modo = Modo.TRUNCATE;
+        } else if (tamano >= umbralRestart && tamano > tamanoTrasCheckpoint) {
+            // Un WAL que sigue creciendo por encima del umbral no está pudiendo reiniciarse
+            modo = Modo.RESTART;
+        }
+        if (modo != null) {
+            if (enEspera(tamano)) {
+                // Copia lo que pueda sin esperar a los lectores ni bloquear al escritor
+                if (modificacionWal() != modificadoTrasCheckpoint) {
+                    Checkpoint c = ejecutar(Modo.PASSIVE, "espera");
+                    if (c != null && !c.bloqueado() && c.framesWal() > 0 && c.framesCopiados() >= c.framesWal()) {
+                        revisionesEnEspera = 0;
+                    }
+                }
+                return;
+            }
+            Checkpoint c = ejecutar(modo, "tamaño");
+            if (c != null && c.bloqueado()) {
+                esperaActual = esperaActual == 0 ? 1 : Math.min(esperaActual * 2, ESPERA_MAXIMA);
+                revisionesEnEspera = esperaActual;
+                tamanoBloqueado = tamano;
+                logger.debug("[Checkpoint] " + modo + " bloqueado, solo PASSIVE durante " + esperaActual + " revisiones");
+            } else if (c != null) {
+                esperaActual = 0;
+                revisionesEnEspera = 0;
+            }
+            return;
+        }
+        boolean inactivo = pendientes.getAsLong() == 0
+            && System.nanoTime() - ultimaEscritura.getAsLong() >= inactividadNanos;
+        if (inactivo && modificacionWal() != modificadoTrasCheckpoint) {
+            ejecutar(Modo.PASSIVE, "inactividad");
+        }
+    }
+
+    /**
+     * Consume una revisión de la espera tras un bloqueo.
+     *
+     * @return true si todavía no toca repetir el RESTART/TRUNCATE
+     */
+    private boolean enEspera(long tamano) {
+        if (revisionesEnEspera == 0) return false;
+        if (tamano - tamanoBloqueado >= umbralRestart) {
+            revisionesEnEspera = 0;
+            return false;
+        }
+        revisionesEnEspera--;
+        return true;
+    }
+}
@@ -0,0 +1,144 @@
+package inventario.fx.database.repository;
+
+import inventario.fx.database.DatabaseManager;
+import inventario.fx.model.AdminManager;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Escritura diferida de los logs de acceso.
+ *
+ * <p>Registrar un log no toca la base de datos: la entrada se deja en una cola acotada
+ * ({@link #CAPACIDAD}) y un hilo en segundo plano la guarda junto con las demás en una sola
+ * transacción cada {@link #INTERVALO_MS} ms, o antes si se juntan {@link #LOTE} entradas.
+ * Así quien llama (a menudo el hilo de JavaFX) no espera un fsync por cada línea.
+ *
+ * <p>Si la cola está llena la entrada se descarta y se cuenta en {@link #getDescartados()}.
+ * Al cerrar la base de datos (incluido el DB-Shutdown-Hook) se vacía lo pendiente.
+ *
+ * <p>Hay uno por proceso (lo crea {@link AdminManager}): cada instancia arranca su hilo y
+ * registra su volcado al cerrar. Quien lee los logs no fuerza un volcado, sino que suma lo
+ * que sigue en cola con {@link #getEnCola()}.
+ *
+ * @author SELCOMP
+ * @version 1.0
+ * @since 2026-01-14
+ */
+public class AnotadorLogsAcceso {
+
+    /** Entradas máximas en espera */
+    static final int CAPACIDAD = 10_000;
+    /** Entradas que provocan un volcado sin esperar al intervalo */
+    static final int LOTE = 200;
+    /** Intervalo máximo entre volcados */
+    static final long INTERVALO_MS = 250;
+
+    private final LogAccesoRepository repositorio;
+    private final BlockingQueue<AdminManager.LogAcceso> cola = new ArrayBlockingQueue<>(CAPACIDAD);
+    private final Object senal = new Object();
+
+    private final AtomicLong descartados = new AtomicLong();
+    private final AtomicLong escritos = new AtomicLong();
+    private final AtomicLong lotes = new AtomicLong();
+
+    public AnotadorLogsAcceso(LogAccesoRepository repositorio) {
+        this.repositorio = repositorio;
+        Thread hilo = new Thread(this::bucle, "Logs-Acceso");
+        hilo.setDaemon(true);
+        hilo.start();
+        DatabaseManager.alCerrar(this::vaciar);
+    }
+
+    /**
+     * Encola un log para guardarlo en el próximo volcado.
+     *
+     * @return false si la cola estaba llena y el log se descartó
+     */
+    public boolean registrar(AdminManager.LogAcceso log) {
+        if (!cola.offer(log)) {
+            descartados.incrementAndGet();
+            return false;
+        }
+        if (cola.size() >= LOTE) {
+            synchronized (senal) {
+                senal.notify();
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Guarda ahora todo lo pendiente y espera a la confirmación.
+     */
+    public synchronized void vaciar() {
+        List<AdminManager.LogAcceso> lote = new ArrayList<>(LOTE);
+        while (cola.drainTo(lote, LOTE) > 0) {
+            try {
+                repositorio.saveAll(lote);
+                escritos.addAndGet(lote.size());
+                lotes.incrementAndGet();
+            } catch (Exception e) {
+                descartados.addAndGet(lote.size());
+                System.err.println("[AnotadorLogsAcceso] Error guardando " + lote.size() + " logs: " + e.getMessage());
+            }
+            lote.clear();
+        }
+    }
+
+    /**
+     * Descarta lo pendiente sin guardarlo. Espera a que termine un volcado en curso, de modo
+     * que nada de lo encolado hasta ahora llegue a la base de datos después.
+     *
+     * @return Logs descartados
+     */
+    public synchronized int descartarPendientes() {
+        List<AdminManager.LogAcceso> lote = new ArrayList<>();
+        cola.drainTo(lote);
+        return lote.size();
+    }
+
+    /** Copia de los logs en espera de volcado, del más antiguo al más reciente */
+    public List<AdminManager.LogAcceso> getEnCola() {
+        return new ArrayList<>(cola);
+    }
+
+    /** Logs en espera de volcado */
+    public int getPendientes() {
+        return cola.size();
+    }
+
+    /** Logs perdidos por cola llena o por fallo al guardar */
+    public long getDescartados() {
+        return descartados.get();
+    }
+
+    /** Logs guardados */
+    public long getEscritos() {
+        return escritos.get();
+    }
+
+    /** Transacciones realizadas */
+    public long getLotes() {
+        return lotes.get();
+    }
+
+    private void bucle() {
+        while (true) {
+            try {
+                synchronized (senal) {
+                    if (cola.size() < LOTE) senal.wait(INTERVALO_MS);
+                }
+            } catch (InterruptedException e) {
+                return;
+            }
+            // Durante una restauración la BD está cerrada: lo pendiente espera en la cola
+            if (!cola.isEmpty() && DatabaseManager.isInitialized()) {
+                vaciar();
+            }
+        }
+    }
+}
@@ -4,7 +4,9 @@ import inventario.fx.database.DatabaseManager;
 import inventario.fx.security.DatabaseEncryption;
 
 import java.sql.*;
+import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * Repositorio para gestionar configuraciones del sistema en SQLite.
@@ -17,9 +19,16 @@ import java.util.Optional;
  *   <li>categoria (TEXT)</li>
  *   <li>descripcion (TEXT)</li>
  *   <li>encriptado (INTEGER)</li>
- *   <li>fecha_modificacion (TEXT)</li>
+ *   <li>updated_at (TIMESTAMP)</li>
  * </ul>
  *
+ * <p>La tabla completa se carga en memoria en la primera lectura y {@link #guardar} /
+ * {@link #eliminar} actualizan la caché tras confirmar en la BD, así que leer una
+ * configuración es una búsqueda en un mapa. Los valores cifrados se guardan cifrados en la
+ * caché y se descifran la primera vez que se leen; el texto en claro (un String inmutable,
+ * como el que recibe quien llama) se suelta cuando la entrada se reemplaza, se elimina o se
+ * invalida la caché (al cerrar la BD), pero no se sobrescribe en memoria.
+ *
  * @author SELCOMP
  * @version 1.0
  * @since 2026-01-14
@@ -29,8 +38,49 @@ public class ConfigRepository {
     /** Instancia compartida de encriptación para valores sensibles. */
     private static volatile DatabaseEncryption encryption;
 
-    public ConfigRepository() {
-        crearTabla();
+    /** Copia en memoria de la tabla configuracion (clave → entrada) */
+    private static final Map<String, Entrada> cache = new ConcurrentHashMap<>();
+    private static volatile boolean cacheCargada = false;
+    /** Ordena escritura en BD y actualización de la caché */
+    private static final Object ESCRITURA = new Object();
+
+    static {
+        // Tras cerrar la BD (p. ej. para restaurar un backup) se vuelve a leer de disco
+        DatabaseManager.alCerrar(ConfigRepository::invalidarCache);
+    }
+
+    /**
+     * Valor tal como está en la BD; si es cifrado, el texto en claro se obtiene al leerlo.
+     */
+    private static final class Entrada {
+        final String almacenado;
+        final boolean encriptado;
+        private String claro;
+
+        Entrada(String almacenado, boolean encriptado) {
+            this.almacenado = almacenado;
+            this.encriptado = encriptado;
+        }
+
+        synchronized String leer(String clave) {
+            if (!encriptado || almacenado == null || almacenado.isEmpty()) return almacenado;
+            if (claro == null) {
+                try {
+                    claro = getEncryption().desencriptar(almacenado);
+                } catch (Exception e) {
+                    // Si falla la desencriptación, es probable que el valor sea legacy (texto plano)
+                    // Lo devolvemos tal cual y se re-encriptará en la siguiente escritura
+                    System.err.println("[ConfigRepository] Valor de '" + clave + "' no está encriptado, se migrará en la próxima escritura");
+                    claro = almacenado;
+                }
+            }
+            return claro;
+        }
+
+        /** Suelta el texto en claro al descartar la entrada */
+        synchronized void borrar() {
+            claro = null;
+        }
     }
 
     /**
@@ -47,28 +97,6 @@ public class ConfigRepository {
         return encryption;
     }
 
-    /**
-     * Crea la tabla de configuración si no existe.
-     */
-    private void crearTabla() {
-        String sql = """
-            CREATE TABLE IF NOT EXISTS configuracion (
-                clave TEXT PRIMARY KEY,
-                valor TEXT,
-                categoria TEXT DEFAULT 'general',
-                descripcion TEXT,
-                encriptado INTEGER DEFAULT 0,
-                fecha_modificacion TEXT DEFAULT (datetime('now', 'localtime'))
-            )
-            """;
-        try (Connection conn = DatabaseManager.getConnection();
-             Statement stmt = conn.createStatement()) {
-            stmt.execute(sql);
-        } catch (Exception e) {
-            System.err.println("[ConfigRepository] Error creando tabla configuracion: " + e.getMessage());
-        }
-    }
-
     /**
      * Obtiene el valor de una configuración por su clave.
      * Si el valor está marcado como encriptado, lo desencripta automáticamente.
@@ -77,29 +105,51 @@ public class ConfigRepository {
      * @return Optional con el valor (ya desencriptado si corresponde)
      */
     public Optional<String> obtener(String clave) {
-        String sql = "SELECT valor, encriptado FROM configuracion WHERE clave = ?";
-        try (Connection conn = DatabaseManager.getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(sql)) {
-            pstmt.setString(1, clave);
-            ResultSet rs = pstmt.executeQuery();
-            if (rs.next()) {
-                String valor = rs.getString("valor");
-                boolean encriptado = rs.getInt("encriptado") == 1;
-                if (encriptado && valor != null && !valor.isEmpty()) {
-                    try {
-                        valor = getEncryption().desencriptar(valor);
-                    } catch (Exception e) {
-                        // Si falla la desencriptación, es probable que el valor sea legacy (texto plano)
-                        // Lo devolvemos tal cual y se re-encriptará en la siguiente escritura
-                        System.err.println("[ConfigRepository] Valor de '" + clave + "' no está encriptado, se migrará en la próxima escritura");
-                    }
+        if (!cacheCargada && !cargarCache()) {
+            return Optional.empty();
+        }
+        Entrada entrada = cache.get(clave);
+        return entrada == null ? Optional.empty() : Optional.ofNullable(entrada.leer(clave));
+    }
+
+    /**
+     * Lee toda la tabla a la caché (sin descifrar nada).
+     *
+     * @return false si no se pudo leer la BD
+     */
+    private static boolean cargarCache() {
+        synchronized (ESCRITURA) {
+            if (cacheCargada) return true;
+            String sql = "SELECT clave, valor, encriptado FROM configuracion";
+            try (Connection conn = DatabaseManager.getReadConnection();
+                 Statement stmt = conn.createStatement();
+                 ResultSet rs = stmt.executeQuery(sql)) {
+                while (rs.next()) {
+                    cache.put(rs.getString("clave"), new Entrada(rs.getString("valor"), rs.getInt("encriptado") == 1));
                 }
-                return Optional.ofNullable(valor);
+                cacheCargada = true;
+                return true;
+            } catch (Exception e) {
+                System.err.println("[ConfigRepository] Error cargando configuración: " + e.getMessage());
+                return false;
             }
-        } catch (Exception e) {
-            System.err.println("[ConfigRepository] Error obteniendo config '" + clave + "': " + e.getMessage());
         }
-        return Optional.empty();
+    }
+
+    /**
+     * Vacía la caché soltando los valores descifrados; la siguiente lectura vuelve a la BD.
+     */
+    public static void invalidarCache() {
+        synchronized (ESCRITURA) {
+            cacheCargada = false;
+            cache.values().forEach(Entrada::borrar);
+            cache.clear();
+        }
+    }
+
+    private static void reemplazar(String clave, Entrada nueva) {
+        Entrada anterior = nueva == null ? cache.remove(clave) : cache.put(clave, nueva);
+        if (anterior != null) anterior.borrar();
     }
 
     /**
@@ -125,23 +175,32 @@ public class ConfigRepository {
         }
 
         String sql = """
-            INSERT INTO configuracion (clave, valor, categoria, descripcion, encriptado, fecha_modificacion)
-            VALUES (?, ?, ?, ?, ?, datetime('now', 'localtime'))
+            INSERT INTO configuracion (clave, valor, categoria, descripcion, encriptado, updated_at)
+            VALUES (?, ?, ?, ?, ?, CURRENT_TIMESTAMP)
             ON CONFLICT(clave) DO UPDATE SET
                 valor = excluded.valor,
                 categoria = excluded.categoria,
                 descripcion = excluded.descripcion,
                 encriptado = excluded.encriptado,
-                fecha_modificacion = datetime('now', 'localtime')
+                updated_at = CURRENT_TIMESTAMP
             """;
-        try (Connection conn = DatabaseManager.getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(sql)) {
-            pstmt.setString(1, clave);
-            pstmt.setString(2, valorAGuardar);
-            pstmt.setString(3, categoria);
-            pstmt.setString(4, descripcion);
-            pstmt.setInt(5, encriptado ? 1 : 0);
-            pstmt.executeUpdate();
+        String valorFinal = valorAGuardar;
+        try {
+            synchronized (ESCRITURA) {
+                DatabaseManager.executeInTransaction(conn -> {
+                    try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+                        pstmt.setString(1, clave);
+                        pstmt.setString(2, valorFinal);
+                        pstmt.setString(3, categoria);
+                        pstmt.setString(4, descripcion);
+                        pstmt.setInt(5, encriptado ? 1 : 0);
+                        pstmt.executeUpdate();
+                    }
+                });
+                if (cacheCargada) {
+                    reemplazar(clave, new Entrada(valorFinal, encriptado));
+                }
+            }
         } catch (Exception e) {
             System.err.println("[ConfigRepository] Error guardando config '" + clave + "': " + e.getMessage());
         }
@@ -164,10 +223,16 @@ public class ConfigRepository {
      */
     public void eliminar(String clave) {
         String sql = "DELETE FROM configuracion WHERE clave = ?";
-        try (Connection conn = DatabaseManager.getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(sql)) {
-            pstmt.setString(1, clave);
-            pstmt.executeUpdate();
+        try {
+            synchronized (ESCRITURA) {
+                DatabaseManager.executeInTransaction(conn -> {
+                    try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+                        pstmt.setString(1, clave);
+                        pstmt.executeUpdate();
+                    }
+                });
+                reemplazar(clave, null);
+            }
         } catch (Exception e) {
             System.err.println("[ConfigRepository] Error eliminando config '" + clave + "': " + e.getMessage());
         }
@@ -0,0 +1,842 @@
+package inventario.fx.database.repository;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import inventario.fx.database.DatabaseManager;
+import inventario.fx.model.InventarioFXBase;
+import inventario.fx.util.AppLogger;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.sql.*;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Date;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.UUID;
+
+/**
+ * Repositorio de escaneos de inventario en SQLite.
+ * Es el almacenamiento principal de cada escaneo: una fila en {@code inventarios}
+ * y una fila por aplicación en {@code inventario_apps}, dentro de una sola transacción.
+ *
+ * <p>El Excel cifrado del proyecto ya no se reescribe en cada escaneo. Las filas nuevas
+ * quedan marcadas con {@code exportado = 0} y se vuelcan al Excel en una sola pasada
+ * (un descifrado + un cifrado) cuando se va a modificar el archivo o en segundo plano
+ * tras guardar. Cada volcado asigna un lote que también queda grabado en el Excel, así una
+ * exportación cortada a medias no vuelve a añadir las mismas filas.
+ *
+ * <p>Los re-escaneos de un equipo ya conocido se comparan por huella con su último
+ * estado ({@code estado_equipos}, por hostname normalizado): si nada cambió solo se
+ * actualizan los datos de la visita (fecha, usuario con sesión iniciada y contador de
+ * vistos); si cambió, se guarda un evento CAMBIO ({@code eventos_equipos}) con los campos
+ * modificados, y una fila de inventario con solo los datos propios del escaneo (fecha,
+ * usuario, IP, RAM en uso...) y las aplicaciones agregadas o eliminadas. La fila completa
+ * se reconstruye a partir del estado al exportarla. El usuario no forma parte de la
+ * huella: en equipos compartidos cambia en cada inicio de sesión sin que cambie el equipo.
+ *
+ * <p>Tablas: inventarios, inventario_apps, estado_equipos, eventos_equipos
+ *
+ * @author SELCOMP
+ * @version 1.0
+ * @since 2026-01-14
+ */
+public class InventarioRepository {
+
+    private static final AppLogger logger = AppLogger.getLogger(InventarioRepository.class);
+    private static final DateTimeFormatter FORMATO_FECHA = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+    private static final ObjectMapper mapper = new ObjectMapper();
+    private static final String CABECERA_CSV = "\"DisplayName\",\"DisplayVersion\",\"Publisher\",\"InstallDate\"\n";
+
+    /** Marcas de {@code inventario_apps.cambio} en las filas de un CAMBIO */
+    private static final String APP_AGREGADA = "AGREGADA";
+    private static final String APP_ELIMINADA = "ELIMINADA";
+
+    /** Resultado de comparar un escaneo con el último estado del equipo. */
+    public enum TipoEscaneo {
+        /** Equipo nuevo en el proyecto: se guardó el escaneo completo */
+        ALTA,
+        /** Misma huella que el último escaneo: solo se anotó la fecha */
+        VISTO,
+        /** Huella distinta: se guardaron solo las diferencias con el estado anterior */
+        CAMBIO,
+        /** Más antiguo que el último estado del equipo: no se guardó (llegó tarde, p. ej. en una ingesta) */
+        ANTERIOR
+    }
+
+    /**
+     * Guarda un escaneo como pendiente de exportar al Excel del proyecto.
+     * El coste es constante: no depende de cuántos equipos tenga ya el proyecto.
+     *
+     * @param proyectoId ID del proyecto (tabla proyectos)
+     * @param rutaExcel  Ruta del Excel cifrado al que se exportará el escaneo
+     * @param info       Información recopilada del equipo
+     * @return ID del registro creado
+     * @throws SQLException Si no se pudo guardar el escaneo
+     */
+    public String guardarEscaneo(String proyectoId, String rutaExcel, InventarioFXBase.InfoPC info) throws SQLException {
+        String id = UUID.randomUUID().toString();
+        DatabaseManager.executeInTransaction(conn -> insertarEscaneo(conn, id, proyectoId, rutaExcel, info));
+        logger.guardadoExitoso("Escaneo " + info.hostname + " (" + id + ")");
+        return id;
+    }
+
+    /**
+     * Registra un escaneo comparándolo con el último estado del equipo (por hostname
+     * normalizado, ver {@link #normalizarHostname}).
+     * <ul>
+     *   <li>Equipo nuevo: fila completa pendiente de exportar + evento ALTA.</li>
+     *   <li>Misma huella: solo se actualizan {@code ultimo_visto} y {@code vistos} del estado.</li>
+     *   <li>Fecha anterior al último estado: no se escribe nada (ANTERIOR).</li>
+     *   <li>Huella distinta: evento CAMBIO con los campos modificados y una fila pendiente de
+     *       exportar con los datos propios del escaneo y las aplicaciones agregadas/eliminadas;
+     *       {@link #obtenerPendientes} la completa con el estado del equipo.</li>
+     * </ul>
+     *
+     * @param proyectoId ID del proyecto (tabla proyectos)
+     * @param rutaExcel  Ruta del Excel cifrado al que se exportará el escaneo
+     * @param info       Información recopilada del equipo
+     * @return Tipo de registro realizado
+     * @throws SQLException Si no se pudo guardar el escaneo
+     */
+    public TipoEscaneo registrarEscaneo(String proyectoId, String rutaExcel, InventarioFXBase.InfoPC info) throws SQLException {
+        TipoEscaneo[] tipo = new TipoEscaneo[1];
+        DatabaseManager.executeInTransaction(conn -> tipo[0] = registrar(conn, proyectoId, rutaExcel, info));
+        logger.info("[Inventario] Escaneo de " + info.hostname + " registrado como " + tipo[0]);
+        return tipo[0];
+    }
+
+    /**
+     * Registra varios escaneos en una sola transacción, en el orden de la lista, con la
+     * misma lógica de huella que {@link #registrarEscaneo}. Pensado para ingestas por lotes.
+     *
+     * @return Cuántos escaneos quedaron como ALTA, VISTO, CAMBIO y ANTERIOR
+     * @throws SQLException Si falla el lote (no se guarda ninguno de sus escaneos)
+     */
+    public Map<TipoEscaneo, Integer> registrarEscaneos(String proyectoId, String rutaExcel,
+                                                       List<InventarioFXBase.InfoPC> escaneos) throws SQLException {
+        Map<TipoEscaneo, Integer> conteo = new EnumMap<>(TipoEscaneo.class);
+        DatabaseManager.executeInTransaction(conn -> {
+            conteo.clear(); // Un reintento por BD ocupada vuelve a empezar el lote
+            for (InventarioFXBase.InfoPC info : escaneos) {
+                conteo.merge(registrar(conn, proyectoId, rutaExcel, info), 1, Integer::sum);
+            }
+        });
+        return conteo;
+    }
+
+    private TipoEscaneo registrar(Connection conn, String proyectoId, String rutaExcel,
+                                  InventarioFXBase.InfoPC info) throws SQLException {
+        Map<String, String> campos = camposEstables(info);
+        TreeMap<String, String[]> apps = appsPorClave(info.installedApps);
+        String huella = calcularHuella(campos, new TreeSet<>(apps.keySet()));
+        String fecha = formatear(info.fecha != null ? info.fecha : new Date());
+        String host = normalizarHostname(info.hostname);
+
+        String huellaAnterior = null, camposAnteriores = null, appsAnteriores = null, ultimoVisto = null;
+        try (PreparedStatement pstmt = conn.prepareStatement(
+                "SELECT huella, campos_json, apps_json, ultimo_visto FROM estado_equipos WHERE proyecto_id = ? AND hostname = ?")) {
+            pstmt.setString(1, proyectoId);
+            pstmt.setString(2, host);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                if (rs.next()) {
+                    huellaAnterior = rs.getString(1);
+                    camposAnteriores = rs.getString(2);
+                    appsAnteriores = rs.getString(3);
+                    ultimoVisto = rs.getString(4);
+                }
+            }
+        }
+
+        // Un escaneo anterior al estado guardado no puede convertirse en el estado actual
+        // ni encadenarse como diferencia (fechas "yyyy-MM-dd HH:mm:ss": orden de texto = cronológico)
+        if (ultimoVisto != null && fecha.compareTo(ultimoVisto) < 0) {
+            return TipoEscaneo.ANTERIOR;
+        }
+
+        if (huella.equals(huellaAnterior)) {
+            try (PreparedStatement pstmt = conn.prepareStatement(
+                    "UPDATE estado_equipos SET ultimo_visto = ?, ultimo_usuario = ?, vistos = vistos + 1 " +
+                    "WHERE proyecto_id = ? AND hostname = ?")) {
+                pstmt.setString(1, fecha);
+                pstmt.setString(2, info.userName);
+                pstmt.setString(3, proyectoId);
+                pstmt.setString(4, host);
+                pstmt.executeUpdate();
+            }
+            return TipoEscaneo.VISTO;
+        }
+
+        if (huellaAnterior == null) {
+            try (PreparedStatement pstmt = conn.prepareStatement(
+                    "INSERT INTO estado_equipos (proyecto_id, hostname, huella, campos_json, apps_json, ultimo_visto, " +
+                    "ultimo_usuario) VALUES (?, ?, ?, ?, ?, ?, ?)")) {
+                pstmt.setString(1, proyectoId);
+                pstmt.setString(2, host);
+                pstmt.setString(3, huella);
+                pstmt.setString(4, escribirJson(campos));
+                pstmt.setString(5, escribirJson(apps.values()));
+                pstmt.setString(6, fecha);
+                pstmt.setString(7, info.userName);
+                pstmt.executeUpdate();
+            }
+            insertarEvento(conn, proyectoId, host, fecha, TipoEscaneo.ALTA, huella, null, null, null);
+            insertarEscaneo(conn, UUID.randomUUID().toString(), proyectoId, rutaExcel, info);
+            return TipoEscaneo.ALTA;
+        }
+
+        Map<String, String> antes = leerJson(camposAnteriores, new TypeReference<Map<String, String>>() {});
+        Map<String, String[]> diferencias = new LinkedHashMap<>();
+        campos.forEach((campo, valor) -> {
+            String previo = antes.get(campo);
+            if (!Objects.equals(previo, valor)) diferencias.put(campo, new String[]{previo, valor});
+        });
+        TreeMap<String, String[]> appsAntes = leerAppsEstado(appsAnteriores);
+        TreeMap<String, String[]> agregadas = new TreeMap<>(apps);
+        agregadas.keySet().removeAll(appsAntes.keySet());
+        TreeMap<String, String[]> eliminadas = new TreeMap<>(appsAntes);
+        eliminadas.keySet().removeAll(apps.keySet());
+
+        try (PreparedStatement pstmt = conn.prepareStatement(
+                "UPDATE estado_equipos SET huella = ?, campos_json = ?, apps_json = ?, ultimo_visto = ?, " +
+                "ultimo_usuario = ? WHERE proyecto_id = ? AND hostname = ?")) {
+            pstmt.setString(1, huella);
+            pstmt.setString(2, escribirJson(campos));
+            pstmt.setString(3, escribirJson(apps.values()));
+            pstmt.setString(4, fecha);
+            pstmt.setString(5, info.userName);
+            pstmt.setString(6, proyectoId);
+            pstmt.setString(7, host);
+            pstmt.executeUpdate();
+        }
+        long eventoId = insertarEvento(conn, proyectoId, host, fecha, TipoEscaneo.CAMBIO, huella,
+            diferencias.isEmpty() ? null : escribirJson(diferencias),
+            agregadas.isEmpty() ? null : escribirJson(agregadas.keySet()),
+            eliminadas.isEmpty() ? null : escribirJson(eliminadas.keySet()));
+        insertarCambio(conn, UUID.randomUUID().toString(), proyectoId, rutaExcel, info, eventoId,
+            agregadas.values(), eliminadas.values());
+        return TipoEscaneo.CAMBIO;
+    }
+
+    /**
+     * Clave con la que se identifica un equipo en {@code estado_equipos} y
+     * {@code eventos_equipos}: el hostname sin espacios alrededor y en minúsculas
+     * (los nombres NetBIOS/DNS no distinguen mayúsculas).
+     */
+    public static String normalizarHostname(String hostname) {
+        return hostname == null ? "" : hostname.trim().toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Huella estable de un escaneo: SHA-256 de los campos de hardware/sistema y de la
+     * lista ordenada de aplicaciones (nombre y versión). No incluye datos que cambian
+     * entre escaneos sin que cambie el equipo (usuario, RAM en uso, IP, fecha, grupo).
+     */
+    public static String calcularHuella(InventarioFXBase.InfoPC info) {
+        return calcularHuella(camposEstables(info), appsOrdenadas(info.installedApps));
+    }
+
+    private static String calcularHuella(Map<String, String> campos, TreeSet<String> apps) {
+        try {
+            MessageDigest md = MessageDigest.getInstance("SHA-256");
+            campos.forEach((campo, valor) -> {
+                md.update((campo + "=" + valor + "\n").getBytes(StandardCharsets.UTF_8));
+            });
+            for (String app : apps) {
+                md.update((app + "\n").getBytes(StandardCharsets.UTF_8));
+            }
+            return HexFormat.of().formatHex(md.digest());
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 no disponible", e);
+        }
+    }
+
+    /** Campos que identifican el estado del equipo, en orden fijo. */
+    private static Map<String, String> camposEstables(InventarioFXBase.InfoPC info) {
+        Map<String, String> campos = new LinkedHashMap<>();
+        campos.put("sistema", Objects.toString(info.sistema, ""));
+        campos.put("fabricante", Objects.toString(info.manufacturer, ""));
+        campos.put("modelo", Objects.toString(info.modeloEquipo, ""));
+        campos.put("tipo_dispositivo", Objects.toString(info.deviceType, ""));
+        campos.put("bios", Objects.toString(info.bios, ""));
+        campos.put("procesador", Objects.toString(info.cpu, ""));
+        campos.put("tarjeta_grafica", Objects.toString(info.gpu, ""));
+        campos.put("memoria_instalada", Objects.toString(info.memoriaInstalada, ""));
+        campos.put("disco_duro", Objects.toString(info.discos, ""));
+        campos.put("num_discos", String.valueOf(info.numeroDiscos));
+        return campos;
+    }
+
+    /** Inverso de {@link #camposEstables}: copia los campos al InfoPC. */
+    private static void aplicarCamposEstables(InventarioFXBase.InfoPC info, Map<String, String> campos) {
+        info.sistema = campos.get("sistema");
+        info.manufacturer = campos.get("fabricante");
+        info.modeloEquipo = campos.get("modelo");
+        info.deviceType = campos.get("tipo_dispositivo");
+        info.bios = campos.get("bios");
+        info.cpu = campos.get("procesador");
+        info.gpu = campos.get("tarjeta_grafica");
+        info.memoriaInstalada = campos.get("memoria_instalada");
+        info.discos = campos.get("disco_duro");
+        try {
+            info.numeroDiscos = Integer.parseInt(campos.getOrDefault("num_discos", "0"));
+        } catch (NumberFormatException e) {
+            info.numeroDiscos = 0;
+        }
+    }
+
+    /** Aplicaciones como "nombre | versión", ordenadas y sin duplicados. */
+    private static TreeSet<String> appsOrdenadas(String csv) {
+        return new TreeSet<>(appsPorClave(csv).keySet());
+    }
+
+    /** Aplicaciones del CSV por clave "nombre | versión", con sus cuatro columnas. */
+    private static TreeMap<String, String[]> appsPorClave(String csv) {
+        TreeMap<String, String[]> apps = new TreeMap<>();
+        for (String[] app : parsearApps(csv)) {
+            String[] fila = {app[0], app.length > 1 ? app[1] : "", app.length > 2 ? app[2] : "", app.length > 3 ? app[3] : ""};
+            apps.putIfAbsent(claveApp(fila[0], fila[1]), fila);
+        }
+        return apps;
+    }
+
+    private static String claveApp(String nombre, String version) {
+        return Objects.toString(nombre, "").trim() + " | " + Objects.toString(version, "").trim();
+    }
+
+    /**
+     * Aplicaciones de {@code estado_equipos.apps_json}: filas [nombre, versión, fabricante,
+     * fecha]. Los estados anteriores guardaban solo "nombre | versión".
+     */
+    private static TreeMap<String, String[]> leerAppsEstado(String json) throws SQLException {
+        TreeMap<String, String[]> apps = new TreeMap<>();
+        for (Object app : leerJson(json, new TypeReference<List<Object>>() {})) {
+            String[] fila = new String[] {"", "", "", ""};
+            if (app instanceof List<?> columnas) {
+                for (int c = 0; c < fila.length && c < columnas.size(); c++) {
+                    fila[c] = Objects.toString(columnas.get(c), "");
+                }
+            } else {
+                String[] partes = Objects.toString(app, "").split(" \\| ", 2);
+                fila[0] = partes[0];
+                fila[1] = partes.length > 1 ? partes[1] : "";
+            }
+            apps.put(claveApp(fila[0], fila[1]), fila);
+        }
+        return apps;
+    }
+
+    /** @return ID del evento insertado */
+    private static long insertarEvento(Connection conn, String proyectoId, String hostname, String fecha,
+                                       TipoEscaneo tipo, String huella, String cambios,
+                                       String agregadas, String eliminadas) throws SQLException {
+        try (PreparedStatement pstmt = conn.prepareStatement(
+                "INSERT INTO eventos_equipos (proyecto_id, hostname, fecha, tipo, huella, cambios_json, " +
+                "apps_agregadas_json, apps_eliminadas_json) VALUES (?, ?, ?, ?, ?, ?, ?, ?)")) {
+            pstmt.setString(1, proyectoId);
+            pstmt.setString(2, hostname);
+            pstmt.setString(3, fecha);
+            pstmt.setString(4, tipo.name());
+            pstmt.setString(5, huella);
+            pstmt.setString(6, cambios);
+            pstmt.setString(7, agregadas);
+            pstmt.setString(8, eliminadas);
+            pstmt.executeUpdate();
+        }
+        try (Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT last_insert_rowid()")) {
+            rs.next();
+            return rs.getLong(1);
+        }
+    }
+
+    /**
+     * Inserta la fila del escaneo y sus aplicaciones en la transacción indicada.
+     */
+    private void insertarEscaneo(Connection conn, String id, String proyectoId, String rutaExcel,
+                                 InventarioFXBase.InfoPC info) throws SQLException {
+        String fecha = formatear(info.fecha != null ? info.fecha : new Date());
+
+        String sqlInventario =
+            "INSERT INTO inventarios (id, proyecto_id, fecha, usuario, hostname, sistema, fabricante, modelo, " +
+            "procesador, tarjeta_grafica, memoria_ram, disco_duro, num_discos, ip, fecha_escaneo, " +
+            "bios, memoria_instalada, tarjeta_red, tipo_dispositivo, id_grupo, ruta_excel, exportado) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, 0)";
+        String sqlApp =
+            "INSERT INTO inventario_apps (inventario_id, nombre, version, fabricante, fecha_instalacion) " +
+            "VALUES (?, ?, ?, ?, ?)";
+
+        try (PreparedStatement pstmt = conn.prepareStatement(sqlInventario)) {
+            pstmt.setString(1, id);
+            pstmt.setString(2, proyectoId);
+            pstmt.setString(3, fecha);
+            pstmt.setString(4, info.userName);
+            pstmt.setString(5, info.hostname);
+            pstmt.setString(6, info.sistema);
+            pstmt.setString(7, info.manufacturer);
+            pstmt.setString(8, info.modeloEquipo);
+            pstmt.setString(9, info.cpu);
+            pstmt.setString(10, info.gpu);
+            pstmt.setString(11, info.ram);
+            pstmt.setString(12, info.discos);
+            pstmt.setString(13, String.valueOf(info.numeroDiscos));
+            pstmt.setString(14, info.ip);
+            pstmt.setString(15, fecha);
+            pstmt.setString(16, info.bios);
+            pstmt.setString(17, info.memoriaInstalada);
+            pstmt.setString(18, info.tarjetaRed);
+            pstmt.setString(19, info.deviceType);
+            pstmt.setString(20, info.idGrupo);
+            pstmt.setString(21, rutaExcel);
+            pstmt.executeUpdate();
+        }
+
+        try (PreparedStatement pstmt = conn.prepareStatement(sqlApp)) {
+            for (String[] app : parsearApps(info.installedApps)) {
+                pstmt.setString(1, id);
+                pstmt.setString(2, app[0]);
+                pstmt.setString(3, app.length > 1 ? app[1] : "");
+                pstmt.setString(4, app.length > 2 ? app[2] : "");
+                pstmt.setString(5, app.length > 3 ? app[3] : "");
+                pstmt.addBatch();
+            }
+            pstmt.executeBatch();
+        }
+    }
+
+    /**
+     * Inserta la fila de un CAMBIO: solo los datos propios del escaneo (los campos estables
+     * quedan en NULL y se reconstruyen al exportar) y las aplicaciones agregadas y eliminadas.
+     */
+    private void insertarCambio(Connection conn, String id, String proyectoId, String rutaExcel,
+                                InventarioFXBase.InfoPC info, long eventoId,
+                                Collection<String[]> agregadas, Collection<String[]> eliminadas) throws SQLException {
+        String fecha = formatear(info.fecha != null ? info.fecha : new Date());
+        try (PreparedStatement pstmt = conn.prepareStatement(
+                "INSERT INTO inventarios (id, proyecto_id, fecha, usuario, hostname, memoria_ram, ip, fecha_escaneo, " +
+                "tarjeta_red, id_grupo, ruta_excel, evento_id, exportado) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, 0)")) {
+            pstmt.setString(1, id);
+            pstmt.setString(2, proyectoId);
+            pstmt.setString(3, fecha);
+            pstmt.setString(4, info.userName);
+            pstmt.setString(5, info.hostname);
+            pstmt.setString(6, info.ram);
+            pstmt.setString(7, info.ip);
+            pstmt.setString(8, fecha);
+            pstmt.setString(9, info.tarjetaRed);
+            pstmt.setString(10, info.idGrupo);
+            pstmt.setString(11, rutaExcel);
+            pstmt.setLong(12, eventoId);
+            pstmt.executeUpdate();
+        }
+        try (PreparedStatement pstmt = conn.prepareStatement(
+                "INSERT INTO inventario_apps (inventario_id, nombre, version, fabricante, fecha_instalacion, cambio) " +
+                "VALUES (?, ?, ?, ?, ?, ?)")) {
+            for (String[] app : agregadas) agregarFilaApp(pstmt, id, app, APP_AGREGADA);
+            for (String[] app : eliminadas) agregarFilaApp(pstmt, id, app, APP_ELIMINADA);
+            pstmt.executeBatch();
+        }
+    }
+
+    private static void agregarFilaApp(PreparedStatement pstmt, String id, String[] app, String cambio) throws SQLException {
+        pstmt.setString(1, id);
+        pstmt.setString(2, app[0]);
+        pstmt.setString(3, app[1]);
+        pstmt.setString(4, app[2]);
+        pstmt.setString(5, app[3]);
+        pstmt.setString(6, cambio);
+        pstmt.addBatch();
+    }
+
+    /**
+     * Cuenta los escaneos que todavía no se han volcado al Excel indicado.
+     *
+     * @param rutaExcel Ruta del Excel cifrado del proyecto
+     * @return Número de escaneos pendientes (0 si hay error)
+     */
+    public int contarPendientes(String rutaExcel) {
+        String sql = "SELECT COUNT(*) FROM inventarios WHERE ruta_excel = ? AND exportado = 0";
+        try (Connection conn = DatabaseManager.getReadConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            pstmt.setString(1, rutaExcel);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                if (rs.next()) return rs.getInt(1);
+            }
+        } catch (SQLException e) {
+            logger.error("Error contando escaneos pendientes: " + e.getMessage(), e);
+        }
+        return 0;
+    }
+
+    /**
+     * Rutas de Excel (columna ruta_excel) con escaneos sin volcar.
+     *
+     * @return Rutas distintas (vacío si hay error)
+     */
+    public List<String> obtenerRutasPendientes() {
+        List<String> rutas = new ArrayList<>();
+        String sql = "SELECT DISTINCT ruta_excel FROM inventarios WHERE exportado = 0 AND ruta_excel IS NOT NULL";
+        try (Connection conn = DatabaseManager.getReadConnection();
+             Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery(sql)) {
+            while (rs.next()) rutas.add(rs.getString(1));
+        } catch (SQLException e) {
+            logger.error("Error buscando rutas con escaneos pendientes: " + e.getMessage(), e);
+        }
+        return rutas;
+    }
+
+    /**
+     * Obtiene los escaneos pendientes de exportar, en orden de escaneo,
+     * reconstruidos como {@link InventarioFXBase.InfoPC} con su lista de aplicaciones.
+     * Las filas de un CAMBIO se completan con el estado del equipo en ese escaneo.
+     *
+     * @param rutaExcel Ruta del Excel cifrado del proyecto
+     * @return Mapa ordenado ID → InfoPC
+     */
+    public Map<String, InventarioFXBase.InfoPC> obtenerPendientes(String rutaExcel) {
+        Map<String, InventarioFXBase.InfoPC> pendientes = new LinkedHashMap<>();
+        Set<String> conCambios = new HashSet<>();
+        String sql = "SELECT * FROM inventarios WHERE ruta_excel = ? AND exportado = 0 ORDER BY fecha_escaneo, rowid";
+        String sqlApps = "SELECT inventario_id, nombre, version, fabricante, fecha_instalacion FROM inventario_apps " +
+                         "WHERE inventario_id IN (SELECT id FROM inventarios WHERE ruta_excel = ? AND exportado = 0) " +
+                         "AND cambio IS NULL ORDER BY inventario_id, id";
+
+        try (Connection conn = DatabaseManager.getReadConnection()) {
+            // Una sola transacción de lectura: el estado y sus diferencias deben ser de la misma versión
+            conn.setAutoCommit(false);
+            try {
+                try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+                    pstmt.setString(1, rutaExcel);
+                    try (ResultSet rs = pstmt.executeQuery()) {
+                        while (rs.next()) {
+                            String id = rs.getString("id");
+                            pendientes.put(id, mapResultSetToInfo(rs));
+                            rs.getLong("evento_id");
+                            if (!rs.wasNull()) conCambios.add(id);
+                        }
+                    }
+                }
+
+                Map<String, StringBuilder> csvPorId = new LinkedHashMap<>();
+                try (PreparedStatement pstmt = conn.prepareStatement(sqlApps)) {
+                    pstmt.setString(1, rutaExcel);
+                    try (ResultSet rs = pstmt.executeQuery()) {
+                        while (rs.next()) {
+                            StringBuilder csv = csvPorId.computeIfAbsent(rs.getString("inventario_id"),
+                                k -> new StringBuilder(CABECERA_CSV));
+                            csv.append(filaCsv(rs.getString("nombre"), rs.getString("version"),
+                                rs.getString("fabricante"), rs.getString("fecha_instalacion")));
+                        }
+                    }
+                }
+                csvPorId.forEach((id, csv) -> {
+                    InventarioFXBase.InfoPC info = pendientes.get(id);
+                    if (info != null) info.installedApps = csv.toString();
+                });
+
+                if (!conCambios.isEmpty()) reconstruirCambios(conn, pendientes, conCambios);
+            } finally {
+                conn.rollback();
+                conn.setAutoCommit(true);
+            }
+        } catch (SQLException e) {
+            logger.error("Error obteniendo escaneos pendientes: " + e.getMessage(), e);
+        }
+        return pendientes;
+    }
+
+    /** Diferencias de un CAMBIO: campos [antes, después] y aplicaciones agregadas/eliminadas. */
+    private static final class Cambio {
+        final String inventarioId;
+        final Map<String, String[]> campos;
+        final List<String[]> agregadas = new ArrayList<>();
+        final List<String[]> eliminadas = new ArrayList<>();
+
+        Cambio(String inventarioId, Map<String, String[]> campos) {
+            this.inventarioId = inventarioId;
+            this.campos = campos;
+        }
+    }
+
+    /**
+     * Completa las filas de CAMBIO pendientes. Los cambios sin exportar de un equipo son
+     * siempre los más recientes, así que el estado anterior al primero se obtiene deshaciendo
+     * todos ellos sobre el estado actual; después se aplican en orden y cada fila recibe el
+     * estado resultante.
+     */
+    private void reconstruirCambios(Connection conn, Map<String, InventarioFXBase.InfoPC> pendientes,
+                                    Set<String> conCambios) throws SQLException {
+        Set<String> equipos = new LinkedHashSet<>();
+        try (PreparedStatement pstmt = conn.prepareStatement(
+                "SELECT e.proyecto_id, e.hostname FROM inventarios i JOIN eventos_equipos e ON e.id = i.evento_id " +
+                "WHERE i.id = ?")) {
+            for (String id : conCambios) {
+                pstmt.setString(1, id);
+                try (ResultSet rs = pstmt.executeQuery()) {
+                    if (rs.next()) equipos.add(rs.getString(1) + "\n" + rs.getString(2));
+                }
+            }
+        }
+
+        for (String equipo : equipos) {
+            String proyectoId = equipo.substring(0, equipo.indexOf('\n'));
+            String host = equipo.substring(equipo.indexOf('\n') + 1);
+
+            Map<String, String> campos;
+            TreeMap<String, String[]> apps;
+            try (PreparedStatement pstmt = conn.prepareStatement(
+                    "SELECT campos_json, apps_json FROM estado_equipos WHERE proyecto_id = ? AND hostname = ?")) {
+                pstmt.setString(1, proyectoId);
+                pstmt.setString(2, host);
+                try (ResultSet rs = pstmt.executeQuery()) {
+                    if (!rs.next()) {
+                        logger.warn("[Inventario] Sin estado para reconstruir los cambios de " + host);
+                        continue;
+                    }
+                    campos = leerJson(rs.getString(1), new TypeReference<LinkedHashMap<String, String>>() {});
+                    apps = leerAppsEstado(rs.getString(2));
+                }
+            }
+
+            List<Cambio> cambios = new ArrayList<>();
+            Map<String, Cambio> porId = new HashMap<>();
+            try (PreparedStatement pstmt = conn.prepareStatement(
+                    "SELECT i.id, e.cambios_json FROM inventarios i JOIN eventos_equipos e ON e.id = i.evento_id " +
+                    "WHERE e.proyecto_id = ? AND e.hostname = ? AND i.exportado = 0 ORDER BY e.id")) {
+                pstmt.setString(1, proyectoId);
+                pstmt.setString(2, host);
+                try (ResultSet rs = pstmt.executeQuery()) {
+                    while (rs.next()) {
+                        String json = rs.getString(2);
+                        Cambio c = new Cambio(rs.getString(1), json == null ? Map.of()
+                            : leerJson(json, new TypeReference<Map<String, String[]>>() {}));
+                        cambios.add(c);
+                        porId.put(c.inventarioId, c);
+                    }
+                }
+            }
+            try (PreparedStatement pstmt = conn.prepareStatement(
+                    "SELECT a.inventario_id, a.nombre, a.version, a.fabricante, a.fecha_instalacion, a.cambio " +
+                    "FROM inventario_apps a JOIN inventarios i ON i.id = a.inventario_id " +
+                    "JOIN eventos_equipos e ON e.id = i.evento_id " +
+                    "WHERE e.proyecto_id = ? AND e.hostname = ? AND i.exportado = 0 AND a.cambio IS NOT NULL")) {
+                pstmt.setString(1, proyectoId);
+                pstmt.setString(2, host);
+                try (ResultSet rs = pstmt.executeQuery()) {
+                    while (rs.next()) {
+                        Cambio c = porId.get(rs.getString(1));
+                        String[] app = {Objects.toString(rs.getString(2), ""), Objects.toString(rs.getString(3), ""),
+                            Objects.toString(rs.getString(4), ""), Objects.toString(rs.getString(5), "")};
+                        (APP_AGREGADA.equals(rs.getString(6)) ? c.agregadas : c.eliminadas).add(app);
+                    }
+                }
+            }
+
+            // Deshacer del más reciente al más antiguo...
+            for (int n = cambios.size() - 1; n >= 0; n--) {
+                Cambio c = cambios.get(n);
+                c.campos.forEach((campo, valores) -> campos.put(campo, Objects.toString(valores[0], "")));
+                c.agregadas.forEach(app -> apps.remove(claveApp(app[0], app[1])));
+                c.eliminadas.forEach(app -> apps.put(claveApp(app[0], app[1]), app));
+            }
+            // ...y aplicar en orden
+            for (Cambio c : cambios) {
+                c.campos.forEach((campo, valores) -> campos.put(campo, Objects.toString(valores[1], "")));
+                c.eliminadas.forEach(app -> apps.remove(claveApp(app[0], app[1])));
+                c.agregadas.forEach(app -> apps.put(claveApp(app[0], app[1]), app));
+                InventarioFXBase.InfoPC info = pendientes.get(c.inventarioId);
+                if (info == null) continue;
+                aplicarCamposEstables(info, campos);
+                StringBuilder csv = new StringBuilder(CABECERA_CSV);
+                apps.values().forEach(app -> csv.append(filaCsv(app[0], app[1], app[2], app[3])));
+                info.installedApps = csv.toString();
+            }
+        }
+    }
+
+    /**
+     * Marca escaneos como ya volcados al Excel del proyecto.
+     *
+     * @param ids IDs de los escaneos exportados
+     * @throws SQLException Si no se pudo actualizar
+     */
+    public void marcarExportados(List<String> ids) throws SQLException {
+        if (ids == null || ids.isEmpty()) return;
+        DatabaseManager.executeInTransaction(conn -> {
+            try (PreparedStatement pstmt = conn.prepareStatement("UPDATE inventarios SET exportado = 1 WHERE id = ?")) {
+                for (String id : ids) {
+                    pstmt.setString(1, id);
+                    pstmt.addBatch();
+                }
+                pstmt.executeBatch();
+            }
+        });
+    }
+
+    /**
+     * Asigna a escaneos pendientes el lote con el que se van a volcar al Excel.
+     * El mismo lote queda grabado en el Excel; si la exportación se interrumpe
+     * después de escribirlo, {@link #confirmarLote} evita exportarlos otra vez.
+     *
+     * @param ids  IDs de los escaneos que se van a exportar
+     * @param lote Identificador de la exportación
+     * @throws SQLException Si no se pudo actualizar
+     */
+    public void asignarLote(List<String> ids, String lote) throws SQLException {
+        if (ids == null || ids.isEmpty()) return;
+        DatabaseManager.executeInTransaction(conn -> {
+            try (PreparedStatement pstmt = conn.prepareStatement(
+                    "UPDATE inventarios SET lote_exportacion = ? WHERE id = ? AND exportado = 0")) {
+                for (String id : ids) {
+                    pstmt.setString(1, lote);
+                    pstmt.setString(2, id);
+                    pstmt.addBatch();
+                }
+                pstmt.executeBatch();
+            }
+        });
+    }
+
+    /**
+     * Lotes asignados a escaneos que siguen sin marcar como exportados: solo quedan
+     * así si una exportación falló o se cortó entre escribir el Excel y marcarlos.
+     *
+     * @param rutaExcel Ruta del Excel cifrado del proyecto
+     */
+    public Set<String> obtenerLotesSinConfirmar(String rutaExcel) {
+        Set<String> lotes = new HashSet<>();
+        String sql = "SELECT DISTINCT lote_exportacion FROM inventarios " +
+                     "WHERE ruta_excel = ? AND exportado = 0 AND lote_exportacion IS NOT NULL";
+        try (Connection conn = DatabaseManager.getReadConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            pstmt.setString(1, rutaExcel);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) lotes.add(rs.getString(1));
+            }
+        } catch (SQLException e) {
+            logger.error("Error leyendo lotes de exportación: " + e.getMessage(), e);
+        }
+        return lotes;
+    }
+
+    /**
+     * Marca como exportados los escaneos de un lote que ya está en el Excel.
+     *
+     * @return Escaneos marcados
+     * @throws SQLException Si no se pudo actualizar
+     */
+    public int confirmarLote(String rutaExcel, String lote) throws SQLException {
+        int[] marcados = new int[1];
+        DatabaseManager.executeInTransaction(conn -> {
+            try (PreparedStatement pstmt = conn.prepareStatement(
+                    "UPDATE inventarios SET exportado = 1 WHERE ruta_excel = ? AND exportado = 0 AND lote_exportacion = ?")) {
+                pstmt.setString(1, rutaExcel);
+                pstmt.setString(2, lote);
+                marcados[0] = pstmt.executeUpdate();
+            }
+        });
+        return marcados[0];
+    }
+
+    /**
+     * Convierte una fila de inventarios en InfoPC (sin aplicaciones).
+     */
+    private InventarioFXBase.InfoPC mapResultSetToInfo(ResultSet rs) throws SQLException {
+        InventarioFXBase.InfoPC info = new InventarioFXBase.InfoPC();
+        info.fecha = parsear(rs.getString("fecha_escaneo"));
+        info.userName = rs.getString("usuario");
+        info.hostname = rs.getString("hostname");
+        info.sistema = rs.getString("sistema");
+        info.manufacturer = rs.getString("fabricante");
+        info.modeloEquipo = rs.getString("modelo");
+        info.cpu = rs.getString("procesador");
+        info.gpu = rs.getString("tarjeta_grafica");
+        info.ram = rs.getString("memoria_ram");
+        info.discos = rs.getString("disco_duro");
+        try {
+            info.numeroDiscos = Integer.parseInt(rs.getString("num_discos"));
+        } catch (NumberFormatException e) {
+            info.numeroDiscos = 0;
+        }
+        info.ip = rs.getString("ip");
+        info.bios = rs.getString("bios");
+        info.memoriaInstalada = rs.getString("memoria_instalada");
+        info.tarjetaRed = rs.getString("tarjeta_red");
+        info.deviceType = rs.getString("tipo_dispositivo");
+        info.idGrupo = rs.getString("id_grupo");
+        info.installedApps = "";
+        return info;
+    }
+
+    /**
+     * Separa el CSV de aplicaciones (formato de getInstalledApps) en filas.
+     */
+    private static List<String[]> parsearApps(String csv) {
+        List<String[]> filas = new ArrayList<>();
+        if (csv == null || csv.isBlank()) return filas;
+        for (String linea : csv.trim().split("\\r?\\n")) {
+            String t = linea.trim();
+            if (t.isEmpty()) continue;
+            String low = t.toLowerCase();
+            if (low.contains("displayname") && low.contains("displayversion")) continue;
+            List<String> campos = InventarioFXBase.parseCsvLineAvanzado(linea);
+            if (campos.isEmpty() || campos.get(0).isEmpty()) continue;
+            filas.add(campos.toArray(new String[0]));
+        }
+        return filas;
+    }
+
+    private static String escribirJson(Object valor) throws SQLException {
+        try {
+            return mapper.writeValueAsString(valor);
+        } catch (Exception e) {
+            throw new SQLException("No se pudo serializar el estado del equipo", e);
+        }
+    }
+
+    private static <T> T leerJson(String json, TypeReference<T> tipo) throws SQLException {
+        try {
+            return mapper.readValue(json, tipo);
+        } catch (Exception e) {
+            throw new SQLException("Estado del equipo ilegible", e);
+        }
+    }
+
+    private static String filaCsv(String nombre, String version, String fabricante, String fecha) {
+        return String.format("\"%s\",\"%s\",\"%s\",\"%s\"\n",
+            escaparCsv(nombre), escaparCsv(version), escaparCsv(fabricante), escaparCsv(fecha));
+    }
+
+    private static String escaparCsv(String valor) {
+        return valor == null ? "" : valor.replace("\"", "\"\"");
+    }
+
+    private static String formatear(Date fecha) {
+        return fecha.toInstant().atZone(ZoneId.systemDefault()).toLocalDateTime().format(FORMATO_FECHA);
+    }
+
+    private static Date parsear(String fecha) {
+        try {
+            return Date.from(LocalDateTime.parse(fecha, FORMATO_FECHA).atZone(ZoneId.systemDefault()).toInstant());
+        } catch (Exception e) {
+            return new Date();
+        }
+    }
+}
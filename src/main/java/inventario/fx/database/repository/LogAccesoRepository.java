@@ -28,66 +28,52 @@ import java.util.List;
  */
 public class LogAccesoRepository {
 
-    public LogAccesoRepository() {
-        crearTabla();
-    }
-
-    /**
-     * Crea la tabla de logs de acceso si no existe.
-     * También asegura que la columna {@code hora} exista para bases de datos antiguas.
-     */
-    private void crearTabla() {
-        String sql = """
-            CREATE TABLE IF NOT EXISTS logs_acceso (
-                id INTEGER PRIMARY KEY AUTOINCREMENT,
-                fecha TEXT NOT NULL,
-                hora TEXT DEFAULT '',
-                accion TEXT NOT NULL,
-                detalle TEXT,
-                usuario TEXT,
-                ip TEXT
-            )
-            """;
-        try (Connection conn = DatabaseManager.getConnection();
-             Statement stmt = conn.createStatement()) {
-            stmt.execute(sql);
-            // Asegurar que la columna hora exista en bases de datos anteriores
-            try {
-                stmt.execute("ALTER TABLE logs_acceso ADD COLUMN hora TEXT DEFAULT ''");
-            } catch (Exception ignored) {
-                // La columna ya existe
-            }
-        } catch (Exception e) {
-            System.err.println("[LogAccesoRepository] Error creando tabla logs_acceso: " + e.getMessage());
-        }
-    }
-
     /**
      * Guarda un nuevo log de acceso en la base de datos.
      * Separa la fecha completa ("yyyy-MM-dd HH:mm:ss") en fecha y hora
      * para compatibilidad con esquemas que requieren la columna {@code hora}.
      *
+     * <p>Espera a la confirmación; los registros de auditoría van por
+     * {@link AnotadorLogsAcceso}, que los agrupa en segundo plano.
+     *
      * @param log Objeto LogAcceso a guardar
      */
     public void save(AdminManager.LogAcceso log) {
-        String sql = "INSERT INTO logs_acceso (fecha, hora, accion, detalle, usuario, ip) VALUES (?, ?, ?, ?, ?, ?)";
-        try (Connection conn = DatabaseManager.getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(sql)) {
-            String fecha = log.getFecha(); // "yyyy-MM-dd HH:mm:ss"
-            String soloFecha = fecha != null && fecha.length() >= 10 ? fecha.substring(0, 10) : fecha;
-            String hora = fecha != null && fecha.length() >= 19 ? fecha.substring(11, 19) : "";
-            pstmt.setString(1, soloFecha);
-            pstmt.setString(2, hora);
-            pstmt.setString(3, log.getAccion());
-            pstmt.setString(4, log.getDetalle());
-            pstmt.setString(5, log.getUsuario());
-            pstmt.setString(6, log.getIp());
-            pstmt.executeUpdate();
+        try {
+            saveAll(List.of(log));
         } catch (Exception e) {
             System.err.println("[LogAccesoRepository] Error guardando log: " + e.getMessage());
         }
     }
 
+    /**
+     * Guarda varios logs en una sola transacción.
+     *
+     * @param logs Logs en orden de registro
+     * @throws SQLException Si falla la escritura (no se guarda ninguno)
+     */
+    public void saveAll(List<AdminManager.LogAcceso> logs) throws SQLException {
+        if (logs.isEmpty()) return;
+        String sql = "INSERT INTO logs_acceso (fecha, hora, accion, detalle, usuario, ip) VALUES (?, ?, ?, ?, ?, ?)";
+        DatabaseManager.executeInTransaction(conn -> {
+            try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+                for (AdminManager.LogAcceso log : logs) {
+                    String fecha = log.getFecha(); // "yyyy-MM-dd HH:mm:ss"
+                    String soloFecha = fecha != null && fecha.length() >= 10 ? fecha.substring(0, 10) : fecha;
+                    String hora = fecha != null && fecha.length() >= 19 ? fecha.substring(11, 19) : "";
+                    pstmt.setString(1, soloFecha);
+                    pstmt.setString(2, hora);
+                    pstmt.setString(3, log.getAccion());
+                    pstmt.setString(4, log.getDetalle());
+                    pstmt.setString(5, log.getUsuario());
+                    pstmt.setString(6, log.getIp());
+                    pstmt.addBatch();
+                }
+                pstmt.executeBatch();
+            }
+        });
+    }
+
     /**
      * Obtiene los últimos N logs de acceso.
      *
@@ -97,7 +83,7 @@ public class LogAccesoRepository {
     public List<AdminManager.LogAcceso> findAll(int limite) {
         List<AdminManager.LogAcceso> logs = new ArrayList<>();
         String sql = "SELECT fecha, hora, accion, detalle, usuario, ip FROM logs_acceso ORDER BY id DESC LIMIT ?";
-        try (Connection conn = DatabaseManager.getConnection();
+        try (Connection conn = DatabaseManager.getReadConnection();
              PreparedStatement pstmt = conn.prepareStatement(sql)) {
             pstmt.setInt(1, limite);
             ResultSet rs = pstmt.executeQuery();
@@ -127,9 +113,12 @@ public class LogAccesoRepository {
      */
     public void deleteAll() {
         String sql = "DELETE FROM logs_acceso";
-        try (Connection conn = DatabaseManager.getConnection();
-             Statement stmt = conn.createStatement()) {
-            stmt.execute(sql);
+        try {
+            DatabaseManager.executeInTransaction(conn -> {
+                try (Statement stmt = conn.createStatement()) {
+                    stmt.execute(sql);
+                }
+            });
         } catch (Exception e) {
             System.err.println("[LogAccesoRepository] Error eliminando logs: " + e.getMessage());
         }
@@ -142,7 +131,7 @@ public class LogAccesoRepository {
      */
     public int count() {
         String sql = "SELECT COUNT(*) FROM logs_acceso";
-        try (Connection conn = DatabaseManager.getConnection();
+        try (Connection conn = DatabaseManager.getReadConnection();
              Statement stmt = conn.createStatement();
              ResultSet rs = stmt.executeQuery(sql)) {
             if (rs.next()) {
@@ -103,7 +103,7 @@ public class ProyectoRepository {
     public Optional<AdminManager.Proyecto> findById(String id) {
         String sql = "SELECT * FROM proyectos WHERE id = ? AND eliminado = 0";
         
-        try (Connection conn = (dbManager != null ? dbManager.getConnection() : DatabaseManager.getConnection());
+        try (Connection conn = DatabaseManager.getReadConnection();
              PreparedStatement pstmt = conn.prepareStatement(sql)) {
             
             pstmt.setString(1, id);
@@ -130,7 +130,7 @@ public class ProyectoRepository {
     public Optional<AdminManager.Proyecto> findByNombre(String nombre) {
         String sql = "SELECT * FROM proyectos WHERE nombre = ? AND eliminado = 0";
         
-        try (Connection conn = (dbManager != null ? dbManager.getConnection() : DatabaseManager.getConnection());
+        try (Connection conn = DatabaseManager.getReadConnection();
              PreparedStatement pstmt = conn.prepareStatement(sql)) {
             
             pstmt.setString(1, nombre);
@@ -179,7 +179,7 @@ public class ProyectoRepository {
         // Esto evita que los proyectos cambien de posición cuando se editan
         sql.append(" ORDER BY fecha_creacion ASC");
         
-        try (Connection conn = (dbManager != null ? dbManager.getConnection() : DatabaseManager.getConnection());
+        try (Connection conn = DatabaseManager.getReadConnection();
              PreparedStatement stmt = conn.prepareStatement(sql.toString());
              ResultSet rs = stmt.executeQuery()) {
             
@@ -260,7 +260,7 @@ public class ProyectoRepository {
     public int countActive() {
         String sql = "SELECT COUNT(*) FROM proyectos WHERE activo = 1 AND eliminado = 0";
         
-        try (Connection conn = (dbManager != null ? dbManager.getConnection() : DatabaseManager.getConnection());
+        try (Connection conn = DatabaseManager.getReadConnection();
              PreparedStatement stmt = conn.prepareStatement(sql);
              ResultSet rs = stmt.executeQuery()) {
             
@@ -0,0 +1,275 @@
+package inventario.fx.database.repository;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import inventario.fx.database.DatabaseManager;
+import inventario.fx.model.AdminManager;
+import inventario.fx.model.DatosReporte;
+import inventario.fx.model.ReporteItem;
+import inventario.fx.util.AppLogger;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectStreamClass;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.sql.*;
+import java.time.LocalTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Repositorio de los reportes de mantenimiento.
+ *
+ * <p>Tabla: reportes. Cada reporte es una fila: las columnas de búsqueda (ticket, tipo,
+ * cliente, técnico, fechas, proyecto) más el formulario completo en {@code datos_json}.
+ * Las consultas por proyecto usan {@code proyecto_nombre} (el nombre "N. Nombre" con el que
+ * el panel filtra) y {@code proyecto_id} se rellena cuando el proyecto existe.
+ *
+ * <p>Sustituye a {@code reportes_mantenimiento.dat}: si el archivo existe, su contenido se
+ * importa una vez ({@link #migrarArchivoDat()}) y se renombra a {@code .migrado}.
+ *
+ * @author SELCOMP
+ * @version 1.0
+ * @since 2026-01-14
+ */
+public class ReporteRepository {
+
+    private static final AppLogger logger = AppLogger.getLogger(ReporteRepository.class);
+
+    private static final ObjectMapper mapper = new ObjectMapper()
+        .configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+
+    private static final String SQL_UPSERT = """
+        INSERT INTO reportes (id, proyecto_id, proyecto_nombre, ticket, tipo_solicitud, nombre_cliente,
+                              correo_cliente, tecnico, fecha_reporte, hora_reporte, datos_json)
+        VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)
+        ON CONFLICT(id) DO UPDATE SET
+            proyecto_id = excluded.proyecto_id,
+            proyecto_nombre = excluded.proyecto_nombre,
+            ticket = excluded.ticket,
+            tipo_solicitud = excluded.tipo_solicitud,
+            nombre_cliente = excluded.nombre_cliente,
+            correo_cliente = excluded.correo_cliente,
+            tecnico = excluded.tecnico,
+            datos_json = excluded.datos_json,
+            updated_at = CURRENT_TIMESTAMP
+        """;
+
+    /**
+     * Reportes de un proyecto, del más reciente al más antiguo.
+     *
+     * @param proyectoNombre Nombre del proyecto tal como lo guarda el formulario, o null para todos
+     * @return Reportes (vacío si hay error)
+     */
+    public List<ReporteItem> findByProyecto(String proyectoNombre) {
+        migrarArchivoDat();
+        boolean todos = proyectoNombre == null || proyectoNombre.isEmpty();
+        String sql = "SELECT id, fecha_reporte, hora_reporte, datos_json FROM reportes"
+            + (todos ? "" : " WHERE proyecto_nombre = ?") + " ORDER BY rowid DESC";
+        List<ReporteItem> reportes = new ArrayList<>();
+        try (Connection conn = DatabaseManager.getReadConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            if (!todos) pstmt.setString(1, proyectoNombre);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    try {
+                        DatosReporte datos = mapper.readValue(rs.getString("datos_json"), DatosReporte.class);
+                        reportes.add(new ReporteItem(datos, rs.getString("id"),
+                            rs.getString("fecha_reporte"), rs.getString("hora_reporte")));
+                    } catch (IOException e) {
+                        logger.warn("[ReporteRepository] Reporte " + rs.getString("id") + " ilegible: " + e.getMessage());
+                    }
+                }
+            }
+        } catch (SQLException e) {
+            logger.error("[ReporteRepository] Error cargando reportes: " + e.getMessage(), e);
+        }
+        return reportes;
+    }
+
+    /**
+     * Inserta o actualiza un reporte (solo esa fila).
+     *
+     * @return true si se guardó
+     */
+    public boolean guardar(ReporteItem reporte) {
+        try {
+            DatabaseManager.executeInTransaction(conn -> {
+                try (PreparedStatement pstmt = conn.prepareStatement(SQL_UPSERT)) {
+                    asignar(pstmt, reporte, resolverProyectoId(reporte.getDatos().proyectoNombre));
+                    pstmt.executeUpdate();
+                }
+            });
+            return true;
+        } catch (Exception e) {
+            logger.error("[ReporteRepository] Error guardando reporte " + reporte.getId() + ": " + e.getMessage(), e);
+            return false;
+        }
+    }
+
+    /**
+     * Elimina los reportes indicados.
+     *
+     * @return Filas eliminadas
+     */
+    public int eliminar(Collection<String> ids) {
+        if (ids.isEmpty()) return 0;
+        try {
+            return DatabaseManager.executeWithRetry(conn -> {
+                int total = 0;
+                try (PreparedStatement pstmt = conn.prepareStatement("DELETE FROM reportes WHERE id = ?")) {
+                    for (String id : ids) {
+                        pstmt.setString(1, id);
+                        total += pstmt.executeUpdate();
+                    }
+                }
+                return total;
+            });
+        } catch (Exception e) {
+            logger.error("[ReporteRepository] Error eliminando reportes: " + e.getMessage(), e);
+            return 0;
+        }
+    }
+
+    /**
+     * Elimina los reportes de un proyecto, comparando con y sin el índice ("1. Antonio" y
+     * "Antonio" se consideran el mismo proyecto).
+     *
+     * @return Filas eliminadas
+     */
+    public int eliminarPorProyecto(String nombreProyecto) {
+        migrarArchivoDat();
+        String nombreSinIndice = sinIndice(nombreProyecto);
+        List<String> ids = new ArrayList<>();
+        try (Connection conn = DatabaseManager.getReadConnection();
+             Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT id, proyecto_nombre FROM reportes WHERE proyecto_nombre IS NOT NULL")) {
+            while (rs.next()) {
+                String proyecto = rs.getString("proyecto_nombre");
+                if (proyecto.equals(nombreProyecto) || sinIndice(proyecto).equals(nombreSinIndice)) {
+                    ids.add(rs.getString("id"));
+                }
+            }
+        } catch (SQLException e) {
+            logger.error("[ReporteRepository] Error buscando reportes del proyecto: " + e.getMessage(), e);
+            return 0;
+        }
+        return eliminar(ids);
+    }
+
+    /**
+     * Importa {@code reportes_mantenimiento.dat} si todavía existe (instalaciones anteriores o
+     * un backup restaurado). Los reportes que ya estén en la tabla no se sobrescriben. Tras
+     * importar, el archivo se renombra a {@code .migrado}.
+     *
+     * @return Reportes importados
+     */
+    public static synchronized int migrarArchivoDat() {
+        Path archivo = inventario.fx.config.PortablePaths.getReportesFile();
+        if (!Files.exists(archivo)) return 0;
+
+        List<ReporteItem> lista;
+        try (ObjectInputStream ois = new LectorDatHeredado(Files.newInputStream(archivo))) {
+            @SuppressWarnings("unchecked")
+            List<ReporteItem> leidos = (List<ReporteItem>) ois.readObject();
+            lista = leidos;
+        } catch (Exception e) {
+            // Se deja el archivo donde está para no perder nada
+            logger.error("[ReporteRepository] No se pudo leer " + archivo.getFileName() + ": " + e.getMessage(), e);
+            return 0;
+        }
+
+        try {
+            int importados = DatabaseManager.executeWithRetry(conn -> {
+                int total = 0;
+                String sql = SQL_UPSERT.substring(0, SQL_UPSERT.indexOf("ON CONFLICT")) + "ON CONFLICT(id) DO NOTHING";
+                try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+                    // Del más antiguo al más reciente para conservar el orden (rowid)
+                    for (int i = lista.size() - 1; i >= 0; i--) {
+                        ReporteItem r = lista.get(i);
+                        if (r == null || r.getDatos() == null) continue;
+                        asignar(pstmt, r, resolverProyectoId(r.getDatos().proyectoNombre));
+                        total += pstmt.executeUpdate();
+                    }
+                }
+                return total;
+            });
+            Files.move(archivo, Paths.get(archivo + ".migrado"), StandardCopyOption.REPLACE_EXISTING);
+            Files.deleteIfExists(inventario.fx.config.PortablePaths.getReportesBak());
+            logger.info("✅ " + importados + " de " + lista.size() + " reportes migrados desde " + archivo.getFileName());
+            return importados;
+        } catch (Exception e) {
+            logger.error("[ReporteRepository] Error migrando reportes: " + e.getMessage(), e);
+            return 0;
+        }
+    }
+
+    /**
+     * Lee los {@code .dat} escritos cuando {@link ReporteItem} y {@link DatosReporte} eran
+     * clases internas de la interfaz: resuelve esos nombres a las clases del modelo, que
+     * conservan los mismos campos y serialVersionUID.
+     */
+    private static final class LectorDatHeredado extends ObjectInputStream {
+        private static final Map<String, Class<?>> CLASES_MOVIDAS = Map.of(
+            "inventario.fx.ui.panel.GestionReportesFX$ReporteItem", ReporteItem.class,
+            "inventario.fx.ui.panel.ReporteFormularioFX$DatosReporte", DatosReporte.class);
+
+        LectorDatHeredado(InputStream entrada) throws IOException {
+            super(entrada);
+        }
+
+        @Override
+        protected ObjectStreamClass readClassDescriptor() throws IOException, ClassNotFoundException {
+            ObjectStreamClass descriptor = super.readClassDescriptor();
+            Class<?> movida = CLASES_MOVIDAS.get(descriptor.getName());
+            return movida != null ? ObjectStreamClass.lookup(movida) : descriptor;
+        }
+    }
+
+    private static void asignar(PreparedStatement pstmt, ReporteItem r, String proyectoId) throws SQLException {
+        DatosReporte d = r.getDatos();
+        String json;
+        try {
+            json = mapper.writeValueAsString(d);
+        } catch (IOException e) {
+            throw new SQLException("No se pudo serializar el reporte " + r.getId(), e);
+        }
+        pstmt.setString(1, r.getId());
+        pstmt.setString(2, proyectoId);
+        pstmt.setString(3, d.proyectoNombre);
+        pstmt.setString(4, d.ticket);
+        pstmt.setString(5, d.tipoSolicitud);
+        pstmt.setString(6, d.nombre);
+        pstmt.setString(7, d.correo);
+        pstmt.setString(8, d.tecnico);
+        pstmt.setString(9, r.getFechaCreacion() != null ? r.getFechaCreacion() : "");
+        // hora_reporte es NOT NULL: sin hora de creación se guarda la actual
+        String hora = r.getHoraCreacion();
+        pstmt.setString(10, hora != null && !hora.isBlank() ? hora
+            : LocalTime.now().format(DateTimeFormatter.ofPattern("HH:mm")));
+        pstmt.setString(11, json);
+    }
+
+    /**
+     * ID del proyecto con ese nombre ("N. Nombre" o "Nombre"), o null si ya no existe.
+     */
+    private static String resolverProyectoId(String proyectoNombre) {
+        if (proyectoNombre == null || proyectoNombre.isEmpty()) return null;
+        String buscado = sinIndice(proyectoNombre);
+        for (AdminManager.Proyecto p : AdminManager.getProyectosActivos()) {
+            if (buscado.equals(p.getNombre())) return p.getId();
+        }
+        return null;
+    }
+
+    private static String sinIndice(String proyecto) {
+        return proyecto.replaceFirst("^\\d+\\.\\s*", "");
+    }
+}
@@ -0,0 +1,116 @@
+package inventario.fx.excel;
+
+import inventario.fx.security.CacheClavesCifrado;
+import org.apache.poi.openxml4j.util.ZipEntrySource;
+import org.apache.poi.poifs.crypt.EncryptionInfo;
+import org.apache.poi.poifs.crypt.EncryptionMode;
+import org.apache.poi.poifs.crypt.Encryptor;
+import org.apache.poi.poifs.crypt.temp.AesZipFileZipEntrySource;
+import org.apache.poi.poifs.crypt.temp.EncryptedTempData;
+import org.apache.poi.poifs.crypt.temp.SheetDataWriterWithDecorator;
+import org.apache.poi.poifs.filesystem.POIFSFileSystem;
+import org.apache.poi.ss.usermodel.Workbook;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
+import org.apache.poi.xssf.streaming.SheetDataWriter;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Escritura de Excel cifrados en streaming.
+ *
+ * <p>Las filas nuevas se escriben con SXSSF: solo {@link #VENTANA_FILAS} filas viven en
+ * memoria y el resto se vuelca a temporales cifrados con una clave efímera (nunca queda
+ * XML en claro en disco). Al guardar, el paquete se cifra con {@code Encryptor.getDataStream}
+ * directamente sobre un POIFS respaldado por archivo, sin pasar por un
+ * {@code ByteArrayOutputStream} con el libro completo.
+ *
+ * <p><b>Límite:</b> el streaming solo cubre las filas nuevas. {@link #envolver} parte de un
+ * {@link XSSFWorkbook} ya cargado, y SXSSF no puede vaciar las filas que el libro tenía
+ * antes: esas siguen en memoria como objetos XSSF mientras dura la escritura. La memoria
+ * de un guardado crece por tanto con el tamaño del Excel existente (más el paquete
+ * descifrado que guarda {@code CacheExcelDescifrado}), y lo que queda acotado es el coste
+ * de cada fila añadida. Quitar ese límite exigiría leer las filas existentes con SAX
+ * ({@link LectorExcelStreaming}) y reescribir el libro entero por SXSSF, incluidos
+ * estilos, combinaciones y validaciones de cada hoja.
+ */
+public class EscritorExcelStreaming {
+
+    /** Filas que SXSSF mantiene en memoria por hoja antes de volcarlas a disco */
+    public static final int VENTANA_FILAS = 200;
+
+    private EscritorExcelStreaming() {} // Utility class
+
+    /**
+     * Envuelve un libro XSSF (existente o nuevo) para añadirle filas en streaming.
+     * Las filas que ya tenía el libro se conservan; las nuevas deben ir a continuación.
+     * Hay que llamar a {@link SXSSFWorkbook#dispose()} al terminar.
+     */
+    public static SXSSFWorkbook envolver(XSSFWorkbook base) {
+        return new LibroStreamingCifrado(base);
+    }
+
+    /**
+     * Cifra y escribe un libro en {@code destino} (normalmente un temporal que luego
+     * reemplaza al archivo del proyecto).
+     *
+     * @param wb       Libro a guardar (XSSF o SXSSF)
+     * @param destino  Archivo a crear; se sobrescribe si existe
+     * @param password Contraseña del Excel
+     */
+    public static void guardarCifrado(Workbook wb, Path destino, String password) throws Exception {
+        EncryptionInfo info = new EncryptionInfo(EncryptionMode.agile);
+        Encryptor encryptor = info.getEncryptor();
+        encryptor.confirmPassword(password);
+
+        try (POIFSFileSystem fs = POIFSFileSystem.create(destino.toFile())) {
+            try (OutputStream os = encryptor.getDataStream(fs)) {
+                wb.write(os);
+            }
+            fs.writeFilesystem();
+        }
+        // La próxima apertura de este archivo no necesita volver a derivar la clave
+        CacheClavesCifrado.registrar(info, password, encryptor.getSecretKey());
+        // Forzar escritura a disco antes de que el temporal reemplace al original
+        try (FileChannel canal = FileChannel.open(destino, StandardOpenOption.WRITE)) {
+            canal.force(true);
+        }
+    }
+
+    /**
+     * SXSSF con temporales cifrados: tanto los datos de hoja que salen de la ventana
+     * como la plantilla del libro que se genera al escribir.
+     */
+    private static class LibroStreamingCifrado extends SXSSFWorkbook {
+
+        LibroStreamingCifrado(XSSFWorkbook base) {
+            super(base, VENTANA_FILAS);
+        }
+
+        @Override
+        protected SheetDataWriter createSheetDataWriter() throws IOException {
+            return new SheetDataWriterWithDecorator();
+        }
+
+        @Override
+        public void write(OutputStream stream) throws IOException {
+            flushSheets();
+            EncryptedTempData plantilla = new EncryptedTempData();
+            ZipEntrySource fuente = null;
+            try {
+                try (OutputStream os = plantilla.getOutputStream()) {
+                    getXSSFWorkbook().write(os);
+                }
+                fuente = AesZipFileZipEntrySource.createZipEntrySource(plantilla.getInputStream());
+                injectData(fuente, stream);
+            } finally {
+                if (fuente != null) fuente.close();
+                plantilla.dispose();
+            }
+        }
+    }
+}
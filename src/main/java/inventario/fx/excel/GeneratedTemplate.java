@@ -1,5 +1,6 @@
 package inventario.fx.excel;
 import inventario.fx.model.InventarioFXBase;
+import inventario.fx.model.DatosReporte;
 import inventario.fx.ui.panel.ReporteFormularioFX;
 
 import org.apache.poi.ss.usermodel.*;
@@ -35,7 +36,7 @@ public class GeneratedTemplate {
         // ═══════════════════════════════════════════════════════════════════════════
         // OBTENER DATOS DEL FORMULARIO PRIMERO
         // ═══════════════════════════════════════════════════════════════════════════
-        ReporteFormularioFX.DatosReporte datosForm = ReporteFormularioFX.obtenerDatos();
+        DatosReporte datosForm = ReporteFormularioFX.obtenerDatos();
         
         // DEBUG: Imprimir datos recibidos
         System.out.println("=== DATOS DEL FORMULARIO ===");
@@ -0,0 +1,135 @@
+package inventario.fx.excel;
+
+import org.apache.poi.openxml4j.opc.OPCPackage;
+import org.apache.poi.ss.usermodel.DataFormatter;
+import org.apache.poi.ss.usermodel.DateUtil;
+import org.apache.poi.ss.util.CellReference;
+import org.apache.poi.util.XMLHelper;
+import org.apache.poi.xssf.eventusermodel.ReadOnlySharedStringsTable;
+import org.apache.poi.xssf.eventusermodel.XSSFReader;
+import org.apache.poi.xssf.eventusermodel.XSSFSheetXMLHandler;
+import org.apache.poi.xssf.model.StylesTable;
+import org.apache.poi.xssf.usermodel.XSSFComment;
+import org.xml.sax.InputSource;
+import org.xml.sax.XMLReader;
+
+import java.io.InputStream;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Lector de hojas Excel por eventos (SAX) para consumidores de solo lectura.
+ *
+ * <p>En lugar de construir el árbol completo de un {@code XSSFWorkbook}, recorre el XML
+ * de cada hoja y entrega las filas una a una. El consumo de memoria depende de la fila
+ * en curso y de la tabla de cadenas compartidas, no del tamaño del archivo.
+ *
+ * <p>Los valores se entregan ya como texto, con el mismo criterio que usaban los
+ * paneles: fechas como {@code yyyy-MM-dd HH:mm:ss} y números como enteros.
+ * Las filas sin ningún valor no se entregan.
+ */
+public class LectorExcelStreaming {
+
+    private static final DateTimeFormatter FORMATO_FECHA = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+
+    private LectorExcelStreaming() {} // Utility class
+
+    /**
+     * Recibe cada fila leída de una hoja.
+     */
+    @FunctionalInterface
+    public interface ManejadorFila {
+        /**
+         * @param hoja    Nombre de la hoja
+         * @param numFila Índice de la fila (base 0, como en POI)
+         * @param celdas  Valores por columna; las celdas vacías son ""
+         */
+        void fila(String hoja, int numFila, List<String> celdas);
+    }
+
+    /**
+     * Recorre las hojas indicadas de un paquete OOXML ya descifrado.
+     *
+     * @param pkg       Paquete abierto en solo lectura
+     * @param hojas     Nombres de hoja a leer (null = todas)
+     * @param manejador Receptor de filas
+     */
+    public static void leer(OPCPackage pkg, Set<String> hojas, ManejadorFila manejador) throws Exception {
+        ReadOnlySharedStringsTable sst = new ReadOnlySharedStringsTable(pkg);
+        XSSFReader reader = new XSSFReader(pkg);
+        StylesTable estilos = reader.getStylesTable();
+
+        XSSFReader.SheetIterator it = (XSSFReader.SheetIterator) reader.getSheetsData();
+        while (it.hasNext()) {
+            try (InputStream is = it.next()) {
+                String nombre = it.getSheetName();
+                if (hojas != null && !hojas.contains(nombre)) continue;
+
+                XMLReader parser = XMLHelper.newXMLReader();
+                parser.setContentHandler(new XSSFSheetXMLHandler(
+                    estilos, null, sst, new RecolectorFilas(nombre, manejador), new FormateadorCeldas(), false));
+                parser.parse(new InputSource(is));
+            }
+        }
+    }
+
+    /**
+     * Devuelve el valor de una columna, o "" si la fila no llega hasta ella.
+     */
+    public static String valor(List<String> celdas, Integer columna) {
+        if (columna == null || columna < 0 || columna >= celdas.size()) return "";
+        return celdas.get(columna);
+    }
+
+    /** Acumula las celdas de la fila en curso y la entrega al terminarla. */
+    private static class RecolectorFilas implements XSSFSheetXMLHandler.SheetContentsHandler {
+        private final String hoja;
+        private final ManejadorFila manejador;
+        private final List<String> celdas = new ArrayList<>();
+        private boolean conDatos;
+
+        RecolectorFilas(String hoja, ManejadorFila manejador) {
+            this.hoja = hoja;
+            this.manejador = manejador;
+        }
+
+        @Override
+        public void startRow(int rowNum) {
+            celdas.clear();
+            conDatos = false;
+        }
+
+        @Override
+        public void endRow(int rowNum) {
+            if (conDatos) {
+                manejador.fila(hoja, rowNum, Collections.unmodifiableList(celdas));
+            }
+        }
+
+        @Override
+        public void cell(String referencia, String valor, XSSFComment comentario) {
+            if (referencia == null) return;
+            int col = new CellReference(referencia).getCol();
+            while (celdas.size() < col) celdas.add("");
+            String texto = valor != null ? valor : "";
+            if (celdas.size() == col) celdas.add(texto); else celdas.set(col, texto);
+            if (!texto.trim().isEmpty()) conDatos = true;
+        }
+    }
+
+    /** Formatea fechas y números igual que la lectura con el modelo DOM de los paneles. */
+    private static class FormateadorCeldas extends DataFormatter {
+        @Override
+        public String formatRawCellContents(double value, int formatIndex, String formatString) {
+            if (DateUtil.isADateFormat(formatIndex, formatString) && DateUtil.isValidExcelDate(value)) {
+                return DateUtil.getJavaDate(value).toInstant()
+                    .atZone(ZoneId.systemDefault()).toLocalDateTime().format(FORMATO_FECHA);
+            }
+            return String.valueOf((int) value);
+        }
+    }
+}
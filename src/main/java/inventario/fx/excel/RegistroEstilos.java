@@ -0,0 +1,461 @@
+package inventario.fx.excel;
+
+import inventario.fx.util.AppLogger;
+import org.apache.poi.ooxml.POIXMLProperties;
+import org.apache.poi.ss.usermodel.*;
+import org.apache.poi.ss.util.CellRangeAddress;
+import org.apache.poi.xssf.model.StylesTable;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
+import org.apache.poi.xssf.usermodel.*;
+import org.openxmlformats.schemas.spreadsheetml.x2006.main.CTCol;
+import org.openxmlformats.schemas.spreadsheetml.x2006.main.CTCols;
+import org.openxmlformats.schemas.spreadsheetml.x2006.main.CTConditionalFormatting;
+import org.openxmlformats.schemas.spreadsheetml.x2006.main.CTPageSetup;
+import org.openxmlformats.schemas.spreadsheetml.x2006.main.CTWorksheet;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.WeakHashMap;
+
+/**
+ * Registro de estilos y fuentes por libro.
+ *
+ * <p>Cada estilo se describe con un {@link EstiloCelda}; antes de crear uno nuevo se busca
+ * en el libro un estilo equivalente y se reutiliza. La equivalencia cubre todas las
+ * propiedades del estilo (alineación, sangría, giro, protección, formato, relleno con sus
+ * dos colores, bordes) y de su fuente (negrita, cursiva, subrayado, tachado, tamaño, color,
+ * nombre...); los colores XSSF se comparan por su ARGB, así dos colores RGB propios que
+ * comparten índice no se confunden. Así la tabla de estilos deja de crecer con cada escaneo guardado y no se
+ * acerca al límite de 64.000 estilos de Excel.
+ *
+ * <p>{@link #compactar(XSSFWorkbook)} reconstruye un libro ya inflado por versiones
+ * anteriores, dejando un único estilo por descriptor; lo que copia se enumera en su
+ * documentación, y los libros con imágenes, formas o gráficos no se compactan.
+ */
+public class RegistroEstilos {
+
+    private static final AppLogger logger = AppLogger.getLogger(RegistroEstilos.class);
+
+    /** Número de estilos a partir del cual un libro se considera inflado */
+    public static final int UMBRAL_COMPACTACION = 200;
+
+    /**
+     * Índice descriptor → posición del estilo, por libro abierto. Se guardan posiciones y no
+     * estilos porque éstos referencian al libro y lo mantendrían vivo en el mapa débil.
+     */
+    private static final Map<Workbook, Map<String, Integer>> indices = new WeakHashMap<>();
+
+    private RegistroEstilos() {} // Utility class
+
+    /**
+     * Descripción de un estilo de celda. Los valores por defecto equivalen a un estilo
+     * recién creado; si no se indica {@link #fuente}, se usa la fuente por defecto del libro.
+     */
+    public static class EstiloCelda {
+        HorizontalAlignment alineacion = HorizontalAlignment.GENERAL;
+        VerticalAlignment alineacionVertical = VerticalAlignment.BOTTOM;
+        boolean ajustarTexto;
+        FillPatternType patron = FillPatternType.NO_FILL;
+        short colorRelleno = IndexedColors.AUTOMATIC.getIndex();
+        BorderStyle bordeSuperior = BorderStyle.NONE, bordeInferior = BorderStyle.NONE;
+        BorderStyle bordeIzquierdo = BorderStyle.NONE, bordeDerecho = BorderStyle.NONE;
+        short colorBordeSuperior = IndexedColors.BLACK.getIndex(), colorBordeInferior = IndexedColors.BLACK.getIndex();
+        short colorBordeIzquierdo = IndexedColors.BLACK.getIndex(), colorBordeDerecho = IndexedColors.BLACK.getIndex();
+        boolean fuentePropia;
+        boolean negrita;
+        short puntosFuente = XSSFFont.DEFAULT_FONT_SIZE;
+        short colorFuente = IndexedColors.BLACK.getIndex();
+        String nombreFuente = XSSFFont.DEFAULT_FONT_NAME;
+
+        public EstiloCelda alinear(HorizontalAlignment h, VerticalAlignment v) {
+            alineacion = h;
+            alineacionVertical = v;
+            return this;
+        }
+
+        public EstiloCelda ajustarTexto() {
+            ajustarTexto = true;
+            return this;
+        }
+
+        public EstiloCelda relleno(short color) {
+            patron = FillPatternType.SOLID_FOREGROUND;
+            colorRelleno = color;
+            return this;
+        }
+
+        public EstiloCelda bordeSuperior(BorderStyle borde, short color) {
+            bordeSuperior = borde;
+            colorBordeSuperior = color;
+            return this;
+        }
+
+        public EstiloCelda bordeInferior(BorderStyle borde, short color) {
+            bordeInferior = borde;
+            colorBordeInferior = color;
+            return this;
+        }
+
+        public EstiloCelda bordeIzquierdo(BorderStyle borde, short color) {
+            bordeIzquierdo = borde;
+            colorBordeIzquierdo = color;
+            return this;
+        }
+
+        public EstiloCelda fuente(boolean negrita, int puntos, short color) {
+            this.fuentePropia = true;
+            this.negrita = negrita;
+            this.puntosFuente = (short) puntos;
+            this.colorFuente = color;
+            return this;
+        }
+
+        /** Descriptor del estilo que resultaría de aplicar esta descripción con esa fuente */
+        String clave(Font fuente) {
+            XSSFCellStyle prototipo = new XSSFCellStyle(new StylesTable());
+            aplicar(prototipo);
+            return descriptor(prototipo, fuente);
+        }
+
+        void aplicar(CellStyle estilo) {
+            estilo.setAlignment(alineacion);
+            estilo.setVerticalAlignment(alineacionVertical);
+            estilo.setWrapText(ajustarTexto);
+            estilo.setFillPattern(patron);
+            if (patron != FillPatternType.NO_FILL) estilo.setFillForegroundColor(colorRelleno);
+            estilo.setBorderTop(bordeSuperior);
+            estilo.setBorderBottom(bordeInferior);
+            estilo.setBorderLeft(bordeIzquierdo);
+            estilo.setBorderRight(bordeDerecho);
+            if (bordeSuperior != BorderStyle.NONE) estilo.setTopBorderColor(colorBordeSuperior);
+            if (bordeInferior != BorderStyle.NONE) estilo.setBottomBorderColor(colorBordeInferior);
+            if (bordeIzquierdo != BorderStyle.NONE) estilo.setLeftBorderColor(colorBordeIzquierdo);
+            if (bordeDerecho != BorderStyle.NONE) estilo.setRightBorderColor(colorBordeDerecho);
+        }
+    }
+
+    /**
+     * Devuelve un estilo del libro equivalente a la descripción, creándolo solo si no existe.
+     */
+    public static CellStyle obtener(Workbook wb, EstiloCelda def) {
+        // SXSSF crea los estilos en el libro XSSF subyacente: ambos comparten índice
+        if (wb instanceof SXSSFWorkbook) wb = ((SXSSFWorkbook) wb).getXSSFWorkbook();
+        synchronized (indices) {
+            Map<String, Integer> indice = indices.computeIfAbsent(wb, RegistroEstilos::indexar);
+            // Si la fuente aún no existe en el libro, tampoco puede existir el estilo
+            Font fuente = def.fuentePropia
+                ? wb.findFont(def.negrita, def.colorFuente, (short) (def.puntosFuente * 20), def.nombreFuente,
+                              false, false, Font.SS_NONE, Font.U_NONE)
+                : wb.getFontAt(0);
+            if (fuente != null) {
+                Integer posicion = indice.get(def.clave(fuente));
+                if (posicion != null) return wb.getCellStyleAt(posicion);
+            }
+
+            CellStyle estilo = wb.createCellStyle();
+            def.aplicar(estilo);
+            if (def.fuentePropia) {
+                estilo.setFont(fuente != null ? fuente
+                    : obtenerFuente(wb, def.negrita, def.puntosFuente, def.colorFuente, def.nombreFuente));
+            }
+            indice.putIfAbsent(descriptor(wb, estilo), (int) estilo.getIndex());
+            return estilo;
+        }
+    }
+
+    /**
+     * Devuelve una fuente del libro con esas propiedades, creándola solo si no existe.
+     */
+    public static Font obtenerFuente(Workbook wb, boolean negrita, short puntos, short color, String nombre) {
+        Font fuente = wb.findFont(negrita, color, (short) (puntos * 20), nombre, false, false, Font.SS_NONE, Font.U_NONE);
+        if (fuente == null) {
+            fuente = wb.createFont();
+            fuente.setBold(negrita);
+            fuente.setFontHeightInPoints(puntos);
+            fuente.setColor(color);
+            fuente.setFontName(nombre);
+        }
+        return fuente;
+    }
+
+    /**
+     * Reconstruye un libro inflado de estilos en un libro nuevo donde cada estilo distinto
+     * existe una sola vez. De cada hoja se copian celdas, estilos de fila y de columna,
+     * filas ocultas, combinaciones, anchos, comentarios, hipervínculos, validaciones de
+     * datos, formato condicional (con sus formatos diferenciales), filtros, vistas y paneles
+     * fijos, configuración de impresión, saltos de página y protección; del libro, los
+     * nombres definidos (incluidas áreas y títulos de impresión), la visibilidad de las
+     * hojas y las propiedades del documento (básicas, extendidas y personalizadas). Las
+     * celdas conservan su valor de texto, número, booleano, error o fórmula (sin el resultado
+     * en caché). Los dibujos (imágenes, formas, gráficos) no se copian: un libro que los
+     * tenga se devuelve sin compactar. El libro original se descarta sin guardarse.
+     *
+     * @return El libro compactado, o el original si no hacía falta, tiene dibujos o no se pudo
+     */
+    public static XSSFWorkbook compactar(XSSFWorkbook origen) {
+        int estilosAntes = origen.getNumCellStyles();
+        if (estilosAntes <= UMBRAL_COMPACTACION) return origen;
+        if (tieneDibujos(origen)) {
+            logger.warn("[Estilos] El libro tiene " + estilosAntes + " estilos pero contiene imágenes o gráficos; no se compacta");
+            return origen;
+        }
+
+        XSSFWorkbook destino = new XSSFWorkbook();
+        try {
+            Map<Integer, CellStyle> traduccion = new HashMap<>();
+            Map<String, CellStyle> porDescriptor = new HashMap<>();
+            for (int i = 0; i < origen.getNumCellStyles(); i++) {
+                XSSFCellStyle estilo = origen.getCellStyleAt(i);
+                CellStyle copia = porDescriptor.get(descriptor(origen, estilo));
+                if (copia == null) {
+                    copia = destino.createCellStyle();
+                    copia.cloneStyleFrom(estilo);
+                    porDescriptor.put(descriptor(origen, estilo), copia);
+                }
+                traduccion.put(i, copia);
+            }
+
+            // Mismo orden que en el origen: las reglas de formato condicional los citan por posición
+            StylesTable estilosOrigen = origen.getStylesSource();
+            for (int i = 0; i < estilosOrigen._getDXfsSize(); i++) {
+                destino.getStylesSource().putDxf(estilosOrigen.getDxfAt(i));
+            }
+
+            for (Sheet hoja : origen) {
+                copiarHoja((XSSFSheet) hoja, destino.createSheet(hoja.getSheetName()), traduccion, destino);
+            }
+            copiarLibro(origen, destino);
+            logger.info("[Estilos] Libro compactado: " + estilosAntes + " → " + destino.getNumCellStyles() + " estilos");
+            origen.getPackage().revert();
+            return destino;
+        } catch (Exception e) {
+            logger.warn("[Estilos] No se pudo compactar el libro, se mantiene el original: " + e.getMessage());
+            try { destino.close(); } catch (Exception ignored) {}
+            return origen;
+        }
+    }
+
+    // === AUXILIARES ===
+
+    private static Map<String, Integer> indexar(Workbook wb) {
+        Map<String, Integer> indice = new HashMap<>();
+        for (int i = 0; i < wb.getNumCellStyles(); i++) {
+            indice.putIfAbsent(descriptor(wb, wb.getCellStyleAt(i)), i);
+        }
+        return indice;
+    }
+
+    private static String descriptor(Workbook wb, CellStyle s) {
+        return descriptor(s, wb.getFontAt(s.getFontIndex()));
+    }
+
+    /**
+     * Todas las propiedades del estilo y de su fuente. Los colores solo cuentan si el
+     * relleno o el borde correspondiente existen.
+     */
+    static String descriptor(CellStyle s, Font f) {
+        StringBuilder sb = new StringBuilder(192);
+        sb.append(s.getAlignment()).append('|').append(s.getVerticalAlignment())
+          .append('|').append(s.getWrapText()).append('|').append(s.getShrinkToFit())
+          .append('|').append(s.getIndention()).append('|').append(s.getRotation())
+          .append('|').append(s.getLocked()).append('|').append(s.getHidden())
+          .append('|').append(s.getQuotePrefixed()).append('|').append(s.getDataFormat());
+
+        FillPatternType patron = s.getFillPattern();
+        sb.append('|').append(patron);
+        if (patron != FillPatternType.NO_FILL) {
+            sb.append(':').append(color(s.getFillForegroundColorColor(), s.getFillForegroundColor()))
+              .append(':').append(color(s.getFillBackgroundColorColor(), s.getFillBackgroundColor()));
+        }
+
+        XSSFCellStyle x = s instanceof XSSFCellStyle ? (XSSFCellStyle) s : null;
+        borde(sb, s.getBorderTop(), x != null ? x.getTopBorderXSSFColor() : null, s.getTopBorderColor());
+        borde(sb, s.getBorderBottom(), x != null ? x.getBottomBorderXSSFColor() : null, s.getBottomBorderColor());
+        borde(sb, s.getBorderLeft(), x != null ? x.getLeftBorderXSSFColor() : null, s.getLeftBorderColor());
+        borde(sb, s.getBorderRight(), x != null ? x.getRightBorderXSSFColor() : null, s.getRightBorderColor());
+
+        sb.append('|').append(f.getFontName()).append(':').append(f.getFontHeight())
+          .append(':').append(f.getBold()).append(':').append(f.getItalic())
+          .append(':').append(f.getUnderline()).append(':').append(f.getStrikeout())
+          .append(':').append(f.getTypeOffset()).append(':').append(f.getCharSet());
+        if (f instanceof XSSFFont xf) {
+            sb.append(':').append(xf.getFamily()).append(':').append(xf.getScheme())
+              .append(':').append(color(xf.getXSSFColor(), f.getColor()));
+        } else {
+            sb.append(':').append(color(null, f.getColor()));
+        }
+        return sb.toString();
+    }
+
+    private static void borde(StringBuilder sb, BorderStyle borde, Color color, short indice) {
+        sb.append('|').append(borde);
+        if (borde != BorderStyle.NONE) sb.append(':').append(color(color, indice));
+    }
+
+    /** ARGB (con su tinte) si el color lo tiene; si no, color automático, de tema o índice */
+    private static String color(Color c, short indice) {
+        if (c instanceof XSSFColor x) {
+            String argb = x.getARGBHex();
+            String tinte = x.getTint() != 0 ? "~" + x.getTint() : "";
+            if (argb != null) return "#" + argb + tinte;
+            if (x.isAuto()) return "auto";
+            if (x.isThemed()) return "tema" + x.getTheme() + tinte;
+        }
+        return "i" + indice;
+    }
+
+    private static void copiarHoja(XSSFSheet origen, XSSFSheet destino, Map<Integer, CellStyle> traduccion,
+                                   XSSFWorkbook wbDestino) {
+        CreationHelper factory = wbDestino.getCreationHelper();
+        Drawing<?> dibujo = null;
+
+        for (Row fila : origen) {
+            Row nueva = destino.createRow(fila.getRowNum());
+            nueva.setHeight(fila.getHeight());
+            if (fila.getZeroHeight()) nueva.setZeroHeight(true);
+            if (fila.isFormatted()) {
+                CellStyle estiloFila = traduccion.get((int) fila.getRowStyle().getIndex());
+                if (estiloFila != null) nueva.setRowStyle(estiloFila);
+            }
+
+            for (Cell celda : fila) {
+                Cell copia = nueva.createCell(celda.getColumnIndex());
+                CellStyle estilo = traduccion.get((int) celda.getCellStyle().getIndex());
+                if (estilo != null) copia.setCellStyle(estilo);
+
+                switch (celda.getCellType()) {
+                    case STRING: copia.setCellValue(celda.getStringCellValue()); break;
+                    case NUMERIC: copia.setCellValue(celda.getNumericCellValue()); break;
+                    case BOOLEAN: copia.setCellValue(celda.getBooleanCellValue()); break;
+                    case FORMULA: copia.setCellFormula(celda.getCellFormula()); break;
+                    case ERROR: copia.setCellErrorValue(celda.getErrorCellValue()); break;
+                    default: break;
+                }
+
+                Comment comentario = celda.getCellComment();
+                if (comentario != null) {
+                    if (dibujo == null) dibujo = destino.createDrawingPatriarch();
+                    ClientAnchor anchor = factory.createClientAnchor();
+                    anchor.setCol1(celda.getColumnIndex());
+                    anchor.setRow1(fila.getRowNum());
+                    anchor.setCol2(celda.getColumnIndex() + 2);
+                    anchor.setRow2(fila.getRowNum() + 2);
+                    Comment nuevo = dibujo.createCellComment(anchor);
+                    nuevo.setString(factory.createRichTextString(comentario.getString().getString()));
+                    if (comentario.getAuthor() != null) nuevo.setAuthor(comentario.getAuthor());
+                    copia.setCellComment(nuevo);
+                }
+            }
+        }
+
+        CTWorksheet ctOrigen = origen.getCTWorksheet();
+        CTWorksheet ctDestino = destino.getCTWorksheet();
+        // Anchos, columnas ocultas y estilo por defecto de cada rango de columnas
+        CTCols[] columnas = new CTCols[ctOrigen.sizeOfColsArray()];
+        for (int k = 0; k < columnas.length; k++) {
+            columnas[k] = (CTCols) ctOrigen.getColsArray(k).copy();
+            for (CTCol col : columnas[k].getColArray()) {
+                if (!col.isSetStyle()) continue;
+                CellStyle traducido = traduccion.get((int) col.getStyle());
+                if (traducido != null) col.setStyle(traducido.getIndex()); else col.unsetStyle();
+            }
+        }
+        if (columnas.length > 0) ctDestino.setColsArray(columnas);
+        for (CellRangeAddress region : origen.getMergedRegions()) {
+            destino.addMergedRegion(region);
+        }
+        for (XSSFHyperlink enlace : origen.getHyperlinkList()) {
+            XSSFHyperlink copia = (XSSFHyperlink) factory.createHyperlink(enlace.getType());
+            copia.setAddress(enlace.getAddress());
+            if (enlace.getLabel() != null) copia.setLabel(enlace.getLabel());
+            if (enlace.getTooltip() != null) copia.setTooltip(enlace.getTooltip());
+            copia.setCellReference(enlace.getCellRef());
+            destino.addHyperlink(copia);
+        }
+        if (ctOrigen.isSetAutoFilter()) {
+            destino.setAutoFilter(CellRangeAddress.valueOf(ctOrigen.getAutoFilter().getRef()));
+        }
+
+        // Estructuras que no citan estilos de celda: se copian tal cual del XML de la hoja
+        if (ctOrigen.isSetSheetPr()) ctDestino.setSheetPr(ctOrigen.getSheetPr());
+        if (ctOrigen.isSetSheetViews()) ctDestino.setSheetViews(ctOrigen.getSheetViews());
+        if (ctOrigen.isSetSheetProtection()) ctDestino.setSheetProtection(ctOrigen.getSheetProtection());
+        for (CTConditionalFormatting formato : ctOrigen.getConditionalFormattingArray()) {
+            ctDestino.addNewConditionalFormatting().set(formato);
+        }
+        if (ctOrigen.isSetDataValidations()) ctDestino.setDataValidations(ctOrigen.getDataValidations());
+        if (ctOrigen.isSetPrintOptions()) ctDestino.setPrintOptions(ctOrigen.getPrintOptions());
+        if (ctOrigen.isSetPageMargins()) ctDestino.setPageMargins(ctOrigen.getPageMargins());
+        if (ctOrigen.isSetPageSetup()) {
+            CTPageSetup pagina = ctDestino.isSetPageSetup() ? ctDestino.getPageSetup() : ctDestino.addNewPageSetup();
+            pagina.set(ctOrigen.getPageSetup());
+            // La configuración de impresora es una parte del paquete de origen que no se copia
+            if (pagina.isSetId()) pagina.unsetId();
+        }
+        if (ctOrigen.isSetHeaderFooter()) ctDestino.setHeaderFooter(ctOrigen.getHeaderFooter());
+        if (ctOrigen.isSetRowBreaks()) ctDestino.setRowBreaks(ctOrigen.getRowBreaks());
+        if (ctOrigen.isSetColBreaks()) ctDestino.setColBreaks(ctOrigen.getColBreaks());
+    }
+
+    /** Nombres definidos, visibilidad de las hojas y hoja activa */
+    /** Imágenes, formas o gráficos en alguna hoja (los comentarios no cuentan: van en VML) */
+    private static boolean tieneDibujos(XSSFWorkbook wb) {
+        if (!wb.getAllPictures().isEmpty()) return true;
+        for (Sheet hoja : wb) {
+            XSSFDrawing dibujo = ((XSSFSheet) hoja).getDrawingPatriarch();
+            if (dibujo != null && (!dibujo.getShapes().isEmpty() || !dibujo.getCharts().isEmpty())) return true;
+        }
+        return false;
+    }
+
+    private static void copiarPropiedades(XSSFWorkbook origen, XSSFWorkbook destino) {
+        POIXMLProperties.CoreProperties de = origen.getProperties().getCoreProperties();
+        POIXMLProperties.CoreProperties a = destino.getProperties().getCoreProperties();
+        a.setTitle(de.getTitle());
+        a.setSubjectProperty(de.getSubject());
+        a.setCreator(de.getCreator());
+        a.setKeywords(de.getKeywords());
+        a.setDescription(de.getDescription());
+        a.setCategory(de.getCategory());
+        a.setContentStatus(de.getContentStatus());
+        a.setIdentifier(de.getIdentifier());
+        a.setRevision(de.getRevision());
+        a.setVersion(de.getVersion());
+        a.setLastModifiedByUser(de.getLastModifiedByUser());
+        a.setCreated(Optional.ofNullable(de.getCreated()));
+        a.setModified(Optional.ofNullable(de.getModified()));
+        a.setLastPrinted(Optional.ofNullable(de.getLastPrinted()));
+        destino.getProperties().getExtendedProperties().getUnderlyingProperties()
+            .set(origen.getProperties().getExtendedProperties().getUnderlyingProperties());
+        // Las personalizadas incluyen el lote de la última exportación (InventarioFXBase)
+        destino.getProperties().getCustomProperties().getUnderlyingProperties()
+            .set(origen.getProperties().getCustomProperties().getUnderlyingProperties());
+    }
+
+    private static void copiarLibro(XSSFWorkbook origen, XSSFWorkbook destino) {
+        copiarPropiedades(origen, destino);
+        for (Name nombre : origen.getAllNames()) {
+            // setAutoFilter ya creó el _FilterDatabase de su hoja
+            boolean existe = destino.getNames(nombre.getNameName()).stream()
+                .anyMatch(n -> n.getSheetIndex() == nombre.getSheetIndex());
+            if (existe) continue;
+            Name copia = destino.createName();
+            try {
+                // El ámbito va antes que el nombre: las áreas de impresión se repiten por hoja
+                copia.setSheetIndex(nombre.getSheetIndex());
+                copia.setNameName(nombre.getNameName());
+                copia.setRefersToFormula(nombre.getRefersToFormula());
+                if (nombre.getComment() != null) copia.setComment(nombre.getComment());
+            } catch (RuntimeException e) {
+                logger.warn("[Estilos] Nombre definido '" + nombre.getNameName() + "' no copiado: " + e.getMessage());
+                destino.removeName(copia);
+            }
+        }
+        for (int i = 0; i < origen.getNumberOfSheets(); i++) {
+            destino.setSheetVisibility(i, origen.getSheetVisibility(i));
+        }
+        destino.setActiveSheet(origen.getActiveSheetIndex());
+        destino.setFirstVisibleTab(origen.getFirstVisibleTab());
+    }
+}
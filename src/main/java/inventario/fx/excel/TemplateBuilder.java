@@ -1,6 +1,7 @@
 package inventario.fx.excel;
 import inventario.fx.util.AppLogger;
 import inventario.fx.model.InventarioFXBase;
+import inventario.fx.model.DatosReporte;
 import inventario.fx.ui.panel.ReporteFormularioFX;
 
 import org.apache.poi.ss.usermodel.*;
@@ -31,7 +32,7 @@ public class TemplateBuilder {
     
     // Variables de datos del formulario
     private int dia, mes, anio;
-    private ReporteFormularioFX.DatosReporte datosForm;
+    private DatosReporte datosForm;
     private InventarioFXBase.InfoPC sysInfo;
     
     // Datos procesados
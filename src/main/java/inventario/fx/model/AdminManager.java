@@ -12,6 +12,7 @@ import java.util.*;
 import java.util.prefs.Preferences;
 import inventario.fx.database.repository.ConfigRepository;
 import inventario.fx.database.repository.ProyectoRepository;
+import inventario.fx.database.repository.AnotadorLogsAcceso;
 import inventario.fx.database.repository.LogAccesoRepository;
 import inventario.fx.database.DatabaseManager;
 import inventario.fx.util.AppLogger;
@@ -89,6 +90,7 @@ public class AdminManager {
     private static ConfigRepository configRepo = new ConfigRepository();
     private static ProyectoRepository proyectoRepo;
     private static LogAccesoRepository logRepo;
+    private static AnotadorLogsAcceso logAnotador;
     private static inventario.fx.config.BackupManager backupManager;
     private static long ultimoBackup = 0;
     private static final long BACKUP_INTERVAL = 3600000; // 1 hora en milisegundos
@@ -1174,11 +1176,14 @@ public class AdminManager {
                 : null;
             
             // 1. Eliminar inventarios asociados de SQLite
-            try (java.sql.Connection conn = DatabaseManager.getConnection();
-                 java.sql.PreparedStatement stmt = conn.prepareStatement(
-                     "DELETE FROM inventarios WHERE proyecto_id = ?")) {
-                stmt.setString(1, id);
-                int deleted = stmt.executeUpdate();
+            try {
+                int deleted = DatabaseManager.executeWithRetry(conn -> {
+                    try (java.sql.PreparedStatement stmt = conn.prepareStatement(
+                             "DELETE FROM inventarios WHERE proyecto_id = ?")) {
+                        stmt.setString(1, id);
+                        return stmt.executeUpdate();
+                    }
+                });
                 System.out.println("[AdminManager] ✅ " + deleted + " inventarios eliminados de SQLite para proyecto: " + id);
             } catch (Exception e) {
                 System.err.println("[AdminManager] ⚠️ Error eliminando inventarios: " + e.getMessage());
@@ -1290,7 +1295,12 @@ public class AdminManager {
             // Inicializar base de datos
             DatabaseManager.initialize();
             proyectoRepo = new ProyectoRepository(null); // null porque DatabaseManager es estático
-            logRepo = new LogAccesoRepository();
+            if (logAnotador == null) {
+                // Uno por proceso: cada anotador arranca su hilo y su volcado al cerrar la BD,
+                // y recargarProyectos() pasa por aquí cada vez
+                logRepo = new LogAccesoRepository();
+                logAnotador = new AnotadorLogsAcceso(logRepo);
+            }
             
             // Cargar proyectos desde SQLite
             proyectos = proyectoRepo.findAll(false, false); // Todos los proyectos activos
@@ -1552,9 +1562,9 @@ public class AdminManager {
             
             LogAcceso log = new LogAcceso(accionSanitizada, detalleSanitizado);
             
-            // Guardar en SQLite
-            if (logRepo != null) {
-                logRepo.save(log);
+            // Guardar en SQLite (en segundo plano, agrupado con otros logs)
+            if (logAnotador != null) {
+                logAnotador.registrar(log);
             }
             
             // Mantener también en memoria para acceso rápido (caché)
@@ -1570,7 +1580,7 @@ public class AdminManager {
     public static List<LogAcceso> getLogsAcceso() {
         // Recargar desde SQLite para tener datos frescos
         if (logRepo != null) {
-            logsAcceso = logRepo.findAll(500);
+            logsAcceso = leerLogs(500);
         }
         return new ArrayList<>(logsAcceso);
     }
@@ -1578,18 +1588,45 @@ public class AdminManager {
     public static List<LogAcceso> getLogsAcceso(int limite) {
         // Recargar desde SQLite
         if (logRepo != null) {
-            return logRepo.findAll(limite);
+            return leerLogs(limite);
         }
         return logsAcceso.subList(0, Math.min(limite, logsAcceso.size()));
     }
     
+    /**
+     * Últimos logs: los aún en cola del anotador seguidos de los guardados, sin forzar un
+     * volcado (que esperaría a un fsync, a menudo en el hilo de JavaFX).
+     */
+    private static List<LogAcceso> leerLogs(int limite) {
+        // Primero la BD y después la cola: un log que se vuelca entre ambas lecturas puede
+        // faltar en esta consulta, pero nunca aparece dos veces
+        List<LogAcceso> guardados = logRepo.findAll(limite);
+        List<LogAcceso> enCola = logAnotador.getEnCola();
+        List<LogAcceso> logs = new ArrayList<>(Math.min(limite, guardados.size() + enCola.size()));
+        for (int i = enCola.size() - 1; i >= 0 && logs.size() < limite; i--) {
+            logs.add(enCola.get(i));
+        }
+        for (LogAcceso log : guardados) {
+            if (logs.size() >= limite) break;
+            logs.add(log);
+        }
+        return logs;
+    }
+    
     public static void limpiarLogs() {
         logsAcceso.clear();
         if (logRepo != null) {
+            // Lo pendiente también se elimina: se descarta en vez de guardarlo para borrarlo después
+            logAnotador.descartarPendientes();
             logRepo.deleteAll();
         }
     }
     
+    /** Escritura diferida de los logs (profundidad de cola y descartes), o null sin BD */
+    public static AnotadorLogsAcceso getAnotadorLogs() {
+        return logAnotador;
+    }
+    
     public static String exportarLogs() {
         StringBuilder sb = new StringBuilder();
         sb.append("REGISTRO DE ACCESOS - Sistema de Inventario\n");
@@ -1858,11 +1895,11 @@ public class AdminManager {
             
             // 1. WAL checkpoint — forzar escritura de cambios pendientes al DB
             try {
-                try (java.sql.Connection conn = DatabaseManager.getConnection();
-                     java.sql.Statement stmt = conn.createStatement()) {
-                    stmt.execute("PRAGMA wal_checkpoint(TRUNCATE)");
+                if (DatabaseManager.ejecutarCheckpointWAL()) {
+                    System.out.println("[AdminManager]   ✓ WAL checkpoint completado");
+                } else {
+                    System.out.println("[AdminManager]   ⚠ WAL checkpoint incompleto (continuando)");
                 }
-                System.out.println("[AdminManager]   ✓ WAL checkpoint completado");
             } catch (Exception e) {
                 System.out.println("[AdminManager]   ⚠ WAL checkpoint falló (continuando): " + e.getMessage());
             }
@@ -0,0 +1,32 @@
+package inventario.fx.model;
+
+/**
+ * Aplicación instalada detectada por un {@link InstalledAppsProvider}.
+ *
+ * <p>Dos aplicaciones son iguales si su nombre coincide sin distinguir mayúsculas: es el
+ * criterio con el que {@link InventarioFXBase#getInstalledApps} elimina duplicados.
+ *
+ * @param nombre      Nombre visible
+ * @param version     Versión ("" si no se conoce)
+ * @param publisher   Fabricante o ubicación ("" si no se conoce)
+ * @param installDate Fecha de instalación en formato yyyyMMdd ("" si no se conoce)
+ *
+ * @author SELCOMP
+ * @version 1.0
+ * @since 2026-01-14
+ */
+public record AppInfo(String nombre, String version, String publisher, String installDate) {
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof AppInfo)) return false;
+        AppInfo appInfo = (AppInfo) o;
+        return nombre.equalsIgnoreCase(appInfo.nombre);
+    }
+
+    @Override
+    public int hashCode() {
+        return nombre.toLowerCase().hashCode();
+    }
+}
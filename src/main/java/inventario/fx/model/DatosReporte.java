@@ -0,0 +1,91 @@
+package inventario.fx.model;
+
+import java.io.Serializable;
+
+/**
+ * Campos de un reporte de mantenimiento tal como los rellena {@code ReporteFormularioFX}.
+ * Se guarda como JSON en {@code reportes.datos_json} y llena la plantilla Excel del reporte.
+ *
+ * @author SELCOMP
+ * @version 1.0
+ * @since 2026-01-14
+ */
+public class DatosReporte implements Serializable {
+    /** Igual que cuando era ReporteFormularioFX.DatosReporte: lo leen los .dat heredados */
+    private static final long serialVersionUID = 1L;
+    // Tipo solicitud y fecha
+    public String tipoSolicitud = "";
+    public String dia = "";
+    public String mes = "";
+    public String anio = "";
+    public String ticket = "";
+    
+    // Datos usuario
+    public String ciudad = "";
+    public String direccion = "";
+    public String nombre = "";
+    public String correo = "";
+    public String tecnico = "";
+    public String sede = "";
+    
+    // Hardware
+    public String tipoDispositivo = "";
+    public String marca = "";
+    public String modelo = "";
+    public String serial = "";
+    public String placa = "";
+    public String condiciones = "";
+    
+    // PC
+    public String pcEnciende = "";
+    public String discoDuro = "";
+    public String cddvd = "";
+    public String botonesPC = "";
+    public String condicionesPC = "";
+    public String procesador = "";
+    public String memoriaRAM = "";
+    public String discoDuroCapacidad = "";
+    
+    // Monitor
+    public String monitorEnciende = "";
+    public String pantalla = "";
+    public String onlyOne = "";
+    public String botonesMonitor = "";
+    public String condicionesMonitor = "";
+    
+    // Teclado
+    public String tecladoEnciende = "";
+    public String tecladoFunciona = "";
+    public String botonesTeclado = "";
+    public String condicionesTeclado = "";
+    
+    // Mouse
+    public String mouseEnciende = "";
+    public String mouseFunciona = "";
+    public String botonesMouse = "";
+    public String condicionesMouse = "";
+    
+    // Software
+    public String programasBasicos = "";
+    public String otrosProgramas = "";
+    
+    // Procedimiento y observaciones
+    public String trabajoRealizado = "";
+    public String observaciones = "";
+    
+    // Firmas
+    public String firmaTecnico = "";
+    public String cedulaTecnico = "";
+    public String firmaFuncionario = "";
+    public String cedulaFuncionario = "";
+    
+    // Firmas digitales (imágenes)
+    public String firmaTecnicoImagenPath = "";
+    public String firmaFuncionarioImagenPath = "";
+    
+    // Imagen del proyecto
+    public String proyectoImagenPath = "";
+    
+    // Proyecto asociado
+    public String proyectoNombre = "";
+}
@@ -0,0 +1,31 @@
+package inventario.fx.model;
+
+import oshi.software.os.OperatingSystem;
+
+import java.util.stream.Stream;
+
+/**
+ * Fuente de software instalado para el escaneo de inventario.
+ *
+ * <p>{@link InventarioFXBase#getInstalledApps} ejecuta en paralelo todos los proveedores
+ * aplicables al sistema, une sus resultados y elimina duplicados por nombre. Se pueden
+ * añadir proveedores con {@link InventarioFXBase#registrarProveedorApps}.
+ *
+ * @author SELCOMP
+ * @version 1.0
+ * @since 2026-01-14
+ */
+public interface InstalledAppsProvider {
+
+    /** Nombre corto para logs y mediciones. */
+    String getNombre();
+
+    /** Indica si el proveedor tiene sentido en este sistema (familia de SO, archivos presentes). */
+    boolean esAplicable(OperatingSystem os);
+
+    /**
+     * Aplicaciones encontradas. El stream puede leer de forma perezosa; quien lo consume
+     * debe cerrarlo.
+     */
+    Stream<AppInfo> obtenerApps() throws Exception;
+}
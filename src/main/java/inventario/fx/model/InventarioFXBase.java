@@ -1,11 +1,27 @@
 package inventario.fx.model;
 import inventario.fx.config.PortablePaths;
 import inventario.fx.core.SimuladorEntorno;
-
+import inventario.fx.excel.EscritorExcelStreaming;
+import inventario.fx.excel.LectorExcelStreaming;
+import inventario.fx.excel.RegistroEstilos;
+import inventario.fx.database.DatabaseManager;
+import inventario.fx.database.repository.InventarioRepository;
+import inventario.fx.security.CacheClavesCifrado;
+import inventario.fx.service.CacheExcelDescifrado;
+import inventario.fx.service.CacheHardware;
+import inventario.fx.service.DiarioEscaneos;
+import inventario.fx.service.IndicePortables;
+import inventario.fx.service.SondeoWindows;
+
+import org.apache.poi.ooxml.POIXMLProperties;
+import org.apache.poi.openxml4j.opc.OPCPackage;
 import org.apache.poi.poifs.crypt.*;
+import org.apache.poi.poifs.crypt.temp.AesZipFileZipEntrySource;
 import org.apache.poi.poifs.filesystem.POIFSFileSystem;
 import org.apache.poi.ss.usermodel.*;
 import org.apache.poi.ss.util.CellRangeAddress;
+import org.apache.poi.xssf.streaming.SXSSFSheet;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
 import org.apache.poi.xssf.usermodel.*;
 import org.bouncycastle.jce.provider.BouncyCastleProvider;
 import oshi.SystemInfo;
@@ -14,6 +30,10 @@ import oshi.software.os.OperatingSystem;
 import oshi.util.FormatUtil;
 
 import inventario.fx.util.AppLogger;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.PastOrPresent;
+import jakarta.validation.constraints.PositiveOrZero;
+import jakarta.validation.constraints.Size;
 import java.io.*;
 import java.net.InetAddress;
 import java.net.NetworkInterface;
@@ -22,10 +42,15 @@ import java.nio.charset.StandardCharsets;
 import java.nio.file.*;
 import java.nio.file.attribute.BasicFileAttributes;
 import java.security.Security;
+import java.sql.SQLException;
 import java.time.ZoneId;
 import java.time.format.DateTimeFormatter;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.stream.Collectors;
 
 /**
@@ -52,6 +77,18 @@ public abstract class InventarioFXBase {
     };
 
     protected static final int MAX_COLUMNAS = 16383;
+
+    /** Timeout de cada sondeo de hardware del escaneo (segundos) */
+    private static final int TIMEOUT_SONDEO_SEG = 20;
+    /** Timeout del sondeo de aplicaciones instaladas, que recorre registro, Store y disco (segundos) */
+    private static final int TIMEOUT_SONDEO_APPS_SEG = 120;
+
+    /** Pool acotado para los sondeos del escaneo; hilos daemon para no retener el cierre */
+    private static final ExecutorService POOL_SONDEOS = Executors.newFixedThreadPool(6, r -> {
+        Thread t = new Thread(r, "Sondeo-Hardware");
+        t.setDaemon(true);
+        return t;
+    });
     protected static final String RUTA_IMAGENES = "/images/";
     protected static final String LOGO = "Selcomp.png";
     protected static final String LOGO1 = "Selcomp1.png";
@@ -210,11 +247,23 @@ public abstract class InventarioFXBase {
         return recopilarInfoConProgreso(null);
     }
 
+    /**
+     * Recopila solo el hardware, sin aplicaciones instaladas. Con los datos estáticos
+     * ya en caché responde casi al instante (formulario de reportes).
+     */
+    public static InfoPC recopilarInfoHardware() {
+        return recopilarInfoConProgreso(null, false);
+    }
+
     /**
      * Recopila información del sistema reportando progreso real a través del consumer.
      * @param progreso Consumer que recibe mensajes de estado (puede ser null)
      */
     public static InfoPC recopilarInfoConProgreso(java.util.function.Consumer<String> progreso) {
+        return recopilarInfoConProgreso(progreso, true);
+    }
+
+    private static InfoPC recopilarInfoConProgreso(java.util.function.Consumer<String> progreso, boolean incluirApps) {
         // Si hay simulación activa, devolver datos simulados
         if (SimuladorEntorno.estaActiva()) {
             System.out.println("🔄 [SIMULACIÓN] Usando datos de: " + SimuladorEntorno.getNombrePerfilActual());
@@ -224,268 +273,608 @@ public abstract class InventarioFXBase {
         
         if (progreso != null) progreso.accept("Inicializando hardware info...");
         // Modo real: obtener info del sistema actual
-        SystemInfo si = new SystemInfo();
+        // Instancia OSHI compartida entre escaneos (ver CacheHardware)
+        SystemInfo si = CacheHardware.getSystemInfo();
+        OperatingSystem os = si.getOperatingSystem();
+        HardwareAbstractionLayer hw = si.getHardware();
         InfoPC i = new InfoPC();
         // Generar ID único para este grupo de aplicaciones
         i.idGrupo = generarIdGrupo();
         i.fecha = new Date();
+        i.userName = System.getProperty("user.name");
 
-        if (progreso != null) progreso.accept("Detectando sistema operativo...");
-        OperatingSystem os = si.getOperatingSystem();
-        
-        String sistemaCompleto = null;
-        try {
-            sistemaCompleto = getWmiOperatingSystemCaption();
-        } catch (Exception ignored) { logger.warn("Error obteniendo nombre SO: " + ignored.getMessage()); }
-        
-        if (sistemaCompleto != null && !sistemaCompleto.isEmpty() && !sistemaCompleto.equals("Desconocido")) {
-            i.sistema = sistemaCompleto.trim();
-        } else {
-            i.sistema = String.format("%s %s (%s)", os.getFamily(), os.getVersionInfo().getVersion(), os.getManufacturer());
-        }
-        
+        // Valores volátiles y baratos: se leen siempre, sin sondeo
         i.hostname = os.getNetworkParams().getHostName();
+        GlobalMemory memoria = hw.getMemory();
+        i.ram = String.format("%s usada de %s total",
+            formatBytes(memoria.getTotal() - memoria.getAvailable()), formatBytes(memoria.getTotal()));
+
+        // Los sondeos son independientes: se lanzan a la vez y cada uno informa al terminar.
+        // Los más lentos (aplicaciones y PowerShell) primero, para que arranquen antes.
+        // Los que llevan clave de caché devuelven datos estáticos y se reutilizan entre escaneos.
+        java.util.function.Consumer<String> aviso = progreso == null ? null : msg -> {
+            synchronized (progreso) { progreso.accept(msg); }
+        };
+        List<CompletableFuture<java.util.function.Consumer<InfoPC>>> sondeos = new ArrayList<>();
 
-        if (progreso != null) progreso.accept("Analizando procesador (CPU)...");
-        CentralProcessor cpu = si.getHardware().getProcessor();
-        i.cpu = String.format("%s (%d núcleos, %.1f GHz)", 
-                cpu.getProcessorIdentifier().getName().trim(), 
-                cpu.getLogicalProcessorCount(), 
-                cpu.getMaxFreq() / 1_000_000_000.0);
-        
-        if (progreso != null) progreso.accept("Detectando tarjeta gráfica (GPU)...");
-        List<GraphicsCard> gpus = si.getHardware().getGraphicsCards();
-        if (!gpus.isEmpty()) {
-            GraphicsCard g = gpus.get(0);
-            i.gpu = String.format("%s (%s VRAM)", g.getName().trim(), formatBytes(g.getVRam()));
-        } else {
-            i.gpu = "Integrada / No detectada";
+        if (incluirApps) {
+            sondeos.add(sondear("Aplicaciones instaladas recopiladas", null, TIMEOUT_SONDEO_APPS_SEG, aviso, () -> {
+                String apps = getInstalledApps(os);
+                return pc -> pc.installedApps = apps;
+            }, pc -> pc.installedApps = ""));
         }
-        
-        if (progreso != null) progreso.accept("Analizando memoria RAM...");
-        GlobalMemory mem = si.getHardware().getMemory();
-        i.ram = String.format("%s usada de %s total", formatBytes(mem.getTotal() - mem.getAvailable()), formatBytes(mem.getTotal()));
-        
-        // Información detallada de memoria RAM
-        List<PhysicalMemory> memModules = mem.getPhysicalMemory();
-        if (!memModules.isEmpty()) {
-            StringBuilder ramInfo = new StringBuilder();
-            long totalInstalada = 0;
-            String tipoMem = "Desconocido";
-            
-            for (int m = 0; m < memModules.size(); m++) {
-                PhysicalMemory pm = memModules.get(m);
-                totalInstalada += pm.getCapacity();
-                if (m == 0) {
-                    tipoMem = pm.getMemoryType();
+
+        sondeos.add(sondear("Sistema operativo detectado", "sistema", TIMEOUT_SONDEO_SEG, aviso, () -> {
+            String sistemaCompleto = getWmiOperatingSystemCaption();
+            String sistema = sistemaCompleto != null && !sistemaCompleto.isEmpty() && !sistemaCompleto.equals("Desconocido")
+                ? sistemaCompleto.trim()
+                : String.format("%s %s (%s)", os.getFamily(), os.getVersionInfo().getVersion(), os.getManufacturer());
+            return pc -> pc.sistema = sistema;
+        }, pc -> pc.sistema = String.format("%s %s (%s)", os.getFamily(), os.getVersionInfo().getVersion(), os.getManufacturer())));
+
+        // Fabricante y chasis salen del script de PowerShell; van aparte del modelo (OSHI)
+        // para que un PowerShell lento no deje también el modelo en blanco
+        sondeos.add(sondear("Fabricante y tipo de equipo detectados", "fabricante", TIMEOUT_SONDEO_SEG, aviso, () -> {
+            String fabricante = getWmiManufacturer();
+            String chasis = getChassisType();
+            return pc -> { pc.manufacturer = fabricante; pc.deviceType = chasis; };
+        }, pc -> { pc.manufacturer = null; pc.deviceType = null; }));
+
+        sondeos.add(sondear("Modelo del equipo detectado", "modelo", TIMEOUT_SONDEO_SEG, aviso, () -> {
+            String fabricanteTmp = hw.getComputerSystem().getManufacturer();
+            String modeloTmp = hw.getComputerSystem().getModel();
+            modeloTmp = modeloTmp == null ? "" : modeloTmp.trim();
+            fabricanteTmp = fabricanteTmp == null ? "" : fabricanteTmp.trim();
+            String modelo = !modeloTmp.isEmpty() ? modeloTmp : fabricanteTmp;
+            return pc -> pc.modeloEquipo = modelo;
+        }, pc -> pc.modeloEquipo = ""));
+
+        sondeos.add(sondear("Procesador (CPU) analizado", "cpu", TIMEOUT_SONDEO_SEG, aviso, () -> {
+            CentralProcessor cpu = hw.getProcessor();
+            String texto = String.format("%s (%d núcleos, %.1f GHz)",
+                    cpu.getProcessorIdentifier().getName().trim(),
+                    cpu.getLogicalProcessorCount(),
+                    cpu.getMaxFreq() / 1_000_000_000.0);
+            return pc -> pc.cpu = texto;
+        }, pc -> pc.cpu = "Desconocido"));
+
+        sondeos.add(sondear("Tarjeta gráfica (GPU) detectada", "gpu", TIMEOUT_SONDEO_SEG, aviso, () -> {
+            List<GraphicsCard> gpus = hw.getGraphicsCards();
+            String texto = "Integrada / No detectada";
+            if (!gpus.isEmpty()) {
+                GraphicsCard g = gpus.get(0);
+                texto = String.format("%s (%s VRAM)", g.getName().trim(), formatBytes(g.getVRam()));
+            }
+            String gpu = texto;
+            return pc -> pc.gpu = gpu;
+        }, pc -> pc.gpu = "Integrada / No detectada"));
+
+        sondeos.add(sondear("Memoria RAM analizada", "memoria", TIMEOUT_SONDEO_SEG, aviso, () -> {
+            // Información detallada de memoria RAM (módulos instalados)
+            List<PhysicalMemory> memModules = memoria.getPhysicalMemory();
+            String instalada;
+            if (!memModules.isEmpty()) {
+                StringBuilder ramInfo = new StringBuilder();
+                for (int m = 0; m < memModules.size(); m++) {
+                    PhysicalMemory pm = memModules.get(m);
+                    ramInfo.append(String.format("Módulo %d: %s (%s, %d MHz)",
+                        m + 1,
+                        formatBytes(pm.getCapacity()),
+                        pm.getMemoryType(),
+                        pm.getClockSpeed() / 1_000_000));
+                    if (m < memModules.size() - 1) ramInfo.append(" | ");
                 }
-                ramInfo.append(String.format("Módulo %d: %s (%s, %d MHz)",
-                    m + 1,
-                    formatBytes(pm.getCapacity()),
-                    pm.getMemoryType(),
-                    pm.getClockSpeed() / 1_000_000));
-                if (m < memModules.size() - 1) ramInfo.append(" | ");
+                instalada = ramInfo.toString();
+            } else {
+                instalada = formatBytes(memoria.getTotal()) + " (detalles no disponibles)";
             }
-            i.memoriaInstalada = ramInfo.toString();
-        } else {
-            i.memoriaInstalada = formatBytes(mem.getTotal()) + " (detalles no disponibles)";
-        }
-        
-        if (progreso != null) progreso.accept("Leyendo información del BIOS...");
-        Firmware fw = si.getHardware().getComputerSystem().getFirmware();
-        String biosManufacturer = fw.getManufacturer() != null && !fw.getManufacturer().isEmpty() ? fw.getManufacturer() : "Desconocido";
-        String biosVersion = fw.getVersion() != null && !fw.getVersion().isEmpty() ? fw.getVersion() : "Desconocida";
-        String biosDate = fw.getReleaseDate() != null && !fw.getReleaseDate().isEmpty() ? fw.getReleaseDate() : "Desconocida";
-        i.bios = String.format("%s | Versión: %s | Fecha: %s", biosManufacturer, biosVersion, biosDate);
-        
-        if (progreso != null) progreso.accept("Escaneando interfaces de red...");
-        // Información de tarjeta de red
-        List<NetworkIF> networkIFs = si.getHardware().getNetworkIFs();
-        StringBuilder netInfo = new StringBuilder();
-        int activeNets = 0;
-        for (NetworkIF net : networkIFs) {
-            if (net.getSpeed() > 0 && net.getIPv4addr().length > 0) {
-                if (activeNets > 0) netInfo.append(" | ");
-                netInfo.append(String.format("%s (%s, %s Mbps)",
-                    net.getName(),
-                    net.getIPv4addr().length > 0 ? net.getIPv4addr()[0] : "Sin IP",
-                    net.getSpeed() / 1_000_000));
-                activeNets++;
+            return pc -> pc.memoriaInstalada = instalada;
+        }, pc -> pc.memoriaInstalada = formatBytes(memoria.getTotal()) + " (detalles no disponibles)"));
+
+        sondeos.add(sondear("Información del BIOS leída", "bios", TIMEOUT_SONDEO_SEG, aviso, () -> {
+            Firmware fw = hw.getComputerSystem().getFirmware();
+            String biosManufacturer = fw.getManufacturer() != null && !fw.getManufacturer().isEmpty() ? fw.getManufacturer() : "Desconocido";
+            String biosVersion = fw.getVersion() != null && !fw.getVersion().isEmpty() ? fw.getVersion() : "Desconocida";
+            String biosDate = fw.getReleaseDate() != null && !fw.getReleaseDate().isEmpty() ? fw.getReleaseDate() : "Desconocida";
+            String bios = String.format("%s | Versión: %s | Fecha: %s", biosManufacturer, biosVersion, biosDate);
+            return pc -> pc.bios = bios;
+        }, pc -> pc.bios = "Desconocido"));
+
+        sondeos.add(sondear("Interfaces de red escaneadas", null, TIMEOUT_SONDEO_SEG, aviso, () -> {
+            StringBuilder netInfo = new StringBuilder();
+            int activeNets = 0;
+            for (NetworkIF net : hw.getNetworkIFs()) {
+                if (net.getSpeed() > 0 && net.getIPv4addr().length > 0) {
+                    if (activeNets > 0) netInfo.append(" | ");
+                    netInfo.append(String.format("%s (%s, %s Mbps)",
+                        net.getName(),
+                        net.getIPv4addr().length > 0 ? net.getIPv4addr()[0] : "Sin IP",
+                        net.getSpeed() / 1_000_000));
+                    activeNets++;
+                }
             }
+            String red = activeNets > 0 ? netInfo.toString() : "No detectada";
+            String ip = getActiveIPAddress();
+            return pc -> { pc.tarjetaRed = red; pc.ip = ip; };
+        }, pc -> { pc.tarjetaRed = "No detectada"; pc.ip = "Desconocida"; }));
+
+        sondeos.add(sondear("Discos de almacenamiento analizados", null, TIMEOUT_SONDEO_SEG, aviso, () -> {
+            List<HWDiskStore> discos = hw.getDiskStores();
+            StringBuilder sb = new StringBuilder();
+            for (int d = 0; d < discos.size(); d++) {
+                HWDiskStore ds = discos.get(d);
+                String tipo = ds.getModel().toLowerCase().contains("ssd") ? "SSD" : "HDD";
+                sb.append(String.format("Disco %d (%s): %s - %s", d + 1, tipo, ds.getModel().trim(), formatBytes(ds.getSize())));
+                if (d < discos.size() - 1) sb.append(" | ");
+            }
+            int numero = discos.size();
+            String texto = sb.toString();
+            return pc -> { pc.numeroDiscos = numero; pc.discos = texto; };
+        }, pc -> { pc.numeroDiscos = 0; pc.discos = ""; }));
+
+        // Cada sondeo ya lleva su timeout: esperar a todos y aplicar los resultados aquí,
+        // así ningún sondeo tardío escribe en el InfoPC después de devolverlo
+        for (CompletableFuture<java.util.function.Consumer<InfoPC>> sondeo : sondeos) {
+            sondeo.join().accept(i);
         }
-        i.tarjetaRed = activeNets > 0 ? netInfo.toString() : "No detectada";
-        
-        if (progreso != null) progreso.accept("Analizando discos de almacenamiento...");
-        List<HWDiskStore> discos = si.getHardware().getDiskStores();
-        i.numeroDiscos = discos.size();
-        StringBuilder sb = new StringBuilder();
-        for (int d = 0; d < discos.size(); d++) {
-            HWDiskStore ds = discos.get(d);
-            String tipo = ds.getModel().toLowerCase().contains("ssd") ? "SSD" : "HDD";
-            sb.append(String.format("Disco %d (%s): %s - %s", d + 1, tipo, ds.getModel().trim(), formatBytes(ds.getSize())));
-            if (d < discos.size() - 1) sb.append(" | ");
+        return i;
+    }
+
+    /**
+     * Lanza un sondeo de hardware en el pool de sondeos. Si falla o supera el timeout
+     * se usa el valor de respaldo; en ambos casos se informa el progreso al terminar.
+     * Al vencer el timeout la tarea se cancela e interrumpe: deja libre su hilo del pool
+     * y, si esperaba a PowerShell, el intérprete colgado se destruye.
+     *
+     * @param claveCache Clave en {@link CacheHardware} si el dato es estático (null = consultar siempre)
+     * @param sondeo     Consulta; devuelve cómo aplicar su resultado al InfoPC
+     * @param respaldo   Valores a usar si la consulta falla o no termina a tiempo
+     */
+    private static CompletableFuture<java.util.function.Consumer<InfoPC>> sondear(
+            String mensaje, String claveCache, int timeoutSeg, java.util.function.Consumer<String> progreso,
+            java.util.concurrent.Callable<java.util.function.Consumer<InfoPC>> sondeo,
+            java.util.function.Consumer<InfoPC> respaldo) {
+        if (claveCache != null) {
+            java.util.function.Consumer<InfoPC> enCache = CacheHardware.obtener("sondeo." + claveCache);
+            if (enCache != null) {
+                if (progreso != null) progreso.accept(mensaje + "...");
+                return CompletableFuture.completedFuture(enCache);
+            }
         }
-        i.discos = sb.toString();
+        long inicio = System.nanoTime();
+        CompletableFuture<java.util.function.Consumer<InfoPC>> llamada = new CompletableFuture<>();
+        java.util.concurrent.Future<?> tarea = POOL_SONDEOS.submit(() -> {
+            try {
+                llamada.complete(sondeo.call());
+            } catch (Exception e) {
+                llamada.completeExceptionally(e);
+            }
+        });
+        return llamada
+                .completeOnTimeout(null, timeoutSeg, TimeUnit.SECONDS)
+                .exceptionally(e -> {
+                    logger.warn("[Escaneo] " + mensaje + ": falló (" + e.getMessage() + "), se usa valor por defecto");
+                    return respaldo;
+                })
+                .thenApply(resultado -> {
+                    if (resultado == null) {
+                        tarea.cancel(true);
+                        logger.warn("[Escaneo] " + mensaje + ": sin respuesta en " + timeoutSeg + " s, se cancela y se usa valor por defecto");
+                        resultado = respaldo;
+                    } else if (resultado != respaldo) {
+                        logger.debug("[Escaneo] " + mensaje + " en " + (System.nanoTime() - inicio) / 1_000_000 + " ms");
+                        if (claveCache != null) CacheHardware.guardar("sondeo." + claveCache, resultado);
+                    }
+                    if (progreso != null) progreso.accept(mensaje + "...");
+                    return resultado;
+                });
+    }
 
-        if (progreso != null) progreso.accept("Obteniendo dirección IP...");
-        i.ip = getActiveIPAddress();
+    protected static String getWmiOperatingSystemCaption() {
+        String osName = System.getProperty("os.name").toLowerCase();
+        if (!osName.contains("windows")) return "N/A";
 
-        if (progreso != null) progreso.accept("Recopilando aplicaciones instaladas...");
-        i.installedApps = getInstalledApps(os);
+        // Sale del sondeo único por escaneo (un solo script en el PowerShell persistente)
+        String caption = SondeoWindows.obtener().sistema;
+        return caption != null && !caption.trim().isEmpty() ? caption.trim() : "Desconocido";
+    }
 
-        if (progreso != null) progreso.accept("Detectando modelo del equipo...");
-        i.userName = System.getProperty("user.name");
-        
-        String fabricanteTmp = si.getHardware().getComputerSystem().getManufacturer();
-        String modeloTmp = si.getHardware().getComputerSystem().getModel();
-        if (modeloTmp == null) modeloTmp = "";
-        if (fabricanteTmp == null) fabricanteTmp = "";
-        modeloTmp = modeloTmp.trim();
-        fabricanteTmp = fabricanteTmp.trim();
-        
-        if (!modeloTmp.isEmpty()) {
-            i.modeloEquipo = modeloTmp;
-        } else if (!fabricanteTmp.isEmpty()) {
-            i.modeloEquipo = fabricanteTmp;
-        } else {
-            i.modeloEquipo = "";
-        }
-        
-        try {
-            i.manufacturer = getWmiManufacturer();
-        } catch (Exception ignored) {
-            i.manufacturer = null;
+    protected static String getWmiManufacturer() {
+        String osName = System.getProperty("os.name").toLowerCase();
+        if (!osName.contains("windows")) return "N/A";
+
+        String fabricante = SondeoWindows.obtener().fabricante;
+        return fabricante != null && !fabricante.trim().isEmpty() ? fabricante.trim() : "Desconocido";
+    }
+
+    protected static String getChassisType() {
+        String osName = System.getProperty("os.name").toLowerCase();
+        if (!osName.contains("windows")) return "N/A";
+
+        for (Integer v : SondeoWindows.obtener().chasis) {
+            if (v == null) continue;
+            if (v == 8 || v == 9 || v == 10 || v == 14) return "Notebook";
+            if (v == 3 || v == 4 || v == 5 || v == 6 || v == 7 || v == 15 || v == 16) return "Desktop";
         }
+        return "Desconocido";
+    }
+
+    // === GUARDAR INVENTARIO ===
+
+    /** Repositorio SQLite donde se registra cada escaneo antes de volcarlo al Excel */
+    private static final InventarioRepository inventarioRepo = new InventarioRepository();
+
+    /**
+     * Guarda un escaneo del proyecto actual.
+     * El escaneo se inserta en SQLite (tabla inventarios) y se vuelca al Excel cifrado
+     * en segundo plano tras {@link DiarioEscaneos#SEGUNDOS_INACTIVIDAD} sin escaneos, o
+     * antes si alguien abre el Excel para modificarlo. Solo si el Excel aún no existe se
+     * exporta de inmediato para que el proyecto aparezca en el dashboard. Lo que quede
+     * sin volcar se exporta al cerrar la base de datos, al arrancar la interfaz y al abrir
+     * el proyecto (ver {@link #iniciarExportacionPendientes()}).
+     * Si el equipo ya estaba escaneado y su huella no cambió, solo se registra la visita.
+     * Si la base de datos no está disponible se usa el guardado directo en Excel.
+     */
+    protected static boolean guardarInventarioProyecto(InfoPC i) {
+        Path rutaExcel = obtenerRutaExcel(CURRENT_PROJECT);
         try {
-            i.deviceType = getChassisType();
-        } catch (Exception ignored) {
-            i.deviceType = null;
+            int idx = Integer.parseInt(CURRENT_PROJECT.split("\\.")[0].trim()) - 1;
+            AdminManager.Proyecto p = AdminManager.getProyectoPorIndice(idx);
+            if (p == null) {
+                throw new IllegalStateException("Proyecto no encontrado: " + CURRENT_PROJECT);
+            }
+            InventarioRepository.TipoEscaneo tipo = inventarioRepo.registrarEscaneo(p.getId(), claveRuta(rutaExcel), i);
+            if (tipo == InventarioRepository.TipoEscaneo.VISTO || tipo == InventarioRepository.TipoEscaneo.ANTERIOR) {
+                logger.info("[Inventario] " + i.hostname + (tipo == InventarioRepository.TipoEscaneo.VISTO
+                    ? " sin cambios desde el último escaneo, solo se registra la visita"
+                    : " tiene un estado más reciente que este escaneo, no se registra"));
+                if (Files.exists(rutaExcel)) return true;
+                // El Excel se borró: hace falta la fila completa para regenerarlo
+                inventarioRepo.guardarEscaneo(p.getId(), claveRuta(rutaExcel), i);
+            }
+            logger.info("[Inventario] Escaneo guardado en SQLite para: " + rutaExcel.getFileName());
+            if (!Files.exists(rutaExcel)) {
+                return exportarPendientesExcel(rutaExcel);
+            }
+            // Las vistas de solo lectura no exportan: el compactador lo vuelca al quedar inactivo
+            DiarioEscaneos.programarCompactacion(rutaExcel, DiarioEscaneos.SEGUNDOS_INACTIVIDAD);
+            return true;
+        } catch (Exception e) {
+            logger.warn("[Inventario] No se pudo guardar en SQLite, guardando directo en Excel: " + e.getMessage());
+            return guardarEnExcelCifradoProyecto(i);
         }
-        return i;
     }
 
-    protected static String getWmiOperatingSystemCaption() {
+    /** El volcado al cerrar la BD se registra una sola vez */
+    private static final AtomicBoolean exportacionAlCerrarRegistrada = new AtomicBoolean();
+
+    /** Propiedad personalizada del Excel con el lote de la última exportación escrita */
+    private static final String PROPIEDAD_LOTE = "inventario.loteExportacion";
+
+    /**
+     * Vuelca al Excel cifrado todos los escaneos pendientes para esa ruta (filas de
+     * SQLite sin exportar y registros del diario cifrado) con un único descifrado y
+     * un único cifrado del archivo.
+     *
+     * <p>La exportación es idempotente: antes de escribir se asigna un lote a las filas
+     * de SQLite y se anota en el diario qué parte se vuelca, y el mismo lote se graba en
+     * el Excel. Si la aplicación se corta después de escribir el Excel y antes de marcar
+     * las filas, la siguiente exportación encuentra el lote en el archivo y las marca en
+     * lugar de añadirlas otra vez.
+     *
+     * @return true si no había pendientes o si se exportaron correctamente
+     */
+    public static synchronized boolean exportarPendientesExcel(Path rutaExcel) {
+        String clave = claveRuta(rutaExcel);
+        recuperarExportacionInterrumpida(rutaExcel, clave);
+
+        Map<String, InfoPC> pendientes = new LinkedHashMap<>();
         try {
-            String osName = System.getProperty("os.name").toLowerCase();
-            if (!osName.contains("windows")) return "N/A";
-
-            String cmd = "$ErrorActionPreference='SilentlyContinue'; (Get-WmiObject -Class Win32_OperatingSystem | Select-Object -ExpandProperty Caption) -join ','";
-            ProcessBuilder pb = new ProcessBuilder("powershell.exe", "-ExecutionPolicy", "Bypass", "-NoProfile", "-Command", cmd);
-            pb.redirectErrorStream(true);
-            Process p = pb.start();
-
-            try (BufferedReader br = new BufferedReader(new InputStreamReader(p.getInputStream(), StandardCharsets.UTF_8))) {
-                String line;
-                while ((line = br.readLine()) != null) {
-                    line = line.trim();
-                    if (!line.isEmpty()) return line;
+            if (inventarioRepo.contarPendientes(clave) > 0) {
+                pendientes = inventarioRepo.obtenerPendientes(clave);
+            }
+        } catch (Exception e) {
+            logger.warn("[Inventario] No se pudieron leer escaneos pendientes: " + e.getMessage());
+        }
+
+        DiarioEscaneos.Lectura diario = null;
+        if (DiarioEscaneos.tienePendientes(rutaExcel)) {
+            try {
+                diario = DiarioEscaneos.leer(rutaExcel, getExcelPassword());
+            } catch (Exception e) {
+                logger.error("[Diario] Error leyendo diario de " + rutaExcel.getFileName() + ": " + e.getMessage(), e);
+            }
+        }
+
+        List<InfoPC> registros = new ArrayList<>(pendientes.values());
+        if (diario != null) registros.addAll(diario.registros);
+        // Los ilegibles se copian aparte antes de escribir; el diario se vacía después hasta offsetFinal
+        if (diario != null && !DiarioEscaneos.apartarIlegibles(rutaExcel, diario)) {
+            return false;
+        }
+        if (registros.isEmpty()) {
+            if (diario != null && diario.registrosIlegibles > 0) {
+                try {
+                    DiarioEscaneos.descartarHasta(rutaExcel, diario.offsetFinal);
+                } catch (IOException e) {
+                    logger.error("[Diario] No se pudo vaciar el diario de " + rutaExcel.getFileName() + ": " + e.getMessage(), e);
                 }
             }
-            p.waitFor(5, TimeUnit.SECONDS);
+            return true;
+        }
+
+        List<String> ids = new ArrayList<>(pendientes.keySet());
+        String lote = UUID.randomUUID().toString();
+        try {
+            inventarioRepo.asignarLote(ids, lote);
+            if (diario != null && !diario.registros.isEmpty()) {
+                DiarioEscaneos.marcarExportacion(rutaExcel, lote, diario.offsetFinal);
+            }
         } catch (Exception e) {
-            // ignore
+            logger.error("[Inventario] No se pudo preparar la exportación a " + rutaExcel.getFileName() + ": " + e.getMessage(), e);
+            return false;
         }
-        return "Desconocido";
-    }
 
-    protected static String getWmiManufacturer() {
+        if (!escribirEnExcelCifrado(rutaExcel, registros, lote)) {
+            return false;
+        }
         try {
-            String osName = System.getProperty("os.name").toLowerCase();
-            if (!osName.contains("windows")) return "N/A";
-
-            String cmd = "$ErrorActionPreference='SilentlyContinue'; (Get-WmiObject -Class Win32_ComputerSystem | Select-Object -ExpandProperty Manufacturer) -join ','";
-            ProcessBuilder pb = new ProcessBuilder("powershell.exe", "-ExecutionPolicy", "Bypass", "-NoProfile", "-Command", cmd);
-            pb.redirectErrorStream(true);
-            Process p = pb.start();
-
-            try (BufferedReader br = new BufferedReader(new InputStreamReader(p.getInputStream(), StandardCharsets.UTF_8))) {
-                String line;
-                while ((line = br.readLine()) != null) {
-                    line = line.trim();
-                    if (!line.isEmpty()) return line;
-                }
+            inventarioRepo.marcarExportados(ids);
+            if (diario != null) {
+                DiarioEscaneos.descartarHasta(rutaExcel, diario.offsetFinal);
+                DiarioEscaneos.terminarExportacion(rutaExcel);
             }
-            p.waitFor(5, TimeUnit.SECONDS);
+            logger.info("[Inventario] " + registros.size() + " escaneo(s) exportados a " + rutaExcel.getFileName());
+            return true;
         } catch (Exception e) {
-            // ignore
+            // El lote ya está en el Excel: la próxima exportación los marca sin duplicarlos
+            logger.error("[Inventario] Escaneos escritos pero no marcados como exportados: " + e.getMessage(), e);
+            return false;
         }
-        return "Desconocido";
     }
 
-    protected static String getChassisType() {
-        try {
-            String osName = System.getProperty("os.name").toLowerCase();
-            if (!osName.contains("windows")) return "N/A";
-
-            String cmd = "$ErrorActionPreference='SilentlyContinue'; (Get-WmiObject -Class Win32_SystemEnclosure | ForEach-Object {$_.ChassisTypes}) -join ','";
-            ProcessBuilder pb = new ProcessBuilder("powershell.exe", "-ExecutionPolicy", "Bypass", "-NoProfile", "-Command", cmd);
-            pb.redirectErrorStream(true);
-            Process p = pb.start();
-
-            try (BufferedReader br = new BufferedReader(new InputStreamReader(p.getInputStream(), StandardCharsets.UTF_8))) {
-                String line;
-                while ((line = br.readLine()) != null) {
-                    line = line.trim();
-                    if (line.isEmpty()) continue;
-                    String[] parts = line.split("[,;\\s]+");
-                    for (String part : parts) {
-                        try {
-                            int v = Integer.parseInt(part.trim());
-                            if (v == 8 || v == 9 || v == 10 || v == 14) return "Notebook";
-                            if (v == 3 || v == 4 || v == 5 || v == 6 || v == 7 || v == 15 || v == 16) return "Desktop";
-                        } catch (NumberFormatException ignored) {}
-                    }
+    /**
+     * Vuelca los escaneos pendientes de todos los proyectos: filas de SQLite sin exportar,
+     * compactaciones programadas del diario y diarios que quedaron de otra sesión. Los Excel
+     * que no existen se omiten (el título de su hoja depende del proyecto; los regenera el
+     * siguiente escaneo de ese proyecto).
+     *
+     * @return Excel actualizados correctamente
+     */
+    public static int exportarTodosLosPendientes() {
+        Set<Path> rutas = new LinkedHashSet<>(DiarioEscaneos.cancelarCompactaciones());
+        for (String ruta : inventarioRepo.obtenerRutasPendientes()) {
+            rutas.add(Path.of(ruta));
+        }
+        rutas.addAll(DiarioEscaneos.excelConDiario(obtenerCarpetaEjecutable()));
+        int exportados = 0;
+        for (Path ruta : rutas) {
+            if (!Files.exists(ruta) || !tieneEscaneosPendientes(ruta)) continue;
+            try {
+                if (exportarPendientesExcel(ruta)) exportados++;
+            } catch (Exception e) {
+                logger.error("[Inventario] Error exportando pendientes de " + ruta.getFileName() + ": " + e.getMessage(), e);
+            }
+        }
+        return exportados;
+    }
+
+    /**
+     * Al arrancar la interfaz: vuelca en segundo plano lo que otra sesión dejó pendiente y
+     * registra el volcado al cerrar la base de datos, así ningún escaneo queda solo en
+     * SQLite o en el diario cuando la aplicación se cierra antes del compactador.
+     */
+    public static void iniciarExportacionPendientes() {
+        if (exportacionAlCerrarRegistrada.compareAndSet(false, true)) {
+            DatabaseManager.alCerrar(() -> {
+                int n = exportarTodosLosPendientes();
+                if (n > 0) logger.info("[Inventario] " + n + " Excel actualizados al cerrar");
+            });
+        }
+        Thread hilo = new Thread(() -> {
+            int n = exportarTodosLosPendientes();
+            if (n > 0) logger.info("[Inventario] " + n + " Excel actualizados con escaneos de la sesión anterior");
+        }, "Exportar-Pendientes");
+        hilo.setDaemon(true);
+        hilo.setPriority(Thread.MIN_PRIORITY);
+        hilo.start();
+    }
+
+    /** Al abrir un proyecto: vuelca en segundo plano sus escaneos pendientes, si tiene */
+    public static void exportarPendientesProyecto(String proyecto) {
+        Thread hilo = new Thread(() -> {
+            try {
+                Path ruta = obtenerRutaExcel(proyecto);
+                if (Files.exists(ruta) && tieneEscaneosPendientes(ruta)) {
+                    exportarPendientesExcel(ruta);
                 }
+            } catch (Exception e) {
+                logger.warn("[Inventario] No se pudieron exportar los pendientes de " + proyecto + ": " + e.getMessage());
+            }
+        }, "Exportar-Pendientes");
+        hilo.setDaemon(true);
+        hilo.start();
+    }
+
+    /**
+     * Cierra una exportación anterior que escribió el Excel pero no llegó a marcar sus
+     * escaneos. Solo abre el Excel si quedó alguna a medias (filas con lote sin marcar o
+     * marca en el diario), que es lo excepcional.
+     */
+    private static void recuperarExportacionInterrumpida(Path rutaExcel, String clave) {
+        Set<String> lotes = inventarioRepo.obtenerLotesSinConfirmar(clave);
+        boolean diarioSinTerminar = DiarioEscaneos.tieneExportacionSinTerminar(rutaExcel);
+        if (lotes.isEmpty() && !diarioSinTerminar) return;
+
+        String loteEnExcel = leerLoteExportacion(rutaExcel);
+        if (loteEnExcel != null && lotes.contains(loteEnExcel)) {
+            try {
+                int marcados = inventarioRepo.confirmarLote(clave, loteEnExcel);
+                logger.warn("[Inventario] Exportación interrumpida: " + marcados
+                    + " escaneo(s) ya estaban en " + rutaExcel.getFileName() + ", se marcan sin volver a exportarlos");
+            } catch (SQLException e) {
+                logger.error("[Inventario] No se pudo confirmar el lote " + loteEnExcel + ": " + e.getMessage(), e);
             }
-            p.waitFor(5, TimeUnit.SECONDS);
-        } catch (Exception e) {
-            // ignore
         }
-        return "Desconocido";
+        if (diarioSinTerminar) {
+            DiarioEscaneos.recuperarExportacion(rutaExcel, loteEnExcel);
+        }
+    }
+
+    /** Lote de la última exportación grabado en el Excel, o null si no tiene o no se pudo abrir */
+    private static String leerLoteExportacion(Path rutaExcel) {
+        if (!Files.exists(rutaExcel)) return null;
+        try (XSSFWorkbook wb = abrirCifradoSinExportar(rutaExcel)) {
+            if (wb == null) return null;
+            POIXMLProperties.CustomProperties propiedades = wb.getProperties().getCustomProperties();
+            return propiedades.contains(PROPIEDAD_LOTE) ? propiedades.getProperty(PROPIEDAD_LOTE).getLpwstr() : null;
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    /** Graba el lote de exportación en las propiedades personalizadas del Excel */
+    private static void grabarLoteExportacion(XSSFWorkbook wb, String lote) {
+        POIXMLProperties.CustomProperties propiedades = wb.getProperties().getCustomProperties();
+        if (propiedades.contains(PROPIEDAD_LOTE)) {
+            propiedades.getProperty(PROPIEDAD_LOTE).setLpwstr(lote);
+        } else {
+            propiedades.addProperty(PROPIEDAD_LOTE, lote);
+        }
+    }
+
+    /** Clave estable de la ruta del Excel usada en la columna inventarios.ruta_excel */
+    protected static String claveRuta(Path rutaExcel) {
+        return rutaExcel.toAbsolutePath().normalize().toString();
     }
 
     // === GUARDAR EN EXCEL CIFRADO ===
 
+    /**
+     * Guarda un escaneo anexándolo al diario cifrado del proyecto (un registro + fsync).
+     * El compactador en segundo plano lo vuelca al Excel; si el Excel aún no existe
+     * se compacta en el acto. Si el diario falla se escribe directamente en el Excel.
+     */
     protected static boolean guardarEnExcelCifradoProyecto(InfoPC i) {
         Path rutaExcel = obtenerRutaExcel(CURRENT_PROJECT);
+        try {
+            DiarioEscaneos.anexar(rutaExcel, i, getExcelPassword());
+            if (!Files.exists(rutaExcel)) {
+                return exportarPendientesExcel(rutaExcel);
+            }
+            return true;
+        } catch (Exception e) {
+            logger.warn("[Diario] No se pudo anexar al diario, guardando directo en Excel: " + e.getMessage());
+            return escribirEnExcelCifrado(rutaExcel, Collections.singletonList(i), null);
+        }
+    }
+
+    /**
+     * Añade uno o varios equipos al Excel cifrado del proyecto (una fila en SystemInfo
+     * y un grupo de filas en InstalledApps por equipo).
+     *
+     * Las filas nuevas se escriben en streaming (SXSSF) y el paquete se cifra directamente
+     * sobre el archivo temporal, así la memoria no crece con el número de filas nuevas.
+     * Las filas que el Excel ya tenía sí se cargan enteras (ver {@link EscritorExcelStreaming}).
+     *
+     * @param lote Lote de exportación que se graba en el Excel (null conserva el anterior)
+     */
+    private static boolean escribirEnExcelCifrado(Path rutaExcel, List<InfoPC> registros, String lote) {
         logger.info("[Excel] Guardando inventario en: " + rutaExcel);
         logger.info("[Excel] Proyecto actual: " + CURRENT_PROJECT);
         Path temp = null;
-        XSSFWorkbook wb = null;
+        XSSFWorkbook base = null;
+        SXSSFWorkbook wb = null;
         try {
             temp = Files.createTempFile(obtenerCarpetaEjecutable(), "inv_", ".xlsx");
 
             if (Files.exists(rutaExcel)) {
-                wb = abrirCifradoProyecto(rutaExcel);
-                if (wb == null) wb = new XSSFWorkbook();
+                base = abrirCifradoSinExportar(rutaExcel);
+                if (base == null) base = new XSSFWorkbook();
+                // Archivos inflados por versiones anteriores (un estilo nuevo por guardado): se compactan una vez
+                base = RegistroEstilos.compactar(base);
             } else {
-                wb = new XSSFWorkbook();
+                base = new XSSFWorkbook();
             }
 
-            Sheet hoja = wb.getSheet("SystemInfo");
-            if (hoja == null) {
-                hoja = wb.createSheet("SystemInfo");
-                crearEncabezadosConProyecto(wb, hoja);
+            // Encabezados y estado de las hojas sobre el modelo XSSF (las filas existentes viven ahí)
+            Sheet hojaBase = base.getSheet("SystemInfo");
+            if (hojaBase == null) {
+                hojaBase = base.createSheet("SystemInfo");
+                crearEncabezadosConProyecto(base, hojaBase);
             }
+            if (hojaBase.getRow(1) == null) {
+                crearEncabezadosConProyecto(base, hojaBase);
+            }
+            Map<String, Integer> columnas = columnasEncabezado(hojaBase.getRow(1));
+            int nuevaFila = hojaBase.getLastRowNum() + 1;
+            EstadoHojaApps estadoApps = prepararHojaApps(base);
+            if (lote != null) grabarLoteExportacion(base, lote);
 
-            int nuevaFila = hoja.getLastRowNum() + 1;
-            Row fila = hoja.createRow(nuevaFila);
-            fila.setHeight((short) 900);
+            // A partir de aquí solo se añaden filas: SXSSF mantiene una ventana acotada en memoria
+            wb = EscritorExcelStreaming.envolver(base);
+            SXSSFSheet hoja = wb.getSheet("SystemInfo");
+            hoja.trackAllColumnsForAutoSizing();
+
+            escribirFilasSistema(wb, hoja, columnas, nuevaFila, registros);
+
+            autoSize(hoja, ENCABEZADOS_SISTEMA.length);
+            hoja.setAutoFilter(new CellRangeAddress(1, 1, 0, ENCABEZADOS_SISTEMA.length - 1));
+            hoja.createFreezePane(0, 2);
+
+            SXSSFSheet hojaApps = wb.getSheet("InstalledApps");
+            if (estadoApps.esNuevaHoja) hojaApps.trackAllColumnsForAutoSizing();
+            EstilosApps estilosApps = new EstilosApps(wb);
+            for (InfoPC i : registros) {
+                createAppsSheet(wb, hojaApps, estadoApps, estilosApps, i.userName, i);
+            }
+            int cols = ENCABEZADOS_APLICACIONES.length;
+            hojaApps.setAutoFilter(new CellRangeAddress(1, 1, 0, Math.max(0, cols - 1)));
+            hojaApps.createFreezePane(0, 2);
+            if (estadoApps.esNuevaHoja) {
+                autoSize(hojaApps, cols);
+            }
+
+            EscritorExcelStreaming.guardarCifrado(wb, temp, getExcelPassword());
 
-            Map<String, Integer> columnas = new HashMap<>();
-            Row header = hoja.getRow(1);
-            if (header == null) {
-                header = hoja.createRow(1);
-                crearEncabezadosConProyecto(wb, hoja);
+            return reemplazarArchivoSinBackup(rutaExcel, temp);
+
+        } catch (Exception e) {
+            logger.error("[Excel] Error guardando inventario en " + rutaExcel + ": " + e.getMessage(), e);
+            return false;
+        } finally {
+            if (temp != null && Files.exists(temp)) {
+                try { Files.delete(temp); } catch (Exception ignored) {}
             }
-            for (int c = 0; c < header.getLastCellNum(); c++) {
-                Cell cell = header.getCell(c, Row.MissingCellPolicy.CREATE_NULL_AS_BLANK);
-                columnas.put(cell.getStringCellValue().trim(), c);
+            if (wb != null) {
+                wb.dispose();
+                try { wb.close(); } catch (Exception ignored) {}
+            } else if (base != null) {
+                try { base.close(); } catch (Exception ignored) {}
             }
+        }
+    }
+
+    /** Índice de cada columna de una fila de encabezados, por su nombre */
+    private static Map<String, Integer> columnasEncabezado(Row header) {
+        Map<String, Integer> columnas = new HashMap<>();
+        for (int c = 0; c < header.getLastCellNum(); c++) {
+            Cell cell = header.getCell(c, Row.MissingCellPolicy.CREATE_NULL_AS_BLANK);
+            columnas.put(cell.getStringCellValue().trim(), c);
+        }
+        return columnas;
+    }
 
-            CellStyle estilo = wb.createCellStyle();
-            estilo.setWrapText(true);
-            estilo.setVerticalAlignment(VerticalAlignment.TOP);
+    /** Una fila de SystemInfo por escaneo, a partir de {@code nuevaFila} */
+    private static void escribirFilasSistema(Workbook wb, Sheet hoja, Map<String, Integer> columnas,
+                                             int nuevaFila, List<InfoPC> registros) {
+        CellStyle estilo = RegistroEstilos.obtener(wb, new RegistroEstilos.EstiloCelda()
+            .alinear(HorizontalAlignment.GENERAL, VerticalAlignment.TOP)
+            .ajustarTexto());
+
+        for (InfoPC i : registros) {
+            Row fila = hoja.createRow(nuevaFila++);
+            fila.setHeight((short) 900);
 
             setCell(fila, columnas.get("Fecha"), formatearFecha(i.fecha), estilo);
             setCell(fila, columnas.get("Usuario Sistema"), i.userName, estilo);
@@ -503,44 +892,29 @@ public abstract class InventarioFXBase {
             setCell(fila, columnas.get("Discos"), i.discos, estilo);
             setCell(fila, columnas.get("Nº Discos"), String.valueOf(i.numeroDiscos), estilo);
             setCell(fila, columnas.get("IP"), i.ip, estilo);
+        }
+    }
 
-            autoSize(hoja, ENCABEZADOS_SISTEMA.length);
-            hoja.setAutoFilter(new CellRangeAddress(1, 1, 0, ENCABEZADOS_SISTEMA.length - 1));
-            hoja.createFreezePane(0, 2);
-
-            createAppsSheet(wb, i.userName, i);
-
-            ByteArrayOutputStream bos = new ByteArrayOutputStream();
-            try {
-                wb.write(bos);
-            } finally {
-                wb.close();
-            }
-
-            EncryptionInfo info = new EncryptionInfo(EncryptionMode.agile);
-            Encryptor encryptor = info.getEncryptor();
-            encryptor.confirmPassword(getExcelPassword());
-
-            POIFSFileSystem fs = new POIFSFileSystem();
-            OutputStream os = encryptor.getDataStream(fs);
-            os.write(bos.toByteArray());
-            os.close();
-
-            try (FileOutputStream fos = new FileOutputStream(temp.toFile())) {
-                fs.writeFilesystem(fos);
-            }
-            fs.close();
-
-            return reemplazarArchivoSinBackup(rutaExcel, temp);
+    /**
+     * Añade en memoria (sin guardar) las filas de SystemInfo e InstalledApps que la
+     * exportación escribirá para esos escaneos, con el mismo formato.
+     */
+    private static void superponerPendientes(XSSFWorkbook wb, List<InfoPC> registros) {
+        Sheet hoja = wb.getSheet("SystemInfo");
+        if (hoja == null) {
+            hoja = wb.createSheet("SystemInfo");
+            crearEncabezadosConProyecto(wb, hoja);
+        }
+        if (hoja.getRow(1) == null) {
+            crearEncabezadosConProyecto(wb, hoja);
+        }
+        escribirFilasSistema(wb, hoja, columnasEncabezado(hoja.getRow(1)), hoja.getLastRowNum() + 1, registros);
 
-        } catch (Exception e) {
-            logger.error("[Excel] Error guardando inventario en " + rutaExcel + ": " + e.getMessage(), e);
-            return false;
-        } finally {
-            if (temp != null && Files.exists(temp)) {
-                try { Files.delete(temp); } catch (Exception ignored) {}
-            }
-            if (wb != null) try { wb.close(); } catch (Exception ignored) {}
+        EstadoHojaApps estadoApps = prepararHojaApps(wb);
+        Sheet hojaApps = wb.getSheet("InstalledApps");
+        EstilosApps estilosApps = new EstilosApps(wb);
+        for (InfoPC i : registros) {
+            createAppsSheet(wb, hojaApps, estadoApps, estilosApps, i.userName, i);
         }
     }
 
@@ -556,10 +930,14 @@ public abstract class InventarioFXBase {
     protected static void autoSize(Sheet sheet, int columnas) {
         if (sheet == null || columnas <= 0) return;
         final int MAX_WIDTH = 10000;
+        // En SXSSF solo se miden las filas nuevas: no reducir el ancho que ya tenía la columna
+        boolean streaming = sheet instanceof SXSSFSheet;
         for (int c = 0; c < columnas; c++) {
             try {
+                int anterior = sheet.getColumnWidth(c);
                 sheet.autoSizeColumn(c);
                 int w = sheet.getColumnWidth(c);
+                if (streaming && w < anterior) sheet.setColumnWidth(c, w = anterior);
                 if (w > MAX_WIDTH) sheet.setColumnWidth(c, MAX_WIDTH);
             } catch (Exception ignored) {}
         }
@@ -571,30 +949,20 @@ public abstract class InventarioFXBase {
         Cell cellTitulo = titulo.createCell(0);
         cellTitulo.setCellValue("INVENTARIO DE EQUIPOS - " + limpiarNombreProyecto(CURRENT_PROJECT).toUpperCase());
 
-        CellStyle estiloTitulo = wb.createCellStyle();
-        XSSFFont fontTitulo = wb.createFont();
-        fontTitulo.setBold(true);
-        fontTitulo.setFontHeightInPoints((short) 16);
-        fontTitulo.setColor(IndexedColors.WHITE.getIndex());
-        estiloTitulo.setFont(fontTitulo);
-        estiloTitulo.setFillForegroundColor(obtenerColorProyecto());
-        estiloTitulo.setFillPattern(FillPatternType.SOLID_FOREGROUND);
-        estiloTitulo.setAlignment(HorizontalAlignment.CENTER);
-        estiloTitulo.setVerticalAlignment(VerticalAlignment.CENTER);
+        CellStyle estiloTitulo = RegistroEstilos.obtener(wb, new RegistroEstilos.EstiloCelda()
+            .fuente(true, 16, IndexedColors.WHITE.getIndex())
+            .relleno(obtenerColorProyecto())
+            .alinear(HorizontalAlignment.CENTER, VerticalAlignment.CENTER));
         cellTitulo.setCellStyle(estiloTitulo);
 
         hoja.addMergedRegion(new CellRangeAddress(0, 0, 0, ENCABEZADOS_SISTEMA.length - 1));
 
         Row header = hoja.createRow(1);
         header.setHeight((short) 600);
-        CellStyle estiloHeader = wb.createCellStyle();
-        estiloHeader.setFillForegroundColor(IndexedColors.GREY_25_PERCENT.getIndex());
-        estiloHeader.setFillPattern(FillPatternType.SOLID_FOREGROUND);
-        estiloHeader.setAlignment(HorizontalAlignment.CENTER);
-        estiloHeader.setVerticalAlignment(VerticalAlignment.CENTER);
-        XSSFFont fontHeader = wb.createFont();
-        fontHeader.setBold(true);
-        estiloHeader.setFont(fontHeader);
+        CellStyle estiloHeader = RegistroEstilos.obtener(wb, new RegistroEstilos.EstiloCelda()
+            .fuente(true, 11, IndexedColors.BLACK.getIndex())
+            .relleno(IndexedColors.GREY_25_PERCENT.getIndex())
+            .alinear(HorizontalAlignment.CENTER, VerticalAlignment.CENTER));
 
         for (int i = 0; i < ENCABEZADOS_SISTEMA.length; i++) {
             Cell c = header.createCell(i);
@@ -603,22 +971,100 @@ public abstract class InventarioFXBase {
         }
     }
 
+    /**
+     * Abre el Excel cifrado de un proyecto para consultarlo, con los escaneos pendientes
+     * (SQLite y diario) añadidos en memoria al final de sus hojas. El archivo no se
+     * reescribe: lo vuelca el compactador poco después de guardarlos, así una vista de solo
+     * lectura no paga un cifrado completo. El workbook devuelto no debe guardarse.
+     */
     public static XSSFWorkbook abrirCifradoProyecto(Path ruta) {
-        XSSFWorkbook wb = abrirCifrado(ruta, getExcelPassword());
-        if (wb == null) {
-            // La contraseña principal no funcionó.
-            // Intentar con el respaldo (cubre el caso donde encryption.key fue regenerada
-            // pero el archivo excel_pw.dat sobrevivió con la contraseña original).
-            String backupPw = AdminManager.getExcelPasswordFromBackup();
-            if (backupPw != null && !backupPw.equals(getExcelPassword())) {
-                wb = abrirCifrado(ruta, backupPw);
-                if (wb != null) {
+        if (!Files.exists(ruta) || !tieneEscaneosPendientes(ruta)) {
+            return abrirCifradoSinExportar(ruta);
+        }
+        // Con el cerrojo de exportarPendientesExcel: archivo y pendientes de la misma versión
+        synchronized (InventarioFXBase.class) {
+            List<InfoPC> pendientes = leerPendientes(ruta);
+            XSSFWorkbook wb = abrirCifradoSinExportar(ruta);
+            if (wb != null && !pendientes.isEmpty()) {
+                superponerPendientes(wb, pendientes);
+            }
+            return wb;
+        }
+    }
+
+    /**
+     * Abre el Excel cifrado de un proyecto para modificarlo y guardarlo. Si hay escaneos
+     * pendientes en SQLite o en el diario se vuelcan antes, para que el archivo que se
+     * guarde no los pierda ni quede por detrás de ellos.
+     */
+    public static XSSFWorkbook abrirCifradoProyectoParaEscribir(Path ruta) {
+        if (Files.exists(ruta) && tieneEscaneosPendientes(ruta)) {
+            exportarPendientesExcel(ruta);
+        }
+        return abrirCifradoSinExportar(ruta);
+    }
+
+    /**
+     * Escaneos guardados que aún no están en el Excel: filas de SQLite sin exportar y
+     * registros del diario, en ese orden (el de la exportación). Cierra antes una
+     * exportación interrumpida para no contar dos veces lo que ya está en el archivo.
+     * Debe llamarse con el cerrojo de la clase.
+     */
+    private static List<InfoPC> leerPendientes(Path ruta) {
+        List<InfoPC> registros = new ArrayList<>();
+        String clave = claveRuta(ruta);
+        recuperarExportacionInterrumpida(ruta, clave);
+        try {
+            if (inventarioRepo.contarPendientes(clave) > 0) {
+                registros.addAll(inventarioRepo.obtenerPendientes(clave).values());
+            }
+        } catch (Exception e) {
+            logger.warn("[Inventario] No se pudieron leer escaneos pendientes: " + e.getMessage());
+        }
+        if (DiarioEscaneos.tienePendientes(ruta)) {
+            try {
+                registros.addAll(DiarioEscaneos.leer(ruta, getExcelPassword()).registros);
+            } catch (Exception e) {
+                logger.warn("[Diario] No se pudo leer el diario de " + ruta.getFileName() + ": " + e.getMessage());
+            }
+        }
+        return registros;
+    }
+
+    /** Indica si hay escaneos guardados que aún no están en el Excel */
+    public static boolean tieneEscaneosPendientes(Path rutaExcel) {
+        return DiarioEscaneos.tienePendientes(rutaExcel)
+            || DiarioEscaneos.tieneExportacionSinTerminar(rutaExcel)
+            || inventarioRepo.contarPendientes(claveRuta(rutaExcel)) > 0;
+    }
+
+    private static XSSFWorkbook abrirCifradoSinExportar(Path ruta) {
+        // La contraseña de respaldo cubre el caso donde encryption.key fue regenerada
+        // pero el archivo excel_pw.dat sobrevivió con la contraseña original.
+        // Se prueba primero la que abrió este archivo la última vez.
+        for (String password : passwordsCandidatas(ruta)) {
+            XSSFWorkbook wb = abrirCifrado(ruta, password);
+            if (wb != null) {
+                CacheClavesCifrado.recordarPassword(ruta, password);
+                if (!password.equals(getExcelPassword())) {
                     logger.warn("[InventarioFXBase] Archivo abierto con contraseña de respaldo: "
                         + ruta.getFileName());
                 }
+                return wb;
             }
         }
-        return wb;
+        return null;
+    }
+
+    /** Contraseña principal y, si es distinta, la de respaldo; la última que funcionó va primero. */
+    private static List<String> passwordsCandidatas(Path ruta) {
+        List<String> candidatas = new ArrayList<>();
+        candidatas.add(getExcelPassword());
+        String backupPw = AdminManager.getExcelPasswordFromBackup();
+        if (backupPw != null && !backupPw.equals(getExcelPassword())) {
+            candidatas.add(backupPw);
+        }
+        return CacheClavesCifrado.ordenarCandidatas(ruta, candidatas);
     }
     
     /**
@@ -628,38 +1074,169 @@ public abstract class InventarioFXBase {
     private static XSSFWorkbook abrirCifrado(Path ruta, String password) {
         if (!Files.exists(ruta)) return null;
         try {
-            // Leer el archivo completo en memoria primero
-            byte[] fileBytes = Files.readAllBytes(ruta);
-            
-            // Abrir desde memoria para evitar problemas de locks
-            try (POIFSFileSystem fs = new POIFSFileSystem(new ByteArrayInputStream(fileBytes))) {
-                EncryptionInfo info = new EncryptionInfo(fs);
-                Decryptor d = info.getDecryptor();
-                if (!d.verifyPassword(password)) {
-                    return null;
-                }
-                
-                // Leer el stream de datos desencriptado completamente en memoria
-                try (InputStream dataStream = d.getDataStream(fs)) {
-                    // Copiar todo a un ByteArrayOutputStream para tener una copia en memoria
-                    ByteArrayOutputStream baos = new ByteArrayOutputStream();
-                    byte[] buffer = new byte[8192];
-                    int bytesRead;
-                    while ((bytesRead = dataStream.read(buffer)) != -1) {
-                        baos.write(buffer, 0, bytesRead);
+            byte[] descifrado = CacheExcelDescifrado.obtener(ruta, password);
+            if (descifrado == null) {
+                long tamanoLeido = Files.size(ruta);
+
+                // POIFS sobre un canal de solo lectura: no se copia el archivo cifrado a memoria
+                // y el canal se libera al terminar, sin dejar el archivo bloqueado
+                try (FileChannel canal = FileChannel.open(ruta, StandardOpenOption.READ);
+                     POIFSFileSystem fs = new POIFSFileSystem(canal)) {
+                    // La clave derivada se reutiliza si esta cabecera ya se abrió con esta contraseña
+                    Decryptor d = CacheClavesCifrado.desbloquear(new EncryptionInfo(fs), password);
+                    if (d == null) {
+                        return null;
+                    }
+
+                    // Una sola copia del paquete descifrado, del tamaño exacto declarado
+                    try (InputStream dataStream = d.getDataStream(fs)) {
+                        descifrado = org.apache.poi.util.IOUtils.toByteArray(dataStream, (int) d.getLength());
                     }
-                    
-                    // Crear el workbook desde la copia en memoria
-                    // Esto asegura que el workbook es completamente independiente del archivo
-                    return new XSSFWorkbook(new ByteArrayInputStream(baos.toByteArray()));
                 }
+                CacheExcelDescifrado.guardar(ruta, password, descifrado, tamanoLeido);
             }
+
+            // Crear el workbook desde la copia en memoria
+            // Esto asegura que el workbook es completamente independiente del archivo
+            return new XSSFWorkbook(new ByteArrayInputStream(descifrado));
         } catch (Exception e) {
             logger.error("[InventarioFXBase] Error abriendo archivo cifrado: " + e.getMessage(), e);
             return null;
         }
     }
 
+    /**
+     * Recorre fila a fila las hojas indicadas del Excel cifrado de un proyecto, sin
+     * construir el workbook completo. Pensado para paneles de solo lectura
+     * (estadísticas, tablas del dashboard, contadores).
+     *
+     * <p>Tras las filas del archivo llegan las de los escaneos pendientes de volcar, como
+     * quedarán al exportarlos (mismas columnas que el encabezado del archivo y numeración a
+     * continuación de su última fila).
+     *
+     * @param ruta      Excel cifrado del proyecto
+     * @param hojas     Hojas a leer (null = todas)
+     * @param manejador Receptor de cada fila con datos
+     * @return false si el archivo no existe o no se pudo descifrar
+     */
+    public static boolean leerFilasCifradoProyecto(Path ruta, Set<String> hojas,
+                                                  LectorExcelStreaming.ManejadorFila manejador) {
+        if (!Files.exists(ruta)) return false;
+        if (!tieneEscaneosPendientes(ruta)) {
+            return leerFilasArchivo(ruta, hojas, manejador);
+        }
+        synchronized (InventarioFXBase.class) {
+            List<InfoPC> pendientes = leerPendientes(ruta);
+            Map<String, List<String>> encabezados = new HashMap<>();
+            Map<String, Integer> ultimaFila = new HashMap<>();
+            boolean leido = leerFilasArchivo(ruta, hojas, (hoja, numFila, celdas) -> {
+                if (numFila == 1) encabezados.put(hoja, new ArrayList<>(celdas));
+                ultimaFila.merge(hoja, numFila, Math::max);
+                manejador.fila(hoja, numFila, celdas);
+            });
+            if (leido && !pendientes.isEmpty()) {
+                emitirPendientes(pendientes, hojas, encabezados, ultimaFila, manejador);
+            }
+            return leido;
+        }
+    }
+
+    /**
+     * Entrega las filas de los escaneos pendientes tras las del archivo. Se escriben en un
+     * workbook temporal con el encabezado de SystemInfo del archivo, así las columnas
+     * coinciden con las que les dará la exportación.
+     */
+    private static void emitirPendientes(List<InfoPC> pendientes, Set<String> hojas,
+                                         Map<String, List<String>> encabezados, Map<String, Integer> ultimaFila,
+                                         LectorExcelStreaming.ManejadorFila manejador) {
+        try (XSSFWorkbook wb = new XSSFWorkbook()) {
+            List<String> encabezadoSistema = encabezados.get("SystemInfo");
+            if (encabezadoSistema != null) {
+                Row header = wb.createSheet("SystemInfo").createRow(1);
+                for (int c = 0; c < encabezadoSistema.size(); c++) {
+                    header.createCell(c).setCellValue(encabezadoSistema.get(c));
+                }
+            }
+            superponerPendientes(wb, pendientes);
+
+            DataFormatter formato = new DataFormatter();
+            for (String nombre : List.of("SystemInfo", "InstalledApps")) {
+                if (hojas != null && !hojas.contains(nombre)) continue;
+                Sheet hoja = wb.getSheet(nombre);
+                int numFila = ultimaFila.getOrDefault(nombre, 1);
+                if (!encabezados.containsKey(nombre)) {
+                    // La hoja aún no estaba en el archivo: primero su encabezado
+                    manejador.fila(nombre, 1, celdasComoTexto(hoja.getRow(1), formato));
+                }
+                for (int r = 2; r <= hoja.getLastRowNum(); r++) {
+                    manejador.fila(nombre, ++numFila, celdasComoTexto(hoja.getRow(r), formato));
+                }
+            }
+        } catch (IOException e) {
+            logger.warn("[Inventario] No se pudieron añadir los escaneos pendientes: " + e.getMessage());
+        }
+    }
+
+    private static List<String> celdasComoTexto(Row fila, DataFormatter formato) {
+        List<String> celdas = new ArrayList<>();
+        if (fila == null) return celdas;
+        for (int c = 0; c < fila.getLastCellNum(); c++) {
+            celdas.add(formato.formatCellValue(fila.getCell(c)));
+        }
+        return celdas;
+    }
+
+    /** {@link #leerFilasCifradoProyecto} solo con las filas del archivo */
+    private static boolean leerFilasArchivo(Path ruta, Set<String> hojas,
+                                            LectorExcelStreaming.ManejadorFila manejador) {
+        for (String password : passwordsCandidatas(ruta)) {
+            if (leerFilasCifrado(ruta, password, hojas, manejador)) {
+                CacheClavesCifrado.recordarPassword(ruta, password);
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean leerFilasCifrado(Path ruta, String password, Set<String> hojas,
+                                            LectorExcelStreaming.ManejadorFila manejador) {
+        try {
+            byte[] enCache = CacheExcelDescifrado.obtener(ruta, password);
+            if (enCache != null) {
+                OPCPackage pkg = OPCPackage.open(new ByteArrayInputStream(enCache));
+                try {
+                    LectorExcelStreaming.leer(pkg, hojas, manejador);
+                } finally {
+                    pkg.revert();
+                }
+                return true;
+            }
+
+            try (FileChannel canal = FileChannel.open(ruta, StandardOpenOption.READ);
+                 POIFSFileSystem fs = new POIFSFileSystem(canal)) {
+                Decryptor d = CacheClavesCifrado.desbloquear(new EncryptionInfo(fs), password);
+                if (d == null) {
+                    return false;
+                }
+                // El paquete descifrado se vuelca a un temporal cifrado con clave efímera,
+                // así el heap no depende del tamaño del archivo
+                try (InputStream datos = d.getDataStream(fs);
+                     AesZipFileZipEntrySource zip = AesZipFileZipEntrySource.createZipEntrySource(datos)) {
+                    OPCPackage pkg = OPCPackage.open(zip);
+                    try {
+                        LectorExcelStreaming.leer(pkg, hojas, manejador);
+                    } finally {
+                        pkg.revert();
+                    }
+                }
+            }
+            return true;
+        } catch (Exception e) {
+            logger.error("[InventarioFXBase] Error leyendo archivo cifrado: " + e.getMessage(), e);
+            return false;
+        }
+    }
+
     /**
      * Guarda un workbook cifrado con contraseña en la ruta especificada
      * El archivo resultante se marca como oculto para mayor seguridad
@@ -682,46 +1259,11 @@ public abstract class InventarioFXBase {
         // Forzar recalcular todas las fórmulas y referencias
         workbook.setForceFormulaRecalculation(true);
         
-        // Guardar en archivo temporal primero
-        Path tempFile = Files.createTempFile("inventario_temp", ".xlsx");
+        // Cifrar directamente sobre un temporal: el libro no pasa por un .xlsx en claro en disco
         Path tempEncrypted = Files.createTempFile("inventario_encrypted", ".xlsx");
         
         try {
-            // Escribir el workbook al archivo temporal
-            try (FileOutputStream fos = new FileOutputStream(tempFile.toFile())) {
-                workbook.write(fos);
-                fos.flush();
-                fos.getFD().sync(); // Forzar escritura a disco
-            }
-            
-            System.out.println("[InventarioFXBase] Workbook escrito en temporal: " + tempFile);
-            
-            // Cifrar el archivo temporal
-            POIFSFileSystem fs = new POIFSFileSystem();
-            EncryptionInfo info = new EncryptionInfo(EncryptionMode.agile);
-            Encryptor enc = info.getEncryptor();
-            enc.confirmPassword(getExcelPassword());
-            
-            try (InputStream is = Files.newInputStream(tempFile);
-                 OutputStream os = enc.getDataStream(fs)) {
-                byte[] buffer = new byte[8192];
-                int bytesRead;
-                while ((bytesRead = is.read(buffer)) != -1) {
-                    os.write(buffer, 0, bytesRead);
-                }
-                os.flush();
-            }
-            
-            System.out.println("[InventarioFXBase] Archivo cifrado");
-            
-            // Guardar el archivo cifrado en temporal
-            try (FileOutputStream fos = new FileOutputStream(tempEncrypted.toFile())) {
-                fs.writeFilesystem(fos);
-                fos.flush();
-                fos.getFD().sync(); // Forzar escritura a disco
-            }
-            
-            fs.close();
+            EscritorExcelStreaming.guardarCifrado(workbook, tempEncrypted, getExcelPassword());
             
             System.out.println("[InventarioFXBase] Archivo cifrado guardado en: " + tempEncrypted);
             
@@ -745,6 +1287,7 @@ public abstract class InventarioFXBase {
             
             // Mover (no copiar) el archivo temporal cifrado a la ubicación final
             Files.move(tempEncrypted, ruta, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            CacheExcelDescifrado.invalidar(ruta);
             System.out.println("[InventarioFXBase] ✓ Archivo movido de temporal a ubicación final");
             
             // Esperar y verificar tamaño final
@@ -759,7 +1302,6 @@ public abstract class InventarioFXBase {
             
         } finally {
             // Eliminar archivos temporales
-            try { Files.deleteIfExists(tempFile); } catch (Exception ignored) {}
             try { Files.deleteIfExists(tempEncrypted); } catch (Exception ignored) {}
         }
     }
@@ -796,26 +1338,119 @@ public abstract class InventarioFXBase {
 
     // === APLICACIONES INSTALADAS ===
 
-    public static String getInstalledApps(OperatingSystem os) {
-        if (!os.getFamily().contains("Windows")) return "Solo Windows";
+    /**
+     * Proveedores de software instalado, en orden de preferencia para resolver duplicados:
+     * registro, Store y portables en Windows; dpkg y rpm en Linux.
+     */
+    private static final List<InstalledAppsProvider> PROVEEDORES_APPS = new java.util.concurrent.CopyOnWriteArrayList<>(List.of(
+        proveedorWindows("registro", InventarioFXBase::obtenerAppDelRegistro),
+        proveedorWindows("store", InventarioFXBase::obtenerAppsDelStore),
+        proveedorWindows("portables", InventarioFXBase::obtenerEjecutablesPortables), // Detectar .exe descargados/portables
+        new ProveedorAppsDpkg(),
+        new ProveedorAppsRpm()
+    ));
+
+    /** Cabecera del CSV de aplicaciones instaladas */
+    private static final String CABECERA_APPS_CSV = "\"DisplayName\",\"DisplayVersion\",\"Publisher\",\"InstallDate\"\n";
+
+    /** Pool de los proveedores de aplicaciones (separado del de sondeos, que los espera) */
+    private static final ExecutorService POOL_PROVEEDORES_APPS = Executors.newFixedThreadPool(4, r -> {
+        Thread t = new Thread(r, "Proveedor-Apps");
+        t.setDaemon(true);
+        return t;
+    });
+
+    /** Añade un proveedor de software instalado (se consulta después de los existentes). */
+    public static void registrarProveedorApps(InstalledAppsProvider proveedor) {
+        PROVEEDORES_APPS.add(proveedor);
+    }
+
+    private static InstalledAppsProvider proveedorWindows(String nombre, java.util.function.Supplier<List<AppInfo>> fuente) {
+        return new InstalledAppsProvider() {
+            @Override
+            public String getNombre() {
+                return nombre;
+            }
 
+            @Override
+            public boolean esAplicable(OperatingSystem os) {
+                return os.getFamily().contains("Windows");
+            }
+
+            @Override
+            public java.util.stream.Stream<AppInfo> obtenerApps() {
+                return fuente.get().stream();
+            }
+        };
+    }
+
+    /**
+     * Consulta en paralelo los proveedores aplicables y concatena sus resultados en el
+     * orden de registro. Un proveedor que falla no afecta a los demás.
+     *
+     * <p>Si se interrumpe el hilo llamador (p. ej. el sondeo de aplicaciones superó su
+     * timeout) se cancelan las consultas en curso interrumpiendo sus hilos, y se devuelve
+     * lo recogido hasta entonces.
+     */
+    private static List<AppInfo> recopilarDeProveedores(List<InstalledAppsProvider> proveedores) {
+        List<java.util.concurrent.Future<List<AppInfo>>> tareas = new ArrayList<>();
+        for (InstalledAppsProvider proveedor : proveedores) {
+            tareas.add(POOL_PROVEEDORES_APPS.submit(() -> {
+                long inicio = System.nanoTime();
+                try (java.util.stream.Stream<AppInfo> apps = proveedor.obtenerApps()) {
+                    List<AppInfo> lista = apps.filter(a -> a.nombre() != null && !a.nombre().isEmpty())
+                        .collect(Collectors.toList());
+                    logger.debug("[Apps] Proveedor " + proveedor.getNombre() + ": " + lista.size()
+                        + " aplicaciones en " + (System.nanoTime() - inicio) / 1_000_000 + " ms");
+                    return lista;
+                } catch (Exception e) {
+                    logger.warn("[Apps] Proveedor " + proveedor.getNombre() + " falló: " + e.getMessage());
+                    return List.<AppInfo>of();
+                }
+            }));
+        }
         List<AppInfo> apps = new ArrayList<>();
-        apps.addAll(obtenerAppDelRegistro());
-        apps.addAll(obtenerAppsDelStore());
-        apps.addAll(obtenerEjecutablesPortables()); // Detectar .exe descargados/portables
+        for (java.util.concurrent.Future<List<AppInfo>> tarea : tareas) {
+            try {
+                apps.addAll(tarea.get());
+            } catch (InterruptedException e) {
+                tareas.forEach(t -> t.cancel(true));
+                Thread.currentThread().interrupt();
+                logger.warn("[Apps] Consulta de proveedores cancelada");
+                break;
+            } catch (java.util.concurrent.ExecutionException e) {
+                // Cada tarea ya captura sus errores; solo llegan los de tipo Error
+                logger.warn("[Apps] Proveedor falló: " + e.getCause());
+            }
+        }
+        return apps;
+    }
+
+    public static String getInstalledApps(OperatingSystem os) {
+        List<InstalledAppsProvider> aplicables = PROVEEDORES_APPS.stream()
+                .filter(p -> p.esAplicable(os))
+                .collect(Collectors.toList());
+        if (aplicables.isEmpty()) {
+            // Sin filas: un texto suelto acabaría guardado como si fuera una aplicación
+            logger.info("[Apps] Ningún proveedor de aplicaciones para " + os.getFamily());
+            return CABECERA_APPS_CSV;
+        }
+
+        List<AppInfo> apps = recopilarDeProveedores(aplicables);
 
         apps = apps.stream()
                 .collect(Collectors.toMap(
-                        a -> a.nombre.toLowerCase(),
+                        a -> a.nombre().toLowerCase(),
                         a -> a,
-                        (a1, a2) -> a1.version != null && !a1.version.isEmpty() ? a1 : a2
+                        (a1, a2) -> a1.version() != null && !a1.version().isEmpty() ? a1 : a2
                 ))
                 .values()
                 .stream()
-                .sorted(Comparator.comparing(a -> a.nombre))
+                .sorted(Comparator.comparing(a -> a.nombre()))
                 .collect(Collectors.toList());
 
-        String[][] basics = new String[][]{
+        // Las entradas de Office solo tienen sentido en Windows
+        String[][] basics = !os.getFamily().contains("Windows") ? new String[0][] : new String[][]{
                 {"word", "Microsoft Word"},
                 {"excel", "Microsoft Excel"},
                 {"powerpoint", "Microsoft PowerPoint"},
@@ -823,15 +1458,15 @@ public abstract class InventarioFXBase {
         };
         
         Set<String> presentLower = apps.stream()
-                .map(a -> a.nombre == null ? "" : a.nombre.toLowerCase())
+                .map(a -> a.nombre() == null ? "" : a.nombre().toLowerCase())
                 .collect(Collectors.toSet());
 
         String officeOverallVersion = "";
         for (AppInfo a : apps) {
-            String n = a.nombre == null ? "" : a.nombre.toLowerCase();
+            String n = a.nombre() == null ? "" : a.nombre().toLowerCase();
             if (n.contains("microsoft office") || n.contains("office 365") || n.contains("microsoft 365") || n.contains("office")) {
-                if (a.version != null && !a.version.trim().isEmpty()) {
-                    officeOverallVersion = a.version.trim();
+                if (a.version() != null && !a.version().trim().isEmpty()) {
+                    officeOverallVersion = a.version().trim();
                     break;
                 }
             }
@@ -842,150 +1477,57 @@ public abstract class InventarioFXBase {
             String display = b[1];
             boolean found = false;
             for (AppInfo a : apps) {
-                String n = a.nombre == null ? "" : a.nombre.toLowerCase();
+                String n = a.nombre() == null ? "" : a.nombre().toLowerCase();
                 if (n.contains(keyword) || n.contains(display.toLowerCase())) {
                     found = true;
                     break;
                 }
             }
             if (!found) {
-                AppInfo ai = new AppInfo();
-                ai.nombre = display;
-                if (officeOverallVersion != null && !officeOverallVersion.isEmpty()) {
-                    ai.version = officeOverallVersion;
-                } else {
-                    ai.version = "No instalada";
-                }
-                ai.publisher = "Microsoft";
-                ai.installDate = "";
-                apps.add(ai);
+                String version = officeOverallVersion != null && !officeOverallVersion.isEmpty()
+                        ? officeOverallVersion : "No instalada";
+                apps.add(new AppInfo(display, version, "Microsoft", ""));
             }
         }
 
-        apps = apps.stream().sorted(Comparator.comparing(a -> a.nombre)).collect(Collectors.toList());
+        apps = apps.stream().sorted(Comparator.comparing(a -> a.nombre())).collect(Collectors.toList());
 
         StringBuilder sb = new StringBuilder();
-        sb.append("\"DisplayName\",\"DisplayVersion\",\"Publisher\",\"InstallDate\"\n");
+        sb.append(CABECERA_APPS_CSV);
 
         for (AppInfo app : apps) {
             sb.append(String.format("\"%s\",\"%s\",\"%s\",\"%s\"\n",
-                    escaparCsv(app.nombre),
-                    escaparCsv(app.version != null ? app.version : ""),
-                    escaparCsv(app.publisher != null ? app.publisher : ""),
-                    escaparCsv(app.installDate != null ? app.installDate : "")));
+                    escaparCsv(app.nombre()),
+                    escaparCsv(app.version() != null ? app.version() : ""),
+                    escaparCsv(app.publisher() != null ? app.publisher() : ""),
+                    escaparCsv(app.installDate() != null ? app.installDate() : "")));
         }
 
         return sb.toString();
     }
 
     protected static List<AppInfo> obtenerAppDelRegistro() {
+        // Uninstall de HKLM (64 y 32 bits) y HKCU, ya ordenado por nombre en el sondeo
         List<AppInfo> apps = new ArrayList<>();
-        String[] rutas = {
-                "HKLM:\\Software\\Microsoft\\Windows\\CurrentVersion\\Uninstall\\*",
-                "HKLM:\\Software\\Wow6432Node\\Microsoft\\Windows\\CurrentVersion\\Uninstall\\*",
-                "HKCU:\\Software\\Microsoft\\Windows\\CurrentVersion\\Uninstall\\*"
-        };
-
-        try {
-            StringBuilder rutasConcat = new StringBuilder();
-            for (int i = 0; i < rutas.length; i++) {
-                if (i > 0) rutasConcat.append(", ");
-                rutasConcat.append(rutas[i]);
-            }
-
-            String cmd = String.format(
-                    "$ErrorActionPreference='SilentlyContinue'; " +
-                            "Get-ItemProperty %s | " +
-                            "Where-Object {$_.DisplayName -and $_.DisplayName.Length -gt 0} | " +
-                            "Select-Object DisplayName, DisplayVersion, Publisher, InstallDate | " +
-                            "Sort-Object DisplayName | " +
-                            "ConvertTo-Csv -NoTypeInformation -Delimiter ','",
-                    rutasConcat.toString()
-            );
-
-            ProcessBuilder pb = new ProcessBuilder("powershell.exe", "-ExecutionPolicy", "Bypass", "-NoProfile", "-Command", cmd);
-            pb.redirectErrorStream(true);
-            Process p = pb.start();
-
-            try (BufferedReader br = new BufferedReader(new InputStreamReader(p.getInputStream(), StandardCharsets.UTF_8))) {
-                String line;
-                boolean esEncabezado = true;
-
-                while ((line = br.readLine()) != null) {
-                    if (esEncabezado) {
-                        esEncabezado = false;
-                        continue;
-                    }
-
-                    List<String> campos = parseCsvLineAvanzado(line);
-                    if (campos.size() >= 1 && !campos.get(0).isEmpty()) {
-                        AppInfo app = new AppInfo();
-                        app.nombre = campos.get(0);
-                        app.version = campos.size() > 1 ? campos.get(1) : "";
-                        app.publisher = campos.size() > 2 ? campos.get(2) : "";
-                        app.installDate = campos.size() > 3 ? campos.get(3) : "";
-
-                        if (!app.nombre.isEmpty()) {
-                            apps.add(app);
-                        }
-                    }
-                }
-            }
-
-            p.waitFor(30, TimeUnit.SECONDS);
-
-        } catch (Exception e) {
-            System.err.println("Error capturando apps del registro: " + e.getMessage());
+        for (SondeoWindows.Aplicacion a : SondeoWindows.obtener().registro) {
+            if (a.DisplayName == null || a.DisplayName.trim().isEmpty()) continue;
+            apps.add(new AppInfo(a.DisplayName.trim(),
+                a.DisplayVersion != null ? a.DisplayVersion : "",
+                a.Publisher != null ? a.Publisher : "",
+                a.InstallDate != null ? a.InstallDate : ""));
         }
-
         return apps;
     }
 
     protected static List<AppInfo> obtenerAppsDelStore() {
         List<AppInfo> apps = new ArrayList<>();
-
-        try {
-            String cmd = "$ErrorActionPreference='SilentlyContinue'; " +
-                    "Get-AppxPackage -AllUsers | " +
-                    "Where-Object {$_.Name -notmatch 'Microsoft\\.|Windows\\.' -and $_.Name} | " +
-                    "Select-Object @{N='DisplayName';E={$_.Name}}, " +
-                    "@{N='DisplayVersion';E={$_.Version}}, " +
-                    "@{N='Publisher';E={$_.Publisher}} | " +
-                    "ConvertTo-Csv -NoTypeInformation -Delimiter ','";
-
-            ProcessBuilder pb = new ProcessBuilder("powershell.exe", "-ExecutionPolicy", "Bypass", "-NoProfile", "-Command", cmd);
-            pb.redirectErrorStream(true);
-            Process p = pb.start();
-
-            try (BufferedReader br = new BufferedReader(new InputStreamReader(p.getInputStream(), StandardCharsets.UTF_8))) {
-                String line;
-                boolean esEncabezado = true;
-
-                while ((line = br.readLine()) != null) {
-                    if (esEncabezado) {
-                        esEncabezado = false;
-                        continue;
-                    }
-
-                    List<String> campos = parseCsvLineAvanzado(line);
-                    if (campos.size() >= 1 && !campos.get(0).isEmpty()) {
-                        AppInfo app = new AppInfo();
-                        app.nombre = campos.get(0);
-                        app.version = campos.size() > 1 ? campos.get(1) : "";
-                        app.publisher = campos.size() > 2 ? campos.get(2) : "Microsoft Store";
-                        app.installDate = "";
-
-                        apps.add(app);
-                    }
-                }
-            }
-
-            p.waitFor(15, TimeUnit.SECONDS);
-
-        } catch (Exception e) {
-            System.err.println("Error capturando apps del Store: " + e.getMessage());
+        for (SondeoWindows.Aplicacion a : SondeoWindows.obtener().store) {
+            if (a.DisplayName == null || a.DisplayName.trim().isEmpty()) continue;
+            apps.add(new AppInfo(a.DisplayName.trim(),
+                a.DisplayVersion != null ? a.DisplayVersion : "",
+                a.Publisher != null && !a.Publisher.isEmpty() ? a.Publisher : "Microsoft Store",
+                ""));
         }
-
         return apps;
     }
 
@@ -995,7 +1537,6 @@ public abstract class InventarioFXBase {
      */
     protected static List<AppInfo> obtenerEjecutablesPortables() {
         List<AppInfo> apps = new ArrayList<>();
-        Set<String> nombresEncontrados = new HashSet<>();
         
         String userHome = System.getProperty("user.home");
         String programFiles = System.getenv("ProgramFiles");
@@ -1034,58 +1575,44 @@ public abstract class InventarioFXBase {
             "helper", "crash", "reporter", "launcher", "elevated", "service"
         ));
         
-        for (Path carpeta : carpetasBusqueda) {
-            if (!Files.exists(carpeta) || !Files.isDirectory(carpeta)) continue;
-            
-            try {
-                // Buscar en la carpeta y un nivel de subcarpetas
-                try (var stream = Files.walk(carpeta, 2)) {
-                    stream.filter(p -> p.toString().toLowerCase().endsWith(".exe"))
-                          .filter(Files::isRegularFile)
-                          .forEach(exePath -> {
-                              try {
-                                  String nombreArchivo = exePath.getFileName().toString();
-                                  String nombreSinExt = nombreArchivo.replaceAll("(?i)\\.exe$", "");
-                                  String nombreLower = nombreSinExt.toLowerCase();
-                                  
-                                  // Ignorar ejecutables de sistema/instaladores
-                                  boolean esIgnorado = ignorar.stream().anyMatch(nombreLower::contains);
-                                  if (esIgnorado) return;
-                                  
-                                  // Evitar duplicados
-                                  if (nombresEncontrados.contains(nombreLower)) return;
-                                  nombresEncontrados.add(nombreLower);
-                                  
-                                  // Obtener información del archivo
-                                  AppInfo app = new AppInfo();
-                                  app.nombre = nombreSinExt + " (Portable/Descargado)";
-                                  
-                                  // Intentar obtener versión del archivo
-                                  app.version = obtenerVersionEjecutable(exePath);
-                                  
-                                  // Ubicación como publisher
-                                  Path parentFolder = exePath.getParent();
-                                  app.publisher = "Ubicación: " + (parentFolder != null ? parentFolder.getFileName().toString() : "Desconocida");
-                                  
-                                  // Fecha de modificación como fecha de instalación
-                                  try {
-                                      BasicFileAttributes attrs = Files.readAttributes(exePath, BasicFileAttributes.class);
-                                      java.time.Instant instant = attrs.lastModifiedTime().toInstant();
-                                      java.time.LocalDate fecha = instant.atZone(java.time.ZoneId.systemDefault()).toLocalDate();
-                                      app.installDate = fecha.format(java.time.format.DateTimeFormatter.ofPattern("yyyyMMdd"));
-                                  } catch (Exception e) {
-                                      app.installDate = "";
-                                  }
-                                  
-                                  apps.add(app);
-                              } catch (Exception e) {
-                                  // Ignorar errores individuales
-                              }
-                          });
-                }
-            } catch (Exception e) {
-                System.err.println("Error buscando ejecutables en " + carpeta + ": " + e.getMessage());
-            }
+        // Índice incremental: solo se vuelven a listar las carpetas modificadas desde el último
+        // escaneo y solo se pide la versión (PowerShell) de los .exe nuevos o cambiados que
+        // pasan el filtro y no están repetidos.
+        // Se ejecuta en un hilo de POOL_PROVEEDORES_APPS: recopilarDeProveedores lo interrumpe
+        // cuando se cancela el escaneo, así que ese hilo es el que marca la cancelación
+        Thread hiloProveedor = Thread.currentThread();
+        List<IndicePortables.Ejecutable> ejecutables;
+        try {
+            ejecutables = IndicePortables.escanear(carpetasBusqueda,
+                exe -> {
+                    // Ignorar ejecutables de sistema/instaladores
+                    String nombreLower = exe.getFileName().toString().replaceAll("(?i)\\.exe$", "").toLowerCase();
+                    return ignorar.stream().noneMatch(nombreLower::contains);
+                },
+                exe -> exe.getFileName().toString().replaceAll("(?i)\\.exe$", "").toLowerCase(),
+                InventarioFXBase::obtenerVersionEjecutable,
+                hiloProveedor::isInterrupted);
+        } catch (java.util.concurrent.CancellationException e) {
+            System.err.println("[Apps] Búsqueda de ejecutables portables cancelada");
+            return apps;
+        }
+
+        for (IndicePortables.Ejecutable exe : ejecutables) {
+            Path exePath = Paths.get(exe.ruta);
+            String nombreSinExt = exePath.getFileName().toString().replaceAll("(?i)\\.exe$", "");
+
+            // Ubicación como publisher
+            Path parentFolder = exePath.getParent();
+            String publisher = "Ubicación: " + (parentFolder != null && parentFolder.getFileName() != null
+                ? parentFolder.getFileName().toString() : "Desconocida");
+
+            // Fecha de modificación como fecha de instalación
+            String installDate = exe.modificado > 0
+                ? java.time.Instant.ofEpochMilli(exe.modificado).atZone(java.time.ZoneId.systemDefault()).toLocalDate()
+                    .format(java.time.format.DateTimeFormatter.ofPattern("yyyyMMdd"))
+                : "";
+
+            apps.add(new AppInfo(nombreSinExt + " (Portable/Descargado)", exe.version, publisher, installDate));
         }
         
         System.out.println("[Apps] Ejecutables portables/descargados encontrados: " + apps.size());
@@ -1096,26 +1623,17 @@ public abstract class InventarioFXBase {
      * Intenta obtener la versión de un ejecutable usando PowerShell.
      */
     protected static String obtenerVersionEjecutable(Path exePath) {
-        try {
-            String cmd = String.format(
-                "(Get-Item '%s').VersionInfo.FileVersion",
-                exePath.toString().replace("'", "''")
-            );
-            
-            ProcessBuilder pb = new ProcessBuilder("powershell.exe", "-ExecutionPolicy", "Bypass", "-NoProfile", "-Command", cmd);
-            pb.redirectErrorStream(true);
-            Process p = pb.start();
-            
-            try (BufferedReader br = new BufferedReader(new InputStreamReader(p.getInputStream(), StandardCharsets.UTF_8))) {
-                String version = br.readLine();
-                p.waitFor(5, TimeUnit.SECONDS);
-                
-                if (version != null && !version.trim().isEmpty() && !version.contains("Exception")) {
-                    return version.trim();
-                }
+        String cmd = String.format(
+            "(Get-Item '%s').VersionInfo.FileVersion",
+            exePath.toString().replace("'", "''")
+        );
+        // Mismo PowerShell persistente que el sondeo: sin arrancar un proceso por ejecutable
+        String salida = SondeoWindows.ejecutar(cmd, 5_000);
+        if (salida != null) {
+            String version = salida.trim();
+            if (!version.isEmpty() && !version.contains("Exception")) {
+                return version.lines().findFirst().orElse(version).trim();
             }
-        } catch (Exception e) {
-            // Ignorar
         }
         return "Portable";
     }
@@ -1147,92 +1665,75 @@ public abstract class InventarioFXBase {
         return result;
     }
 
-    protected static void createAppsSheet(XSSFWorkbook wb, String user, InfoPC i) {
-        Sheet s = wb.getSheet("InstalledApps");
-        boolean esNuevaHoja = (s == null);
-        
-        if (esNuevaHoja) {
-            s = wb.createSheet("InstalledApps");
+    /** Estado de la hoja InstalledApps antes de añadir grupos en streaming */
+    protected static class EstadoHojaApps {
+        boolean esNuevaHoja;
+        int siguienteFila;
+        int grupos;
+    }
+
+    /** Estilos de las filas de aplicaciones (se crean una vez por guardado) */
+    protected static class EstilosApps {
+        final CellStyle inicio, fin, grupoClaro, grupoOscuro;
+
+        EstilosApps(Workbook wb) {
+            // 🎨 Estilo para INICIO de grupo - VERDE MUY VISIBLE con bordes DOBLES
+            inicio = RegistroEstilos.obtener(wb, base()
+                .relleno(IndexedColors.BRIGHT_GREEN.getIndex())
+                .bordeSuperior(BorderStyle.DOUBLE, IndexedColors.DARK_GREEN.getIndex())
+                .bordeIzquierdo(BorderStyle.THICK, IndexedColors.DARK_GREEN.getIndex())
+                .fuente(true, 11, IndexedColors.DARK_GREEN.getIndex()));
+
+            // 🎨 Estilo para FIN de grupo - ROJO MUY VISIBLE con bordes DOBLES
+            fin = RegistroEstilos.obtener(wb, base()
+                .relleno(IndexedColors.CORAL.getIndex())
+                .bordeInferior(BorderStyle.DOUBLE, IndexedColors.RED.getIndex())
+                .bordeIzquierdo(BorderStyle.THICK, IndexedColors.RED.getIndex())
+                .fuente(true, 11, IndexedColors.DARK_RED.getIndex()));
+
+            // 🎨 Estilos con fondo alternado para grupos MÁS VISIBLE
+            grupoClaro = RegistroEstilos.obtener(wb, base()
+                .relleno(IndexedColors.WHITE.getIndex())
+                .bordeIzquierdo(BorderStyle.THIN, IndexedColors.GREY_40_PERCENT.getIndex()));
+
+            grupoOscuro = RegistroEstilos.obtener(wb, base()
+                .relleno(IndexedColors.GREY_25_PERCENT.getIndex())
+                .bordeIzquierdo(BorderStyle.THIN, IndexedColors.GREY_40_PERCENT.getIndex()));
         }
 
-        CellStyle estiloTitulo = wb.createCellStyle();
-        XSSFFont fontTitulo = wb.createFont();
-        fontTitulo.setBold(true);
-        fontTitulo.setFontHeightInPoints((short) 14);
-        fontTitulo.setColor(IndexedColors.WHITE.getIndex());
-        estiloTitulo.setFont(fontTitulo);
-        estiloTitulo.setFillForegroundColor(obtenerColorProyecto());
-        estiloTitulo.setFillPattern(FillPatternType.SOLID_FOREGROUND);
-        estiloTitulo.setAlignment(HorizontalAlignment.CENTER);
-        estiloTitulo.setVerticalAlignment(VerticalAlignment.CENTER);
-
-        CellStyle estiloHeader = wb.createCellStyle();
-        XSSFFont fontHeader = wb.createFont();
-        fontHeader.setBold(true);
-        fontHeader.setFontHeightInPoints((short) 11);
-        estiloHeader.setFont(fontHeader);
-        estiloHeader.setFillForegroundColor(IndexedColors.GREY_25_PERCENT.getIndex());
-        estiloHeader.setFillPattern(FillPatternType.SOLID_FOREGROUND);
-        estiloHeader.setAlignment(HorizontalAlignment.CENTER);
-        estiloHeader.setVerticalAlignment(VerticalAlignment.CENTER);
-        estiloHeader.setWrapText(true);
-
-        CellStyle estiloNormal = wb.createCellStyle();
-        estiloNormal.setWrapText(true);
-        estiloNormal.setVerticalAlignment(VerticalAlignment.TOP);
-        estiloNormal.setBorderBottom(BorderStyle.THIN);
-        estiloNormal.setBottomBorderColor(IndexedColors.GREY_25_PERCENT.getIndex());
-        
-        // 🎨 Estilo para INICIO de grupo - VERDE MUY VISIBLE con bordes DOBLES
-        CellStyle estiloInicio = wb.createCellStyle();
-        estiloInicio.cloneStyleFrom(estiloNormal);
-        estiloInicio.setFillForegroundColor(IndexedColors.BRIGHT_GREEN.getIndex()); // Verde más brillante
-        estiloInicio.setFillPattern(FillPatternType.SOLID_FOREGROUND);
-        estiloInicio.setBorderTop(BorderStyle.DOUBLE); // Borde DOBLE superior
-        estiloInicio.setTopBorderColor(IndexedColors.DARK_GREEN.getIndex());
-        estiloInicio.setBorderBottom(BorderStyle.THIN);
-        estiloInicio.setBottomBorderColor(IndexedColors.GREY_25_PERCENT.getIndex());
-        estiloInicio.setBorderLeft(BorderStyle.THICK); // Borde lateral grueso
-        estiloInicio.setLeftBorderColor(IndexedColors.DARK_GREEN.getIndex());
-        XSSFFont fontInicio = wb.createFont();
-        fontInicio.setBold(true);
-        fontInicio.setFontHeightInPoints((short) 11);
-        fontInicio.setColor(IndexedColors.DARK_GREEN.getIndex());
-        estiloInicio.setFont(fontInicio);
-        
-        // 🎨 Estilo para FIN de grupo - ROJO MUY VISIBLE con bordes DOBLES
-        CellStyle estiloFin = wb.createCellStyle();
-        estiloFin.cloneStyleFrom(estiloNormal);
-        estiloFin.setFillForegroundColor(IndexedColors.CORAL.getIndex()); // Coral/Rojo claro muy visible
-        estiloFin.setFillPattern(FillPatternType.SOLID_FOREGROUND);
-        estiloFin.setBorderBottom(BorderStyle.DOUBLE); // Borde DOBLE inferior
-        estiloFin.setBottomBorderColor(IndexedColors.RED.getIndex());
-        estiloFin.setBorderLeft(BorderStyle.THICK); // Borde lateral grueso
-        estiloFin.setLeftBorderColor(IndexedColors.RED.getIndex());
-        XSSFFont fontFin = wb.createFont();
-        fontFin.setBold(true);
-        fontFin.setFontHeightInPoints((short) 11);
-        fontFin.setColor(IndexedColors.DARK_RED.getIndex());
-        estiloFin.setFont(fontFin);
-        
-        // 🎨 Estilos con fondo alternado para grupos MÁS VISIBLE
-        CellStyle estiloGrupoClaro = wb.createCellStyle();
-        estiloGrupoClaro.cloneStyleFrom(estiloNormal);
-        estiloGrupoClaro.setFillForegroundColor(IndexedColors.WHITE.getIndex());
-        estiloGrupoClaro.setFillPattern(FillPatternType.SOLID_FOREGROUND);
-        estiloGrupoClaro.setBorderLeft(BorderStyle.THIN);
-        estiloGrupoClaro.setLeftBorderColor(IndexedColors.GREY_40_PERCENT.getIndex());
-        
-        CellStyle estiloGrupoOscuro = wb.createCellStyle();
-        estiloGrupoOscuro.cloneStyleFrom(estiloNormal);
-        estiloGrupoOscuro.setFillForegroundColor(IndexedColors.GREY_25_PERCENT.getIndex());
-        estiloGrupoOscuro.setFillPattern(FillPatternType.SOLID_FOREGROUND);
-        estiloGrupoOscuro.setBorderLeft(BorderStyle.THIN);
-        estiloGrupoOscuro.setLeftBorderColor(IndexedColors.GREY_40_PERCENT.getIndex());
+        /** Texto ajustado, alineado arriba y con línea inferior gris */
+        private static RegistroEstilos.EstiloCelda base() {
+            return new RegistroEstilos.EstiloCelda()
+                .alinear(HorizontalAlignment.GENERAL, VerticalAlignment.TOP)
+                .ajustarTexto()
+                .bordeInferior(BorderStyle.THIN, IndexedColors.GREY_25_PERCENT.getIndex());
+        }
+    }
 
+    /**
+     * Crea la hoja InstalledApps con título y encabezados si no existe, y calcula dónde
+     * continuar y cuántos grupos tiene ya (para alternar el fondo de cada grupo).
+     */
+    protected static EstadoHojaApps prepararHojaApps(XSSFWorkbook wb) {
+        EstadoHojaApps estado = new EstadoHojaApps();
+        Sheet s = wb.getSheet("InstalledApps");
+        estado.esNuevaHoja = (s == null);
         int cols = ENCABEZADOS_APLICACIONES.length;
-        
-        if (esNuevaHoja) {
+
+        if (estado.esNuevaHoja) {
+            s = wb.createSheet("InstalledApps");
+
+            CellStyle estiloTitulo = RegistroEstilos.obtener(wb, new RegistroEstilos.EstiloCelda()
+                .fuente(true, 14, IndexedColors.WHITE.getIndex())
+                .relleno(obtenerColorProyecto())
+                .alinear(HorizontalAlignment.CENTER, VerticalAlignment.CENTER));
+
+            CellStyle estiloHeader = RegistroEstilos.obtener(wb, new RegistroEstilos.EstiloCelda()
+                .fuente(true, 11, IndexedColors.BLACK.getIndex())
+                .relleno(IndexedColors.GREY_25_PERCENT.getIndex())
+                .alinear(HorizontalAlignment.CENTER, VerticalAlignment.CENTER)
+                .ajustarTexto());
+
             Row rowTitulo = s.createRow(0);
             rowTitulo.setHeight((short) 1200);
             Cell ct = rowTitulo.createCell(0);
@@ -1247,8 +1748,29 @@ public abstract class InventarioFXBase {
                 cell.setCellValue(ENCABEZADOS_APLICACIONES[c]);
                 cell.setCellStyle(estiloHeader);
             }
+            estado.siguienteFila = 2;
+            return estado;
+        }
+
+        // Contar cuántos grupos ya existen
+        Set<String> gruposExistentes = new java.util.HashSet<>();
+        for (int rowNum = 2; rowNum <= s.getLastRowNum(); rowNum++) {
+            Row rowExist = s.getRow(rowNum);
+            if (rowExist != null && rowExist.getCell(0) != null) {
+                gruposExistentes.add(rowExist.getCell(0).getStringCellValue());
+            }
         }
+        estado.grupos = gruposExistentes.size();
+        estado.siguienteFila = Math.max(2, s.getLastRowNum() + 1);
+        return estado;
+    }
 
+    /**
+     * Añade el grupo de aplicaciones de un equipo al final de la hoja InstalledApps.
+     * La hoja debe haberse preparado con {@link #prepararHojaApps(XSSFWorkbook)}.
+     */
+    protected static void createAppsSheet(Workbook wb, Sheet s, EstadoHojaApps estado, EstilosApps estilos,
+                                          String user, InfoPC i) {
         String csv = (i != null && i.installedApps != null) ? i.installedApps.trim() : "";
         List<String[]> filas = new ArrayList<>();
         if (!csv.isEmpty()) {
@@ -1266,11 +1788,6 @@ public abstract class InventarioFXBase {
             filas.sort(Comparator.comparing(a -> (a.length > 0 && a[0] != null) ? a[0].toLowerCase() : ""));
         }
 
-        int filaIdx = s.getLastRowNum() + 1;
-        if (esNuevaHoja) {
-            filaIdx = 2;
-        }
-        
         String fecha = i != null && i.fecha != null ? formatearFecha(i.fecha) : formatearFecha(new Date());
         String idGrupo = (i != null && i.idGrupo != null) ? i.idGrupo : generarIdGrupo();
         
@@ -1278,19 +1795,14 @@ public abstract class InventarioFXBase {
         int numApps = filas.size();
         
         // Determinar si este grupo debe tener fondo claro u oscuro (alternancia por grupo)
-        // Contar cuántos grupos ya existen
-        Set<String> gruposExistentes = new java.util.HashSet<>();
-        for (int rowNum = 2; rowNum <= s.getLastRowNum(); rowNum++) {
-            Row rowExist = s.getRow(rowNum);
-            if (rowExist != null && rowExist.getCell(0) != null) {
-                gruposExistentes.add(rowExist.getCell(0).getStringCellValue());
-            }
-        }
-        boolean grupoOscuro = (gruposExistentes.size() % 2 == 1);
+        boolean grupoOscuro = (estado.grupos % 2 == 1);
+        CreationHelper factory = wb.getCreationHelper();
+        Drawing<?> drawing = null;
         
         for (int idx = 0; idx < filas.size(); idx++) {
             String[] campos = filas.get(idx);
-            Row r = s.createRow(filaIdx++);
+            int filaIdx = estado.siguienteFila++;
+            Row r = s.createRow(filaIdx);
             
             // Determinar si es inicio o fin
             boolean esInicio = (idx == 0);
@@ -1298,26 +1810,26 @@ public abstract class InventarioFXBase {
             String marcador = esInicio ? "🚩 INICIO" : (esFin ? "🏁 FIN" : "");
             
             // Estilo base según alternancia de grupo
-            CellStyle estiloBase = grupoOscuro ? estiloGrupoOscuro : estiloGrupoClaro;
+            CellStyle estiloBase = grupoOscuro ? estilos.grupoOscuro : estilos.grupoClaro;
             
             // Columna 0: ID Grupo - con fondo especial si es inicio
             if (esInicio) {
-                setCell(r, 0, idGrupo, estiloInicio);
+                setCell(r, 0, idGrupo, estilos.inicio);
             } else {
                 setCell(r, 0, idGrupo, estiloBase);
             }
             
             // Columna 1: Número secuencial - especial en inicio/fin
             if (esInicio) {
-                setCell(r, 1, String.valueOf(idx + 1), estiloInicio);
+                setCell(r, 1, String.valueOf(idx + 1), estilos.inicio);
             } else if (esFin) {
-                setCell(r, 1, String.valueOf(idx + 1), estiloFin);
+                setCell(r, 1, String.valueOf(idx + 1), estilos.fin);
             } else {
                 setCell(r, 1, String.valueOf(idx + 1), estiloBase);
             }
             
             // Columnas restantes - aplicar estilo según inicio/fin/medio
-            CellStyle estiloParaEstaFila = esInicio ? estiloInicio : (esFin ? estiloFin : estiloBase);
+            CellStyle estiloParaEstaFila = esInicio ? estilos.inicio : (esFin ? estilos.fin : estiloBase);
             
             // Columna 2: Fecha
             setCell(r, 2, fecha, estiloParaEstaFila);
@@ -1339,28 +1851,19 @@ public abstract class InventarioFXBase {
             
             // 📍 Guardar marcador en comentario de celda para identificación posterior
             if (!marcador.isEmpty()) {
-                Cell cellIdGrupo = r.getCell(0);
-                Comment comment = cellIdGrupo.getCellComment();
-                if (comment == null) {
-                    CreationHelper factory = wb.getCreationHelper();
-                    Drawing<?> drawing = s.createDrawingPatriarch();
-                    ClientAnchor anchor = factory.createClientAnchor();
-                    comment = drawing.createCellComment(anchor);
-                    cellIdGrupo.setCellComment(comment);
-                }
-                CreationHelper factory = wb.getCreationHelper();
+                if (drawing == null) drawing = s.createDrawingPatriarch();
+                ClientAnchor anchor = factory.createClientAnchor();
+                anchor.setCol1(0);
+                anchor.setRow1(filaIdx);
+                anchor.setCol2(2);
+                anchor.setRow2(filaIdx + 2);
+                Comment comment = drawing.createCellComment(anchor);
                 comment.setString(factory.createRichTextString(marcador));
+                r.getCell(0).setCellComment(comment);
             }
         }
 
-        if (s.getLastRowNum() >= 1) {
-            s.setAutoFilter(new CellRangeAddress(1, 1, 0, Math.max(0, cols - 1)));
-            s.createFreezePane(0, 2);
-        }
-
-        if (esNuevaHoja) {
-            autoSize(s, cols);
-        }
+        if (numApps > 0) estado.grupos++;
         
         System.out.println("📦 Grupo de aplicaciones guardado: " + idGrupo + " (" + numApps + " apps)");
     }
@@ -1421,6 +1924,7 @@ public abstract class InventarioFXBase {
                 return false;
             }
             Files.move(temp, original, StandardCopyOption.REPLACE_EXISTING);
+            CacheExcelDescifrado.invalidar(original);
             PortablePaths.protegerArchivo(original);
             return true;
         } catch (Exception e) {
@@ -1456,8 +1960,13 @@ public abstract class InventarioFXBase {
     // === CLASES AUXILIARES ===
 
     public static class InfoPC {
+        @PastOrPresent
         public Date fecha;
-        public String userName, hostname, sistema, bios, cpu, gpu, ram, discos, ip, installedApps;
+        public String userName;
+        @NotBlank @Size(max = 255)
+        public String hostname;
+        public String sistema, bios, cpu, gpu, ram, discos, ip, installedApps;
+        @PositiveOrZero
         public int numeroDiscos;
         public String modeloEquipo;
         public String manufacturer;
@@ -1466,24 +1975,4 @@ public abstract class InventarioFXBase {
         public String memoriaInstalada; // RAM física instalada en módulos
         public String tarjetaRed; // Información de tarjeta de red
     }
-
-    protected static class AppInfo {
-        String nombre;
-        String version;
-        String publisher;
-        String installDate;
-
-        @Override
-        public boolean equals(Object o) {
-            if (this == o) return true;
-            if (!(o instanceof AppInfo)) return false;
-            AppInfo appInfo = (AppInfo) o;
-            return nombre.equalsIgnoreCase(appInfo.nombre);
-        }
-
-        @Override
-        public int hashCode() {
-            return nombre.toLowerCase().hashCode();
-        }
-    }
 }
@@ -0,0 +1,136 @@
+package inventario.fx.model;
+
+import oshi.software.os.OperatingSystem;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Paquetes instalados en sistemas Debian/Ubuntu, leídos directamente de
+ * {@code /var/lib/dpkg/status} sin lanzar {@code dpkg-query}.
+ *
+ * <p>El archivo se recorre párrafo a párrafo: solo el paquete en curso vive en memoria.
+ * Se entregan los paquetes con estado {@code install ok installed}; la fecha de
+ * instalación es la de su lista de archivos en {@code /var/lib/dpkg/info}.
+ *
+ * @author SELCOMP
+ * @version 1.0
+ * @since 2026-01-14
+ */
+public class ProveedorAppsDpkg implements InstalledAppsProvider {
+
+    private static final DateTimeFormatter FORMATO_FECHA = DateTimeFormatter.ofPattern("yyyyMMdd");
+
+    private final Path status;
+    private final Path info;
+
+    public ProveedorAppsDpkg() {
+        this(Paths.get("/var/lib/dpkg/status"));
+    }
+
+    /** @param status Archivo de estado de dpkg (otro distinto del del sistema, p. ej. para mediciones) */
+    public ProveedorAppsDpkg(Path status) {
+        this.status = status;
+        this.info = status.resolveSibling("info");
+    }
+
+    @Override
+    public String getNombre() {
+        return "dpkg";
+    }
+
+    @Override
+    public boolean esAplicable(OperatingSystem os) {
+        return Files.isReadable(status);
+    }
+
+    @Override
+    public Stream<AppInfo> obtenerApps() throws IOException {
+        BufferedReader br = Files.newBufferedReader(status, StandardCharsets.UTF_8);
+        return StreamSupport.stream(new LectorParrafos(br), false)
+            .onClose(() -> {
+                try {
+                    br.close();
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+    }
+
+    /** Entrega un AppInfo por cada párrafo de paquete instalado. */
+    private class LectorParrafos extends Spliterators.AbstractSpliterator<AppInfo> {
+        private final BufferedReader br;
+
+        LectorParrafos(BufferedReader br) {
+            super(Long.MAX_VALUE, Spliterator.ORDERED | Spliterator.NONNULL);
+            this.br = br;
+        }
+
+        @Override
+        public boolean tryAdvance(Consumer<? super AppInfo> accion) {
+            try {
+                String paquete = null, version = "", mantenedor = "", arquitectura = "";
+                boolean instalado = false, hayDatos = false;
+                String linea;
+                while ((linea = br.readLine()) != null) {
+                    if (linea.isEmpty()) {
+                        if (!hayDatos) continue;
+                        if (entregar(accion, instalado, paquete, version, mantenedor, arquitectura)) return true;
+                        paquete = null; version = ""; mantenedor = ""; arquitectura = "";
+                        instalado = false; hayDatos = false;
+                        continue;
+                    }
+                    hayDatos = true;
+                    // Las líneas de continuación (descripciones largas, conffiles) empiezan por espacio
+                    if (linea.charAt(0) == ' ' || linea.charAt(0) == '\t') continue;
+                    if (linea.startsWith("Package: ")) paquete = linea.substring(9).trim();
+                    else if (linea.startsWith("Status: ")) instalado = linea.endsWith(" installed");
+                    else if (linea.startsWith("Version: ")) version = linea.substring(9).trim();
+                    else if (linea.startsWith("Maintainer: ")) mantenedor = nombreMantenedor(linea.substring(12));
+                    else if (linea.startsWith("Architecture: ")) arquitectura = linea.substring(14).trim();
+                }
+                return hayDatos && entregar(accion, instalado, paquete, version, mantenedor, arquitectura);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        private boolean entregar(Consumer<? super AppInfo> accion, boolean instalado, String paquete,
+                                 String version, String mantenedor, String arquitectura) {
+            if (!instalado || paquete == null || paquete.isEmpty()) return false;
+            accion.accept(new AppInfo(paquete, version, mantenedor, fechaInstalacion(paquete, arquitectura)));
+            return true;
+        }
+    }
+
+    /** "Nombre Apellido &lt;correo&gt;" → "Nombre Apellido" */
+    private static String nombreMantenedor(String valor) {
+        int i = valor.indexOf('<');
+        return (i > 0 ? valor.substring(0, i) : valor).trim();
+    }
+
+    private String fechaInstalacion(String paquete, String arquitectura) {
+        Path lista = info.resolve(paquete + ".list");
+        if (!Files.exists(lista) && !arquitectura.isEmpty()) {
+            lista = info.resolve(paquete + ":" + arquitectura + ".list");
+        }
+        try {
+            return Files.getLastModifiedTime(lista).toInstant()
+                .atZone(ZoneId.systemDefault()).toLocalDate().format(FORMATO_FECHA);
+        } catch (IOException e) {
+            return "";
+        }
+    }
+}
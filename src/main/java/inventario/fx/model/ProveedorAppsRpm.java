@@ -0,0 +1,164 @@
+package inventario.fx.model;
+
+import oshi.software.os.OperatingSystem;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Paquetes instalados en sistemas RPM (Fedora, RHEL, openSUSE), leídos de la base de
+ * datos SQLite de rpm ({@code rpmdb.sqlite}) con el driver que ya usa la aplicación, sin
+ * lanzar {@code rpm -qa}.
+ *
+ * <p>Cada fila de {@code Packages} es una cabecera rpm exportada; solo se decodifican las
+ * etiquetas de nombre, versión, release, fabricante y fecha de instalación. Las bases de
+ * datos Berkeley DB antiguas ({@code /var/lib/rpm/Packages}) no están soportadas.
+ *
+ * @author SELCOMP
+ * @version 1.0
+ * @since 2026-01-14
+ */
+public class ProveedorAppsRpm implements InstalledAppsProvider {
+
+    private static final List<Path> UBICACIONES = List.of(
+        Paths.get("/var/lib/rpm/rpmdb.sqlite"),
+        Paths.get("/usr/lib/sysimage/rpm/rpmdb.sqlite"));
+
+    private static final int TAG_NOMBRE = 1000;
+    private static final int TAG_VERSION = 1001;
+    private static final int TAG_RELEASE = 1002;
+    private static final int TAG_FECHA_INSTALACION = 1008;
+    private static final int TAG_FABRICANTE = 1011;
+
+    private static final int TIPO_INT32 = 4;
+    private static final int TIPO_STRING = 6;
+    private static final int TIPO_I18NSTRING = 9;
+
+    private static final DateTimeFormatter FORMATO_FECHA = DateTimeFormatter.ofPattern("yyyyMMdd");
+
+    private final Path baseDatos;
+
+    public ProveedorAppsRpm() {
+        this(UBICACIONES.stream().filter(Files::isReadable).findFirst().orElse(UBICACIONES.get(0)));
+    }
+
+    /** @param baseDatos rpmdb.sqlite a leer */
+    public ProveedorAppsRpm(Path baseDatos) {
+        this.baseDatos = baseDatos;
+    }
+
+    @Override
+    public String getNombre() {
+        return "rpm";
+    }
+
+    @Override
+    public boolean esAplicable(OperatingSystem os) {
+        return Files.isReadable(baseDatos);
+    }
+
+    @Override
+    public Stream<AppInfo> obtenerApps() throws SQLException {
+        Connection conn = DriverManager.getConnection("jdbc:sqlite:file:" + baseDatos + "?mode=ro");
+        Statement st = null;
+        ResultSet rs;
+        try {
+            st = conn.createStatement();
+            rs = st.executeQuery("SELECT blob FROM Packages");
+        } catch (SQLException e) {
+            if (st != null) st.close();
+            conn.close();
+            throw e;
+        }
+        Statement sentencia = st;
+        return StreamSupport.stream(new Spliterators.AbstractSpliterator<AppInfo>(
+                Long.MAX_VALUE, Spliterator.ORDERED | Spliterator.NONNULL) {
+            @Override
+            public boolean tryAdvance(Consumer<? super AppInfo> accion) {
+                try {
+                    while (rs.next()) {
+                        AppInfo app = decodificar(rs.getBytes(1));
+                        if (app != null) {
+                            accion.accept(app);
+                            return true;
+                        }
+                    }
+                    return false;
+                } catch (SQLException e) {
+                    throw new IllegalStateException("Error leyendo rpmdb: " + e.getMessage(), e);
+                }
+            }
+        }, false).onClose(() -> {
+            try { rs.close(); } catch (SQLException ignored) {}
+            try { sentencia.close(); } catch (SQLException ignored) {}
+            try { conn.close(); } catch (SQLException ignored) {}
+        });
+    }
+
+    /**
+     * Decodifica una cabecera rpm: número de entradas y tamaño de datos (int32 big-endian),
+     * entradas de 16 bytes (etiqueta, tipo, desplazamiento, cantidad) y el bloque de datos.
+     */
+    static AppInfo decodificar(byte[] cabecera) {
+        if (cabecera == null || cabecera.length < 8) return null;
+        ByteBuffer buf = ByteBuffer.wrap(cabecera);
+        int entradas = buf.getInt();
+        int tamanoDatos = buf.getInt();
+        // En long: una cabecera corrupta con un recuento enorme desbordaría el int
+        if (entradas <= 0 || tamanoDatos < 0
+                || 8L + entradas * 16L + tamanoDatos > cabecera.length) return null;
+        int inicioDatos = 8 + entradas * 16;
+
+        String nombre = null, version = "", release = "", fabricante = "", fecha = "";
+        for (int e = 0; e < entradas; e++) {
+            int base = 8 + e * 16;
+            int tag = buf.getInt(base);
+            int tipo = buf.getInt(base + 4);
+            int desplazamiento = buf.getInt(base + 8);
+            if (desplazamiento < 0 || (long) inicioDatos + desplazamiento >= cabecera.length) continue;
+            int posicion = inicioDatos + desplazamiento;
+
+            if (tipo == TIPO_STRING || tipo == TIPO_I18NSTRING) {
+                String valor = cadena(cabecera, posicion);
+                switch (tag) {
+                    case TAG_NOMBRE: nombre = valor; break;
+                    case TAG_VERSION: version = valor; break;
+                    case TAG_RELEASE: release = valor; break;
+                    case TAG_FABRICANTE: fabricante = valor; break;
+                    default: break;
+                }
+            } else if (tipo == TIPO_INT32 && tag == TAG_FECHA_INSTALACION && posicion + 4 <= cabecera.length) {
+                long segundos = buf.getInt(posicion) & 0xFFFFFFFFL;
+                fecha = Instant.ofEpochSecond(segundos).atZone(ZoneId.systemDefault()).toLocalDate().format(FORMATO_FECHA);
+            }
+        }
+        // Las claves GPG importadas aparecen como paquetes "gpg-pubkey"
+        if (nombre == null || nombre.isEmpty() || nombre.equals("gpg-pubkey")) return null;
+
+        return new AppInfo(nombre, release.isEmpty() ? version : version + "-" + release, fabricante, fecha);
+    }
+
+    /** Cadena terminada en NUL a partir de {@code inicio}. */
+    private static String cadena(byte[] datos, int inicio) {
+        int fin = inicio;
+        while (fin < datos.length && datos[fin] != 0) fin++;
+        return new String(datos, inicio, fin - inicio, StandardCharsets.UTF_8);
+    }
+}
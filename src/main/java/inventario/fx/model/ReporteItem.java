@@ -0,0 +1,62 @@
+package inventario.fx.model;
+
+import java.io.Serializable;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.format.DateTimeFormatter;
+import java.util.UUID;
+
+/**
+ * Reporte de mantenimiento guardado: sus {@link DatosReporte} más el id y la fecha y hora
+ * de creación.
+ *
+ * @author SELCOMP
+ * @version 1.0
+ * @since 2026-01-14
+ */
+public class ReporteItem implements Serializable {
+    /** Igual que cuando era GestionReportesFX.ReporteItem: lo leen los .dat heredados */
+    private static final long serialVersionUID = 3L;
+    
+    private String id;
+    private DatosReporte datos;
+    private String fechaCreacion;
+    private String horaCreacion;
+    
+    public ReporteItem(DatosReporte datos) {
+        this.id = UUID.randomUUID().toString().substring(0, 8).toUpperCase();
+        this.datos = datos;
+        this.fechaCreacion = LocalDate.now().format(DateTimeFormatter.ofPattern("dd/MM/yyyy"));
+        this.horaCreacion = LocalTime.now().format(DateTimeFormatter.ofPattern("HH:mm"));
+    }
+    
+    // Constructor para edición (conserva id y fechas)
+    public ReporteItem(DatosReporte datos, String id, String fechaCreacion, String horaCreacion) {
+        this.id = id;
+        this.datos = datos;
+        this.fechaCreacion = fechaCreacion;
+        this.horaCreacion = horaCreacion;
+    }
+    
+    public String getId() { return id; }
+    public DatosReporte getDatos() { return datos; }
+    public String getFechaCreacion() { return fechaCreacion; }
+    public String getHoraCreacion() { return horaCreacion != null ? horaCreacion : ""; }
+    
+    public String getTicket() { return datos.ticket != null ? datos.ticket : "S/N"; }
+    public String getNombre() { return datos.nombre != null ? datos.nombre : "-"; }
+    public String getTecnico() { return datos.tecnico != null ? datos.tecnico : "-"; }
+    public String getTipo() { return datos.tipoSolicitud != null ? datos.tipoSolicitud : "-"; }
+    public String getDispositivo() { return datos.tipoDispositivo != null ? datos.tipoDispositivo : "-"; }
+    public String getProyecto() { return datos.proyectoNombre != null ? datos.proyectoNombre : "-"; }
+    public String getFecha() {
+        if (datos.dia != null && datos.mes != null && datos.anio != null)
+            return datos.dia + "/" + datos.mes + "/" + datos.anio;
+        return fechaCreacion;
+    }
+    public String getFechaHora() {
+        String fecha = getFecha();
+        String hora = getHoraCreacion();
+        return hora.isEmpty() ? fecha : fecha + " " + hora;
+    }
+}
@@ -0,0 +1,208 @@
+package inventario.fx.security;
+
+import inventario.fx.util.AppLogger;
+import org.apache.poi.poifs.crypt.Decryptor;
+import org.apache.poi.poifs.crypt.EncryptionInfo;
+import org.apache.poi.poifs.crypt.agile.AgileDecryptor;
+import org.apache.poi.poifs.crypt.agile.AgileEncryptionHeader;
+import org.apache.poi.poifs.crypt.agile.AgileEncryptionVerifier;
+
+import javax.crypto.SecretKey;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Caché en proceso de las claves derivadas del cifrado agile de los Excel.
+ *
+ * <p>Verificar una contraseña agile cuesta 100.000 iteraciones de SHA-512. El resultado
+ * depende solo de la contraseña y de la cabecera del archivo (salt, spinCount y clave
+ * cifrada), así que se memoriza: la clave del paquete si la contraseña es correcta, o un
+ * rechazo si no lo es. Abrir de nuevo el mismo archivo no vuelve a derivar nada.
+ *
+ * <p>Además se recuerda qué contraseña abrió cada archivo (principal o de respaldo) para
+ * probarla primero la próxima vez.
+ *
+ * <p>Las contraseñas no se guardan: solo su SHA-256 como parte de la clave de caché.
+ *
+ * @author SELCOMP
+ * @version 1.0
+ * @since 2026-01-14
+ */
+public class CacheClavesCifrado {
+
+    private static final AppLogger logger = AppLogger.getLogger(CacheClavesCifrado.class);
+
+    /** Cabeceras distintas que se recuerdan (cada guardado genera una nueva) */
+    private static final int MAX_ENTRADAS = 128;
+
+    /** Marca de contraseña rechazada para una cabecera */
+    private static final Object RECHAZADA = new Object();
+
+    private static final AtomicLong aciertos = new AtomicLong();
+    private static final AtomicLong derivaciones = new AtomicLong();
+
+    private static final LinkedHashMap<String, Object> claves = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Object> eldest) {
+            return size() > MAX_ENTRADAS;
+        }
+    };
+
+    /** Archivo → SHA-256 de la contraseña que lo abrió por última vez */
+    private static final Map<Path, String> passwordPorArchivo = new HashMap<>();
+
+    private CacheClavesCifrado() {} // Utility class
+
+    /**
+     * Devuelve un {@link Decryptor} listo para {@code getDataStream}, o null si la
+     * contraseña no corresponde al archivo. Solo deriva la clave si esa combinación
+     * de contraseña y cabecera no se ha visto antes.
+     */
+    public static Decryptor desbloquear(EncryptionInfo info, String password) throws GeneralSecurityException {
+        Decryptor d = info.getDecryptor();
+        String clave = claveCache(info, password);
+        if (clave == null) {
+            // Cifrado no agile: sin caché
+            derivaciones.incrementAndGet();
+            return d.verifyPassword(password) ? d : null;
+        }
+
+        Object conocida;
+        synchronized (claves) {
+            conocida = claves.get(clave);
+        }
+        if (conocida == RECHAZADA) {
+            aciertos.incrementAndGet();
+            return null;
+        }
+        if (conocida != null) {
+            aciertos.incrementAndGet();
+            return new DecryptorConClave((AgileDecryptor) d, (SecretKey) conocida);
+        }
+
+        derivaciones.incrementAndGet();
+        boolean valida = d.verifyPassword(password);
+        synchronized (claves) {
+            claves.put(clave, valida ? d.getSecretKey() : RECHAZADA);
+        }
+        return valida ? d : null;
+    }
+
+    /**
+     * Registra la clave con la que se acaba de cifrar un archivo, para que la primera
+     * apertura tras el guardado tampoco tenga que derivarla.
+     */
+    public static void registrar(EncryptionInfo info, String password, SecretKey claveArchivo) {
+        String clave = claveCache(info, password);
+        if (clave == null || claveArchivo == null) return;
+        synchronized (claves) {
+            claves.put(clave, claveArchivo);
+        }
+    }
+
+    /** Recuerda que {@code password} abrió el archivo. */
+    public static void recordarPassword(Path archivo, String password) {
+        synchronized (passwordPorArchivo) {
+            passwordPorArchivo.put(normalizar(archivo), hash(password));
+        }
+    }
+
+    /**
+     * Ordena las contraseñas candidatas poniendo primero la que abrió el archivo la última vez.
+     */
+    public static List<String> ordenarCandidatas(Path archivo, List<String> candidatas) {
+        String preferida;
+        synchronized (passwordPorArchivo) {
+            preferida = passwordPorArchivo.get(normalizar(archivo));
+        }
+        List<String> ordenadas = new ArrayList<>(candidatas);
+        if (preferida != null) {
+            for (int i = 1; i < ordenadas.size(); i++) {
+                if (preferida.equals(hash(ordenadas.get(i)))) {
+                    ordenadas.add(0, ordenadas.remove(i));
+                    break;
+                }
+            }
+        }
+        return ordenadas;
+    }
+
+    /** Olvida todas las claves (p. ej. al cambiar la contraseña de los Excel). */
+    public static void limpiar() {
+        synchronized (claves) {
+            claves.clear();
+        }
+        synchronized (passwordPorArchivo) {
+            passwordPorArchivo.clear();
+        }
+    }
+
+    /**
+     * @return Mapa con aciertos, derivaciones y entradas
+     */
+    public static Map<String, Long> getEstadisticas() {
+        Map<String, Long> stats = new LinkedHashMap<>();
+        stats.put("aciertos", aciertos.get());
+        stats.put("derivaciones", derivaciones.get());
+        synchronized (claves) {
+            stats.put("entradas", (long) claves.size());
+        }
+        return stats;
+    }
+
+    public static void logEstadisticas() {
+        logger.info("[ClavesCifrado] " + getEstadisticas());
+    }
+
+    // === AUXILIARES ===
+
+    /**
+     * Clave de caché: contraseña + todo lo que interviene en la derivación y en la clave
+     * del paquete. Null si el archivo no usa cifrado agile.
+     */
+    private static String claveCache(EncryptionInfo info, String password) {
+        if (!(info.getVerifier() instanceof AgileEncryptionVerifier)
+                || !(info.getHeader() instanceof AgileEncryptionHeader)) {
+            return null;
+        }
+        AgileEncryptionVerifier v = (AgileEncryptionVerifier) info.getVerifier();
+        Base64.Encoder b64 = Base64.getEncoder();
+        return hash(password)
+            + "|" + v.getSpinCount()
+            + "|" + b64.encodeToString(v.getSalt())
+            + "|" + b64.encodeToString(v.getEncryptedKey())
+            + "|" + b64.encodeToString(v.getEncryptedVerifier())
+            + "|" + b64.encodeToString(info.getHeader().getKeySalt());
+    }
+
+    private static Path normalizar(Path ruta) {
+        return ruta.toAbsolutePath().normalize();
+    }
+
+    private static String hash(String password) {
+        try {
+            return Base64.getEncoder().encodeToString(MessageDigest.getInstance("SHA-256").digest(
+                (password != null ? password : "").getBytes(StandardCharsets.UTF_8)));
+        } catch (Exception e) {
+            throw new IllegalStateException("SHA-256 no disponible", e);
+        }
+    }
+
+    /** Descifrador agile con la clave del paquete ya conocida (sin verificar contraseña). */
+    private static class DecryptorConClave extends AgileDecryptor {
+        DecryptorConClave(AgileDecryptor base, SecretKey clave) {
+            super(base);
+            setEncryptionInfo(base.getEncryptionInfo());
+            setSecretKey(clave);
+        }
+    }
+}
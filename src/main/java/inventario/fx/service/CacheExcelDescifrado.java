@@ -0,0 +1,192 @@
+package inventario.fx.service;
+
+import inventario.fx.config.ConfigManager;
+import inventario.fx.util.AppLogger;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.security.MessageDigest;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Caché LRU, acotada en memoria, del contenido descifrado de los Excel de proyecto.
+ *
+ * <p>Cada apertura de un Excel cifrado lee el archivo, deriva la clave agile
+ * (100.000 iteraciones de SHA-512) y descifra todo el paquete. Con esta caché,
+ * cambiar de pestaña o de panel sobre el mismo archivo solo reconstruye el
+ * workbook desde memoria.
+ *
+ * <p>Se guarda el paquete OOXML descifrado (no el {@code XSSFWorkbook}), porque
+ * varios paneles modifican el workbook que reciben y lo vuelven a guardar: cada
+ * llamada obtiene una copia independiente.
+ *
+ * <p>Una entrada es válida mientras coincidan la fecha de modificación y el tamaño
+ * del archivo; los guardados de la propia aplicación la invalidan explícitamente.
+ *
+ * @author SELCOMP
+ * @version 1.0
+ * @since 2026-01-14
+ */
+public class CacheExcelDescifrado {
+
+    private static final AppLogger logger = AppLogger.getLogger(CacheExcelDescifrado.class);
+
+    /** Límite por defecto de la caché en MB (clave de configuración {@code cache.excel.maxMB}) */
+    private static final int MAX_MB_DEFECTO = 64;
+
+    private static final AtomicLong aciertos = new AtomicLong();
+    private static final AtomicLong fallos = new AtomicLong();
+    private static final AtomicLong expulsiones = new AtomicLong();
+
+    private static final LinkedHashMap<Path, Entrada> entradas = new LinkedHashMap<>(16, 0.75f, true);
+    private static long bytesEnUso = 0;
+
+    private CacheExcelDescifrado() {} // Utility class
+
+    private static class Entrada {
+        final long mtime;
+        final long tamano;
+        final byte[] hashPassword;
+        final byte[] datos;
+
+        Entrada(long mtime, long tamano, byte[] hashPassword, byte[] datos) {
+            this.mtime = mtime;
+            this.tamano = tamano;
+            this.hashPassword = hashPassword;
+            this.datos = datos;
+        }
+    }
+
+    /**
+     * Devuelve el paquete descifrado si el archivo no ha cambiado desde que se guardó en caché.
+     *
+     * @param ruta     Excel cifrado
+     * @param password Contraseña con la que se pide abrir
+     * @return Bytes del .xlsx descifrado (no modificar), o null si no está en caché
+     */
+    public static byte[] obtener(Path ruta, String password) {
+        Path clave = normalizar(ruta);
+        BasicFileAttributes attrs = atributos(clave);
+        synchronized (entradas) {
+            Entrada e = entradas.get(clave);
+            if (e != null && attrs != null
+                    && e.mtime == attrs.lastModifiedTime().toMillis()
+                    && e.tamano == attrs.size()
+                    && MessageDigest.isEqual(e.hashPassword, hash(password))) {
+                aciertos.incrementAndGet();
+                return e.datos;
+            }
+            if (e != null) {
+                quitar(clave);
+            }
+        }
+        fallos.incrementAndGet();
+        return null;
+    }
+
+    /**
+     * Guarda el paquete descifrado de un archivo. Si supera el límite completo de la
+     * caché, o si el archivo cambió mientras se descifraba, no se guarda.
+     *
+     * @param tamanoLeido Tamaño del archivo cifrado que se leyó y descifró
+     */
+    public static void guardar(Path ruta, String password, byte[] datos, long tamanoLeido) {
+        Path clave = normalizar(ruta);
+        BasicFileAttributes attrs = atributos(clave);
+        long limite = limiteBytes();
+        if (attrs == null || datos == null || datos.length > limite || attrs.size() != tamanoLeido) return;
+
+        synchronized (entradas) {
+            quitar(clave);
+            entradas.put(clave, new Entrada(attrs.lastModifiedTime().toMillis(), attrs.size(), hash(password), datos));
+            bytesEnUso += datos.length;
+
+            Iterator<Map.Entry<Path, Entrada>> it = entradas.entrySet().iterator();
+            while (bytesEnUso > limite && it.hasNext()) {
+                Map.Entry<Path, Entrada> antigua = it.next();
+                if (antigua.getKey().equals(clave)) continue;
+                it.remove();
+                liberar(antigua.getValue());
+                expulsiones.incrementAndGet();
+            }
+        }
+    }
+
+    /** Invalida la entrada de un archivo (llamar tras escribirlo desde la aplicación). */
+    public static void invalidar(Path ruta) {
+        synchronized (entradas) {
+            quitar(normalizar(ruta));
+        }
+    }
+
+    /** Vacía la caché por completo. */
+    public static void limpiar() {
+        synchronized (entradas) {
+            entradas.values().forEach(CacheExcelDescifrado::liberar);
+            entradas.clear();
+        }
+    }
+
+    /**
+     * Resumen de uso de la caché para diagnóstico.
+     *
+     * @return Mapa con aciertos, fallos, expulsiones, entradas y bytes
+     */
+    public static Map<String, Long> getEstadisticas() {
+        Map<String, Long> stats = new LinkedHashMap<>();
+        stats.put("aciertos", aciertos.get());
+        stats.put("fallos", fallos.get());
+        stats.put("expulsiones", expulsiones.get());
+        synchronized (entradas) {
+            stats.put("entradas", (long) entradas.size());
+            stats.put("bytes", bytesEnUso);
+        }
+        return stats;
+    }
+
+    public static void logEstadisticas() {
+        logger.info("[CacheExcel] " + getEstadisticas());
+    }
+
+    // === AUXILIARES ===
+
+    private static void quitar(Path clave) {
+        Entrada e = entradas.remove(clave);
+        if (e != null) liberar(e);
+    }
+
+    private static void liberar(Entrada e) {
+        // No se sobrescriben los bytes: otro hilo puede estar construyendo un workbook con ellos
+        bytesEnUso -= e.datos.length;
+    }
+
+    private static long limiteBytes() {
+        return ConfigManager.getInstance().getInt("cache.excel.maxMB", MAX_MB_DEFECTO) * 1024L * 1024L;
+    }
+
+    private static Path normalizar(Path ruta) {
+        return ruta.toAbsolutePath().normalize();
+    }
+
+    private static BasicFileAttributes atributos(Path ruta) {
+        try {
+            return Files.readAttributes(ruta, BasicFileAttributes.class);
+        } catch (Exception e) {
+            return null;
+        }
+    }
+
+    private static byte[] hash(String password) {
+        try {
+            return MessageDigest.getInstance("SHA-256").digest(
+                (password != null ? password : "").getBytes(StandardCharsets.UTF_8));
+        } catch (Exception e) {
+            throw new IllegalStateException("SHA-256 no disponible", e);
+        }
+    }
+}
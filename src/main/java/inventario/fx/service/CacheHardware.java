@@ -0,0 +1,91 @@
+package inventario.fx.service;
+
+import inventario.fx.config.ConfigManager;
+import inventario.fx.util.AppLogger;
+import oshi.SystemInfo;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Caché de los datos de hardware que no cambian durante la sesión (CPU, BIOS, módulos
+ * de memoria, modelo, fabricante, chasis, nombre del sistema operativo, GPU).
+ *
+ * <p>Cada sondeo del escaneo se guarda bajo su clave con una caducidad configurable
+ * ({@code escaneo.cacheHardwareMin}, 30 minutos por defecto). Los valores volátiles
+ * (RAM en uso, red, IP, discos, aplicaciones) no pasan por aquí y se consultan en cada
+ * escaneo. Solo se guardan resultados reales, nunca los valores de respaldo de un
+ * sondeo que falló o no respondió.
+ *
+ * <p>También comparte una única instancia de OSHI {@link SystemInfo}: crearla de nuevo
+ * en cada escaneo repite la detección de plataforma y pierde la memoización interna.
+ *
+ * @author SELCOMP
+ * @version 1.0
+ * @since 2026-01-14
+ */
+public class CacheHardware {
+
+    private static final AppLogger logger = AppLogger.getLogger(CacheHardware.class);
+
+    /** Caducidad por defecto de los datos estáticos en minutos */
+    private static final int TTL_MIN_DEFECTO = 30;
+
+    private static final Map<String, Entrada> entradas = new ConcurrentHashMap<>();
+    private static volatile SystemInfo systemInfo;
+
+    private CacheHardware() {} // Utility class
+
+    private static class Entrada {
+        final Object valor;
+        final long expira;
+
+        Entrada(Object valor, long expira) {
+            this.valor = valor;
+            this.expira = expira;
+        }
+    }
+
+    /** Instancia compartida de OSHI (se crea en el primer uso). */
+    public static SystemInfo getSystemInfo() {
+        SystemInfo si = systemInfo;
+        if (si == null) {
+            synchronized (CacheHardware.class) {
+                si = systemInfo;
+                if (si == null) {
+                    si = new SystemInfo();
+                    systemInfo = si;
+                }
+            }
+        }
+        return si;
+    }
+
+    /**
+     * @return El valor guardado bajo {@code clave}, o null si no existe o caducó
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> T obtener(String clave) {
+        Entrada e = entradas.get(clave);
+        if (e == null) return null;
+        if (System.currentTimeMillis() >= e.expira) {
+            entradas.remove(clave, e);
+            return null;
+        }
+        return (T) e.valor;
+    }
+
+    /** Guarda un dato estático con la caducidad configurada. */
+    public static void guardar(String clave, Object valor) {
+        if (valor == null) return;
+        long ttlMs = ConfigManager.getInstance().getInt("escaneo.cacheHardwareMin", TTL_MIN_DEFECTO) * 60_000L;
+        if (ttlMs <= 0) return;
+        entradas.put(clave, new Entrada(valor, System.currentTimeMillis() + ttlMs));
+    }
+
+    /** Olvida todos los datos (el siguiente escaneo vuelve a consultar todo el hardware). */
+    public static void invalidar() {
+        entradas.clear();
+        logger.info("[CacheHardware] Datos de hardware invalidados");
+    }
+}
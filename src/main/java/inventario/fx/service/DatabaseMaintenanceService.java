@@ -35,10 +35,13 @@ public class DatabaseMaintenanceService {
             if ("INTEGRITY".equals(nombre)) {
                 return ejecutarIntegrityCheck(start);
             }
-            try (Connection conn = DatabaseManager.getConnection();
-                 Statement stmt = conn.createStatement()) {
-                stmt.execute(sql);
+            if ("CHECKPOINT".equals(nombre)) {
+                boolean completo = DatabaseManager.ejecutarCheckpointWAL();
+                return new ResultadoOperacion(completo,
+                    completo ? "Completado exitosamente" : "Checkpoint incompleto: hay lectores activos",
+                    System.currentTimeMillis() - start);
             }
+            DatabaseManager.ejecutarMantenimiento(sql);
             long dur = System.currentTimeMillis() - start;
             return new ResultadoOperacion(true, "Completado exitosamente", dur);
         } catch (Exception ex) {
@@ -78,11 +81,8 @@ public class DatabaseMaintenanceService {
     public static ResultadoOperacion compactarBaseDatos() {
         long start = System.currentTimeMillis();
         try {
-            try (Connection conn = DatabaseManager.getConnection();
-                 Statement stmt = conn.createStatement()) {
-                stmt.execute("VACUUM");
-                stmt.execute("ANALYZE");
-            }
+            DatabaseManager.ejecutarMantenimiento("VACUUM");
+            DatabaseManager.ejecutarMantenimiento("ANALYZE");
             long dur = System.currentTimeMillis() - start;
             return new ResultadoOperacion(true, "Base de datos compactada y analizada", dur);
         } catch (Exception ex) {
@@ -0,0 +1,500 @@
+package inventario.fx.service;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import inventario.fx.model.InventarioFXBase;
+import inventario.fx.util.AppLogger;
+
+import javax.crypto.Cipher;
+import javax.crypto.SecretKey;
+import javax.crypto.SecretKeyFactory;
+import javax.crypto.spec.GCMParameterSpec;
+import javax.crypto.spec.PBEKeySpec;
+import javax.crypto.spec.SecretKeySpec;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.util.*;
+import java.util.concurrent.*;
+
+/**
+ * Diario de escaneos cifrado, de solo anexado, que vive junto al Excel de cada proyecto
+ * ({@code Inventario_N - Proyecto.xlsx.journal}).
+ *
+ * <p>Guardar un escaneo en el diario cuesta una escritura de unos pocos KB y un fsync,
+ * en lugar de descifrar y volver a cifrar el Excel completo. Un compactador en segundo
+ * plano vuelca el diario al Excel en una sola pasada cuando la aplicación queda inactiva
+ * o el diario supera {@link #UMBRAL_COMPACTACION_BYTES}.
+ *
+ * <p><b>Formato:</b>
+ * <pre>
+ *   cabecera: "INVJ" (4) + versión (1) + sal PBKDF2 (16)
+ *   registro: longitud (4) + IV (12) + AES-256-GCM(JSON de InfoPC)
+ * </pre>
+ * Un registro truncado al final (corte de luz a mitad de escritura) se ignora. Los registros
+ * que no se pueden descifrar se copian a un {@code .journal.ilegible-*} aparte y el diario
+ * sigue en uso con los demás.
+ *
+ * @author SELCOMP
+ * @version 1.0
+ * @since 2026-01-14
+ */
+public class DiarioEscaneos {
+
+    private static final AppLogger logger = AppLogger.getLogger(DiarioEscaneos.class);
+
+    public static final String EXTENSION = ".journal";
+    /** Tamaño a partir del cual se compacta sin esperar a la inactividad */
+    public static final long UMBRAL_COMPACTACION_BYTES = 512 * 1024;
+    /** Segundos sin nuevos escaneos tras los que se compacta el diario */
+    public static final long SEGUNDOS_INACTIVIDAD = 30;
+
+    private static final byte[] MAGIC = {'I', 'N', 'V', 'J'};
+    private static final byte VERSION = 1;
+    private static final int SAL_LENGTH = 16;
+    private static final int CABECERA_LENGTH = MAGIC.length + 1 + SAL_LENGTH;
+    private static final int GCM_IV_LENGTH = 12;
+    private static final int GCM_TAG_LENGTH = 128;
+    private static final int MAX_REGISTRO = 16 * 1024 * 1024;
+    private static final int PBKDF2_ITERACIONES = 100_000;
+
+    private static final SecureRandom secureRandom = new SecureRandom();
+    private static final ObjectMapper mapper = new ObjectMapper()
+        .configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+
+    /** Claves derivadas por (sal, contraseña) para no repetir PBKDF2 en cada anexado */
+    private static final Map<String, SecretKey> clavesDerivadas = new ConcurrentHashMap<>();
+    /** Tareas de compactación pendientes por diario */
+    private static final Map<Path, ScheduledFuture<?>> compactacionesProgramadas = new ConcurrentHashMap<>();
+
+    private static final ScheduledExecutorService compactador = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread t = new Thread(r, "Diario-Compactador");
+        t.setDaemon(true);
+        return t;
+    });
+
+    private DiarioEscaneos() {} // Utility class
+
+    /**
+     * Resultado de leer un diario: los escaneos descifrados y hasta qué byte se leyó.
+     */
+    public static class Lectura {
+        public final List<InventarioFXBase.InfoPC> registros;
+        /** Offset del final del último registro completo leído */
+        public final long offsetFinal;
+        /** Registros que no se pudieron descifrar (contraseña distinta o datos corruptos) */
+        public final int registrosIlegibles;
+        /** Posición y longitud (con su prefijo) de cada registro ilegible */
+        private final List<long[]> tramosIlegibles;
+
+        Lectura(List<InventarioFXBase.InfoPC> registros, long offsetFinal, List<long[]> tramosIlegibles) {
+            this.registros = registros;
+            this.offsetFinal = offsetFinal;
+            this.registrosIlegibles = tramosIlegibles.size();
+            this.tramosIlegibles = tramosIlegibles;
+        }
+    }
+
+    /** Ruta del diario asociado a un Excel de proyecto. */
+    public static Path rutaDiario(Path rutaExcel) {
+        return rutaExcel.resolveSibling(rutaExcel.getFileName().toString() + EXTENSION);
+    }
+
+    /** Indica si el Excel tiene escaneos en el diario aún sin compactar. */
+    public static boolean tienePendientes(Path rutaExcel) {
+        try {
+            Path diario = rutaDiario(rutaExcel);
+            return Files.exists(diario) && Files.size(diario) > CABECERA_LENGTH;
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Anexa un escaneo al diario y fuerza su escritura a disco (fsync).
+     * Programa la compactación por inactividad, o inmediata si se superó el umbral.
+     *
+     * @param rutaExcel Excel del proyecto
+     * @param info      Escaneo a guardar
+     * @param password  Contraseña del Excel (de ella se deriva la clave del diario)
+     * @throws Exception Si no se pudo escribir el registro
+     */
+    public static void anexar(Path rutaExcel, InventarioFXBase.InfoPC info, String password) throws Exception {
+        Path diario = rutaDiario(rutaExcel);
+        long tamano;
+        synchronized (DiarioEscaneos.class) {
+            try (FileChannel ch = FileChannel.open(diario,
+                    StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+                byte[] sal;
+                if (ch.size() < CABECERA_LENGTH) {
+                    sal = new byte[SAL_LENGTH];
+                    secureRandom.nextBytes(sal);
+                    ch.truncate(0);
+                    escribirCompleto(ch, crearCabecera(sal));
+                } else {
+                    sal = leerSal(ch);
+                }
+
+                byte[] iv = new byte[GCM_IV_LENGTH];
+                secureRandom.nextBytes(iv);
+                Cipher cipher = Cipher.getInstance("AES/GCM/NoPadding");
+                cipher.init(Cipher.ENCRYPT_MODE, obtenerClave(sal, password), new GCMParameterSpec(GCM_TAG_LENGTH, iv));
+                byte[] cifrado = cipher.doFinal(mapper.writeValueAsBytes(info));
+
+                ByteBuffer registro = ByteBuffer.allocate(4 + GCM_IV_LENGTH + cifrado.length);
+                registro.putInt(GCM_IV_LENGTH + cifrado.length).put(iv).put(cifrado).flip();
+                // Descartar un registro a medio escribir para no dejar basura entre registros
+                long fin = finValido(ch);
+                if (fin < ch.size()) ch.truncate(fin);
+                ch.position(fin);
+                escribirCompleto(ch, registro);
+                ch.force(true);
+                tamano = ch.size();
+            }
+        }
+        logger.info("[Diario] Escaneo anexado a " + diario.getFileName() + " (" + tamano + " bytes)");
+        programarCompactacion(rutaExcel, tamano >= UMBRAL_COMPACTACION_BYTES ? 0 : SEGUNDOS_INACTIVIDAD);
+    }
+
+    /**
+     * Lee todos los registros completos del diario.
+     *
+     * @param rutaExcel Excel del proyecto
+     * @param password  Contraseña del Excel
+     * @return Lectura con los registros; vacía si no hay diario
+     */
+    public static Lectura leer(Path rutaExcel, String password) throws Exception {
+        Path diario = rutaDiario(rutaExcel);
+        List<InventarioFXBase.InfoPC> registros = new ArrayList<>();
+        synchronized (DiarioEscaneos.class) {
+            if (!Files.exists(diario)) return new Lectura(registros, 0, List.of());
+            try (FileChannel ch = FileChannel.open(diario, StandardOpenOption.READ)) {
+                if (ch.size() < CABECERA_LENGTH) return new Lectura(registros, 0, List.of());
+                SecretKey clave = obtenerClave(leerSal(ch), password);
+
+                long pos = CABECERA_LENGTH;
+                List<long[]> ilegibles = new ArrayList<>();
+                ByteBuffer longitud = ByteBuffer.allocate(4);
+                while (pos + 4 <= ch.size()) {
+                    longitud.clear();
+                    ch.read(longitud, pos);
+                    int len = longitud.flip().getInt();
+                    if (len <= GCM_IV_LENGTH || len > MAX_REGISTRO || pos + 4 + len > ch.size()) {
+                        break; // registro truncado o basura al final
+                    }
+                    ByteBuffer datos = ByteBuffer.allocate(len);
+                    while (datos.hasRemaining() && ch.read(datos, pos + 4 + datos.position()) > 0) { }
+                    long inicio = pos;
+                    pos += 4 + len;
+
+                    try {
+                        Cipher cipher = Cipher.getInstance("AES/GCM/NoPadding");
+                        cipher.init(Cipher.DECRYPT_MODE, clave,
+                            new GCMParameterSpec(GCM_TAG_LENGTH, datos.array(), 0, GCM_IV_LENGTH));
+                        byte[] json = cipher.doFinal(datos.array(), GCM_IV_LENGTH, len - GCM_IV_LENGTH);
+                        registros.add(mapper.readValue(json, InventarioFXBase.InfoPC.class));
+                    } catch (Exception e) {
+                        ilegibles.add(new long[] {inicio, 4L + len});
+                    }
+                }
+                return new Lectura(registros, pos, ilegibles);
+            }
+        }
+    }
+
+    /**
+     * Elimina del diario los registros ya compactados (los primeros {@code offset} bytes).
+     * Los registros anexados mientras se compactaba se conservan.
+     */
+    public static void descartarHasta(Path rutaExcel, long offset) throws IOException {
+        Path diario = rutaDiario(rutaExcel);
+        synchronized (DiarioEscaneos.class) {
+            if (!Files.exists(diario)) return;
+            long tamano = Files.size(diario);
+            if (offset >= tamano) {
+                Files.delete(diario);
+                return;
+            }
+            Path temp = diario.resolveSibling(diario.getFileName() + ".tmp");
+            try (FileChannel origen = FileChannel.open(diario, StandardOpenOption.READ);
+                 FileChannel destino = FileChannel.open(temp, StandardOpenOption.CREATE,
+                     StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+                origen.transferTo(0, CABECERA_LENGTH, destino);
+                long pos = Math.max(offset, CABECERA_LENGTH);
+                while (pos < tamano) {
+                    pos += origen.transferTo(pos, tamano - pos, destino);
+                }
+                destino.force(true);
+            }
+            Files.move(temp, diario, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        }
+    }
+
+    /**
+     * Copia los registros que no se pudieron descifrar a un diario aparte
+     * ({@code .journal.ilegible-<huella>}), con la misma cabecera, para no perderlos
+     * ni volver a intentarlos en cada compactación. El diario no se modifica: los
+     * registros legibles y los anexados mientras tanto siguen en él, y
+     * {@link #descartarHasta} deja después un diario nuevo solo con lo posterior.
+     *
+     * <p>El nombre depende del contenido leído, así repetir la copia tras un corte
+     * sobrescribe la anterior en lugar de duplicarla.
+     *
+     * @return false si no se pudieron copiar (el diario no debe vaciarse entonces)
+     */
+    public static boolean apartarIlegibles(Path rutaExcel, Lectura lectura) {
+        if (lectura.tramosIlegibles.isEmpty()) return true;
+        Path diario = rutaDiario(rutaExcel);
+        try {
+            synchronized (DiarioEscaneos.class) {
+                if (!Files.exists(diario)) return false;
+                Path destino = diario.resolveSibling(diario.getFileName() + ".ilegible-"
+                    + huellaHasta(diario, lectura.offsetFinal).substring(0, 16));
+                Path temp = destino.resolveSibling(destino.getFileName() + ".tmp");
+                try (FileChannel origen = FileChannel.open(diario, StandardOpenOption.READ);
+                     FileChannel copia = FileChannel.open(temp, StandardOpenOption.CREATE,
+                         StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+                    copiarTramo(origen, 0, CABECERA_LENGTH, copia);
+                    for (long[] tramo : lectura.tramosIlegibles) {
+                        copiarTramo(origen, tramo[0], tramo[1], copia);
+                    }
+                    copia.force(true);
+                }
+                Files.move(temp, destino, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+                logger.warn("[Diario] " + lectura.registrosIlegibles + " registro(s) ilegibles apartados en "
+                    + destino.getFileName());
+                return true;
+            }
+        } catch (IOException e) {
+            logger.error("[Diario] No se pudieron apartar los registros ilegibles: " + e.getMessage(), e);
+            return false;
+        }
+    }
+
+    /**
+     * Anota, antes de escribir el Excel, qué parte del diario va a volcarse y con qué lote.
+     * Si la aplicación se corta después de escribir el Excel pero antes de
+     * {@link #terminarExportacion}, {@link #recuperarExportacion} descarta esos registros
+     * en lugar de volver a exportarlos.
+     *
+     * @param lote      Lote de la exportación (el mismo que se graba en el Excel)
+     * @param offset    {@link Lectura#offsetFinal} de la lectura que se exporta
+     */
+    public static void marcarExportacion(Path rutaExcel, String lote, long offset) throws IOException {
+        Path diario = rutaDiario(rutaExcel);
+        synchronized (DiarioEscaneos.class) {
+            Properties marca = new Properties();
+            marca.setProperty("lote", lote);
+            marca.setProperty("offset", String.valueOf(offset));
+            marca.setProperty("huella", huellaHasta(diario, offset));
+            Path destino = rutaMarca(diario);
+            Path temp = destino.resolveSibling(destino.getFileName() + ".tmp");
+            try (OutputStream out = Files.newOutputStream(temp)) {
+                marca.store(out, null);
+            }
+            Files.move(temp, destino, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        }
+    }
+
+    /** Borra la marca de {@link #marcarExportacion} una vez descartados los registros volcados. */
+    public static void terminarExportacion(Path rutaExcel) throws IOException {
+        synchronized (DiarioEscaneos.class) {
+            Files.deleteIfExists(rutaMarca(rutaDiario(rutaExcel)));
+        }
+    }
+
+    /** Indica si quedó una exportación del diario sin terminar. */
+    public static boolean tieneExportacionSinTerminar(Path rutaExcel) {
+        return Files.exists(rutaMarca(rutaDiario(rutaExcel)));
+    }
+
+    /**
+     * Cierra una exportación que quedó sin terminar. Si el Excel tiene el lote de la marca,
+     * los registros ya están en él y se descartan del diario (siempre que el diario no haya
+     * cambiado por delante del offset anotado); si no, se volverán a exportar.
+     *
+     * @param loteEnExcel Lote grabado en el Excel, o null si no tiene
+     * @return true si los registros ya estaban en el Excel y se descartaron del diario
+     */
+    public static boolean recuperarExportacion(Path rutaExcel, String loteEnExcel) {
+        Path diario = rutaDiario(rutaExcel);
+        Path archivoMarca = rutaMarca(diario);
+        try {
+            synchronized (DiarioEscaneos.class) {
+                if (!Files.exists(archivoMarca)) return false;
+                Properties marca = new Properties();
+                try (InputStream in = Files.newInputStream(archivoMarca)) {
+                    marca.load(in);
+                }
+                boolean exportado = loteEnExcel != null && loteEnExcel.equals(marca.getProperty("lote"));
+                long offset = Long.parseLong(marca.getProperty("offset", "0"));
+                boolean mismoDiario = exportado && Files.exists(diario) && Files.size(diario) >= offset
+                    && huellaHasta(diario, offset).equals(marca.getProperty("huella"));
+                if (mismoDiario) {
+                    descartarHasta(rutaExcel, offset);
+                    logger.warn("[Diario] Exportación interrumpida de " + diario.getFileName()
+                        + ": los registros ya estaban en el Excel y se descartan del diario");
+                }
+                Files.deleteIfExists(archivoMarca);
+                return mismoDiario;
+            }
+        } catch (IOException | RuntimeException e) {
+            logger.error("[Diario] No se pudo recuperar la exportación de " + diario.getFileName() + ": " + e.getMessage(), e);
+            return false;
+        }
+    }
+
+    /**
+     * Programa la compactación del diario tras {@code retrasoSegundos}. Cada nuevo
+     * anexado reinicia la cuenta, de modo que solo se compacta cuando hay inactividad.
+     */
+    public static void programarCompactacion(Path rutaExcel, long retrasoSegundos) {
+        compactacionesProgramadas.compute(rutaExcel, (ruta, anterior) -> {
+            if (anterior != null) anterior.cancel(false);
+            return compactador.schedule(() -> {
+                compactacionesProgramadas.remove(ruta);
+                try {
+                    InventarioFXBase.exportarPendientesExcel(ruta);
+                } catch (Exception e) {
+                    logger.error("[Diario] Error compactando " + ruta.getFileName() + ": " + e.getMessage(), e);
+                }
+            }, retrasoSegundos, TimeUnit.SECONDS);
+        });
+    }
+
+    /**
+     * Cancela las compactaciones programadas que aún no han empezado.
+     *
+     * @return Excel de las compactaciones canceladas, para volcarlos en el acto
+     */
+    public static Set<Path> cancelarCompactaciones() {
+        Set<Path> rutas = new LinkedHashSet<>();
+        for (Map.Entry<Path, ScheduledFuture<?>> e : compactacionesProgramadas.entrySet()) {
+            if (e.getValue().cancel(false)) rutas.add(e.getKey());
+            compactacionesProgramadas.remove(e.getKey(), e.getValue());
+        }
+        return rutas;
+    }
+
+    /**
+     * Excel de la carpeta que tienen un diario con registros (p. ej. de una sesión que se
+     * cerró antes de compactarlos).
+     */
+    public static Set<Path> excelConDiario(Path carpeta) {
+        Set<Path> rutas = new LinkedHashSet<>();
+        if (!Files.isDirectory(carpeta)) return rutas;
+        try (DirectoryStream<Path> diarios = Files.newDirectoryStream(carpeta, "*" + EXTENSION)) {
+            for (Path diario : diarios) {
+                String nombre = diario.getFileName().toString();
+                Path excel = diario.resolveSibling(nombre.substring(0, nombre.length() - EXTENSION.length()));
+                if (tienePendientes(excel)) rutas.add(excel);
+            }
+        } catch (IOException e) {
+            logger.warn("[Diario] No se pudo revisar " + carpeta + ": " + e.getMessage());
+        }
+        return rutas;
+    }
+
+    // === AUXILIARES ===
+
+    private static ByteBuffer crearCabecera(byte[] sal) {
+        ByteBuffer cabecera = ByteBuffer.allocate(CABECERA_LENGTH);
+        cabecera.put(MAGIC).put(VERSION).put(sal).flip();
+        return cabecera;
+    }
+
+    private static byte[] leerSal(FileChannel ch) throws IOException {
+        ByteBuffer cabecera = ByteBuffer.allocate(CABECERA_LENGTH);
+        while (cabecera.hasRemaining() && ch.read(cabecera, cabecera.position()) > 0) { }
+        cabecera.flip();
+        byte[] magic = new byte[MAGIC.length];
+        cabecera.get(magic);
+        if (!Arrays.equals(magic, MAGIC) || cabecera.get() != VERSION) {
+            throw new IOException("Cabecera de diario no válida");
+        }
+        byte[] sal = new byte[SAL_LENGTH];
+        cabecera.get(sal);
+        return sal;
+    }
+
+    private static void copiarTramo(FileChannel origen, long posicion, long longitud, FileChannel destino) throws IOException {
+        long copiado = 0;
+        while (copiado < longitud) {
+            long n = origen.transferTo(posicion + copiado, longitud - copiado, destino);
+            if (n <= 0) throw new IOException("Diario truncado mientras se copiaba");
+            copiado += n;
+        }
+    }
+
+    private static Path rutaMarca(Path diario) {
+        return diario.resolveSibling(diario.getFileName() + ".exportando");
+    }
+
+    /** SHA-256 de los primeros {@code offset} bytes del diario (la cabecera lleva una sal aleatoria). */
+    private static String huellaHasta(Path diario, long offset) throws IOException {
+        try (FileChannel ch = FileChannel.open(diario, StandardOpenOption.READ)) {
+            MessageDigest sha = MessageDigest.getInstance("SHA-256");
+            ByteBuffer buffer = ByteBuffer.allocate(64 * 1024);
+            long pos = 0;
+            while (pos < offset) {
+                buffer.clear().limit((int) Math.min(buffer.capacity(), offset - pos));
+                int leidos = ch.read(buffer, pos);
+                if (leidos <= 0) break;
+                sha.update(buffer.flip());
+                pos += leidos;
+            }
+            return HexFormat.of().formatHex(sha.digest());
+        } catch (java.security.NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /** Offset del final del último registro completo (solo lee las longitudes). */
+    private static long finValido(FileChannel ch) throws IOException {
+        long pos = CABECERA_LENGTH;
+        long tamano = ch.size();
+        ByteBuffer longitud = ByteBuffer.allocate(4);
+        while (pos + 4 <= tamano) {
+            longitud.clear();
+            ch.read(longitud, pos);
+            int len = longitud.flip().getInt();
+            if (len <= GCM_IV_LENGTH || len > MAX_REGISTRO || pos + 4 + len > tamano) break;
+            pos += 4 + len;
+        }
+        return pos;
+    }
+
+    private static void escribirCompleto(FileChannel ch, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            ch.write(buffer);
+        }
+    }
+
+    /** Deriva (o reutiliza) la clave AES-256 del diario a partir de la contraseña del Excel. */
+    private static SecretKey obtenerClave(byte[] sal, String password) throws Exception {
+        MessageDigest sha = MessageDigest.getInstance("SHA-256");
+        sha.update(sal);
+        sha.update(password.getBytes(StandardCharsets.UTF_8));
+        String id = Base64.getEncoder().encodeToString(sha.digest());
+
+        SecretKey clave = clavesDerivadas.get(id);
+        if (clave == null) {
+            PBEKeySpec spec = new PBEKeySpec(password.toCharArray(), sal, PBKDF2_ITERACIONES, 256);
+            try {
+                byte[] bytes = SecretKeyFactory.getInstance("PBKDF2WithHmacSHA256").generateSecret(spec).getEncoded();
+                clave = new SecretKeySpec(bytes, "AES");
+                Arrays.fill(bytes, (byte) 0);
+            } finally {
+                spec.clearPassword();
+            }
+            clavesDerivadas.put(id, clave);
+        }
+        return clave;
+    }
+}
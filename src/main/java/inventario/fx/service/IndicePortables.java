@@ -0,0 +1,284 @@
+package inventario.fx.service;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import inventario.fx.config.PortablePaths;
+import inventario.fx.util.AppLogger;
+
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.BooleanSupplier;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+/**
+ * Índice incremental de los ejecutables portables/descargados que detecta el escaneo.
+ *
+ * <p>Por cada carpeta recorrida (la raíz y sus subcarpetas directas, igual que
+ * {@code Files.walk(raiz, 2)}) se guarda su fecha de modificación y los .exe que contiene
+ * con su versión. En el siguiente escaneo solo se vuelven a listar las carpetas cuya fecha
+ * cambió, y solo se consulta la versión de los .exe nuevos o modificados; el resto sale
+ * del índice sin tocar PowerShell.
+ *
+ * <p>El índice guarda todos los .exe; el filtro y la eliminación de duplicados se aplican
+ * al consultarlo, así cambiar la lista de ignorados no deja el índice desfasado. La versión
+ * solo se lee de los ejecutables que pasan el filtro y ganan la deduplicación.
+ *
+ * <p>El índice se persiste en {@link PortablePaths#getIndicePortablesFile()}. Las raíces se
+ * recorren en paralelo y el recorrido se puede cancelar entre carpetas.
+ *
+ * <p>La fecha de una carpeta cambia al crear, borrar o renombrar entradas, no al
+ * sobrescribir un archivo existente: un .exe actualizado en su sitio conserva la versión
+ * indexada hasta que cambie algo más en su carpeta.
+ *
+ * @author SELCOMP
+ * @version 1.0
+ * @since 2026-01-14
+ */
+public class IndicePortables {
+
+    private static final AppLogger logger = AppLogger.getLogger(IndicePortables.class);
+
+    private static final ObjectMapper mapper = new ObjectMapper()
+        .configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+
+    /** Formato actual del archivo */
+    private static final int VERSION_FORMATO = 1;
+
+    /** Índice en memoria: carpeta → contenido (se carga del disco en el primer uso) */
+    private static Map<String, Carpeta> indice;
+
+    private IndicePortables() {} // Utility class
+
+    /** Ejecutable indexado. */
+    public static class Ejecutable {
+        public String ruta;
+        /** Versión del .exe; null si aún no se ha leído */
+        public String version;
+        /** Fecha de modificación del archivo (ms) */
+        public long modificado;
+        public long tamano;
+    }
+
+    /** Contenido indexado de una carpeta. */
+    public static class Carpeta {
+        /** Fecha de modificación de la carpeta cuando se listó (ms) */
+        public long modificada;
+        public List<Ejecutable> ejecutables = new ArrayList<>();
+    }
+
+    /** Formato del archivo persistido. */
+    public static class Archivo {
+        public int version = VERSION_FORMATO;
+        public Map<String, Carpeta> carpetas = new HashMap<>();
+    }
+
+    /**
+     * Devuelve los ejecutables de las raíces indicadas, usando el índice para las carpetas
+     * que no han cambiado. De los que comparten clave solo se devuelve el primero en orden
+     * de recorrido.
+     *
+     * @param raices      Carpetas raíz (las que no existen se ignoran)
+     * @param incluir     Filtro de ejecutables; se aplica al consultar, no al indexar
+     * @param clave       Clave de deduplicación (p. ej. el nombre sin extensión en minúsculas)
+     * @param lectorVersion Obtiene la versión de un .exe (consulta lenta); solo para los devueltos
+     * @param cancelado   Se consulta entre carpetas; si devuelve true el recorrido se detiene
+     * @throws CancellationException si se canceló antes de terminar
+     */
+    public static List<Ejecutable> escanear(List<Path> raices, Predicate<Path> incluir,
+                                            Function<Path, String> clave,
+                                            Function<Path, String> lectorVersion,
+                                            BooleanSupplier cancelado) {
+        Map<String, Carpeta> anterior = cargar();
+        Map<String, Carpeta> nuevo = new ConcurrentHashMap<>();
+        Map<Path, List<String>> carpetasPorRaiz = new ConcurrentHashMap<>();
+        int[] relistadas = new int[1];
+
+        ExecutorService pool = Executors.newFixedThreadPool(Math.max(1, Math.min(4, raices.size())), r -> {
+            Thread t = new Thread(r, "Indice-Portables");
+            t.setDaemon(true);
+            return t;
+        });
+        try {
+            List<Future<?>> tareas = new ArrayList<>();
+            for (Path raiz : raices) {
+                tareas.add(pool.submit(() -> {
+                    List<String> orden = new ArrayList<>();
+                    int n = recorrerRaiz(raiz, anterior, nuevo, orden, cancelado);
+                    carpetasPorRaiz.put(raiz, orden);
+                    synchronized (relistadas) { relistadas[0] += n; }
+                }));
+            }
+            for (Future<?> tarea : tareas) {
+                try {
+                    tarea.get();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    tareas.forEach(t -> t.cancel(true));
+                    throw new CancellationException("Escaneo de portables interrumpido");
+                } catch (ExecutionException e) {
+                    if (e.getCause() instanceof CancellationException) throw (CancellationException) e.getCause();
+                    logger.warn("[Portables] Error recorriendo carpeta: " + e.getCause().getMessage());
+                }
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+
+        // Mismo orden que el recorrido secuencial: raíz a raíz, carpeta a carpeta
+        List<Ejecutable> resultado = new ArrayList<>();
+        Set<String> vistos = new HashSet<>();
+        int leidas = 0;
+        for (Path raiz : raices) {
+            for (String carpeta : carpetasPorRaiz.getOrDefault(raiz, List.of())) {
+                for (Ejecutable e : nuevo.get(carpeta).ejecutables) {
+                    Path exe = Path.of(e.ruta);
+                    if (!incluir.test(exe) || !vistos.add(clave.apply(exe))) continue;
+                    if (e.version == null) {
+                        if (cancelado.getAsBoolean() || Thread.currentThread().isInterrupted()) {
+                            guardar(nuevo);
+                            throw new CancellationException("Escaneo de portables cancelado");
+                        }
+                        e.version = lectorVersion.apply(exe);
+                        leidas++;
+                    }
+                    resultado.add(e);
+                }
+            }
+        }
+        guardar(nuevo);
+        logger.info("[Portables] " + nuevo.size() + " carpetas en índice, " + relistadas[0]
+            + " vueltas a listar, " + leidas + " versiones leídas, " + resultado.size() + " ejecutables");
+        return resultado;
+    }
+
+    /** Borra el índice (el próximo escaneo recorre todo de nuevo). */
+    public static synchronized void limpiar() {
+        indice = new HashMap<>();
+        try {
+            Files.deleteIfExists(PortablePaths.getIndicePortablesFile());
+        } catch (IOException e) {
+            logger.warn("[Portables] No se pudo borrar el índice: " + e.getMessage());
+        }
+    }
+
+    // === RECORRIDO ===
+
+    /** @return Número de carpetas que hubo que volver a listar */
+    private static int recorrerRaiz(Path raiz, Map<String, Carpeta> anterior, Map<String, Carpeta> nuevo,
+                                    List<String> orden, BooleanSupplier cancelado) {
+        if (!Files.isDirectory(raiz)) return 0;
+
+        List<Path> carpetas = new ArrayList<>();
+        carpetas.add(raiz);
+        try (DirectoryStream<Path> hijos = Files.newDirectoryStream(raiz, Files::isDirectory)) {
+            hijos.forEach(carpetas::add);
+        } catch (IOException e) {
+            logger.debug("[Portables] No se pudo listar " + raiz + ": " + e.getMessage());
+        }
+
+        int relistadas = 0;
+        for (Path carpeta : carpetas) {
+            if (cancelado.getAsBoolean() || Thread.currentThread().isInterrupted()) {
+                throw new CancellationException("Escaneo de portables cancelado");
+            }
+            String clave = carpeta.toAbsolutePath().normalize().toString();
+            long modificada;
+            try {
+                modificada = Files.getLastModifiedTime(carpeta).toMillis();
+            } catch (IOException e) {
+                continue;
+            }
+
+            orden.add(clave);
+            Carpeta previa = anterior.get(clave);
+            if (previa != null && previa.modificada == modificada) {
+                nuevo.put(clave, previa);
+                continue;
+            }
+            nuevo.put(clave, listar(carpeta, modificada, previa));
+            relistadas++;
+        }
+        return relistadas;
+    }
+
+    /**
+     * Lista los .exe de una carpeta (sin recursión), reutilizando versiones ya conocidas.
+     * Los nuevos o modificados quedan sin versión hasta que se consulten.
+     */
+    private static Carpeta listar(Path carpeta, long modificada, Carpeta previa) {
+        Map<String, Ejecutable> conocidos = new HashMap<>();
+        if (previa != null) previa.ejecutables.forEach(e -> conocidos.put(e.ruta, e));
+
+        Carpeta c = new Carpeta();
+        c.modificada = modificada;
+        try (DirectoryStream<Path> archivos = Files.newDirectoryStream(carpeta,
+                p -> p.getFileName().toString().toLowerCase().endsWith(".exe") && Files.isRegularFile(p))) {
+            for (Path exe : archivos) {
+                Ejecutable e = new Ejecutable();
+                e.ruta = exe.toString();
+                try {
+                    e.modificado = Files.getLastModifiedTime(exe).toMillis();
+                    e.tamano = Files.size(exe);
+                } catch (IOException ignored) {
+                    // Se indexa igualmente; la versión se volverá a leer la próxima vez
+                }
+                Ejecutable previo = conocidos.get(e.ruta);
+                e.version = (previo != null && previo.modificado == e.modificado && previo.tamano == e.tamano)
+                    ? previo.version
+                    : null;
+                c.ejecutables.add(e);
+            }
+        } catch (IOException e) {
+            logger.debug("[Portables] No se pudo listar " + carpeta + ": " + e.getMessage());
+        }
+        return c;
+    }
+
+    // === PERSISTENCIA ===
+
+    private static synchronized Map<String, Carpeta> cargar() {
+        if (indice != null) return new HashMap<>(indice);
+        indice = new HashMap<>();
+        Path archivo = PortablePaths.getIndicePortablesFile();
+        if (Files.exists(archivo)) {
+            try {
+                Archivo datos = mapper.readValue(archivo.toFile(), Archivo.class);
+                if (datos.version == VERSION_FORMATO && datos.carpetas != null) indice = datos.carpetas;
+            } catch (Exception e) {
+                logger.warn("[Portables] Índice ilegible, se reconstruye: " + e.getMessage());
+            }
+        }
+        return new HashMap<>(indice);
+    }
+
+    private static synchronized void guardar(Map<String, Carpeta> carpetas) {
+        indice = new HashMap<>(carpetas);
+        Archivo datos = new Archivo();
+        datos.carpetas = indice;
+        Path archivo = PortablePaths.getIndicePortablesFile();
+        try {
+            Files.createDirectories(archivo.getParent());
+            Path temp = archivo.resolveSibling(archivo.getFileName() + ".tmp");
+            mapper.writeValue(temp.toFile(), datos);
+            Files.move(temp, archivo, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (Exception e) {
+            logger.warn("[Portables] No se pudo guardar el índice: " + e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,225 @@
+package inventario.fx.service;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import inventario.fx.database.repository.InventarioRepository;
+import inventario.fx.database.repository.InventarioRepository.TipoEscaneo;
+import inventario.fx.model.InventarioFXBase.InfoPC;
+import inventario.fx.util.AppLogger;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validation;
+import jakarta.validation.Validator;
+import jakarta.validation.ValidatorFactory;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Ingesta por lotes de escaneos recogidos en otros equipos.
+ *
+ * <p>Lee todos los {@code *.json} de un directorio con el parser en streaming de Jackson:
+ * cada archivo puede contener un escaneo, un arreglo de escaneos o varios documentos
+ * seguidos (uno por línea). Se aceptan tanto {@link InfoPC} directos como la salida de
+ * {@code --scan --out json} (el escaneo va en {@code "equipo"}). Solo el lote en curso
+ * vive en memoria.
+ *
+ * <p>Cada escaneo se valida con Hibernate Validator (anotaciones de {@link InfoPC}), se
+ * descartan los repetidos (mismo hostname y misma huella) y se guardan en transacciones de
+ * {@link #TAMANO_LOTE} escaneos mediante {@link InventarioRepository#registrarEscaneos}, que
+ * aplica la misma lógica de huella que el escaneo normal (ALTA / VISTO / CAMBIO).
+ *
+ * <p>Los archivos no vienen en orden cronológico y solo se ordena el lote en curso: un
+ * escaneo más antiguo que el último estado guardado de su equipo (de un lote anterior o de
+ * otra ingesta) se descarta y se cuenta como antiguo, en lugar de encadenarse como cambio.
+ *
+ * <p>El volcado al Excel del proyecto no se hace aquí: quien llama lo hace una sola vez
+ * al final con {@code exportarPendientesExcel}.
+ *
+ * @author SELCOMP
+ * @version 1.0
+ * @since 2026-01-14
+ */
+public class IngestaMasiva {
+
+    private static final AppLogger logger = AppLogger.getLogger(IngestaMasiva.class);
+
+    /** Escaneos por transacción */
+    static final int TAMANO_LOTE = 1000;
+
+    private static final ObjectMapper mapper = new ObjectMapper()
+        .configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+
+    private static ValidatorFactory fabricaValidadores;
+
+    private final InventarioRepository repositorio;
+
+    public IngestaMasiva() {
+        this(new InventarioRepository());
+    }
+
+    public IngestaMasiva(InventarioRepository repositorio) {
+        this.repositorio = repositorio;
+    }
+
+    /** Totales de una ingesta. */
+    public static class Resumen {
+        public int archivos;
+        public int leidos;
+        public int invalidos;
+        public int duplicados;
+        public int altas;
+        public int vistos;
+        public int cambios;
+        /** Más antiguos que el último estado de su equipo: no se guardaron */
+        public int antiguos;
+        public long duracionMs;
+
+        /** Escaneos leídos por segundo */
+        public double registrosPorSegundo() {
+            return duracionMs == 0 ? leidos : leidos * 1000.0 / duracionMs;
+        }
+
+        @Override
+        public String toString() {
+            return String.format(Locale.ROOT,
+                "%d archivos, %d escaneos (%d altas, %d sin cambios, %d con cambios, %d antiguos, %d duplicados, " +
+                "%d inválidos) en %d ms — %.0f reg/s",
+                archivos, leidos, altas, vistos, cambios, antiguos, duplicados, invalidos, duracionMs,
+                registrosPorSegundo());
+        }
+    }
+
+    /**
+     * Ingiere todos los escaneos JSON del directorio en el proyecto indicado.
+     *
+     * @param directorio Directorio con archivos {@code *.json}
+     * @param proyectoId ID del proyecto (tabla proyectos)
+     * @param rutaExcel  Clave de la ruta del Excel del proyecto (columna ruta_excel)
+     * @param progreso   Recibe un mensaje por lote guardado
+     * @return Totales de la ingesta
+     * @throws IOException  Si no se puede listar el directorio
+     * @throws SQLException Si falla la escritura de un lote
+     */
+    public Resumen ingerir(Path directorio, String proyectoId, String rutaExcel,
+                           Consumer<String> progreso) throws IOException, SQLException {
+        long inicio = System.nanoTime();
+        Resumen resumen = new Resumen();
+        Set<String> vistos = new HashSet<>();
+        List<InfoPC> lote = new ArrayList<>(TAMANO_LOTE);
+
+        List<Path> archivos;
+        try (Stream<Path> s = Files.list(directorio)) {
+            archivos = s.filter(p -> p.getFileName().toString().toLowerCase(Locale.ROOT).endsWith(".json"))
+                .sorted()
+                .collect(Collectors.toList());
+        }
+
+        for (Path archivo : archivos) {
+            resumen.archivos++;
+            try (JsonParser parser = mapper.getFactory().createParser(archivo.toFile())) {
+                JsonToken token;
+                while ((token = parser.nextToken()) != null) {
+                    // Arreglos de primer nivel: se recorren sus objetos uno a uno
+                    if (token != JsonToken.START_OBJECT) continue;
+                    JsonNode nodo = mapper.readTree(parser);
+                    resumen.leidos++;
+                    InfoPC info = convertir(nodo, archivo, resumen);
+                    if (info == null) continue;
+                    String clave = InventarioRepository.normalizarHostname(info.hostname) + "|"
+                        + InventarioRepository.calcularHuella(info);
+                    if (!vistos.add(clave)) {
+                        resumen.duplicados++;
+                        continue;
+                    }
+                    lote.add(info);
+                    if (lote.size() >= TAMANO_LOTE) {
+                        guardarLote(lote, proyectoId, rutaExcel, resumen, inicio, progreso);
+                    }
+                }
+            } catch (IOException e) {
+                // Un archivo corrupto no detiene la ingesta; lo leído antes del error se conserva
+                resumen.invalidos++;
+                logger.warn("[Ingesta] " + archivo.getFileName() + " ilegible: " + e.getMessage());
+            }
+        }
+        if (!lote.isEmpty()) {
+            guardarLote(lote, proyectoId, rutaExcel, resumen, inicio, progreso);
+        }
+
+        resumen.duracionMs = (System.nanoTime() - inicio) / 1_000_000;
+        logger.info("[Ingesta] " + resumen);
+        return resumen;
+    }
+
+    /**
+     * Convierte y valida un documento. Devuelve null (y lo cuenta como inválido) si no es
+     * un escaneo válido.
+     */
+    private static InfoPC convertir(JsonNode nodo, Path archivo, Resumen resumen) {
+        if (nodo.has("equipo") && nodo.get("equipo").isObject()) {
+            nodo = nodo.get("equipo");
+        }
+        InfoPC info;
+        try {
+            info = mapper.treeToValue(nodo, InfoPC.class);
+        } catch (IOException e) {
+            resumen.invalidos++;
+            logger.debug("[Ingesta] Documento no convertible en " + archivo.getFileName() + ": " + e.getMessage());
+            return null;
+        }
+        Set<ConstraintViolation<InfoPC>> errores = getValidator().validate(info);
+        if (!errores.isEmpty()) {
+            resumen.invalidos++;
+            ConstraintViolation<InfoPC> e = errores.iterator().next();
+            logger.debug("[Ingesta] Escaneo inválido en " + archivo.getFileName() + ": "
+                + e.getPropertyPath() + " " + e.getMessage());
+            return null;
+        }
+        if (info.fecha == null) info.fecha = new Date();
+        return info;
+    }
+
+    private void guardarLote(List<InfoPC> lote, String proyectoId, String rutaExcel, Resumen resumen,
+                             long inicio, Consumer<String> progreso) throws SQLException {
+        // Orden cronológico por equipo dentro del lote para que sus deltas encadenen bien;
+        // entre lotes, registrarEscaneos descarta lo anterior al estado ya guardado
+        lote.sort(Comparator.comparing((InfoPC i) -> InventarioRepository.normalizarHostname(i.hostname))
+            .thenComparing(i -> i.fecha));
+        Map<TipoEscaneo, Integer> conteo = repositorio.registrarEscaneos(proyectoId, rutaExcel, lote);
+        resumen.altas += conteo.getOrDefault(TipoEscaneo.ALTA, 0);
+        resumen.vistos += conteo.getOrDefault(TipoEscaneo.VISTO, 0);
+        resumen.cambios += conteo.getOrDefault(TipoEscaneo.CAMBIO, 0);
+        resumen.antiguos += conteo.getOrDefault(TipoEscaneo.ANTERIOR, 0);
+        lote.clear();
+
+        long ms = Math.max(1, (System.nanoTime() - inicio) / 1_000_000);
+        if (progreso != null) {
+            int guardados = resumen.altas + resumen.vistos + resumen.cambios + resumen.antiguos;
+            progreso.accept(String.format(Locale.ROOT, "%d escaneos guardados (%.0f reg/s)",
+                guardados, resumen.leidos * 1000.0 / ms));
+        }
+    }
+
+    private static synchronized Validator getValidator() {
+        if (fabricaValidadores == null) {
+            fabricaValidadores = Validation.buildDefaultValidatorFactory();
+        }
+        return fabricaValidadores.getValidator();
+    }
+}
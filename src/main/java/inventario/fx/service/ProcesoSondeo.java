@@ -0,0 +1,39 @@
+package inventario.fx.service;
+
+import java.io.IOException;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Function;
+
+/**
+ * Intérprete al que se envían los scripts de sondeo del sistema.
+ *
+ * <p>La implementación real es {@link ShellPowerShell}, un PowerShell que se mantiene
+ * abierto entre escaneos. {@link #fijo(Function)} crea una implementación sin proceso que
+ * responde con texto preparado, para ejercitar el envío de scripts y el análisis de la
+ * respuesta en equipos sin PowerShell (simulación, pruebas, mediciones).
+ *
+ * @author SELCOMP
+ * @version 1.0
+ * @since 2026-01-14
+ */
+public interface ProcesoSondeo {
+
+    /**
+     * Ejecuta un script completo y devuelve su salida estándar.
+     *
+     * @param script    Script (puede tener varias líneas)
+     * @param timeoutMs Tiempo máximo de espera
+     * @throws TimeoutException si el script no termina a tiempo (el intérprete se reinicia)
+     */
+    String ejecutar(String script, long timeoutMs) throws IOException, TimeoutException;
+
+    /** Libera el intérprete, si lo hay. */
+    default void cerrar() {}
+
+    /**
+     * Implementación sin proceso: cada script recibe la salida que devuelva {@code respuesta}.
+     */
+    static ProcesoSondeo fijo(Function<String, String> respuesta) {
+        return (script, timeoutMs) -> respuesta.apply(script);
+    }
+}
@@ -0,0 +1,129 @@
+package inventario.fx.service;
+
+import inventario.fx.util.AppLogger;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.UUID;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * PowerShell de larga duración para los sondeos del escaneo.
+ *
+ * <p>Arrancar {@code powershell.exe} cuesta cientos de milisegundos; este intérprete se
+ * inicia una vez y recibe los scripts por la entrada estándar. Cada script viaja en una
+ * sola línea (codificado en Base64 y ejecutado con {@code Invoke-Expression}) seguido de
+ * una marca de fin única, y la salida se lee hasta esa marca. Si un script no termina a
+ * tiempo o el proceso muere, se descarta y el siguiente script arranca uno nuevo.
+ *
+ * <p>Los scripts se ejecutan de uno en uno. Interrumpir el hilo que espera un script
+ * destruye el intérprete, igual que el timeout.
+ *
+ * @author SELCOMP
+ * @version 1.0
+ * @since 2026-01-14
+ */
+public class ShellPowerShell implements ProcesoSondeo {
+
+    private static final AppLogger logger = AppLogger.getLogger(ShellPowerShell.class);
+
+    private Process proceso;
+    private Writer entrada;
+    private BufferedReader salida;
+
+    /** Lee la salida fuera del hilo llamador para poder aplicar el timeout */
+    private final ExecutorService lector = Executors.newSingleThreadExecutor(r -> {
+        Thread t = new Thread(r, "PowerShell-Lector");
+        t.setDaemon(true);
+        return t;
+    });
+
+    public ShellPowerShell() {
+        Runtime.getRuntime().addShutdownHook(new Thread(this::cerrar, "PowerShell-Cierre"));
+    }
+
+    @Override
+    public synchronized String ejecutar(String script, long timeoutMs) throws IOException, TimeoutException {
+        // Un sondeo cancelado mientras esperaba turno no arranca el intérprete
+        if (Thread.currentThread().isInterrupted()) throw new IOException("Ejecución interrumpida");
+        iniciarSiHaceFalta();
+
+        String marca = "<<FIN-" + UUID.randomUUID() + ">>";
+        String codificado = Base64.getEncoder().encodeToString(script.getBytes(StandardCharsets.UTF_8));
+        entrada.write("Invoke-Expression ([Text.Encoding]::UTF8.GetString([Convert]::FromBase64String('"
+            + codificado + "')))\n");
+        entrada.write("Write-Output '" + marca + "'\n");
+        entrada.flush();
+
+        BufferedReader br = salida;
+        Future<String> lectura = lector.submit(() -> {
+            StringBuilder sb = new StringBuilder();
+            String linea;
+            while ((linea = br.readLine()) != null) {
+                if (linea.equals(marca)) return sb.toString();
+                sb.append(linea).append('\n');
+            }
+            throw new IOException("PowerShell terminó sin completar el script");
+        });
+
+        try {
+            return lectura.get(timeoutMs, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            logger.warn("[PowerShell] Script sin respuesta en " + timeoutMs + " ms, se reinicia el intérprete");
+            lectura.cancel(true);
+            detener();
+            throw e;
+        } catch (ExecutionException e) {
+            detener();
+            throw e.getCause() instanceof IOException ? (IOException) e.getCause() : new IOException(e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            detener();
+            throw new IOException("Ejecución interrumpida", e);
+        }
+    }
+
+    @Override
+    public synchronized void cerrar() {
+        detener();
+    }
+
+    private void iniciarSiHaceFalta() throws IOException {
+        if (proceso != null && proceso.isAlive()) return;
+        detener();
+        ProcessBuilder pb = new ProcessBuilder("powershell.exe", "-NoLogo", "-NoProfile", "-NonInteractive",
+            "-ExecutionPolicy", "Bypass", "-Command", "-");
+        pb.redirectErrorStream(true);
+        proceso = pb.start();
+        entrada = new OutputStreamWriter(proceso.getOutputStream(), StandardCharsets.UTF_8);
+        salida = new BufferedReader(new InputStreamReader(proceso.getInputStream(), StandardCharsets.UTF_8));
+        // Salida en UTF-8 para nombres de aplicaciones con acentos
+        entrada.write("[Console]::OutputEncoding = [Text.Encoding]::UTF8\n");
+        entrada.write("$ErrorActionPreference = 'SilentlyContinue'\n");
+        entrada.flush();
+        logger.debug("[PowerShell] Intérprete iniciado");
+    }
+
+    private void detener() {
+        if (proceso == null) return;
+        try {
+            entrada.close();
+        } catch (IOException ignored) {
+            // El proceso puede haber muerto ya
+        }
+        proceso.destroyForcibly();
+        proceso = null;
+        entrada = null;
+        salida = null;
+    }
+}
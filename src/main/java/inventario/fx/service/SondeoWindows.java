@@ -0,0 +1,143 @@
+package inventario.fx.service;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import inventario.fx.util.AppLogger;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Sondeo de Windows en un único script por escaneo.
+ *
+ * <p>Nombre del sistema operativo, fabricante, tipos de chasis, aplicaciones del registro
+ * y del Store salen de un mismo script que devuelve un documento JSON. Los sondeos
+ * paralelos del escaneo comparten el resultado: el primero lo pide y los demás lo reciben
+ * mientras siga vigente ({@link #VIGENCIA_MS}). Un sondeo fallido no se reutiliza.
+ *
+ * <p>El script se ejecuta en un {@link ProcesoSondeo}; por defecto un {@link ShellPowerShell}
+ * que permanece abierto entre escaneos.
+ *
+ * @author SELCOMP
+ * @version 1.0
+ * @since 2026-01-14
+ */
+public class SondeoWindows {
+
+    private static final AppLogger logger = AppLogger.getLogger(SondeoWindows.class);
+
+    /** Tiempo durante el que un resultado se reutiliza (cubre un escaneo completo) */
+    static final long VIGENCIA_MS = 30_000;
+
+    private static final long TIMEOUT_MS = 60_000;
+
+    private static final ObjectMapper mapper = new ObjectMapper()
+        .configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+
+    static final String SCRIPT = String.join("\n",
+        "$r = [ordered]@{}",
+        "$r.sistema = (Get-WmiObject -Class Win32_OperatingSystem | Select-Object -ExpandProperty Caption) -join ','",
+        "$r.fabricante = (Get-WmiObject -Class Win32_ComputerSystem | Select-Object -ExpandProperty Manufacturer) -join ','",
+        "$r.chasis = @(Get-WmiObject -Class Win32_SystemEnclosure | ForEach-Object { $_.ChassisTypes })",
+        "$r.registro = @(Get-ItemProperty 'HKLM:\\Software\\Microsoft\\Windows\\CurrentVersion\\Uninstall\\*', "
+            + "'HKLM:\\Software\\Wow6432Node\\Microsoft\\Windows\\CurrentVersion\\Uninstall\\*', "
+            + "'HKCU:\\Software\\Microsoft\\Windows\\CurrentVersion\\Uninstall\\*' | "
+            + "Where-Object { $_.DisplayName -and $_.DisplayName.Length -gt 0 } | Sort-Object DisplayName | "
+            + "ForEach-Object { [ordered]@{ DisplayName = [string]$_.DisplayName; DisplayVersion = [string]$_.DisplayVersion; "
+            + "Publisher = [string]$_.Publisher; InstallDate = [string]$_.InstallDate } })",
+        "$r.store = @(Get-AppxPackage -AllUsers | Where-Object { $_.Name -notmatch 'Microsoft\\.|Windows\\.' -and $_.Name } | "
+            + "ForEach-Object { [ordered]@{ DisplayName = [string]$_.Name; DisplayVersion = [string]$_.Version; "
+            + "Publisher = [string]$_.Publisher } })",
+        "$r | ConvertTo-Json -Compress -Depth 4");
+
+    private static ProcesoSondeo proceso;
+    private static Resultado ultimo;
+    private static long obtenidoEn;
+
+    private SondeoWindows() {} // Utility class
+
+    /** Documento devuelto por el script. */
+    public static class Resultado {
+        public String sistema;
+        public String fabricante;
+        public List<Integer> chasis = new ArrayList<>();
+        public List<Aplicacion> registro = new ArrayList<>();
+        public List<Aplicacion> store = new ArrayList<>();
+    }
+
+    /** Aplicación del registro o del Store. */
+    public static class Aplicacion {
+        public String DisplayName;
+        public String DisplayVersion;
+        public String Publisher;
+        public String InstallDate;
+    }
+
+    /**
+     * Devuelve el sondeo vigente o ejecuta uno nuevo. Si el script falla devuelve un
+     * resultado vacío (cada campo usa entonces su valor por defecto); los fallos no se
+     * guardan, así la siguiente consulta vuelve a intentarlo.
+     */
+    public static synchronized Resultado obtener() {
+        long ahora = System.currentTimeMillis();
+        if (ultimo != null && ahora - obtenidoEn < VIGENCIA_MS) return ultimo;
+
+        long inicio = System.nanoTime();
+        try {
+            ultimo = analizar(getProceso().ejecutar(SCRIPT, TIMEOUT_MS));
+            obtenidoEn = System.currentTimeMillis();
+            logger.debug("[Sondeo] Sondeo de Windows en " + (System.nanoTime() - inicio) / 1_000_000 + " ms");
+            return ultimo;
+        } catch (Exception e) {
+            logger.warn("[Sondeo] Falló el sondeo de Windows: " + e.getMessage());
+            return new Resultado();
+        }
+    }
+
+    /**
+     * Interpreta la salida del script: la última línea que empieza por '{' es el JSON
+     * (antes puede haber avisos del intérprete).
+     */
+    static Resultado analizar(String salida) throws Exception {
+        String json = null;
+        for (String linea : salida.split("\\R")) {
+            if (linea.trim().startsWith("{")) json = linea.trim();
+        }
+        if (json == null) throw new IllegalStateException("El sondeo no devolvió JSON");
+        Resultado r = mapper.readValue(json, Resultado.class);
+        if (r.chasis == null) r.chasis = new ArrayList<>();
+        if (r.registro == null) r.registro = new ArrayList<>();
+        if (r.store == null) r.store = new ArrayList<>();
+        return r;
+    }
+
+    /**
+     * Ejecuta un script suelto en el mismo intérprete (p. ej. la versión de un ejecutable).
+     *
+     * @return Salida del script, o null si falló
+     */
+    public static String ejecutar(String script, long timeoutMs) {
+        ProcesoSondeo p;
+        synchronized (SondeoWindows.class) {
+            p = getProceso();
+        }
+        try {
+            return p.ejecutar(script, timeoutMs);
+        } catch (Exception e) {
+            logger.debug("[Sondeo] Script fallido: " + e.getMessage());
+            return null;
+        }
+    }
+
+    /** Sustituye el intérprete (p. ej. por {@link ProcesoSondeo#fijo}) y descarta el resultado vigente. */
+    public static synchronized void setProceso(ProcesoSondeo nuevo) {
+        if (proceso != null) proceso.cerrar();
+        proceso = nuevo;
+        ultimo = null;
+    }
+
+    private static ProcesoSondeo getProceso() {
+        if (proceso == null) proceso = new ShellPowerShell();
+        return proceso;
+    }
+}
@@ -54,6 +54,7 @@ import java.util.zip.ZipOutputStream;
 import java.util.zip.ZipInputStream;
 
 import inventario.fx.database.DatabaseManager;
+import inventario.fx.security.CacheClavesCifrado;
 
 /**
  * Panel de Administración - Ventana Independiente
@@ -3434,10 +3435,9 @@ public class AdminPanelFX {
                     // Intentar abrir con contraseña (Excel cifrado)
                     try {
                         POIFSFileSystem fs = new POIFSFileSystem(archivo.toFile(), true);
-                        EncryptionInfo info = new EncryptionInfo(fs);
-                        Decryptor d = info.getDecryptor();
+                        Decryptor d = CacheClavesCifrado.desbloquear(new EncryptionInfo(fs), pass);
                         
-                        if (d.verifyPassword(pass)) {
+                        if (d != null) {
                             InputStream dataStream = d.getDataStream(fs);
                             wb = new XSSFWorkbook(dataStream);
                             dataStream.close();
@@ -3819,9 +3819,15 @@ public class AdminPanelFX {
                     confirm.setContentText("Se eliminaran " + todosLogs.size() + " registros.");
                     confirm.showAndWait().ifPresent(response -> {
                         if (response == ButtonType.OK) {
-                            AdminManager.limpiarLogs();
-                            dialog.close();
-                            mostrarMensaje("Completado", "Registros eliminados", "#10B981");
+                            btnLimpiar.setDisable(true);
+                            // Borrado en SQLite fuera del hilo de JavaFX
+                            new Thread(() -> {
+                                AdminManager.limpiarLogs();
+                                Platform.runLater(() -> {
+                                    dialog.close();
+                                    mostrarMensaje("Completado", "Registros eliminados", "#10B981");
+                                });
+                            }).start();
                         }
                     });
                 });
@@ -4455,95 +4461,106 @@ public class AdminPanelFX {
                     return 0;
                 }
                 
-                // BATCH INSERT para mayor eficiencia
-                try (Connection conn = DatabaseManager.getConnection();
-                     PreparedStatement stmt = conn.prepareStatement(
-                         "INSERT INTO inventarios (proyecto_id, fecha, usuario, hostname, sistema, " +
-                         "fabricante, modelo, serie, placa, procesador, tarjeta_grafica, " +
-                         "memoria_ram, disco_duro, num_discos, ip, fecha_escaneo) " +
-                         "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)")) {
-                    
-                    int batchCount = 0;
-                    
-                    for (int i = filaInicio; i <= filaFin; i++) {
-                        org.apache.poi.ss.usermodel.Row fila = hoja.getRow(i);
-                        if (fila == null) continue;
-                        
-                        // Leer columnas del Excel
-                        String fecha = getCellValue(fila, 0);
-                        String usuario = getCellValue(fila, 1);
-                        String hostname = getCellValue(fila, 2);
-                        String sistema = getCellValue(fila, 3);
-                        String fabricante = getCellValue(fila, 4);
-                        String modelo = getCellValue(fila, 5);
-                        String serie = getCellValue(fila, 6);
-                        String placa = getCellValue(fila, 7);
-                        String procesador = getCellValue(fila, 8);
-                        String tarjetaGrafica = getCellValue(fila, 9);
-                        String ram = getCellValue(fila, 10);
-                        String discoDuro = getCellValue(fila, 11);
-                        String numDiscos = getCellValue(fila, 12);
-                        String ip = getCellValue(fila, 13);
-                        
-                        // Validar que al menos tenga sistema o modelo
-                        if ((sistema == null || sistema.trim().isEmpty()) && 
-                            (modelo == null || modelo.trim().isEmpty())) {
-                            continue; // Saltar filas vacías
-                        }
-                        
-                        // Agregar al batch
-                        stmt.setString(1, proyectoId);
-                        stmt.setString(2, fecha != null ? fecha : "");
-                        stmt.setString(3, usuario != null ? usuario : "");
-                        stmt.setString(4, hostname != null ? hostname : "");
-                        stmt.setString(5, sistema != null ? sistema : "");
-                        stmt.setString(6, fabricante != null ? fabricante : "");
-                        stmt.setString(7, modelo != null ? modelo : "");
-                        stmt.setString(8, serie != null ? serie : "");
-                        stmt.setString(9, placa != null ? placa : "");
-                        stmt.setString(10, procesador != null ? procesador : "");
-                        stmt.setString(11, tarjetaGrafica != null ? tarjetaGrafica : "");
-                        stmt.setString(12, ram != null ? ram : "");
-                        stmt.setString(13, discoDuro != null ? discoDuro : "");
-                        stmt.setString(14, numDiscos != null ? numDiscos : "1");
-                        stmt.setString(15, ip != null ? ip : "");
-                        stmt.setString(16, java.time.LocalDateTime.now().toString());
-                        
-                        stmt.addBatch();
-                        batchCount++;
-                        
-                        // Log del primer equipo
-                        if (batchCount == 1) {
-                            System.out.println("    → Primer equipo:");
-                            System.out.println("        Sistema: " + sistema);
-                            System.out.println("        Modelo: " + modelo);
-                            System.out.println("        CPU: " + procesador);
-                            System.out.flush();
-                        }
-                    }
-                    
-                    if (batchCount > 0) {
-                        System.out.println("    → Ejecutando batch insert de " + batchCount + " equipos...");
-                        System.out.flush();
-                        
-                        int[] results = stmt.executeBatch();
-                        equiposImportados = results.length;
-                        
-                        System.out.println("    ✓ " + equiposImportados + " equipos insertados en SQLite");
-                        System.out.flush();
-                    }
-                    
+                // BATCH INSERT para mayor eficiencia, en una transacción del escritor serializado
+                try {
+                    equiposImportados = DatabaseManager.executeWithRetry(conn -> importarFilasSistema(conn, hoja, filaInicio, filaFin, proyectoId));
                 } catch (SQLException e) {
                     AppLogger.getLogger(AdminPanelFX.class).error("Error SQL al insertar: " + e.getMessage(), e);
                 }
             }
-            
+
         } catch (Exception e) {
             AppLogger.getLogger(AdminPanelFX.class).error("Error al importar desde Excel: " + e.getMessage(), e);
         }
-        
+
         return equiposImportados;
     }
+
+    /**
+     * Inserta en lote las filas de la hoja SystemInfo (se repite entera si el escritor reintenta).
+     *
+     * @return Equipos insertados
+     */
+    private static int importarFilasSistema(Connection conn, org.apache.poi.ss.usermodel.Sheet hoja,
+                                            int filaInicio, int filaFin, String proyectoId) throws SQLException {
+        try (PreparedStatement stmt = conn.prepareStatement(
+                 "INSERT INTO inventarios (proyecto_id, fecha, usuario, hostname, sistema, " +
+                 "fabricante, modelo, serie, placa, procesador, tarjeta_grafica, " +
+                 "memoria_ram, disco_duro, num_discos, ip, fecha_escaneo) " +
+                 "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)")) {
+
+            int batchCount = 0;
+            
+            for (int i = filaInicio; i <= filaFin; i++) {
+                org.apache.poi.ss.usermodel.Row fila = hoja.getRow(i);
+                if (fila == null) continue;
+                
+                // Leer columnas del Excel
+                String fecha = getCellValue(fila, 0);
+                String usuario = getCellValue(fila, 1);
+                String hostname = getCellValue(fila, 2);
+                String sistema = getCellValue(fila, 3);
+                String fabricante = getCellValue(fila, 4);
+                String modelo = getCellValue(fila, 5);
+                String serie = getCellValue(fila, 6);
+                String placa = getCellValue(fila, 7);
+                String procesador = getCellValue(fila, 8);
+                String tarjetaGrafica = getCellValue(fila, 9);
+                String ram = getCellValue(fila, 10);
+                String discoDuro = getCellValue(fila, 11);
+                String numDiscos = getCellValue(fila, 12);
+                String ip = getCellValue(fila, 13);
+                
+                // Validar que al menos tenga sistema o modelo
+                if ((sistema == null || sistema.trim().isEmpty()) && 
+                    (modelo == null || modelo.trim().isEmpty())) {
+                    continue; // Saltar filas vacías
+                }
+                
+                // Agregar al batch
+                stmt.setString(1, proyectoId);
+                stmt.setString(2, fecha != null ? fecha : "");
+                stmt.setString(3, usuario != null ? usuario : "");
+                stmt.setString(4, hostname != null ? hostname : "");
+                stmt.setString(5, sistema != null ? sistema : "");
+                stmt.setString(6, fabricante != null ? fabricante : "");
+                stmt.setString(7, modelo != null ? modelo : "");
+                stmt.setString(8, serie != null ? serie : "");
+                stmt.setString(9, placa != null ? placa : "");
+                stmt.setString(10, procesador != null ? procesador : "");
+                stmt.setString(11, tarjetaGrafica != null ? tarjetaGrafica : "");
+                stmt.setString(12, ram != null ? ram : "");
+                stmt.setString(13, discoDuro != null ? discoDuro : "");
+                stmt.setString(14, numDiscos != null ? numDiscos : "1");
+                stmt.setString(15, ip != null ? ip : "");
+                stmt.setString(16, java.time.LocalDateTime.now().toString());
+                
+                stmt.addBatch();
+                batchCount++;
+                
+                // Log del primer equipo
+                if (batchCount == 1) {
+                    System.out.println("    → Primer equipo:");
+                    System.out.println("        Sistema: " + sistema);
+                    System.out.println("        Modelo: " + modelo);
+                    System.out.println("        CPU: " + procesador);
+                    System.out.flush();
+                }
+            }
+            
+            if (batchCount > 0) {
+                System.out.println("    → Ejecutando batch insert de " + batchCount + " equipos...");
+                System.out.flush();
+                
+                int insertados = stmt.executeBatch().length;
+
+                System.out.println("    ✓ " + insertados + " equipos insertados en SQLite");
+                System.out.flush();
+                return insertados;
+            }
+            return 0;
+        }
+    }
     
     /**
      * Helper para obtener valor de celda como String
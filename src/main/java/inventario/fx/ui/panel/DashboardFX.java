@@ -474,18 +474,17 @@ public class DashboardFX extends InventarioFXBase {
         );
         
         try {
-            XSSFWorkbook wb = abrirCifradoProyecto(rutaExcel);
-            if (wb != null) {
-                Sheet hojaSystemInfo = wb.getSheet("SystemInfo");
-                if (hojaSystemInfo != null && hojaSystemInfo.getLastRowNum() >= 2) {
+            Map<String, DatosHoja> hojas = leerHojasTabla(rutaExcel);
+            if (hojas != null) {
+                DatosHoja hojaSystemInfo = hojas.get("SystemInfo");
+                if (hojaSystemInfo != null && hojaSystemInfo.ultimaFila >= 2) {
                     contenidoSistema = crearContenidoTabla(hojaSystemInfo, rutaExcel);
                 }
 
-                Sheet hojaApps = wb.getSheet("InstalledApps");
-                if (hojaApps != null && hojaApps.getLastRowNum() >= 1) {
+                DatosHoja hojaApps = hojas.get("InstalledApps");
+                if (hojaApps != null && hojaApps.ultimaFila >= 1) {
                     contenidoApps = crearContenidoTabla(hojaApps, rutaExcel);
                 }
-                wb.close();
             } else {
                 logger.error("[Dashboard] No se pudo descifrar el archivo: " + rutaExcel);
                 VBox errorBox = crearPlaceholderTablaVacia(
@@ -672,49 +671,71 @@ public class DashboardFX extends InventarioFXBase {
         }
     }
     
+    /** Filas de una hoja leídas por streaming para las tablas del dashboard */
+    private static class DatosHoja {
+        final String nombre;
+        List<String> encabezados;
+        final List<List<String>> filas = new ArrayList<>();
+        int ultimaFila = -1;
+
+        DatosHoja(String nombre) {
+            this.nombre = nombre;
+        }
+    }
+
+    /**
+     * Lee las hojas SystemInfo e InstalledApps fila a fila (sin construir el workbook).
+     * @return Hojas encontradas por nombre, o null si el archivo no se pudo descifrar
+     */
+    private static Map<String, DatosHoja> leerHojasTabla(Path rutaExcel) {
+        Map<String, DatosHoja> hojas = new HashMap<>();
+        boolean leido = leerFilasCifradoProyecto(rutaExcel, Set.of("SystemInfo", "InstalledApps"),
+            (hoja, numFila, celdas) -> {
+                DatosHoja datos = hojas.computeIfAbsent(hoja, DatosHoja::new);
+                datos.ultimaFila = numFila;
+                if (numFila == 1) {
+                    datos.encabezados = new ArrayList<>(celdas);
+                } else if (numFila >= 2) {
+                    datos.filas.add(new ArrayList<>(celdas));
+                }
+            });
+        return leido ? hojas : null;
+    }
+
+    /**
+     * Cuenta las filas con datos (desde la fila 2) de SystemInfo e InstalledApps.
+     * @return {equipos, aplicaciones}
+     */
+    private static int[] contarRegistrosStreaming(Path rutaExcel) {
+        int[] totales = new int[2];
+        leerFilasCifradoProyecto(rutaExcel, Set.of("SystemInfo", "InstalledApps"), (hoja, numFila, celdas) -> {
+            if (numFila >= 2) totales[hoja.equals("SystemInfo") ? 0 : 1]++;
+        });
+        return totales;
+    }
+
     /** Crear contenido de tabla para las tabs exóticas con sistema de filtros avanzado */
-    private static VBox crearContenidoTabla(Sheet hoja, Path rutaExcel) {
+    private static VBox crearContenidoTabla(DatosHoja hoja, Path rutaExcel) {
         VBox contenido = new VBox(12);
         contenido.setPadding(new Insets(16));
         contenido.setStyle("-fx-background-color: transparent;");
         VBox.setVgrow(contenido, Priority.ALWAYS);
         
-        Row headerRow = hoja.getRow(1);
-        if (headerRow == null) {
+        if (hoja.encabezados == null) {
             contenido.getChildren().add(new Label("Sin datos"));
             return contenido;
         }
         
-        int columnas = headerRow.getLastCellNum();
-        List<String> encabezados = new ArrayList<>();
-        for (int i = 0; i < columnas; i++) {
-            org.apache.poi.ss.usermodel.Cell cell = headerRow.getCell(i);
-            encabezados.add(cell != null ? cell.getStringCellValue() : "Columna " + (i + 1));
-        }
+        int columnas = hoja.encabezados.size();
+        List<String> encabezados = new ArrayList<>(hoja.encabezados);
 
         // Cargar datos primero para obtener valores únicos
+        // (las filas vacías ya las descarta el lector; fechas y números llegan formateados)
         ObservableList<ObservableList<String>> datosOriginales = FXCollections.observableArrayList();
-        int filas = hoja.getLastRowNum();
-        java.time.format.DateTimeFormatter sdf = java.time.format.DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
-        
-        for (int i = 2; i <= filas; i++) {
-            Row row = hoja.getRow(i);
-            if (row == null || esFilaVacia(row)) continue;  // Saltar filas nulas o vacías
-
+        for (List<String> celdas : hoja.filas) {
             ObservableList<String> fila = FXCollections.observableArrayList();
             for (int j = 0; j < columnas; j++) {
-                org.apache.poi.ss.usermodel.Cell cell = row.getCell(j, Row.MissingCellPolicy.CREATE_NULL_AS_BLANK);
-                String valor = "";
-                if (cell.getCellType() == CellType.STRING) {
-                    valor = cell.getStringCellValue();
-                } else if (cell.getCellType() == CellType.NUMERIC) {
-                    if (DateUtil.isCellDateFormatted(cell)) {
-                        valor = cell.getDateCellValue().toInstant().atZone(java.time.ZoneId.systemDefault()).toLocalDateTime().format(sdf);
-                    } else {
-                        valor = String.valueOf((int) cell.getNumericCellValue());
-                    }
-                }
-                fila.add(valor);
+                fila.add(j < celdas.size() ? celdas.get(j) : "");
             }
             datosOriginales.add(fila);
         }
@@ -1188,7 +1209,7 @@ public class DashboardFX extends InventarioFXBase {
                 editarItem.setOnAction(e -> {
                     ObservableList<String> filaSeleccionada = row.getItem();
                     if (filaSeleccionada != null) {
-                        editarRegistro(rutaExcel, hoja, encabezados, filaSeleccionada, row.getIndex() + 2, tabla); // +2 porque Excel empieza en 1 y hay header
+                        editarRegistro(rutaExcel, hoja.nombre, encabezados, filaSeleccionada, row.getIndex() + 2, tabla); // +2 porque Excel empieza en 1 y hay header
                     }
                 });
                 
@@ -1199,7 +1220,7 @@ public class DashboardFX extends InventarioFXBase {
                 eliminarUnoItem.setOnAction(e -> {
                     ObservableList<String> filaSeleccionada = row.getItem();
                     if (filaSeleccionada != null) {
-                        eliminarRegistroIndividual(rutaExcel, hoja, datosOriginales, filaSeleccionada, row.getIndex() + 2);
+                        eliminarRegistroIndividual(rutaExcel, hoja.nombre, datosOriginales, filaSeleccionada, row.getIndex() + 2);
                     }
                 });
                 
@@ -1210,7 +1231,7 @@ public class DashboardFX extends InventarioFXBase {
                 eliminarSeleccionadosItem.setOnAction(e -> {
                     ObservableList<ObservableList<String>> filasSeleccionadas = tabla.getSelectionModel().getSelectedItems();
                     if (filasSeleccionadas != null && !filasSeleccionadas.isEmpty()) {
-                        eliminarRegistrosMultiples(rutaExcel, hoja, datosOriginales, new ArrayList<>(filasSeleccionadas));
+                        eliminarRegistrosMultiples(rutaExcel, hoja.nombre, datosOriginales, new ArrayList<>(filasSeleccionadas));
                     }
                 });
                 
@@ -1221,7 +1242,7 @@ public class DashboardFX extends InventarioFXBase {
                 eliminarTodoGrupoItem.setOnAction(e -> {
                     ObservableList<String> filaSeleccionada = row.getItem();
                     if (filaSeleccionada != null) {
-                        eliminarRegistro(rutaExcel, hoja, datosOriginales, filaSeleccionada, row.getIndex() + 2);
+                        eliminarRegistro(rutaExcel, hoja.nombre, datosOriginales, filaSeleccionada, row.getIndex() + 2);
                     }
                 });
                 
@@ -1875,33 +1896,6 @@ public class DashboardFX extends InventarioFXBase {
         }
     }
 
-    /** Contar registros de una hoja (solo filas con datos reales) */
-    private static int contarRegistros(Sheet hoja) {
-        return contarFilasConDatos(hoja, 2);
-    }
-    
-    /**
-     * Cuenta las filas que tienen datos reales (no vacías) en una hoja
-     * @param hoja La hoja de Excel a analizar
-     * @param filaInicio La fila desde donde comenzar a contar (típicamente 2 para saltar título y encabezados)
-     * @return El número de filas con datos
-     */
-    private static int contarFilasConDatos(Sheet hoja, int filaInicio) {
-        if (hoja == null) return 0;
-        
-        int count = 0;
-        int lastRow = hoja.getLastRowNum();
-        
-        for (int i = filaInicio; i <= lastRow; i++) {
-            Row row = hoja.getRow(i);
-            if (row != null && !esFilaVacia(row)) {
-                count++;
-            }
-        }
-        
-        return count;
-    }
-
     /** Determinar el tipo de columna para mostrar iconos */
     private static String determinarTipoColumna(String headerLower) {
         if (headerLower.contains("usuario") || headerLower.contains("user")) {
@@ -2657,15 +2651,10 @@ public class DashboardFX extends InventarioFXBase {
         
         Platform.runLater(() -> {
             try {
-                XSSFWorkbook wb = abrirCifradoProyecto(rutaExcel);
-                if (wb != null) {
-                    Sheet hojaSystem = wb.getSheet("SystemInfo");
-                    int totalEquipos = hojaSystem != null ? contarFilasConDatos(hojaSystem, 2) : 0;
-                    
-                    Sheet hojaApps = wb.getSheet("InstalledApps");
-                    int totalApps = hojaApps != null ? contarFilasConDatos(hojaApps, 2) : 0;
-                    
-                    wb.close();
+                if (Files.exists(rutaExcel)) {
+                    int[] totales = contarRegistrosStreaming(rutaExcel);
+                    int totalEquipos = totales[0];
+                    int totalApps = totales[1];
                     
                     // Animar el cambio de valores (parsear quitando separadores de miles)
                     int valorActualEquipos = parsearNumeroLabel(lblTarjetaEquipos.getText());
@@ -2694,21 +2683,10 @@ public class DashboardFX extends InventarioFXBase {
         int totalApps = 0;
 
         try {
-            XSSFWorkbook wb = abrirCifradoProyecto(rutaExcel);
-            if (wb != null) {
-                // Contar filas reales con datos en SystemInfo (fila 0: título, fila 1: encabezados, fila 2+: datos)
-                Sheet hojaSystem = wb.getSheet("SystemInfo");
-                if (hojaSystem != null) {
-                    totalEquipos = contarFilasConDatos(hojaSystem, 2);
-                }
-                
-                // Contar filas reales con datos en InstalledApps
-                Sheet hojaApps = wb.getSheet("InstalledApps");
-                if (hojaApps != null) {
-                    totalApps = contarFilasConDatos(hojaApps, 2);
-                }
-                wb.close();
-            }
+            // Contar filas reales con datos (fila 0: título, fila 1: encabezados, fila 2+: datos)
+            int[] totales = contarRegistrosStreaming(rutaExcel);
+            totalEquipos = totales[0];
+            totalApps = totales[1];
         } catch (Exception e) {
             logger.error("Error al cargar estadísticas", e);
         }
@@ -3636,7 +3614,7 @@ public class DashboardFX extends InventarioFXBase {
             @Override
             protected Void call() throws Exception {
                 updateMessage("Descifrando archivo...");
-                XSSFWorkbook wb = abrirCifradoProyecto(rutaOriginal);
+                XSSFWorkbook wb = abrirCifradoProyectoParaEscribir(rutaOriginal);
                 if (wb == null) throw new Exception("No se pudo abrir el archivo");
 
                 updateMessage("Guardando archivo...");
@@ -3884,7 +3862,7 @@ public class DashboardFX extends InventarioFXBase {
      * Para eliminar solo esta línea de la tabla.
      */
     // MÉTODO REESCRITO DESDE CERO: Elimina una fila individual de Excel y de la tabla, robusto y seguro
-    private static void eliminarRegistroIndividual(Path rutaExcel, Sheet hoja, 
+    private static void eliminarRegistroIndividual(Path rutaExcel, String nombreHoja, 
                                                    ObservableList<ObservableList<String>> datosOriginales, 
                                                    ObservableList<String> filaSeleccionada, int numeroFila) {
         StringBuilder preview = new StringBuilder();
@@ -3903,14 +3881,14 @@ public class DashboardFX extends InventarioFXBase {
         );
         
         if (confirmar) {
-            try (XSSFWorkbook wb = abrirCifradoProyecto(rutaExcel)) {
+            try (XSSFWorkbook wb = abrirCifradoProyectoParaEscribir(rutaExcel)) {
                     if (wb == null) {
                         NotificacionesFX.error(contentArea, "Error", "No se pudo abrir el archivo.");
                         return;
                     }
-                    Sheet hojaActualizada = wb.getSheet(hoja.getSheetName());
+                    Sheet hojaActualizada = wb.getSheet(nombreHoja);
                     if (hojaActualizada == null) {
-                        NotificacionesFX.error(contentArea, "Error", "No se encontró la hoja: " + hoja.getSheetName());
+                        NotificacionesFX.error(contentArea, "Error", "No se encontró la hoja: " + nombreHoja);
                         return;
                     }
                     int lastRow = hojaActualizada.getLastRowNum();
@@ -3951,12 +3929,12 @@ public class DashboardFX extends InventarioFXBase {
     /**
      * Elimina un registro de la hoja de Excel (TODO EL EQUIPO con sus aplicaciones)
      */
-    private static void eliminarRegistro(Path rutaExcel, Sheet hoja, ObservableList<ObservableList<String>> datosOriginales, 
+    private static void eliminarRegistro(Path rutaExcel, String nombreHoja, ObservableList<ObservableList<String>> datosOriginales, 
                                          ObservableList<String> filaSeleccionada, int numeroFila) {
         
         // Determinar si es hoja Sistema o Aplicaciones
-        final boolean esHojaSistema = hoja.getSheetName().equalsIgnoreCase("SystemInfo") || hoja.getSheetName().equalsIgnoreCase("Sistema");
-        final boolean esHojaAplicaciones = hoja.getSheetName().equalsIgnoreCase("Aplicaciones");
+        final boolean esHojaSistema = nombreHoja.equalsIgnoreCase("SystemInfo") || nombreHoja.equalsIgnoreCase("Sistema");
+        final boolean esHojaAplicaciones = nombreHoja.equalsIgnoreCase("Aplicaciones");
         
         // Buscar el ID Grupo para eliminar las aplicaciones
         final String idGrupoParaEliminar;
@@ -4079,7 +4057,7 @@ public class DashboardFX extends InventarioFXBase {
                 XSSFWorkbook wb = null;
                 try {
                     // Abrir el workbook
-                    wb = abrirCifradoProyecto(rutaExcel);
+                    wb = abrirCifradoProyectoParaEscribir(rutaExcel);
                     if (wb == null) {
                         NotificacionesFX.error(contentArea, "Error",
                             "No se pudo abrir el archivo.");
@@ -4087,7 +4065,7 @@ public class DashboardFX extends InventarioFXBase {
                     }
                     
                     // Obtener la hoja actualizada
-                    Sheet hojaActualizada = wb.getSheet(hoja.getSheetName());
+                    Sheet hojaActualizada = wb.getSheet(nombreHoja);
                     
                     int registrosEliminados = 1; // Al menos el registro actual
                     
@@ -4182,7 +4160,7 @@ public class DashboardFX extends InventarioFXBase {
                             // Recargar desde el Excel actualizado
                             XSSFWorkbook wbReload = abrirCifradoProyecto(rutaExcel);
                             if (wbReload != null) {
-                                Sheet hojaReload = wbReload.getSheet(hoja.getSheetName());
+                                Sheet hojaReload = wbReload.getSheet(nombreHoja);
                                 if (hojaReload != null) {
                                     java.time.format.DateTimeFormatter sdfReload = java.time.format.DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
                                     int columnasReload = hojaReload.getRow(1).getLastCellNum();
@@ -4420,7 +4398,7 @@ public class DashboardFX extends InventarioFXBase {
     /**
      * Edita un registro de la hoja de Excel
      */
-    private static void editarRegistro(Path rutaExcel, Sheet hoja, List<String> encabezados, 
+    private static void editarRegistro(Path rutaExcel, String nombreHoja, List<String> encabezados, 
                                        ObservableList<String> filaSeleccionada, int numeroFila,
                                        TableView<ObservableList<String>> tabla) {
         // Crear diálogo de edición con diseño moderno
@@ -4646,7 +4624,7 @@ public class DashboardFX extends InventarioFXBase {
         btnGuardar.setOnAction(e -> {
             try {
                 // Abrir el workbook
-                XSSFWorkbook wb = abrirCifradoProyecto(rutaExcel);
+                XSSFWorkbook wb = abrirCifradoProyectoParaEscribir(rutaExcel);
                 if (wb == null) {
                     NotificacionesFX.error(contentArea, "Error",
                         "No se pudo abrir el archivo.");
@@ -4654,7 +4632,7 @@ public class DashboardFX extends InventarioFXBase {
                 }
                 
                 // Obtener la hoja actualizada
-                Sheet hojaActualizada = wb.getSheet(hoja.getSheetName());
+                Sheet hojaActualizada = wb.getSheet(nombreHoja);
                 Row fila = hojaActualizada.getRow(numeroFila);
                 
                 if (fila == null) {
@@ -4720,7 +4698,7 @@ public class DashboardFX extends InventarioFXBase {
     /**
      * Elimina múltiples registros seleccionados (solo las filas, sin tocar aplicaciones relacionadas)
      */
-    private static void eliminarRegistrosMultiples(Path rutaExcel, Sheet hoja, 
+    private static void eliminarRegistrosMultiples(Path rutaExcel, String nombreHoja, 
                                                    ObservableList<ObservableList<String>> datosOriginales,
                                                    List<ObservableList<String>> filasSeleccionadas) {
         if (filasSeleccionadas == null || filasSeleccionadas.isEmpty()) {
@@ -4734,17 +4712,17 @@ public class DashboardFX extends InventarioFXBase {
         if (confirmar) {
                 XSSFWorkbook wb = null;
                 try {
-                    wb = abrirCifradoProyecto(rutaExcel);
+                    wb = abrirCifradoProyectoParaEscribir(rutaExcel);
                     if (wb == null) {
                         NotificacionesFX.error(contentArea, "Error",
                             "No se pudo abrir el archivo.");
                         return;
                     }
                     
-                    Sheet hojaActualizada = wb.getSheet(hoja.getSheetName());
+                    Sheet hojaActualizada = wb.getSheet(nombreHoja);
                     if (hojaActualizada == null) {
                         NotificacionesFX.error(contentArea, "Error",
-                            "No se encontró la hoja: " + hoja.getSheetName());
+                            "No se encontró la hoja: " + nombreHoja);
                         return;
                     }
                     
@@ -1,4 +1,5 @@
 package inventario.fx.ui.panel;
+import inventario.fx.excel.LectorExcelStreaming;
 import inventario.fx.model.InventarioFXBase;
 import inventario.fx.model.TemaManager;
 import inventario.fx.icons.IconosSVG;
@@ -29,8 +30,6 @@ import javafx.scene.shape.*;
 import javafx.scene.text.Font;
 import javafx.scene.text.FontWeight;
 import javafx.util.Duration;
-import org.apache.poi.ss.usermodel.*;
-import org.apache.poi.xssf.usermodel.XSSFWorkbook;
 
 import java.nio.file.Path;
 import java.time.LocalDate;
@@ -2239,169 +2238,128 @@ public class EstadisticasFX extends InventarioFXBase {
         DatosEstadisticas datos = new DatosEstadisticas();
         
         try {
-            XSSFWorkbook wb = abrirCifradoProyecto(rutaExcel);
-            if (wb != null) {
-                // Procesar SystemInfo
-                Sheet hojaSystem = wb.getSheet("SystemInfo");
-                if (hojaSystem != null && hojaSystem.getLastRowNum() >= 2) {
-                    // Obtener índices de columnas desde el header
-                    Row headerRow = hojaSystem.getRow(1);
-                    Map<String, Integer> columnIndex = new HashMap<>();
-                    if (headerRow != null) {
-                        for (int c = 0; c < headerRow.getLastCellNum(); c++) {
-                            Cell cell = headerRow.getCell(c);
-                            if (cell != null) {
-                                columnIndex.put(cell.getStringCellValue().trim(), c);
-                            }
-                        }
+            // Lectura por filas (SAX): no se construye el workbook completo en memoria
+            Map<String, Integer> columnasSistema = new HashMap<>();
+            Map<String, Integer> columnasApps = new HashMap<>();
+            
+            Set<String> hostnames = new HashSet<>();
+            String[] ultimaFecha = {""};
+            Map<String, Integer> conteoPorDia = new TreeMap<>(); // TreeMap para ordenar por fecha
+            Map<String, Integer> conteoApps = new HashMap<>();
+            Map<String, Integer> conteoFabricantes = new HashMap<>();
+            Set<String> appsUnicas = new HashSet<>();
+            
+            boolean leido = InventarioFXBase.leerFilasCifradoProyecto(rutaExcel,
+                Set.of("SystemInfo", "InstalledApps"), (hoja, numFila, celdas) -> {
+                boolean esSistema = hoja.equals("SystemInfo");
+                
+                // Fila 1: encabezados (índices de columnas por nombre)
+                if (numFila == 1) {
+                    Map<String, Integer> columnIndex = esSistema ? columnasSistema : columnasApps;
+                    for (int c = 0; c < celdas.size(); c++) {
+                        columnIndex.put(celdas.get(c).trim(), c);
                     }
+                    return;
+                }
+                if (numFila < 2) return;
+                
+                if (esSistema) {
+                    // Incrementar contador de equipos
+                    datos.totalEquipos++;
                     
-                    int colFecha = columnIndex.getOrDefault("Fecha", 0);
-                    int colSO = columnIndex.getOrDefault("Sistema Operativo", 3);
-                    int colHostname = columnIndex.getOrDefault("Hostname", 2);
-                    int colMarca = columnIndex.getOrDefault("Marca", 5);
-                    int colTipo = columnIndex.getOrDefault("Tipo Dispositivo", 6);
-                    int colCPU = columnIndex.getOrDefault("CPU", 8);
-                    int colRAM = columnIndex.getOrDefault("RAM", 10);
-                    
-                    // Contar solo filas con datos reales
-                    datos.totalEquipos = 0;
-                    
-                    Set<String> hostnames = new HashSet<>();
-                    String ultimaFecha = "";
-                    Map<String, Integer> conteoPorDia = new TreeMap<>(); // TreeMap para ordenar por fecha
-                    
-                    // Recorrer todos los equipos
-                    for (int i = 2; i <= hojaSystem.getLastRowNum(); i++) {
-                        Row row = hojaSystem.getRow(i);
-                        if (row == null || esFilaVacia(row)) continue;
-                        
-                        // Incrementar contador de equipos
-                        datos.totalEquipos++;
-                        
-                        // Sistema Operativo
-                        String os = obtenerValorCelda(row.getCell(colSO));
-                        if (!os.isEmpty()) {
-                            String osSimplificado = simplificarNombreOS(os);
-                            datos.distribucionSO.merge(osSimplificado, 1, Integer::sum);
-                        }
-                        
-                        // Marca del equipo
-                        String marca = obtenerValorCelda(row.getCell(colMarca));
-                        if (!marca.isEmpty()) {
-                            datos.distribucionMarca.merge(marca, 1, Integer::sum);
-                        }
-                        
-                        // Tipo de dispositivo
-                        String tipo = obtenerValorCelda(row.getCell(colTipo));
-                        if (!tipo.isEmpty()) {
-                            datos.distribucionTipo.merge(tipo, 1, Integer::sum);
-                        }
-                        
-                        // Hostname (para contar únicos)
-                        String hostname = obtenerValorCelda(row.getCell(colHostname));
-                        if (!hostname.isEmpty()) {
-                            hostnames.add(hostname.toLowerCase());
-                        }
-                        
-                        // Fecha (obtener la más reciente y agrupar por día)
-                        String fecha = obtenerValorCelda(row.getCell(colFecha));
-                        if (!fecha.isEmpty()) {
-                            ultimaFecha = fecha;
-                            // Extraer fecha para evolución
-                            String diaKey = extraerFechaDia(fecha);
-                            if (!diaKey.isEmpty()) {
-                                conteoPorDia.merge(diaKey, 1, Integer::sum);
-                            }
-                        }
+                    // Sistema Operativo
+                    String os = LectorExcelStreaming.valor(celdas, columnasSistema.getOrDefault("Sistema Operativo", 3)).trim();
+                    if (!os.isEmpty()) {
+                        String osSimplificado = simplificarNombreOS(os);
+                        datos.distribucionSO.merge(osSimplificado, 1, Integer::sum);
                     }
                     
-                    datos.equiposUnicos = hostnames.size();
-                    datos.ultimoScan = ultimaFecha.isEmpty() ? "N/A" : ultimaFecha;
-                    
-                    // Evolución por día - tomar los últimos 10 días con datos
-                    List<Map.Entry<String, Integer>> listaDias = new ArrayList<>(conteoPorDia.entrySet());
-                    int inicio = Math.max(0, listaDias.size() - 10);
-                    for (int i = inicio; i < listaDias.size(); i++) {
-                        Map.Entry<String, Integer> entry = listaDias.get(i);
-                        // Convertir clave de ordenación a formato legible
-                        String diaLegible = formatearDiaLegible(entry.getKey());
-                        datos.evolucionPorDia.put(diaLegible, entry.getValue());
+                    // Marca del equipo
+                    String marca = LectorExcelStreaming.valor(celdas, columnasSistema.getOrDefault("Marca", 5)).trim();
+                    if (!marca.isEmpty()) {
+                        datos.distribucionMarca.merge(marca, 1, Integer::sum);
                     }
                     
-                    // SO principal
-                    datos.soPrincipal = datos.distribucionSO.entrySet().stream()
-                        .max(Map.Entry.comparingByValue())
-                        .map(Map.Entry::getKey)
-                        .orElse("N/A");
-                }
-                
-                // Procesar InstalledApps
-                Sheet hojaApps = wb.getSheet("InstalledApps");
-                if (hojaApps != null && hojaApps.getLastRowNum() >= 1) {
-                    // Obtener índices de columnas desde el header (fila 1, no 0)
-                    Row headerRow = hojaApps.getRow(1);
-                    Map<String, Integer> columnIndex = new HashMap<>();
-                    if (headerRow != null) {
-                        for (int c = 0; c < headerRow.getLastCellNum(); c++) {
-                            Cell cell = headerRow.getCell(c);
-                            if (cell != null) {
-                                columnIndex.put(cell.getStringCellValue().trim(), c);
-                            }
-                        }
+                    // Tipo de dispositivo
+                    String tipo = LectorExcelStreaming.valor(celdas, columnasSistema.getOrDefault("Tipo Dispositivo", 6)).trim();
+                    if (!tipo.isEmpty()) {
+                        datos.distribucionTipo.merge(tipo, 1, Integer::sum);
                     }
                     
-                    int colApp = columnIndex.getOrDefault("Aplicación", 4);
-                    int colFabricante = columnIndex.getOrDefault("Fabricante", 6);
-                    
-                    Map<String, Integer> conteoApps = new HashMap<>();
-                    Map<String, Integer> conteoFabricantes = new HashMap<>();
-                    Set<String> appsUnicas = new HashSet<>();
+                    // Hostname (para contar únicos)
+                    String hostname = LectorExcelStreaming.valor(celdas, columnasSistema.getOrDefault("Hostname", 2)).trim();
+                    if (!hostname.isEmpty()) {
+                        hostnames.add(hostname.toLowerCase());
+                    }
                     
-                    // Comenzar desde fila 2 para saltar encabezados
-                    for (int i = 2; i <= hojaApps.getLastRowNum(); i++) {
-                        Row row = hojaApps.getRow(i);
-                        if (row == null || esFilaVacia(row)) continue;
-                        
-                        // Nombre de la aplicación
-                        String appName = obtenerValorCelda(row.getCell(colApp));
-                        if (!appName.isEmpty()) {
-                            conteoApps.merge(appName, 1, Integer::sum);
-                            appsUnicas.add(appName.toLowerCase());
-                            datos.totalAppsInstalaciones++;
-                        }
-                        
-                        // Fabricante
-                        String fabricante = obtenerValorCelda(row.getCell(colFabricante));
-                        if (!fabricante.isEmpty()) {
-                            String fabSimplificado = simplificarFabricante(fabricante);
-                            conteoFabricantes.merge(fabSimplificado, 1, Integer::sum);
+                    // Fecha (obtener la más reciente y agrupar por día)
+                    String fecha = LectorExcelStreaming.valor(celdas, columnasSistema.getOrDefault("Fecha", 0)).trim();
+                    if (!fecha.isEmpty()) {
+                        ultimaFecha[0] = fecha;
+                        // Extraer fecha para evolución
+                        String diaKey = extraerFechaDia(fecha);
+                        if (!diaKey.isEmpty()) {
+                            conteoPorDia.merge(diaKey, 1, Integer::sum);
                         }
                     }
+                } else {
+                    // Nombre de la aplicación
+                    String appName = LectorExcelStreaming.valor(celdas, columnasApps.getOrDefault("Aplicación", 4)).trim();
+                    if (!appName.isEmpty()) {
+                        conteoApps.merge(appName, 1, Integer::sum);
+                        appsUnicas.add(appName.toLowerCase());
+                        datos.totalAppsInstalaciones++;
+                    }
                     
-                    datos.totalApps = appsUnicas.size();
-                    
-                    // Top apps ordenadas con prioridad por tipo de usuario
-                    datos.topApps = new LinkedHashMap<>();
-                    conteoApps.entrySet().stream()
-                        .sorted((e1, e2) -> {
-                            // Calcular puntuación combinando cantidad e importancia
-                            double puntuacion1 = calcularPuntuacionApp(e1.getKey(), e1.getValue());
-                            double puntuacion2 = calcularPuntuacionApp(e2.getKey(), e2.getValue());
-                            return Double.compare(puntuacion2, puntuacion1); // Orden descendente
-                        })
-                        .limit(10)
-                        .forEach(e -> datos.topApps.put(e.getKey(), e.getValue()));
-                    
-                    // Top fabricantes
-                    datos.topFabricantes = new LinkedHashMap<>();
-                    conteoFabricantes.entrySet().stream()
-                        .sorted(Map.Entry.<String, Integer>comparingByValue().reversed())
-                        .limit(8)
-                        .forEach(e -> datos.topFabricantes.put(e.getKey(), e.getValue()));
+                    // Fabricante
+                    String fabricante = LectorExcelStreaming.valor(celdas, columnasApps.getOrDefault("Fabricante", 6)).trim();
+                    if (!fabricante.isEmpty()) {
+                        String fabSimplificado = simplificarFabricante(fabricante);
+                        conteoFabricantes.merge(fabSimplificado, 1, Integer::sum);
+                    }
                 }
+            });
+            
+            if (leido) {
+                datos.equiposUnicos = hostnames.size();
+                datos.ultimoScan = ultimaFecha[0].isEmpty() ? "N/A" : ultimaFecha[0];
                 
-                wb.close();
+                // Evolución por día - tomar los últimos 10 días con datos
+                List<Map.Entry<String, Integer>> listaDias = new ArrayList<>(conteoPorDia.entrySet());
+                int inicio = Math.max(0, listaDias.size() - 10);
+                for (int i = inicio; i < listaDias.size(); i++) {
+                    Map.Entry<String, Integer> entry = listaDias.get(i);
+                    // Convertir clave de ordenación a formato legible
+                    String diaLegible = formatearDiaLegible(entry.getKey());
+                    datos.evolucionPorDia.put(diaLegible, entry.getValue());
+                }
+                
+                // SO principal
+                datos.soPrincipal = datos.distribucionSO.entrySet().stream()
+                    .max(Map.Entry.comparingByValue())
+                    .map(Map.Entry::getKey)
+                    .orElse("N/A");
+                
+                datos.totalApps = appsUnicas.size();
+                
+                // Top apps ordenadas con prioridad por tipo de usuario
+                datos.topApps = new LinkedHashMap<>();
+                conteoApps.entrySet().stream()
+                    .sorted((e1, e2) -> {
+                        // Calcular puntuación combinando cantidad e importancia
+                        double puntuacion1 = calcularPuntuacionApp(e1.getKey(), e1.getValue());
+                        double puntuacion2 = calcularPuntuacionApp(e2.getKey(), e2.getValue());
+                        return Double.compare(puntuacion2, puntuacion1); // Orden descendente
+                    })
+                    .limit(10)
+                    .forEach(e -> datos.topApps.put(e.getKey(), e.getValue()));
+                
+                // Top fabricantes
+                datos.topFabricantes = new LinkedHashMap<>();
+                conteoFabricantes.entrySet().stream()
+                    .sorted(Map.Entry.<String, Integer>comparingByValue().reversed())
+                    .limit(8)
+                    .forEach(e -> datos.topFabricantes.put(e.getKey(), e.getValue()));
             }
         } catch (Exception e) {
             AppLogger.getLogger(EstadisticasFX.class).error("Error: " + e.getMessage(), e);
@@ -2671,16 +2629,6 @@ public class EstadisticasFX extends InventarioFXBase {
         return fechaOrden;
     }
 
-    private static String obtenerValorCelda(Cell cell) {
-        if (cell == null) return "";
-        switch (cell.getCellType()) {
-            case STRING: return cell.getStringCellValue().trim();
-            case NUMERIC: return String.valueOf((int) cell.getNumericCellValue());
-            case BOOLEAN: return String.valueOf(cell.getBooleanCellValue());
-            default: return "";
-        }
-    }
-
     // ════════════════════════════════════════════════════════════════════════════
     // UTILIDADES
     // ════════════════════════════════════════════════════════════════════════════
@@ -2730,30 +2678,4 @@ public class EstadisticasFX extends InventarioFXBase {
         // Evolución por día (datos reales)
         Map<String, Integer> evolucionPorDia = new LinkedHashMap<>();
     }
-    
-    /**
-     * Verifica si una fila está vacía (sin datos significativos)
-     */
-    private static boolean esFilaVacia(Row row) {
-        if (row == null) return true;
-        
-        for (int i = 0; i < row.getLastCellNum(); i++) {
-            Cell cell = row.getCell(i);
-            if (cell != null && cell.getCellType() != CellType.BLANK) {
-                String valor = "";
-                try {
-                    if (cell.getCellType() == CellType.STRING) {
-                        valor = cell.getStringCellValue();
-                    } else if (cell.getCellType() == CellType.NUMERIC) {
-                        valor = String.valueOf(cell.getNumericCellValue());
-                    }
-                } catch (Exception ignored) {}
-                
-                if (valor != null && !valor.trim().isEmpty()) {
-                    return false;
-                }
-            }
-        }
-        return true;
-    }
 }
@@ -1,6 +1,9 @@
 package inventario.fx.ui.panel;
 import inventario.fx.model.TemaManager;
 import inventario.fx.model.AdminManager;
+import inventario.fx.model.DatosReporte;
+import inventario.fx.model.ReporteItem;
+import inventario.fx.database.repository.ReporteRepository;
 import inventario.fx.icons.IconosSVG;
 import inventario.fx.ui.dialog.DialogosFX;
 import inventario.fx.ui.component.NotificacionesFX;
@@ -109,7 +112,7 @@ public class GestionReportesFX {
     private static TextField campoBusquedaGlobal; // Referencia al campo de búsqueda
     private static String proyectoActualFiltro = null; // Proyecto para filtrar reportes
     
-    private static final String DATA_FILE = "reportes_mantenimiento.dat";
+    private static final ReporteRepository repositorio = new ReporteRepository();
 
     /**
      * Re-anima los conteos numéricos de las stat cards desde 0.
@@ -134,56 +137,6 @@ public class GestionReportesFX {
         }
     }
 
-    // ═══════════════════════════════════════════════════════════════════════
-    // 📋 MODELO
-    // ═══════════════════════════════════════════════════════════════════════
-    
-    public static class ReporteItem implements Serializable {
-        private static final long serialVersionUID = 3L;
-        
-        private String id;
-        private ReporteFormularioFX.DatosReporte datos;
-        private String fechaCreacion;
-        private String horaCreacion;
-        
-        public ReporteItem(ReporteFormularioFX.DatosReporte datos) {
-            this.id = UUID.randomUUID().toString().substring(0, 8).toUpperCase();
-            this.datos = datos;
-            this.fechaCreacion = LocalDate.now().format(DateTimeFormatter.ofPattern("dd/MM/yyyy"));
-            this.horaCreacion = LocalTime.now().format(DateTimeFormatter.ofPattern("HH:mm"));
-        }
-        
-        // Constructor para edición (conserva id y fechas)
-        public ReporteItem(ReporteFormularioFX.DatosReporte datos, String id, String fechaCreacion, String horaCreacion) {
-            this.id = id;
-            this.datos = datos;
-            this.fechaCreacion = fechaCreacion;
-            this.horaCreacion = horaCreacion;
-        }
-        
-        public String getId() { return id; }
-        public ReporteFormularioFX.DatosReporte getDatos() { return datos; }
-        public String getFechaCreacion() { return fechaCreacion; }
-        public String getHoraCreacion() { return horaCreacion != null ? horaCreacion : ""; }
-        
-        public String getTicket() { return datos.ticket != null ? datos.ticket : "S/N"; }
-        public String getNombre() { return datos.nombre != null ? datos.nombre : "-"; }
-        public String getTecnico() { return datos.tecnico != null ? datos.tecnico : "-"; }
-        public String getTipo() { return datos.tipoSolicitud != null ? datos.tipoSolicitud : "-"; }
-        public String getDispositivo() { return datos.tipoDispositivo != null ? datos.tipoDispositivo : "-"; }
-        public String getProyecto() { return datos.proyectoNombre != null ? datos.proyectoNombre : "-"; }
-        public String getFecha() {
-            if (datos.dia != null && datos.mes != null && datos.anio != null)
-                return datos.dia + "/" + datos.mes + "/" + datos.anio;
-            return fechaCreacion;
-        }
-        public String getFechaHora() {
-            String fecha = getFecha();
-            String hora = getHoraCreacion();
-            return hora.isEmpty() ? fecha : fecha + " " + hora;
-        }
-    }
-
     // ═══════════════════════════════════════════════════════════════════════
     // 🚀 ENTRADA - VENTANA MODAL (DEPRECATED - usar crearPanelIntegrado)
     // ═══════════════════════════════════════════════════════════════════════
@@ -2402,7 +2355,7 @@ public class GestionReportesFX {
         // Scroll al inicio cuando se selecciona un nuevo reporte
         scrollDetalle.setVvalue(0);
         
-        ReporteFormularioFX.DatosReporte d = reporte.getDatos();
+        DatosReporte d = reporte.getDatos();
         
         // ═══════════════════════════════════════════════════════════════
         // HEADER FIJO: Ticket + Badge + Botones (compacto)
@@ -2991,93 +2944,31 @@ public class GestionReportesFX {
     public static int eliminarReportesPorProyecto(String nombreProyecto) {
         if (nombreProyecto == null || nombreProyecto.isEmpty()) return 0;
         
-        try {
-            Path archivo = inventario.fx.config.PortablePaths.getReportesFile();
-            
-            if (!Files.exists(archivo)) {
-                System.out.println("[GestionReportesFX] No hay archivo de reportes, nada que eliminar");
-                return 0;
-            }
-            
-            // Leer todos los reportes
-            List<ReporteItem> todosLosReportes;
-            try (ObjectInputStream ois = new ObjectInputStream(Files.newInputStream(archivo))) {
-                @SuppressWarnings("unchecked")
-                List<ReporteItem> lista = (List<ReporteItem>) ois.readObject();
-                todosLosReportes = new ArrayList<>(lista);
-            }
-            
-            int totalAntes = todosLosReportes.size();
-            
-            // Extraer solo el nombre sin el índice para comparación más robusta
-            // Ej: "1. Antonio" -> "Antonio"
-            String nombreSinIndice = nombreProyecto.replaceFirst("^\\d+\\.\\s*", "");
-            
-            // Eliminar reportes que coincidan (por nombre completo O por nombre sin índice)
-            todosLosReportes.removeIf(r -> {
-                String proyecto = r.getProyecto();
-                if (proyecto == null) return false;
-                String proyectoSinIndice = proyecto.replaceFirst("^\\d+\\.\\s*", "");
-                return proyecto.equals(nombreProyecto) || proyectoSinIndice.equals(nombreSinIndice);
-            });
-            
-            int eliminados = totalAntes - todosLosReportes.size();
-            
-            if (eliminados > 0) {
-                // Crear backup antes de guardar
-                Path backup = inventario.fx.config.PortablePaths.getReportesBak();
-                try {
-                    Files.copy(archivo, backup, StandardCopyOption.REPLACE_EXISTING);
-                } catch (Exception e) {
-                    System.err.println("[GestionReportesFX] Advertencia creando backup: " + e.getMessage());
-                }
-                
-                // Guardar con escritura atómica
-                Path tempFile = archivo.getParent().resolve(DATA_FILE + ".tmp");
-                try (ObjectOutputStream oos = new ObjectOutputStream(Files.newOutputStream(tempFile))) {
-                    oos.writeObject(todosLosReportes);
-                    oos.flush();
-                }
-                
-                try {
-                    Files.move(tempFile, archivo, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
-                } catch (java.nio.file.AtomicMoveNotSupportedException e) {
-                    Files.move(tempFile, archivo, StandardCopyOption.REPLACE_EXISTING);
-                }
-                
-                // Verificar que se guardó correctamente
-                try (ObjectInputStream ois = new ObjectInputStream(Files.newInputStream(archivo))) {
-                    @SuppressWarnings("unchecked")
-                    List<ReporteItem> verificacion = (List<ReporteItem>) ois.readObject();
-                    if (verificacion.size() != todosLosReportes.size()) {
-                        System.err.println("[GestionReportesFX] ADVERTENCIA: Verificación post-guardado falló. Esperado: " 
-                            + todosLosReportes.size() + " Actual: " + verificacion.size());
-                    }
-                }
-                
-                // Actualizar lista en memoria si está visible
-                if (reportes != null) {
-                    reportes.removeIf(r -> {
-                        String proyecto = r.getProyecto();
-                        if (proyecto == null) return false;
-                        String proyectoSinIndice = proyecto.replaceFirst("^\\d+\\.\\s*", "");
-                        return proyecto.equals(nombreProyecto) || proyectoSinIndice.equals(nombreSinIndice);
-                    });
-                }
-                
-                System.out.println("[GestionReportesFX] \u2705 " + eliminados + " reportes eliminados del proyecto '" + nombreProyecto + "'");
-            } else {
-                System.out.println("[GestionReportesFX] No se encontraron reportes del proyecto '" + nombreProyecto + "'");
+        // Extraer solo el nombre sin el índice para comparación más robusta
+        // Ej: "1. Antonio" -> "Antonio"
+        String nombreSinIndice = nombreProyecto.replaceFirst("^\\d+\\.\\s*", "");
+        int eliminados = repositorio.eliminarPorProyecto(nombreProyecto);
+        
+        if (eliminados > 0) {
+            // Actualizar lista en memoria si está visible
+            if (reportes != null) {
+                reportes.removeIf(r -> {
+                    String proyecto = r.getProyecto();
+                    if (proyecto == null) return false;
+                    String proyectoSinIndice = proyecto.replaceFirst("^\\d+\\.\\s*", "");
+                    return proyecto.equals(nombreProyecto) || proyectoSinIndice.equals(nombreSinIndice);
+                });
             }
             
-            return eliminados;
-        } catch (Exception e) {
-            AppLogger.getLogger(GestionReportesFX.class).error("[GestionReportesFX] Error eliminando reportes por proyecto: " + e.getMessage(), e);
-            return 0;
+            System.out.println("[GestionReportesFX] \u2705 " + eliminados + " reportes eliminados del proyecto '" + nombreProyecto + "'");
+        } else {
+            System.out.println("[GestionReportesFX] No se encontraron reportes del proyecto '" + nombreProyecto + "'");
         }
+        
+        return eliminados;
     }
     
-    public static void agregarNuevoReporte(ReporteFormularioFX.DatosReporte datos) {
+    public static void agregarNuevoReporte(DatosReporte datos) {
         if (datos != null) {
             System.out.println("[GestionReportesFX] agregarNuevoReporte() - Recibiendo datos del reporte");
             
@@ -3089,7 +2980,7 @@ public class GestionReportesFX {
             ReporteItem nuevo = new ReporteItem(datos);
             System.out.println("[GestionReportesFX] Nuevo reporte creado - Ticket: " + nuevo.getTicket() + ", Proyecto: " + nuevo.getProyecto());
             reportes.add(0, nuevo);
-            guardarDatos();
+            guardarReporte(nuevo);
             
             // Actualizar vista solo si ya está creada
             if (listaCards != null) {
@@ -3151,7 +3042,7 @@ public class GestionReportesFX {
                     // Conservar el ID y fechas originales
                     ReporteItem editado = new ReporteItem(datos, item.getId(), item.getFechaCreacion(), item.getHoraCreacion());
                     reportes.set(idx, editado);
-                    guardarDatos();
+                    guardarReporte(editado);
                     actualizarListaCards();
                     seleccionActual.set(editado);
                     actualizarPanelDetalle(editado);
@@ -3176,7 +3067,7 @@ public class GestionReportesFX {
         
         if (confirmar) {
             reportes.remove(item);
-            guardarDatos();
+            eliminarReportesGuardados(List.of(item));
             actualizarListaCards();
             seleccionActual.set(null);
             actualizarPanelDetalle(null);
@@ -3206,8 +3097,9 @@ public class GestionReportesFX {
         );
         
         if (confirmar) {
-            reportes.removeAll(new ArrayList<>(seleccionMultiple));
-            guardarDatos();
+            List<ReporteItem> aEliminar = new ArrayList<>(seleccionMultiple);
+            reportes.removeAll(aEliminar);
+            eliminarReportesGuardados(aEliminar);
             limpiarSeleccionMultiple();
             
             StackPane contenedor = contenedorPrincipal != null ? contenedorPrincipal : contenedorIntegrado;
@@ -3856,7 +3748,7 @@ public class GestionReportesFX {
     }
     
     private static void ejecutarExportacion(ReporteItem item, File destino, String formato) throws Exception {
-        ReporteFormularioFX.DatosReporte d = item.getDatos();
+        DatosReporte d = item.getDatos();
         
         // Re-obtener la imagen actual del proyecto (por si se configuró después de guardar el reporte)
         if (d.proyectoNombre != null && !d.proyectoNombre.isEmpty()) {
@@ -3912,7 +3804,7 @@ public class GestionReportesFX {
         }
     }
     
-    private static void configurarPropiedades(ReporteFormularioFX.DatosReporte d) {
+    private static void configurarPropiedades(DatosReporte d) {
         System.setProperty("reporte.tipoSolicitud", d.tipoSolicitud != null ? d.tipoSolicitud : "");
         System.setProperty("reporte.dia", d.dia != null ? d.dia : "");
         System.setProperty("reporte.mes", d.mes != null ? d.mes : "");
@@ -3981,134 +3873,27 @@ public class GestionReportesFX {
     
     private static void cargarDatos() {
         reportes = FXCollections.observableArrayList();
-        try {
-            Path path = inventario.fx.config.PortablePaths.getReportesFile();
-            System.out.println("[GestionReportesFX] Buscando reportes en: " + path);
-            if (Files.exists(path)) {
-                System.out.println("[GestionReportesFX] Archivo encontrado, cargando...");
-                try (ObjectInputStream ois = new ObjectInputStream(Files.newInputStream(path))) {
-                    @SuppressWarnings("unchecked")
-                    List<ReporteItem> list = (List<ReporteItem>) ois.readObject();
-                    
-                    // FILTRAR POR PROYECTO ACTUAL DESDE EL INICIO
-                    if (proyectoActualFiltro != null && !proyectoActualFiltro.isEmpty()) {
-                        List<ReporteItem> reportesFiltrados = list.stream()
-                            .filter(r -> proyectoActualFiltro.equals(r.getProyecto()))
-                            .collect(java.util.stream.Collectors.toList());
-                        reportes.addAll(reportesFiltrados);
-                        System.out.println("[GestionReportesFX] Reportes filtrados por proyecto '" + proyectoActualFiltro + "': " + reportesFiltrados.size() + " de " + list.size() + " totales");
-                    } else {
-                        reportes.addAll(list);
-                        System.out.println("[GestionReportesFX] Reportes cargados (sin filtro): " + reportes.size());
-                    }
-                }
-            } else {
-                System.out.println("[GestionReportesFX] No existe archivo de reportes");
-            }
-        } catch (Exception e) {
-            AppLogger.getLogger(GestionReportesFX.class).error("[GestionReportesFX] Error cargando datos: " + e.getMessage(), e);
-        }
+        // Solo se leen las filas del proyecto actual (índice por proyecto_nombre)
+        List<ReporteItem> list = repositorio.findByProyecto(proyectoActualFiltro);
+        reportes.addAll(list);
+        System.out.println("[GestionReportesFX] Reportes cargados" + (proyectoActualFiltro != null && !proyectoActualFiltro.isEmpty()
+            ? " del proyecto '" + proyectoActualFiltro + "'" : " (sin filtro)") + ": " + list.size());
     }
     
-    private static void guardarDatos() {
-        try {
-            Path dir = inventario.fx.config.PortablePaths.getDataRoot();
-            if (!Files.exists(dir)) Files.createDirectories(dir);
-            Path archivo = dir.resolve(DATA_FILE);
-            Path backup = dir.resolve(DATA_FILE + ".bak");
-            
-            // IMPORTANTE: Cargar TODOS los reportes existentes, no solo los del proyecto actual
-            List<ReporteItem> todosLosReportes = new ArrayList<>();
-            boolean lecturExistentesOk = false;
-            if (Files.exists(archivo)) {
-                try (ObjectInputStream ois = new ObjectInputStream(Files.newInputStream(archivo))) {
-                    @SuppressWarnings("unchecked")
-                    List<ReporteItem> existentes = (List<ReporteItem>) ois.readObject();
-                    todosLosReportes.addAll(existentes);
-                    lecturExistentesOk = true;
-                } catch (Exception e) {
-                    System.err.println("[GestionReportesFX] Error leyendo reportes existentes: " + e.getMessage());
-                    // Si no pudimos leer el archivo existente Y hay un filtro de proyecto activo,
-                    // NO continuar para evitar perder reportes de otros proyectos
-                    if (proyectoActualFiltro != null && !proyectoActualFiltro.isEmpty()) {
-                        System.err.println("[GestionReportesFX] ABORTANDO guardado: no se pudo leer archivo existente con filtro activo."
-                            + " Esto evita perder reportes de otros proyectos.");
-                        return;
-                    }
-                }
-            }
-            
-            // Remover reportes del proyecto actual (solo si logramos leer los existentes o no había archivo)
-            if (proyectoActualFiltro != null && !proyectoActualFiltro.isEmpty()) {
-                todosLosReportes.removeIf(r -> proyectoActualFiltro.equals(r.getProyecto()));
-            }
-            
-            // Agregar los reportes actuales del proyecto
-            todosLosReportes.addAll(reportes);
-            
-            // Crear backup del archivo actual ANTES de sobreescribir
-            if (Files.exists(archivo)) {
-                try {
-                    Files.copy(archivo, backup, StandardCopyOption.REPLACE_EXISTING);
-                } catch (Exception e) {
-                    System.err.println("[GestionReportesFX] Advertencia: no se pudo crear backup: " + e.getMessage());
-                }
-            }
-            
-            // Guardar en archivo temporal primero (escritura atómica)
-            Path tempFile = dir.resolve(DATA_FILE + ".tmp");
-            System.out.println("[GestionReportesFX] Guardando " + todosLosReportes.size() + " reportes totales (" + reportes.size() + " del proyecto actual) en: " + archivo);
-            try (ObjectOutputStream oos = new ObjectOutputStream(Files.newOutputStream(tempFile))) {
-                oos.writeObject(todosLosReportes);
-                oos.flush();
-            }
-            
-            // Mover archivo temporal al destino final (operación atómica en la mayoría de SO)
-            Files.move(tempFile, archivo, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
-            // Verificar integridad del guardado
-            try (ObjectInputStream verifyOis = new ObjectInputStream(Files.newInputStream(archivo))) {
-                @SuppressWarnings("unchecked")
-                List<ReporteItem> verificacion = (List<ReporteItem>) verifyOis.readObject();
-                if (verificacion.size() != todosLosReportes.size()) {
-                    System.err.println("[GestionReportesFX] \u26a0\ufe0f VERIFICACIÓN FALLIDA: guardados=" + verificacion.size() + " esperados=" + todosLosReportes.size());
-                    // Restaurar desde backup
-                    if (Files.exists(backup)) {
-                        Files.copy(backup, archivo, StandardCopyOption.REPLACE_EXISTING);
-                        System.err.println("[GestionReportesFX] Archivo restaurado desde backup tras verificación fallida");
-                    }
-                } else {
-                    System.out.println("[GestionReportesFX] \u2705 Verificación post-guardado OK: " + verificacion.size() + " reportes");
-                }
-            } catch (Exception verifyEx) {
-                System.err.println("[GestionReportesFX] \u26a0\ufe0f Error en verificación post-guardado: " + verifyEx.getMessage());
-            }
-            
-            System.out.println("[GestionReportesFX] Datos guardados exitosamente");
-        } catch (java.nio.file.AtomicMoveNotSupportedException e) {
-            // Fallback: si ATOMIC_MOVE no está soportado, usar REPLACE_EXISTING
-            try {
-                Path dir = inventario.fx.config.PortablePaths.getDataRoot();
-                Path tempFile = dir.resolve(DATA_FILE + ".tmp");
-                Path archivo = dir.resolve(DATA_FILE);
-                Files.move(tempFile, archivo, StandardCopyOption.REPLACE_EXISTING);
-                System.out.println("[GestionReportesFX] Datos guardados (fallback sin move atómico)");
-            } catch (Exception e2) {
-                System.err.println("[GestionReportesFX] Error en fallback de guardado: " + e2.getMessage());
-            }
-        } catch (Exception e) {
-            AppLogger.getLogger(GestionReportesFX.class).error("[GestionReportesFX] Error guardando datos: " + e.getMessage(), e);
-            // Intentar restaurar desde backup si el guardado falló
-            try {
-                Path dir = inventario.fx.config.PortablePaths.getDataRoot();
-                Path archivo = dir.resolve(DATA_FILE);
-                Path backup = dir.resolve(DATA_FILE + ".bak");
-                if (Files.exists(backup) && !Files.exists(archivo)) {
-                    Files.copy(backup, archivo);
-                    System.out.println("[GestionReportesFX] Archivo restaurado desde backup tras error");
-                }
-            } catch (Exception e2) {
-                System.err.println("[GestionReportesFX] Error restaurando backup: " + e2.getMessage());
+    /** Guarda solo el reporte indicado (alta o edición). */
+    private static void guardarReporte(ReporteItem item) {
+        if (!repositorio.guardar(item)) {
+            StackPane cont = getContenedor();
+            if (cont != null) {
+                NotificacionesFX.error(cont, "Error", "No se pudo guardar el reporte #" + item.getTicket() + ".");
             }
         }
     }
+    
+    /** Elimina solo los reportes indicados. */
+    private static void eliminarReportesGuardados(Collection<ReporteItem> items) {
+        List<String> ids = new ArrayList<>(items.size());
+        for (ReporteItem r : items) ids.add(r.getId());
+        repositorio.eliminar(ids);
+    }
 }
@@ -1,4 +1,4 @@
-﻿package inventario.fx.ui.panel;
+package inventario.fx.ui.panel;
 import inventario.fx.config.PortablePaths;
 import inventario.fx.model.TemaManager;
 import inventario.fx.model.AdminManager;
@@ -31,6 +31,8 @@ import javafx.stage.StageStyle;
 import javafx.util.Duration;
 
 import inventario.fx.database.DatabaseManager;
+import inventario.fx.database.MetricasBD;
+import inventario.fx.database.PlanificadorCheckpoint;
 import inventario.fx.service.DatabaseMaintenanceService;
 
 import java.io.*;
@@ -48,6 +50,7 @@ import java.util.stream.Stream;
  * Secciones:
  *   1. Estado del Sistema — Indicadores en tiempo real
  *   2. Base de Datos — VACUUM, ANALYZE, REINDEX, INTEGRITY, CHECKPOINT, OPTIMIZE
+ *      y rendimiento (tiempos por sentencia, esperas de conexión, checkpoints)
  *   3. Copias de Seguridad — Crear backup manual, ver historial, restaurar
  *   4. Limpieza — Eliminar temporales, logs antiguos, backups viejos
  *
@@ -66,6 +69,7 @@ public class MantenimientoFX {
     private static Label lblBackupLast;
     private static Label lblTempSize;
     private static VBox backupListContainer;
+    private static Label lblMetricas;
 
     // Carpeta de backups
     private static final String BACKUP_DIR = PortablePaths.getBackupsDir().toString();
@@ -361,10 +365,86 @@ public class MantenimientoFX {
                 IconosSVG.rayo("#FFFFFF", 18), "#10B981");
         btnAll.setOnAction(e -> ejecutarMantenimientoCompleto());
 
-        seccion.getChildren().addAll(grid, btnAll);
+        seccion.getChildren().addAll(grid, btnAll, crearPanelRendimiento());
         return seccion;
     }
 
+    /**
+     * Tiempos de la base de datos (MetricasBD): esperas de conexión, sentencias más
+     * costosas y checkpoints del WAL, con exportación a JSON.
+     */
+    private static VBox crearPanelRendimiento() {
+        VBox panel = new VBox(10);
+        panel.setStyle(
+            "-fx-background-color: " + TemaManager.getSurface() + ";" +
+            "-fx-background-radius: 12;" +
+            "-fx-border-color: " + TemaManager.getBorder() + ";" +
+            "-fx-border-radius: 12;" +
+            "-fx-border-width: 1;" +
+            "-fx-padding: 16;"
+        );
+
+        HBox cabecera = new HBox(8);
+        cabecera.setAlignment(Pos.CENTER_LEFT);
+        Label titulo = new Label("Rendimiento");
+        titulo.setFont(Font.font("Segoe UI", FontWeight.BOLD, 13));
+        titulo.setTextFill(Color.web(TemaManager.getText()));
+        Region spacer = new Region();
+        HBox.setHgrow(spacer, Priority.ALWAYS);
+
+        Button btnActualizar = crearBotonAccionCompacto("Actualizar", IconosSVG.actualizar("#FFFFFF", 14), "#6366F1");
+        btnActualizar.setOnAction(e -> actualizarMetricas());
+        Button btnExportar = crearBotonAccionCompacto("Exportar JSON", IconosSVG.descargar("#FFFFFF", 14), "#10B981");
+        btnExportar.setOnAction(e -> exportarMetricas());
+        Button btnReiniciar = crearBotonAccionCompacto("Reiniciar", IconosSVG.limpiar("#FFFFFF", 14), "#F59E0B");
+        btnReiniciar.setOnAction(e -> {
+            MetricasBD.reiniciar();
+            actualizarMetricas();
+        });
+        cabecera.getChildren().addAll(titulo, spacer, btnActualizar, btnExportar, btnReiniciar);
+
+        lblMetricas = new Label("Cargando métricas...");
+        lblMetricas.setFont(Font.font("Consolas", 11));
+        lblMetricas.setTextFill(Color.web(TemaManager.getTextMuted()));
+        lblMetricas.setWrapText(true);
+
+        panel.getChildren().addAll(cabecera, lblMetricas);
+        return panel;
+    }
+
+    private static String textoMetricas() {
+        StringBuilder sb = new StringBuilder();
+        sb.append("Durabilidad: ").append(DatabaseManager.getPerfilDurabilidad().clave());
+        PlanificadorCheckpoint planificador = DatabaseManager.getPlanificadorCheckpoint();
+        if (planificador != null) sb.append("\nCheckpoints: ").append(planificador.resumen());
+        String informe = MetricasBD.informe(8);
+        sb.append("\n").append(informe.isEmpty() ? "Sin operaciones registradas" : informe);
+        return sb.toString();
+    }
+
+    private static void actualizarMetricas() {
+        if (lblMetricas != null) lblMetricas.setText(textoMetricas());
+    }
+
+    private static void exportarMetricas() {
+        new Thread(() -> {
+            Path destino = PortablePaths.getExportLogsDir().resolve("metricas_bd_"
+                + LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd_HHmmss")) + ".json");
+            String error = null;
+            try {
+                MetricasBD.exportarJson(destino);
+            } catch (IOException ex) {
+                error = ex.getMessage();
+                AppLogger.getLogger(MantenimientoFX.class).warn("Error exportando métricas: " + error);
+            }
+            final String fError = error;
+            Platform.runLater(() -> NotificacionesFX.mostrarNotificacion(contenedorRaiz,
+                    fError == null ? "Métricas Exportadas" : "Error",
+                    fError == null ? destino.getFileName().toString() : "No se pudo exportar: " + fError,
+                    fError == null ? TemaManager.COLOR_SUCCESS : TemaManager.COLOR_DANGER));
+        }, "Mant-ExportarMetricas").start();
+    }
+
     /**
      * Card de operación individual de BD — ejecutar al hacer clic.
      */
@@ -827,12 +907,10 @@ public class MantenimientoFX {
                 int archivosCopiados = 0;
 
                 // ── 1. CHECKPOINT WAL — forzar escritura de cambios pendientes ──
-                try (Connection conn = DatabaseManager.getConnection();
-                     Statement stmt = conn.createStatement()) {
-                    stmt.execute("PRAGMA wal_checkpoint(TRUNCATE)");
+                if (DatabaseManager.ejecutarCheckpointWAL()) {
                     System.out.println("[Backup] WAL checkpoint completado");
-                } catch (Exception walEx) {
-                    System.err.println("[Backup] Advertencia WAL: " + walEx.getMessage());
+                } else {
+                    System.err.println("[Backup] Advertencia WAL: checkpoint incompleto");
                 }
 
                 // ── 2. COPIAR BASE DE DATOS ──
@@ -1383,10 +1461,9 @@ public class MantenimientoFX {
             long freed = 0;
 
             try {
-                // Checkpoint primero
-                try (Connection conn = DatabaseManager.getConnection();
-                     Statement stmt = conn.createStatement()) {
-                    stmt.execute("PRAGMA wal_checkpoint(TRUNCATE)");
+                // Checkpoint primero; si no vació el WAL, borrarlo perdería cambios
+                if (!DatabaseManager.ejecutarCheckpointWAL()) {
+                    throw new IllegalStateException("checkpoint incompleto, el WAL aún tiene cambios");
                 }
 
                 // Eliminar WAL y SHM
@@ -1505,8 +1582,10 @@ public class MantenimientoFX {
             final String fLastBk = lastBackup;
             final String fTmp = tmpStr;
             final List<BackupEntry> fEntries = entries;
+            final String fMetricas = textoMetricas();
 
             Platform.runLater(() -> {
+                if (lblMetricas != null) lblMetricas.setText(fMetricas);
                 if (lblDbSize != null) lblDbSize.setText(fDbSize);
                 if (lblDbStatus != null) lblDbStatus.setText(fDbStatus);
                 if (lblBackupCount != null) lblBackupCount.setText(fBkCount + " backups");
@@ -1750,19 +1829,27 @@ public class MantenimientoFX {
             try {
                 System.out.println("[Mantenimiento] \ud83d\uddd1 Iniciando reinicio completo del sistema...");
 
-                // 1. Limpiar TODAS las tablas de la base de datos (excepto esquema)
-                try (var conn = inventario.fx.database.DatabaseManager.getConnection();
-                     var stmt = conn.createStatement()) {
-                    stmt.executeUpdate("DELETE FROM reportes");
-                    stmt.executeUpdate("DELETE FROM inventarios");
-                    stmt.executeUpdate("DELETE FROM logs_auditoria");
-                    stmt.executeUpdate("DELETE FROM logs_acceso");
-                    stmt.executeUpdate("DELETE FROM configuracion");
-                    stmt.executeUpdate("DELETE FROM empresa");
-                    stmt.executeUpdate("DELETE FROM proyectos");
-                    stmt.executeUpdate("VACUUM");
-                    System.out.println("[Mantenimiento]   \u2705 Base de datos limpiada");
-                }
+                // 1. Limpiar TODAS las tablas de la base de datos (excepto esquema) en una sola
+                //    transacción: el estado de los equipos no puede sobrevivir a sus inventarios
+                inventario.fx.database.DatabaseManager.executeInTransaction(conn -> {
+                    try (var stmt = conn.createStatement()) {
+                        stmt.executeUpdate("DELETE FROM reportes");
+                        stmt.executeUpdate("DELETE FROM inventario_apps");
+                        stmt.executeUpdate("DELETE FROM inventarios");
+                        stmt.executeUpdate("DELETE FROM estado_equipos");
+                        stmt.executeUpdate("DELETE FROM eventos_equipos");
+                        stmt.executeUpdate("DELETE FROM logs_auditoria");
+                        stmt.executeUpdate("DELETE FROM logs_acceso");
+                        stmt.executeUpdate("DELETE FROM configuracion");
+                        stmt.executeUpdate("DELETE FROM empresa");
+                        stmt.executeUpdate("DELETE FROM proyectos");
+                    }
+                });
+                // La configuración se sirve desde memoria: sin esto seguiría viéndose la borrada
+                inventario.fx.database.repository.ConfigRepository.invalidarCache();
+                // VACUUM no puede ejecutarse dentro de una transacción
+                inventario.fx.database.DatabaseManager.ejecutarMantenimiento("VACUUM");
+                System.out.println("[Mantenimiento]   \u2705 Base de datos limpiada");
 
                 // 2. Eliminar archivos Excel cifrados
                 Path proyectosDir = inventario.fx.config.PortablePaths.getProyectosDir();
@@ -1806,6 +1893,7 @@ public class MantenimientoFX {
                 // 7. Eliminar reportes de mantenimiento (.dat)
                 Files.deleteIfExists(inventario.fx.config.PortablePaths.getReportesFile());
                 Files.deleteIfExists(inventario.fx.config.PortablePaths.getReportesBak());
+                Files.deleteIfExists(Paths.get(inventario.fx.config.PortablePaths.getReportesFile() + ".migrado"));
                 System.out.println("[Mantenimiento]   \u2705 Archivos de reportes eliminados");
 
                 // 8. Eliminar config.properties (NO las claves de cifrado ni master.key)
@@ -1,6 +1,7 @@
 package inventario.fx.ui.panel;
 import inventario.fx.model.TemaManager;
 import inventario.fx.model.InventarioFXBase;
+import inventario.fx.model.DatosReporte;
 import inventario.fx.icons.IconosSVG;
 import inventario.fx.ui.dialog.DialogosFX;
 import inventario.fx.ui.firma.FirmaDigitalCanvas;
@@ -38,89 +39,6 @@ import inventario.fx.util.AnimacionesFX;
  */
 public class ReporteFormularioFX {
 
-    // ════════════════════════════════════════════════════════════════════════════
-    // CLASE DE DATOS DEL REPORTE
-    // ════════════════════════════════════════════════════════════════════════════
-    
-    public static class DatosReporte implements java.io.Serializable {
-        private static final long serialVersionUID = 1L;
-        // Tipo solicitud y fecha
-        public String tipoSolicitud = "";
-        public String dia = "";
-        public String mes = "";
-        public String anio = "";
-        public String ticket = "";
-        
-        // Datos usuario
-        public String ciudad = "";
-        public String direccion = "";
-        public String nombre = "";
-        public String correo = "";
-        public String tecnico = "";
-        public String sede = "";
-        
-        // Hardware
-        public String tipoDispositivo = "";
-        public String marca = "";
-        public String modelo = "";
-        public String serial = "";
-        public String placa = "";
-        public String condiciones = "";
-        
-        // PC
-        public String pcEnciende = "";
-        public String discoDuro = "";
-        public String cddvd = "";
-        public String botonesPC = "";
-        public String condicionesPC = "";
-        public String procesador = "";
-        public String memoriaRAM = "";
-        public String discoDuroCapacidad = "";
-        
-        // Monitor
-        public String monitorEnciende = "";
-        public String pantalla = "";
-        public String onlyOne = "";
-        public String botonesMonitor = "";
-        public String condicionesMonitor = "";
-        
-        // Teclado
-        public String tecladoEnciende = "";
-        public String tecladoFunciona = "";
-        public String botonesTeclado = "";
-        public String condicionesTeclado = "";
-        
-        // Mouse
-        public String mouseEnciende = "";
-        public String mouseFunciona = "";
-        public String botonesMouse = "";
-        public String condicionesMouse = "";
-        
-        // Software
-        public String programasBasicos = "";
-        public String otrosProgramas = "";
-        
-        // Procedimiento y observaciones
-        public String trabajoRealizado = "";
-        public String observaciones = "";
-        
-        // Firmas
-        public String firmaTecnico = "";
-        public String cedulaTecnico = "";
-        public String firmaFuncionario = "";
-        public String cedulaFuncionario = "";
-        
-        // Firmas digitales (imágenes)
-        public String firmaTecnicoImagenPath = "";
-        public String firmaFuncionarioImagenPath = "";
-        
-        // Imagen del proyecto
-        public String proyectoImagenPath = "";
-        
-        // Proyecto asociado
-        public String proyectoNombre = "";
-    }
-
     // ════════════════════════════════════════════════════════════════════════════
     // MÉTODO PARA OBTENER DATOS (usado por GeneratedTemplate)
     // ════════════════════════════════════════════════════════════════════════════
@@ -657,8 +575,8 @@ public class ReporteFormularioFX {
         // Ejecutar en hilo separado para no bloquear la UI
         new Thread(() -> {
             try {
-                // Recopilar información del sistema
-                InventarioFXBase.InfoPC info = InventarioFXBase.recopilarInfo();
+                // Solo hardware: las aplicaciones se leen del Excel del proyecto (cargarProgramasAsync)
+                InventarioFXBase.InfoPC info = InventarioFXBase.recopilarInfoHardware();
                 
                 // Actualizar UI en el hilo de JavaFX
                 javafx.application.Platform.runLater(() -> {
@@ -0,0 +1,114 @@
+package inventario.fx.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Pruebas del análisis de la salida del sondeo de Windows y de su caché, con un
+ * {@link ProcesoSondeo#fijo} en lugar de PowerShell.
+ *
+ * @author SELCOMP
+ * @version 1.0
+ * @since 2026-01-14
+ */
+class SondeoWindowsTest {
+
+    private static final String JSON_COMPLETO = "{\"sistema\":\"Microsoft Windows 11 Pro\","
+        + "\"fabricante\":\"Dell Inc.\",\"chasis\":[10],"
+        + "\"registro\":[{\"DisplayName\":\"7-Zip\",\"DisplayVersion\":\"23.01\",\"Publisher\":\"Igor Pavlov\",\"InstallDate\":\"20240105\"}],"
+        + "\"store\":[{\"DisplayName\":\"SpotifyAB.SpotifyMusic\",\"DisplayVersion\":\"1.2.3.0\",\"Publisher\":\"CN=Spotify\"}]}";
+
+    @AfterEach
+    void restaurarProceso() {
+        SondeoWindows.setProceso(null);
+    }
+
+    @Test
+    void analizarSalidaCompleta() throws Exception {
+        SondeoWindows.Resultado r = SondeoWindows.analizar(JSON_COMPLETO);
+
+        assertEquals("Microsoft Windows 11 Pro", r.sistema);
+        assertEquals("Dell Inc.", r.fabricante);
+        assertEquals(List.of(10), r.chasis);
+        assertEquals(1, r.registro.size());
+        assertEquals("7-Zip", r.registro.get(0).DisplayName);
+        assertEquals("20240105", r.registro.get(0).InstallDate);
+        assertEquals("SpotifyAB.SpotifyMusic", r.store.get(0).DisplayName);
+        assertNull(r.store.get(0).InstallDate);
+    }
+
+    @Test
+    void analizarIgnoraAvisosAntesDelJson() throws Exception {
+        String salida = "ADVERTENCIA: módulo cargado con avisos\n  \n" + JSON_COMPLETO + "\n";
+
+        assertEquals("Dell Inc.", SondeoWindows.analizar(salida).fabricante);
+    }
+
+    @Test
+    void analizarSalidaParcialDejaListasVacias() throws Exception {
+        SondeoWindows.Resultado r = SondeoWindows.analizar(
+            "{\"sistema\":\"Microsoft Windows 10 Home\",\"chasis\":null,\"campoNuevo\":1}");
+
+        assertEquals("Microsoft Windows 10 Home", r.sistema);
+        assertNull(r.fabricante);
+        assertTrue(r.chasis.isEmpty());
+        assertTrue(r.registro.isEmpty());
+        assertTrue(r.store.isEmpty());
+    }
+
+    @Test
+    void analizarSinJsonFalla() {
+        assertThrows(IllegalStateException.class, () -> SondeoWindows.analizar("Get-WmiObject : acceso denegado"));
+    }
+
+    @Test
+    void analizarJsonMalformadoFalla() {
+        assertThrows(Exception.class, () -> SondeoWindows.analizar("{\"sistema\":\"Windows\",\"chasis\":[3,"));
+    }
+
+    @Test
+    void obtenerUsaElProcesoFijoYReutilizaElResultado() {
+        AtomicInteger ejecuciones = new AtomicInteger();
+        SondeoWindows.setProceso(ProcesoSondeo.fijo(script -> {
+            ejecuciones.incrementAndGet();
+            return JSON_COMPLETO;
+        }));
+
+        SondeoWindows.Resultado r = SondeoWindows.obtener();
+
+        assertEquals("Microsoft Windows 11 Pro", r.sistema);
+        assertEquals("7-Zip", r.registro.get(0).DisplayName);
+        SondeoWindows.obtener();
+        assertEquals(1, ejecuciones.get());
+    }
+
+    @Test
+    void obtenerNoGuardaUnSondeoFallido() {
+        AtomicInteger ejecuciones = new AtomicInteger();
+        SondeoWindows.setProceso(ProcesoSondeo.fijo(script ->
+            ejecuciones.incrementAndGet() == 1 ? "sin respuesta" : JSON_COMPLETO));
+
+        SondeoWindows.Resultado fallido = SondeoWindows.obtener();
+        SondeoWindows.Resultado correcto = SondeoWindows.obtener();
+
+        assertNull(fallido.sistema);
+        assertTrue(fallido.registro.isEmpty());
+        assertEquals("Microsoft Windows 11 Pro", correcto.sistema);
+        assertEquals(2, ejecuciones.get());
+    }
+
+    @Test
+    void ejecutarDevuelveLaSalidaDelProcesoFijo() {
+        SondeoWindows.setProceso(ProcesoSondeo.fijo(script -> script.contains("VersionInfo") ? "1.2.3\n" : ""));
+
+        assertEquals("1.2.3\n", SondeoWindows.ejecutar("(Get-Item 'a.exe').VersionInfo.FileVersion", 1_000));
+    }
+}